@@ -195,4 +195,17 @@ public class ApplicationProperties {
 
 	@Value("${statelevel.rolecode.excluded.list}")
 	private List<String> statelevelRolecodeExclusionList;
-}
\ No newline at end of file
+
+	// Active bill cache
+	@Value("${bs.bill.cache.enabled}")
+	private Boolean isBillCacheEnabled;
+
+	@Value("${bs.bill.cache.max.size}")
+	private Integer billCacheMaxSize;
+
+	@Value("${bs.bill.cache.ttl.ms}")
+	private Long billCacheTtl;
+
+	@Value("${kafka.topics.bill.cache.invalidate}")
+	private String billCacheInvalidateTopic;
+}
@@ -0,0 +1,36 @@
+package org.egov.demand.consumer;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.egov.demand.service.ActiveBillCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every instance listens in its own consumer group so that a bill eviction
+ * made on one instance reaches the active bill cache of all instances, the
+ * group id must therefore be distinct and stable for each instance
+ */
+@Service
+@Slf4j
+public class BillCacheInvalidationConsumer {
+
+	@Autowired
+	private ActiveBillCache activeBillCache;
+
+	@SuppressWarnings("unchecked")
+	@KafkaListener(topics = { "${kafka.topics.bill.cache.invalidate}" },
+			groupId = "${bs.bill.cache.invalidation.group.id}",
+			properties = { "auto.offset.reset=latest" })
+	public void processMessage(Map<String, Object> consumerRecord) {
+
+		log.debug("bill cache eviction : " + consumerRecord);
+		activeBillCache.evictLocal((String) consumerRecord.get(ActiveBillCache.TENANTID_KEY),
+				(String) consumerRecord.get(ActiveBillCache.BUSINESSSERVICE_KEY),
+				(Collection<String>) consumerRecord.get(ActiveBillCache.CONSUMERCODES_KEY));
+	}
+}
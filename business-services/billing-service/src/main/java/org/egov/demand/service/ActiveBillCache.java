@@ -0,0 +1,239 @@
+package org.egov.demand.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.egov.demand.config.ApplicationProperties;
+import org.egov.demand.model.BillDetailV2;
+import org.egov.demand.model.BillV2;
+import org.egov.demand.model.BillV2.BillStatus;
+import org.egov.demand.model.Demand;
+import org.egov.demand.model.GenerateBillCriteria;
+import org.egov.demand.producer.Producer;
+import org.egov.demand.web.contract.BillResponseV2;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per consumer code projection of the active bill, used by fetch bill
+ *
+ * An entry lives until the earliest expiry of its bill details or the
+ * configured ttl, and is evicted whenever a demand or bill of the consumer
+ * code changes. Evictions are broadcast so every instance drops the entry.
+ * Bills are copied in and out so callers never share a cached instance.
+ */
+@Component
+@Slf4j
+public class ActiveBillCache {
+
+	private static final int VERSION_STRIPES = 1024;
+
+	public static final String TENANTID_KEY = "tenantId";
+
+	public static final String BUSINESSSERVICE_KEY = "businessService";
+
+	public static final String CONSUMERCODES_KEY = "consumerCodes";
+
+	@Autowired
+	private ApplicationProperties appProps;
+
+	@Autowired
+	private Producer producer;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	private Map<String, CachedBill> bills;
+
+	/*
+	 * Bumped on every eviction, a bill loaded before an eviction of its
+	 * stripe is not cached
+	 */
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+	private final Map<String, CompletableFuture<BillResponseV2>> inFlightFetches = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		final int maxSize = appProps.getBillCacheMaxSize();
+		bills = Collections.synchronizedMap(new LinkedHashMap<String, CachedBill>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedBill> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	public static String getKey(String tenantId, String businessService, String consumerCode) {
+		return tenantId + "|" + businessService + "|" + consumerCode;
+	}
+
+	/**
+	 * Only plain consumer code look ups are cached, payer based or demand id
+	 * based fetches always go to the store
+	 */
+	public boolean isCacheable(GenerateBillCriteria billCriteria) {
+		return appProps.getIsBillCacheEnabled()
+				&& billCriteria.getDemandId() == null
+				&& billCriteria.getMobileNumber() == null
+				&& billCriteria.getEmail() == null
+				&& billCriteria.getBusinessService() != null
+				&& !CollectionUtils.isEmpty(billCriteria.getConsumerCode())
+				&& billCriteria.getConsumerCode().size() == 1;
+	}
+
+	public BillV2 get(String key) {
+		CachedBill cachedBill = bills.get(key);
+		if (cachedBill == null)
+			return null;
+		if (cachedBill.validTill <= System.currentTimeMillis()) {
+			bills.remove(key);
+			return null;
+		}
+		return copy(cachedBill.bill);
+	}
+
+	public long getVersion(String key) {
+		return versions.get(stripe(key));
+	}
+
+	/**
+	 * Caches the bill if it is the single active bill of the consumer code and
+	 * no eviction happened since the given version was read
+	 */
+	public void put(String key, List<BillV2> fetchedBills, long version) {
+		if (CollectionUtils.isEmpty(fetchedBills) || fetchedBills.size() != 1)
+			return;
+
+		BillV2 bill = fetchedBills.get(0);
+		if (bill.getStatus() != BillStatus.ACTIVE || CollectionUtils.isEmpty(bill.getBillDetails()))
+			return;
+
+		long validTill = System.currentTimeMillis() + appProps.getBillCacheTtl();
+		for (BillDetailV2 billDetail : bill.getBillDetails()) {
+			if (billDetail.getExpiryDate() != null)
+				validTill = Math.min(validTill, billDetail.getExpiryDate());
+		}
+
+		synchronized (bills) {
+			if (versions.get(stripe(key)) == version)
+				bills.put(key, new CachedBill(copy(bill), validTill));
+		}
+	}
+
+	/**
+	 * Runs the loader once for concurrent fetches of the same key, the other
+	 * callers wait for and share its result
+	 */
+	public BillResponseV2 fetchOnce(String key, Supplier<BillResponseV2> loader) {
+
+		CompletableFuture<BillResponseV2> fetch = new CompletableFuture<>();
+		CompletableFuture<BillResponseV2> existingFetch = inFlightFetches.putIfAbsent(key, fetch);
+		if (existingFetch != null)
+			return await(existingFetch);
+
+		try {
+			BillResponseV2 response = loader.get();
+			fetch.complete(response);
+			return response;
+		} catch (RuntimeException e) {
+			fetch.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightFetches.remove(key, fetch);
+		}
+	}
+
+	private BillResponseV2 await(CompletableFuture<BillResponseV2> fetch) {
+		try {
+			BillResponseV2 response = fetch.join();
+			if (response == null || response.getBill() == null)
+				return response;
+			return BillResponseV2.builder().resposneInfo(response.getResposneInfo())
+					.bill(response.getBill().stream().map(this::copy).collect(Collectors.toList())).build();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new CustomException("EG_BS_FETCH_BILL_ERROR", "Failed to fetch bill");
+		}
+	}
+
+	/**
+	 * Evicts the bills of the given demands on this instance and broadcasts the
+	 * eviction to the other instances
+	 */
+	public void evictForDemands(List<Demand> demands) {
+		if (CollectionUtils.isEmpty(demands))
+			return;
+
+		Map<String, List<Demand>> demandsByService = demands.stream()
+				.collect(Collectors.groupingBy(demand -> demand.getTenantId() + "|" + demand.getBusinessService()));
+		for (List<Demand> demandsOfService : demandsByService.values()) {
+			Demand demand = demandsOfService.get(0);
+			evict(demand.getTenantId(), demand.getBusinessService(),
+					demandsOfService.stream().map(Demand::getConsumerCode).collect(Collectors.toSet()));
+		}
+	}
+
+	public void evict(String tenantId, String businessService, Collection<String> consumerCodes) {
+		if (CollectionUtils.isEmpty(consumerCodes))
+			return;
+
+		evictLocal(tenantId, businessService, consumerCodes);
+
+		Map<String, Object> eviction = new HashMap<>();
+		eviction.put(TENANTID_KEY, tenantId);
+		eviction.put(BUSINESSSERVICE_KEY, businessService);
+		eviction.put(CONSUMERCODES_KEY, consumerCodes);
+		producer.push(appProps.getBillCacheInvalidateTopic(), eviction);
+	}
+
+	public void evictLocal(String tenantId, String businessService, Collection<String> consumerCodes) {
+		synchronized (bills) {
+			for (String consumerCode : consumerCodes) {
+				String key = getKey(tenantId, businessService, consumerCode);
+				versions.incrementAndGet(stripe(key));
+				bills.remove(key);
+			}
+		}
+		log.debug("Evicted cached bills of {} for {} in {}", consumerCodes, businessService, tenantId);
+	}
+
+	private BillV2 copy(BillV2 bill) {
+		return mapper.convertValue(bill, BillV2.class);
+	}
+
+	private int stripe(String key) {
+		return (key.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+	}
+
+	@AllArgsConstructor
+	private static class CachedBill {
+
+		private final BillV2 bill;
+
+		private final long validTill;
+	}
+}
@@ -48,6 +48,9 @@ public class AmendmentService {
 	
 	@Autowired
 	private BillRepositoryV2 billRepositoryV2;
+
+	@Autowired
+	private ActiveBillCache activeBillCache;
 	
 	@Autowired
 	private AmendmentValidator amendmentValidator;
@@ -206,6 +209,7 @@ public class AmendmentService {
 					.tenantId(tenantId)
 					.build()
 					);
+			activeBillCache.evict(tenantId, businessService, consumerCodes);
 		}
 	}
 
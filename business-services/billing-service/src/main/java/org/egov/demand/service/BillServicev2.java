@@ -56,6 +56,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -153,6 +154,9 @@ public class BillServicev2 {
 	@Autowired
 	private ObjectMapper mapper;
 
+	@Autowired
+	private ActiveBillCache activeBillCache;
+
 	@Value("${kafka.topics.cancel.bill.topic.name}")
 	private String billCancelTopic;
 
@@ -185,6 +189,7 @@ public class BillServicev2 {
 			throw new CustomException("EG_BS_CANCEL_BILL_ERROR", "Only one consumer code can be provided in the Cancel request");
 		} else {
 			int result = billRepository.updateBillStatus(cancelBillCriteria);
+			activeBillCache.evict(cancelBillCriteria.getTenantId(), cancelBillCriteria.getBusinessService(), consumerCodes);
 			sendNotificationForBillCancellation(updateBillRequest.getRequestInfo(), cancelBillCriteria);
 			return result;
 		}
@@ -226,6 +231,34 @@ public class BillServicev2 {
 
 		RequestInfo requestInfo = requestInfoWrapper.getRequestInfo();
 		billValidator.validateBillGenRequest(billCriteria, requestInfo);
+		if (!activeBillCache.isCacheable(billCriteria))
+			return fetchOrGenerateBill(billCriteria, requestInfoWrapper);
+
+		/*
+		 * An unchanged demand is served from the active bill cache, concurrent
+		 * fetches of the same consumer code share a single search/generation
+		 */
+		String key = ActiveBillCache.getKey(billCriteria.getTenantId(), billCriteria.getBusinessService(),
+				billCriteria.getConsumerCode().iterator().next());
+		List<BillV2> bills;
+		BillV2 cachedBill = activeBillCache.get(key);
+		if (cachedBill != null) {
+			bills = Collections.singletonList(cachedBill);
+		} else {
+			bills = activeBillCache.fetchOnce(key, () -> {
+				long version = activeBillCache.getVersion(key);
+				BillResponseV2 response = fetchOrGenerateBill(billCriteria, requestInfoWrapper);
+				activeBillCache.put(key, response.getBill(), version);
+				return response;
+			}).getBill();
+		}
+		return BillResponseV2.builder().resposneInfo(responseFactory.getResponseInfo(requestInfo, HttpStatus.OK))
+				.bill(bills).build();
+	}
+
+	private BillResponseV2 fetchOrGenerateBill(GenerateBillCriteria billCriteria, RequestInfoWrapper requestInfoWrapper) {
+
+		RequestInfo requestInfo = requestInfoWrapper.getRequestInfo();
 		if (CollectionUtils.isEmpty(billCriteria.getConsumerCode()))
 			billCriteria.setConsumerCode(new HashSet<>());
 		BillResponseV2 res = searchBill(billCriteria.toBillSearchCriteria(), requestInfo);
@@ -492,6 +525,7 @@ public class BillServicev2 {
 			 * Grouping the demands by their consumer code and generating a bill for each consumer code
 			 */
 			Map<String, List<Demand>> consumerCodeAndDemandsMap = demandForOneTenant.stream().collect(Collectors.groupingBy(Demand::getConsumerCode));
+			Map<String, Iterator<String>> billNumbersByBusinessService = getBillNumbersByBusinessService(requestInfo, tenantId, consumerCodeAndDemandsMap);
 			
 			for (Entry<String, List<Demand>> consumerCodeAndDemands : consumerCodeAndDemandsMap.entrySet()) {
 				
@@ -504,7 +538,7 @@ public class BillServicev2 {
 				BusinessServiceDetail business = businessMap.get(demandsForSingleCode.get(0).getBusinessService());
 				
 				String billId = UUID.randomUUID().toString();
-				String billNumber = getBillNumbers(requestInfo, tenantId, demandForOneTenant.get(0).getBusinessService(), 1).get(0);
+				String billNumber = billNumbersByBusinessService.get(demandsForSingleCode.get(0).getBusinessService()).next();
 				
 				for (Demand demand : demandsForSingleCode) {
 
@@ -544,6 +578,27 @@ public class BillServicev2 {
 		return bills;
 	}
 
+	/**
+	 * Allocates the bill numbers for all consumer codes of a tenant up front,
+	 * with one idgen call per business service instead of one per bill
+	 * 
+	 * @param consumerCodeAndDemandsMap demands of the tenant grouped by consumer code
+	 * @return bill numbers to be consumed in order, per business service
+	 */
+	private Map<String, Iterator<String>> getBillNumbersByBusinessService(RequestInfo requestInfo, String tenantId,
+			Map<String, List<Demand>> consumerCodeAndDemandsMap) {
+
+		Map<String, Long> billCountByBusinessService = consumerCodeAndDemandsMap.values().stream()
+				.collect(Collectors.groupingBy(demandsForCode -> demandsForCode.get(0).getBusinessService(), Collectors.counting()));
+
+		Map<String, Iterator<String>> billNumbersByBusinessService = new HashMap<>();
+		for (Entry<String, Long> billCount : billCountByBusinessService.entrySet()) {
+			List<String> billNumbers = getBillNumbers(requestInfo, tenantId, billCount.getKey(), billCount.getValue().intValue());
+			billNumbersByBusinessService.put(billCount.getKey(), billNumbers.iterator());
+		}
+		return billNumbersByBusinessService;
+	}
+
 	private List<String> getBillNumbers(RequestInfo requestInfo, String tenantId, String module, int count) {
 
 		String billNumberFormat = appProps.getBillNumberFormat();
@@ -118,6 +118,9 @@ public class DemandService {
 	
 	@Autowired
 	private BillRepositoryV2 billRepoV2;
+
+	@Autowired
+	private ActiveBillCache activeBillCache;
 	
 	@Autowired
 	private ObjectMapper mapper;
@@ -180,6 +183,11 @@ public class DemandService {
 				.tenantId(demands.get(0).getTenantId())
 				.build()
 				);
+		/*
+		 * evicted again after the status update, a fetch racing the demand save
+		 * could have cached the bill that has just been expired
+		 */
+		activeBillCache.evictForDemands(demands);
 		return new DemandResponse(responseInfoFactory.getResponseInfo(requestInfo, HttpStatus.CREATED), demands);
 	}
 
@@ -285,6 +293,7 @@ public class DemandService {
 			updateBillCriteria.setStatusToBeUpdated(BillStatus.PAID);
 			billRepoV2.updateBillStatus(updateBillCriteria);
 		}
+		activeBillCache.evictForDemands(demands);
 		// producer.push(applicationProperties.getDemandIndexTopic(), demandRequest);
 		return new DemandResponse(responseInfoFactory.getResponseInfo(requestInfo, HttpStatus.CREATED), demands);
 	}
@@ -360,10 +369,12 @@ public class DemandService {
 
 	public void save(DemandRequest demandRequest) {
 		demandRepository.save(demandRequest);
+		activeBillCache.evictForDemands(demandRequest.getDemands());
 	}
 
 	public void update(DemandRequest demandRequest, PaymentBackUpdateAudit paymentBackUpdateAudit) {
 		demandRepository.update(demandRequest, paymentBackUpdateAudit);
+		activeBillCache.evictForDemands(demandRequest.getDemands());
 	}
 
 
@@ -0,0 +1,106 @@
+package org.egov.demand.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.egov.demand.config.ApplicationProperties;
+import org.egov.demand.model.BillDetailV2;
+import org.egov.demand.model.BillV2;
+import org.egov.demand.model.BillV2.BillStatus;
+import org.egov.demand.model.GenerateBillCriteria;
+import org.egov.demand.producer.Producer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ActiveBillCacheTest {
+
+    private static final String KEY = ActiveBillCache.getKey("pb.amritsar", "WS", "WS/107/2021-22/0001");
+
+    private ActiveBillCache activeBillCache;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties appProps = mock(ApplicationProperties.class);
+        when(appProps.getIsBillCacheEnabled()).thenReturn(true);
+        when(appProps.getBillCacheMaxSize()).thenReturn(10);
+        when(appProps.getBillCacheTtl()).thenReturn(60000L);
+        when(appProps.getBillCacheInvalidateTopic()).thenReturn("billing-bill-cache-invalidate");
+
+        activeBillCache = new ActiveBillCache();
+        ReflectionTestUtils.setField(activeBillCache, "appProps", appProps);
+        ReflectionTestUtils.setField(activeBillCache, "producer", mock(Producer.class));
+        ReflectionTestUtils.setField(activeBillCache, "mapper", new ObjectMapper());
+        activeBillCache.init();
+    }
+
+    @Test
+    void testPutAndGet() {
+        BillV2 bill = activeBill(System.currentTimeMillis() + 10000L);
+        activeBillCache.put(KEY, Collections.singletonList(bill), activeBillCache.getVersion(KEY));
+        assertEquals(bill, activeBillCache.get(KEY));
+    }
+
+    @Test
+    void testCachedBillIsCopied() {
+        BillV2 bill = activeBill(System.currentTimeMillis() + 10000L);
+        activeBillCache.put(KEY, Collections.singletonList(bill), activeBillCache.getVersion(KEY));
+        bill.setStatus(BillStatus.PAID);
+
+        BillV2 cachedBill = activeBillCache.get(KEY);
+        assertNotSame(bill, cachedBill);
+        assertEquals(BillStatus.ACTIVE, cachedBill.getStatus());
+
+        cachedBill.getBillDetails().get(0).setExpiryDate(0L);
+        assertNotSame(cachedBill, activeBillCache.get(KEY));
+        assertEquals(bill.getBillDetails().get(0).getExpiryDate(), activeBillCache.get(KEY).getBillDetails().get(0).getExpiryDate());
+    }
+
+    @Test
+    void testExpiredBillDetailIsNotServed() {
+        BillV2 bill = activeBill(System.currentTimeMillis() - 1L);
+        activeBillCache.put(KEY, Collections.singletonList(bill), activeBillCache.getVersion(KEY));
+        assertNull(activeBillCache.get(KEY));
+    }
+
+    @Test
+    void testEvictionDuringLoadSkipsPut() {
+        long version = activeBillCache.getVersion(KEY);
+        activeBillCache.evict("pb.amritsar", "WS", Collections.singleton("WS/107/2021-22/0001"));
+        activeBillCache.put(KEY, Collections.singletonList(activeBill(System.currentTimeMillis() + 10000L)), version);
+        assertNull(activeBillCache.get(KEY));
+    }
+
+    @Test
+    void testEvictLocal() {
+        activeBillCache.put(KEY, Collections.singletonList(activeBill(System.currentTimeMillis() + 10000L)),
+                activeBillCache.getVersion(KEY));
+        activeBillCache.evictLocal("pb.amritsar", "WS", Collections.singleton("WS/107/2021-22/0001"));
+        assertNull(activeBillCache.get(KEY));
+    }
+
+    @Test
+    void testIsCacheable() {
+        GenerateBillCriteria billCriteria = GenerateBillCriteria.builder().tenantId("pb.amritsar").businessService("WS")
+                .consumerCode(new HashSet<>(Collections.singleton("WS/107/2021-22/0001"))).build();
+        assertTrue(activeBillCache.isCacheable(billCriteria));
+
+        billCriteria.setMobileNumber("9999999999");
+        assertFalse(activeBillCache.isCacheable(billCriteria));
+    }
+
+    private BillV2 activeBill(Long expiryDate) {
+        return BillV2.builder().status(BillStatus.ACTIVE)
+                .billDetails(Collections.singletonList(BillDetailV2.builder().expiryDate(expiryDate).build())).build();
+    }
+}
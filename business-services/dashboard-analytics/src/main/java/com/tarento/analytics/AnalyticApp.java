@@ -14,6 +14,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import com.tarento.analytics.constant.Constants;
+import com.tarento.analytics.org.service.ChartResultCache;
 
 import java.util.concurrent.TimeUnit;
 
@@ -63,6 +64,12 @@ public class AnalyticApp {
 		@Value("${cache.capacity}")
 		private int cacheCapacity;
 
+		@Value("${cache.chart.settled.ttl.ms}")
+		private long chartCacheExpiry;
+
+		@Value("${cache.chart.capacity}")
+		private int chartCacheCapacity;
+
 	    @Bean
 	    public RestTemplate restTemplate() {
 	        return new RestTemplate();
@@ -83,6 +90,8 @@ public class AnalyticApp {
 		@Profile("!test")
 		public CacheManager cacheManager(){
 			return new SpringCache2kCacheManager().addCaches(b->b.name("versions").expireAfterWrite(cacheExpiry, TimeUnit.MINUTES)
-					.entryCapacity(cacheCapacity));
+					.entryCapacity(cacheCapacity),
+					b->b.name(ChartResultCache.CHART_CACHE).expireAfterWrite(chartCacheExpiry, TimeUnit.MILLISECONDS)
+					.entryCapacity(chartCacheCapacity));
 		}
 }
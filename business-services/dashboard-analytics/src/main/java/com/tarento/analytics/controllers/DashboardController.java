@@ -1,6 +1,7 @@
 package com.tarento.analytics.controllers;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -8,6 +9,7 @@ import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tarento.analytics.org.service.ClientServiceFactory;
+import com.tarento.analytics.org.service.DashboardPageService;
 import com.tarento.analytics.service.AmazonS3ClientService;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
@@ -19,6 +21,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.gson.Gson;
@@ -57,6 +60,9 @@ public class DashboardController {
 	@Autowired
 	private ClientServiceFactory clientServiceFactory;
 
+	@Autowired
+	private DashboardPageService dashboardPageService;
+
 	@RequestMapping(value = PathRoutes.DashboardApi.FILE_PATH, method = RequestMethod.POST)
 	public Map<String, String> uploadFile(@RequestPart(value = "file") MultipartFile file)
 	{
@@ -174,6 +180,43 @@ public class DashboardController {
 		return response;
 	}
 	
+	/**
+	 * Serves all the visible charts of a dashboard page, one line per chart in the order they complete
+	 */
+	@RequestMapping(value = PathRoutes.DashboardApi.GET_CHARTS, method = RequestMethod.POST)
+	public ResponseEntity<StreamingResponseBody> getVisualizationCharts(@RequestBody RequestDtoV3 requestDtoV3, @RequestHeader(value = "x-user-info", required = false) String xUserInfo)
+			throws IOException {
+
+		UserDto user = new UserDto();
+		logger.info("user"+xUserInfo);
+
+		AggregateRequestDtoV3 requestInfoV3 = requestDtoV3.getAggregationRequestDto();
+		Map<String, Object> headers = requestDtoV3.getHeaders();
+		String failure = null;
+		if (headers == null || headers.isEmpty()) {
+			logger.error("Please provide header details");
+			failure = ResponseGenerator.failureResponse(ErrorCode.ERR320, "header is missing");
+		} else if (headers.get("tenantId") == null) {
+			logger.error("Please provide tenant ID details");
+			failure = ResponseGenerator.failureResponse(ErrorCode.ERR320, "tenant is missing");
+		} else if (requestInfoV3 == null || requestInfoV3.getVisualizations() == null) {
+			logger.error("Please provide requested Visualization Details");
+			failure = ResponseGenerator.failureResponse(ErrorCode.ERR320, "Visualization Request is missing");
+		}
+		if (failure != null) {
+			final String failureResponse = failure;
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+					.body(outputStream -> outputStream.write(failureResponse.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		// To be removed once the development is complete
+		if(StringUtils.isBlank(requestInfoV3.getModuleLevel())) {
+			requestInfoV3.setModuleLevel(Constants.Modules.HOME_REVENUE);
+		}
+		return ResponseEntity.ok().contentType(MediaType.valueOf("application/x-ndjson"))
+				.body(outputStream -> dashboardPageService.writeCharts(requestInfoV3, user.getRoles(), outputStream));
+	}
+
 /*
 	@RequestMapping(value = PathRoutes.DashboardApi.GET_CHART_V3, method = RequestMethod.POST)
 	public String getVisualizationChartV3(@RequestBody RequestDtoV3 requestDtoV3, @RequestHeader(value = "x-user-info", required = false) String xUserInfo, ServletWebRequest request)
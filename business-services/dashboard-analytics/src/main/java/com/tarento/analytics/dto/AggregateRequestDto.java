@@ -2,6 +2,7 @@ package com.tarento.analytics.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tarento.analytics.org.service.SearchBatch;
 import com.tarento.analytics.utils.ResponseRecorder;
 
 import java.util.Map;
@@ -23,6 +24,9 @@ public class AggregateRequestDto {
 
 	@JsonIgnore
 	private int hashKey;
+
+	@JsonIgnore
+	private SearchBatch searchBatch;
 	
 	public AggregateRequestDto() {} 
 	public AggregateRequestDto(AggregateRequestDtoV3 requestDtoV3, String visualizationType, String visualizationCode) { 
@@ -114,6 +118,12 @@ public class AggregateRequestDto {
 	public void setResponseRecorder(ResponseRecorder responseRecorder) {
 		this.responseRecorder = responseRecorder;
 	}
+	public SearchBatch getSearchBatch() {
+		return searchBatch;
+	}
+	public void setSearchBatch(SearchBatch searchBatch) {
+		this.searchBatch = searchBatch;
+	}
 	public int getHashKey() { return hashKey; }
 	public void setHashKey(int hashKey) {
 		this.hashKey = hashKey;
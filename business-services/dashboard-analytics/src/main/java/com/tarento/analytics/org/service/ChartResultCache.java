@@ -0,0 +1,131 @@
+package com.tarento.analytics.org.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tarento.analytics.dto.AggregateDto;
+import com.tarento.analytics.dto.AggregateRequestDto;
+import com.tarento.analytics.dto.RequestDate;
+
+/**
+ * Caches the aggregated data of a chart by chart id, module, filters and the
+ * requested dates truncated to the time bucket.
+ * 
+ * A result whose date range ends before the ingest watermark, the point up to
+ * which ingested data is considered settled, is kept for the settled ttl. A
+ * result covering data that may still be ingested is kept for the live ttl.
+ */
+@Component
+public class ChartResultCache {
+
+	public static final Logger logger = LoggerFactory.getLogger(ChartResultCache.class);
+
+	public static final String CHART_CACHE = "charts";
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${cache.chart.enabled}")
+	private boolean enabled;
+
+	@Value("${cache.chart.time.bucket.ms}")
+	private long timeBucket;
+
+	@Value("${cache.chart.live.ttl.ms}")
+	private long liveTtl;
+
+	@Value("${cache.chart.settled.ttl.ms}")
+	private long settledTtl;
+
+	@Value("${cache.chart.ingest.watermark.lag.ms}")
+	private long ingestWatermarkLag;
+
+	/**
+	 * Returns the cache key of the request, null if the request is not cacheable.
+	 * Has to be called before the request is modified by the aggregation.
+	 * @param request
+	 * @return
+	 */
+	public String getKey(AggregateRequestDto request) {
+		if (!enabled || cacheManager.getCache(CHART_CACHE) == null)
+			return null;
+		StringBuilder key = new StringBuilder(request.getVisualizationCode()).append('|')
+				.append(request.getModuleLevel()).append('|').append(request.getInterval());
+		RequestDate requestDate = request.getRequestDate();
+		if (requestDate != null) {
+			key.append('|').append(requestDate.getInterval()).append('|').append(toBucket(requestDate.getStartDate()))
+					.append('|').append(toBucket(requestDate.getEndDate()));
+		}
+		try {
+			key.append('|').append(objectMapper.writeValueAsString(
+					request.getFilters() == null ? null : new TreeMap<String, Object>(request.getFilters())));
+		} catch (JsonProcessingException e) {
+			logger.error("Chart request is not cacheable : " + e.getMessage());
+			return null;
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the time till which a result of the request may be served
+	 * @param request
+	 * @return
+	 */
+	public long getValidTill(AggregateRequestDto request) {
+		long now = System.currentTimeMillis();
+		RequestDate requestDate = request.getRequestDate();
+		if (requestDate != null && StringUtils.isNumeric(requestDate.getEndDate())
+				&& Long.parseLong(requestDate.getEndDate()) < now - ingestWatermarkLag)
+			return now + settledTtl;
+		return now + liveTtl;
+	}
+
+	public AggregateDto get(String key) {
+		if (key == null)
+			return null;
+		CachedChart cachedChart = cacheManager.getCache(CHART_CACHE).get(key, CachedChart.class);
+		if (cachedChart == null || cachedChart.validTill <= System.currentTimeMillis())
+			return null;
+		logger.debug("Chart result served from cache : " + key);
+		return cachedChart.aggregateDto;
+	}
+
+	public void put(String key, AggregateDto aggregateDto, long validTill) {
+		if (key == null || aggregateDto == null)
+			return;
+		Cache cache = cacheManager.getCache(CHART_CACHE);
+		cache.put(key, new CachedChart(aggregateDto, validTill));
+	}
+
+	private String toBucket(String epoch) {
+		if (!StringUtils.isNumeric(epoch) || timeBucket <= 0)
+			return epoch;
+		return String.valueOf(Long.parseLong(epoch) / timeBucket);
+	}
+
+	private static class CachedChart {
+
+		private final AggregateDto aggregateDto;
+
+		private final long validTill;
+
+		private CachedChart(AggregateDto aggregateDto, long validTill) {
+			this.aggregateDto = aggregateDto;
+			this.validTill = validTill;
+		}
+	}
+}
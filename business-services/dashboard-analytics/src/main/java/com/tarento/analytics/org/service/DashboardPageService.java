@@ -0,0 +1,157 @@
+package com.tarento.analytics.org.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tarento.analytics.constant.ErrorCode;
+import com.tarento.analytics.dto.AggregateRequestDto;
+import com.tarento.analytics.dto.AggregateRequestDtoV3;
+import com.tarento.analytics.dto.RequestDate;
+import com.tarento.analytics.dto.RoleDto;
+import com.tarento.analytics.dto.Visualization;
+import com.tarento.analytics.exception.AINException;
+import com.tarento.analytics.service.impl.RestService;
+import com.tarento.analytics.utils.ResponseGenerator;
+
+/**
+ * Serves all the visible charts of a dashboard page in one request.
+ *
+ * The charts are aggregated in parallel and their ES queries are coalesced
+ * into _msearch requests through a SearchBatch. Each chart is written as a
+ * line of its own as soon as it is done, in the order the charts complete.
+ */
+@Component
+public class DashboardPageService {
+
+	public static final Logger logger = LoggerFactory.getLogger(DashboardPageService.class);
+
+	@Autowired
+	private ClientServiceFactory clientServiceFactory;
+
+	@Autowired
+	private RestService restService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${dss.page.chart.pool.size}")
+	private int chartPoolSize;
+
+	@Value("${dss.page.msearch.batch.size}")
+	private int multiSearchBatchSize;
+
+	private ExecutorService chartExecutor;
+
+	@PostConstruct
+	public void init() {
+		chartExecutor = Executors.newFixedThreadPool(chartPoolSize);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		chartExecutor.shutdown();
+	}
+
+	public void writeCharts(AggregateRequestDtoV3 pageRequest, List<RoleDto> roles, OutputStream outputStream) throws IOException {
+		SearchBatch searchBatch = new SearchBatch(restService, multiSearchBatchSize);
+		CompletionService<String> charts = new ExecutorCompletionService<>(chartExecutor);
+		Map<Future<String>, String> visualizationCodes = new HashMap<>();
+		List<Visualization> visualizations = pageRequest.getVisualizations();
+		for (Visualization visualization : visualizations) {
+			AggregateRequestDto request = getChartRequest(pageRequest, visualization);
+			request.setSearchBatch(searchBatch);
+			Future<String> chart = charts.submit(() -> {
+				searchBatch.register();
+				try {
+					return getChart(request, roles);
+				} finally {
+					searchBatch.deregister();
+				}
+			});
+			visualizationCodes.put(chart, request.getVisualizationCode());
+		}
+
+		for (int i = 0; i < visualizations.size(); i++) {
+			String chart;
+			Future<String> completed = null;
+			try {
+				completed = charts.take();
+				chart = completed.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				// the page still gets a line for the chart, so the client can tell it failed
+				String visualizationCode = visualizationCodes.get(completed);
+				logger.error("Encountered an Exception while serving chart " + visualizationCode + " of the page : " + e.getMessage());
+				chart = getFailedChart(visualizationCode, e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+			}
+			outputStream.write(chart.getBytes(StandardCharsets.UTF_8));
+			outputStream.write('\n');
+			outputStream.flush();
+		}
+	}
+
+	private String getFailedChart(String visualizationCode, String message) throws IOException {
+		Map<String, Object> chart = new LinkedHashMap<>();
+		chart.put("visualizationCode", visualizationCode);
+		chart.put("response", objectMapper.readTree(ResponseGenerator.failureResponse(ErrorCode.ERR320, message)));
+		return objectMapper.writeValueAsString(chart);
+	}
+
+	private String getChart(AggregateRequestDto request, List<RoleDto> roles) throws IOException {
+		String visualizationCode = request.getVisualizationCode();
+		Map<String, Object> chart = new LinkedHashMap<>();
+		chart.put("visualizationCode", visualizationCode);
+		try {
+			Object responseData = clientServiceFactory.get(visualizationCode).getAggregatedData(request, roles);
+			chart.put("response", objectMapper.readTree(ResponseGenerator.successResponse(responseData)));
+		} catch (AINException e) {
+			logger.error("error while executing chart " + visualizationCode + " of the page");
+			chart.put("response", objectMapper.readTree(ResponseGenerator.failureResponse(e.getErrorCode(), e.getErrorMessage())));
+		} catch (RuntimeException e) {
+			logger.error("error while executing chart " + visualizationCode + " of the page : " + e.getMessage());
+			chart.put("response", objectMapper.readTree(ResponseGenerator.failureResponse(ErrorCode.ERR320, e.getMessage())));
+		}
+		return objectMapper.writeValueAsString(chart);
+	}
+
+	/**
+	 * Every chart gets its own filters and dates, the aggregation modifies them
+	 */
+	private AggregateRequestDto getChartRequest(AggregateRequestDtoV3 pageRequest, Visualization visualization) {
+		AggregateRequestDto request = new AggregateRequestDto(pageRequest, visualization.getType(), visualization.getCode());
+		if (pageRequest.getFilters() != null)
+			request.setFilters(new HashMap<>(pageRequest.getFilters()));
+		if (pageRequest.getRequestDate() != null) {
+			RequestDate requestDate = new RequestDate();
+			requestDate.setTargetDate(pageRequest.getRequestDate().getTargetDate());
+			requestDate.setStartDate(pageRequest.getRequestDate().getStartDate());
+			requestDate.setEndDate(pageRequest.getRequestDate().getEndDate());
+			requestDate.setInterval(pageRequest.getRequestDate().getInterval());
+			request.setRequestDate(requestDate);
+		}
+		return request;
+	}
+}
@@ -0,0 +1,147 @@
+package com.tarento.analytics.org.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tarento.analytics.constant.Constants;
+import com.tarento.analytics.dto.AggregateRequestDto;
+import com.tarento.analytics.dto.RequestDate;
+
+/**
+ * Routes the queries of a chart to the daily or monthly rollup documents maintained by
+ * dashboard-ingest, when the query config has a rollup block:
+ *
+ * "rollup": { "indexName": "dss-collection-rollup_v1", "dateRefField": "bucketStart",
+ * "requestQueryMap": "...", "aggrQuery": "..." }
+ *
+ * The aggrQuery of the rollup has to return the same aggregations as the query, filtered
+ * on the granularity through the granularityvalue placeholder. The coarsest granularity
+ * whose buckets exactly cover the requested dates is used, a request the rollups can't
+ * answer exactly, because of its dates or of a filter the rollup doesn't map, is left
+ * to the query.
+ */
+@Component
+public class RollupRouter {
+
+	public static final Logger logger = LoggerFactory.getLogger(RollupRouter.class);
+
+	private static final String ROLLUP = "rollup";
+	private static final String GRANULARITY_VAL = "granularityvalue";
+	private static final String DAY = "day";
+	private static final String MONTH = "month";
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Value("${dss.rollup.enabled}")
+	private boolean enabled;
+
+	@Value("${dss.rollup.timezone}")
+	private String timeZone;
+
+	@Value("${dss.rollup.complete.from}")
+	private long completeFrom;
+
+	/**
+	 * Returns the query to execute for the request, the rollup query of the coarsest
+	 * granularity that fits or the query itself.
+	 * @param request
+	 * @param query
+	 * @param interval
+	 * @return
+	 */
+	public JsonNode route(AggregateRequestDto request, JsonNode query, String interval) {
+		JsonNode rollup = query.get(ROLLUP);
+		if (!enabled || rollup == null || !isFilterable(request, query, rollup))
+			return query;
+
+		RequestDate requestDate = request.getRequestDate();
+		if (requestDate == null || !StringUtils.isNumeric(requestDate.getStartDate())
+				|| !StringUtils.isNumeric(requestDate.getEndDate()))
+			return query;
+		long startDate = Long.parseLong(requestDate.getStartDate());
+		long endDate = Long.parseLong(requestDate.getEndDate());
+		if (startDate < completeFrom)
+			return query;
+
+		String granularity = null;
+		if (StringUtils.isBlank(interval) || interval.equals("year") || interval.equals(MONTH)) {
+			if (fits(startDate, endDate, MONTH))
+				granularity = MONTH;
+			else if (fits(startDate, endDate, DAY))
+				granularity = DAY;
+		} else if ((interval.equals("week") || interval.equals(DAY)) && fits(startDate, endDate, DAY)) {
+			granularity = DAY;
+		}
+		if (granularity == null)
+			return query;
+
+		ObjectNode rollupQuery = mapper.createObjectNode();
+		rollupQuery.put(Constants.JsonPaths.MODULE, query.get(Constants.JsonPaths.MODULE).asText());
+		rollupQuery.put(Constants.JsonPaths.INDEX_NAME, rollup.get(Constants.JsonPaths.INDEX_NAME).asText());
+		rollupQuery.put(Constants.JsonPaths.DATE_REF_FIELD, rollup.get(Constants.JsonPaths.DATE_REF_FIELD).asText());
+		rollupQuery.put(Constants.JsonPaths.REQUEST_QUERY_MAP,
+				rollup.get(Constants.JsonPaths.REQUEST_QUERY_MAP).asText());
+		rollupQuery.put(Constants.JsonPaths.AGGREGATION_QUERY,
+				rollup.get(Constants.JsonPaths.AGGREGATION_QUERY).asText().replace(GRANULARITY_VAL, granularity));
+		logger.debug("Routing {} to the {} rollup", request.getVisualizationCode(), granularity);
+		return rollupQuery;
+	}
+
+	/**
+	 * The rollup buckets match the documents between the dates when the start date starts a
+	 * bucket and the end date ends one, or no document can be there yet after the end date
+	 */
+	private boolean fits(long startDate, long endDate, String granularity) {
+		ZoneId zone = ZoneId.of(timeZone);
+		return startDate == bucketStart(startDate, granularity, zone)
+				&& (endDate + 1 == bucketStart(endDate + 1, granularity, zone) || endDate >= System.currentTimeMillis());
+	}
+
+	private long bucketStart(long epoch, String granularity, ZoneId zone) {
+		ZonedDateTime day = Instant.ofEpochMilli(epoch).atZone(zone).truncatedTo(ChronoUnit.DAYS);
+		if (granularity.equals(MONTH))
+			day = day.withDayOfMonth(1);
+		return day.toInstant().toEpochMilli();
+	}
+
+	/**
+	 * Every filter the query would apply has to be mapped by the rollup as well
+	 */
+	private boolean isFilterable(AggregateRequestDto request, JsonNode query, JsonNode rollup) {
+		try {
+			JsonNode requestQueryMap = mapper.readTree(query.get(Constants.JsonPaths.REQUEST_QUERY_MAP).asText());
+			JsonNode rollupQueryMap = mapper.readTree(rollup.get(Constants.JsonPaths.REQUEST_QUERY_MAP).asText());
+			if (query.get(Constants.JsonPaths.MODULE).asText().equals(Constants.Modules.COMMON)
+					&& !request.getModuleLevel().equals(Constants.Modules.HOME_REVENUE)
+					&& !request.getModuleLevel().equals(Constants.Modules.HOME_SERVICES)
+					&& requestQueryMap.has(Constants.Filters.MODULE) && !rollupQueryMap.has(Constants.Filters.MODULE))
+				return false;
+			if (request.getFilters() == null)
+				return true;
+			for (Map.Entry<String, Object> filter : request.getFilters().entrySet()) {
+				if (requestQueryMap.has(filter.getKey()) && !rollupQueryMap.has(filter.getKey())
+						&& !String.valueOf(filter.getValue()).equals(Constants.Filters.FILTER_ALL))
+					return false;
+			}
+			return true;
+		} catch (IOException e) {
+			logger.error("Invalid requestQueryMap of the rollup : " + e.getMessage());
+			return false;
+		}
+	}
+}
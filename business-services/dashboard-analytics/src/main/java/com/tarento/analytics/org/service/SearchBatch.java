@@ -0,0 +1,141 @@
+package com.tarento.analytics.org.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tarento.analytics.service.impl.RestService;
+
+/**
+ * Coalesces the ES queries of the charts of a dashboard page.
+ *
+ * Every chart registers when it starts and deregisters when it is done. The
+ * queries of the charts are held back until every running chart of the page
+ * waits on its queries, then they are sent grouped by index as _msearch
+ * requests. A page thus costs a round trip per index and round of queries
+ * instead of one per query.
+ */
+public class SearchBatch {
+
+	public static final Logger logger = LoggerFactory.getLogger(SearchBatch.class);
+
+	private final RestService restService;
+
+	private final int maxBatchSize;
+
+	private final List<PendingSearch> pendingSearches = new ArrayList<>();
+
+	private int running;
+
+	public SearchBatch(RestService restService, int maxBatchSize) {
+		this.restService = restService;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public synchronized void register() {
+		running++;
+	}
+
+	public void deregister() {
+		List<PendingSearch> searches;
+		synchronized (this) {
+			running--;
+			searches = takeIfAllWaiting();
+		}
+		execute(searches);
+	}
+
+	/**
+	 * Searches the queries in the next round of the page and waits for their responses
+	 * @param indexNames index of each query
+	 * @param queries
+	 * @return responses in the order of the queries
+	 */
+	public List<JsonNode> search(List<String> indexNames, List<String> queries) {
+		List<PendingSearch> searches = new ArrayList<>();
+		for (int i = 0; i < queries.size(); i++)
+			searches.add(new PendingSearch(indexNames.get(i), queries.get(i)));
+
+		List<PendingSearch> searchesToExecute;
+		synchronized (this) {
+			pendingSearches.addAll(searches);
+			running--;
+			searchesToExecute = takeIfAllWaiting();
+		}
+		try {
+			execute(searchesToExecute);
+			List<JsonNode> responses = new ArrayList<>();
+			for (PendingSearch search : searches)
+				responses.add(search.response.join());
+			return responses;
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		} finally {
+			synchronized (this) {
+				running++;
+			}
+		}
+	}
+
+	private List<PendingSearch> takeIfAllWaiting() {
+		if (running > 0 || pendingSearches.isEmpty())
+			return null;
+		List<PendingSearch> searches = new ArrayList<>(pendingSearches);
+		pendingSearches.clear();
+		return searches;
+	}
+
+	private void execute(List<PendingSearch> searches) {
+		if (searches == null)
+			return;
+
+		Map<String, List<PendingSearch>> searchesByIndex = new LinkedHashMap<>();
+		for (PendingSearch search : searches)
+			searchesByIndex.computeIfAbsent(search.indexName, indexName -> new ArrayList<>()).add(search);
+
+		searchesByIndex.forEach((indexName, searchesOfIndex) -> {
+			for (int from = 0; from < searchesOfIndex.size(); from += maxBatchSize) {
+				List<PendingSearch> batch = searchesOfIndex.subList(from, Math.min(from + maxBatchSize, searchesOfIndex.size()));
+				try {
+					List<String> queries = new ArrayList<>();
+					batch.forEach(search -> queries.add(search.query));
+					List<JsonNode> responses = restService.multiSearch(indexName, queries);
+					for (int i = 0; i < batch.size(); i++) {
+						JsonNode response = responses.get(i);
+						if (response.has("error"))
+							batch.get(i).response.completeExceptionally(
+									new RuntimeException("ES search on " + indexName + " failed : " + response.get("error")));
+						else
+							batch.get(i).response.complete(response);
+					}
+				} catch (RuntimeException e) {
+					logger.error("Encountered an Exception while multi searching " + indexName + " : " + e.getMessage());
+					batch.forEach(search -> search.response.completeExceptionally(e));
+				}
+			}
+		});
+	}
+
+	private static class PendingSearch {
+
+		private final String indexName;
+
+		private final String query;
+
+		private final CompletableFuture<JsonNode> response = new CompletableFuture<>();
+
+		private PendingSearch(String indexName, String query) {
+			this.indexName = indexName;
+			this.query = query;
+		}
+	}
+}
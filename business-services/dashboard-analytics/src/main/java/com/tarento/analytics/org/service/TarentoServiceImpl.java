@@ -1,18 +1,18 @@
 package com.tarento.analytics.org.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -66,9 +66,16 @@ public class TarentoServiceImpl implements ClientService {
 	@Autowired
 	private MdmsApiMappings mdmsApiMappings;
 
+	@Autowired
+	private ChartResultCache chartResultCache;
+
+	@Autowired
+	private RollupRouter rollupRouter;
+
+	private final Map<String, ObjectNode> compiledChartNodes = new ConcurrentHashMap<>();
+
 
 	@Override
-	//@Cacheable(value="versions", key="#request.hashKey")
 	public AggregateDto getAggregatedData(AggregateRequestDto request, List<RoleDto> roles) throws AINException, IOException {
 		// Read visualization Code
 		logger.info("inside Tarento AggregateDto");
@@ -85,49 +92,13 @@ public class TarentoServiceImpl implements ClientService {
 			filters.put("tenantId", filters.get("ulb"));
 		}
 		
-		Map<String, String> indexes = new HashMap<>();
-		
-		// Load Chart API configuration to Object Node for easy retrieval later
-		ObjectNode node = configurationLoader.get(Constants.ConfigurationFiles.CHART_API_CONFIG);
-		ObjectNode chartNode = (ObjectNode) node.get(internalChartId);
-		ObjectMapper mapper2 = new ObjectMapper();
-	    String json2 = mapper2.writerWithDefaultPrettyPrinter().writeValueAsString(chartNode);
-		
-		// added pivot code from here
-		ArrayNode queries = (ArrayNode) chartNode.get(Constants.JsonPaths.QUERIES);
-	        queries.forEach(query -> {
-	            String module = query.get(Constants.JsonPaths.MODULE).asText();
-	            String indexName = "";
-	            if (request.getModuleLevel().equals(Constants.Modules.HOME_REVENUE) ||
-	                    request.getModuleLevel().equals(Constants.Modules.HOME_SERVICES) ||
-	                    query.get(Constants.JsonPaths.MODULE).asText().equals(Constants.Modules.COMMON) ||
-	                    request.getModuleLevel().equals(module)) {
-	
-	                indexName = query.get(Constants.JsonPaths.INDEX_NAME).asText();
-	                
-	                String initialIndexName = indexName;
-	                
-
-	                boolean isDefaultPresent = false;
-	                boolean isRequestContainsInterval = null == request.getRequestDate() ? false : (request.getRequestDate().getInterval() != null && !request.getRequestDate().getInterval().isEmpty());
-	                String interval = isRequestContainsInterval ? request.getRequestDate().getInterval() : (isDefaultPresent ? chartNode.get(Constants.JsonPaths.INTERVAL).asText() : "");
-	                logger.info("interval :: {} "+interval);
-					logger.info("VisualizationCode :: {} "+request.getVisualizationCode());
-					logger.info("Before constructing indexName :: {} "+indexName);
-					if (indexName.contains("*") && !StringUtils.isBlank(interval)) {
-						//if interval is coming as year changed to month to match data
-						if(interval.equals("year")){
-							interval = "month";
-						}
-						indexName = indexName.replace("*", interval);
-					} else if (indexName.contains("*") && StringUtils.isBlank(interval)) {
-						indexName = indexName.replace("*", "month");
-					}
-					indexes.put(indexName, initialIndexName);
-		            ((ObjectNode) query).put(Constants.JsonPaths.INDEX_NAME, indexName);
-	            }
-	        });
-	        ((ObjectNode) chartNode).put(Constants.JsonPaths.QUERIES, queries);
+		String cacheKey = chartResultCache.getKey(request);
+		long validTill = chartResultCache.getValidTill(request);
+		AggregateDto cachedAggregateDto = chartResultCache.get(cacheKey);
+		if (cachedAggregateDto != null)
+			return cachedAggregateDto;
+
+		ObjectNode chartNode = getChartNode(internalChartId, request);
 		InsightsConfiguration insightsConfig = null;
 		if(chartNode.get(Constants.JsonPaths.INSIGHT) != null) { 
 			insightsConfig = mapper.treeToValue(chartNode.get(Constants.JsonPaths.INSIGHT), InsightsConfiguration.class);
@@ -136,9 +107,7 @@ public class TarentoServiceImpl implements ClientService {
 		boolean isDefaultPresent = chartType.equals(ChartType.LINE) && chartNode.get(Constants.JsonPaths.INTERVAL)!=null;
 		boolean isRequestContainsInterval = null == request.getRequestDate() ? false : (request.getRequestDate().getInterval()!=null && !request.getRequestDate().getInterval().isEmpty()) ;
 		String interval = isRequestContainsInterval? request.getRequestDate().getInterval(): (isDefaultPresent ? chartNode.get(Constants.JsonPaths.INTERVAL).asText():"");
-		ObjectMapper mapper1 = new ObjectMapper();
-	    String json1 = mapper1.writerWithDefaultPrettyPrinter().writeValueAsString(chartNode);
-		logger.info("CHART NODE before  executeConfiguredQueries:: {}"+json1);
+		logger.debug("CHART NODE before  executeConfiguredQueries:: {}", chartNode);
 		executeConfiguredQueries(chartNode, aggrObjectNode, nodes, request, interval);
 		request.setChartNode(chartNode);
 		ResponseRecorder responseRecorder = new ResponseRecorder();
@@ -176,18 +145,38 @@ public class TarentoServiceImpl implements ClientService {
 			}
 		}
 		
-		if(!queries.isEmpty())
-			queries.forEach(query -> {
-	            String indexName = indexes.get(query.get(Constants.JsonPaths.INDEX_NAME).asText());
-	       
-	            if(!StringUtils.isBlank(indexName))
-	            	((ObjectNode) query).put(Constants.JsonPaths.INDEX_NAME, indexName);
-	        });
-		ObjectMapper mapper = new ObjectMapper();
-	    String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(chartNode.get(Constants.JsonPaths.QUERIES));
+		chartResultCache.put(cacheKey, aggregateDto, validTill);
 		return aggregateDto;
 	}
 
+	/**
+	 * Returns the config of the chart with the index names of its queries resolved for the
+	 * requested interval. The configs are compiled once per chart and interval and shared
+	 * between requests, they must not be modified.
+	 * @param chartId
+	 * @param request
+	 * @return
+	 */
+	private ObjectNode getChartNode(String chartId, AggregateRequestDto request) {
+		boolean isRequestContainsInterval = null == request.getRequestDate() ? false : (request.getRequestDate().getInterval() != null && !request.getRequestDate().getInterval().isEmpty());
+		String interval = isRequestContainsInterval ? request.getRequestDate().getInterval() : "";
+		//if interval is coming as year changed to month to match data
+		if (StringUtils.isBlank(interval) || interval.equals("year"))
+			interval = "month";
+		final String indexInterval = interval;
+
+		return compiledChartNodes.computeIfAbsent(chartId + "|" + indexInterval, key -> {
+			ObjectNode node = configurationLoader.get(Constants.ConfigurationFiles.CHART_API_CONFIG);
+			ObjectNode chartNode = ((ObjectNode) node.get(chartId)).deepCopy();
+			chartNode.get(Constants.JsonPaths.QUERIES).forEach(query -> {
+				String indexName = query.get(Constants.JsonPaths.INDEX_NAME).asText();
+				if (indexName.contains("*"))
+					((ObjectNode) query).put(Constants.JsonPaths.INDEX_NAME, indexName.replace("*", indexInterval));
+			});
+			return chartNode;
+		});
+	}
+
 	/**
 	 * Executes queries and enriches the respons in aggrObjectNode
 	 * @param chartNode The Chart Config defined in ChartApiConfig.json
@@ -202,7 +191,9 @@ public class TarentoServiceImpl implements ClientService {
 		preHandle(request, chartNode, mdmsApiMappings);
 
 		ArrayNode queries = (ArrayNode) chartNode.get(Constants.JsonPaths.QUERIES);
-		int randIndexCount = 1;
+		List<String> nodeNames = new ArrayList<>();
+		List<String> indexNames = new ArrayList<>();
+		List<String> esQueries = new ArrayList<>();
 		for(JsonNode query : queries) {
 			String module = query.get(Constants.JsonPaths.MODULE).asText();
 		
@@ -214,22 +205,42 @@ public class TarentoServiceImpl implements ClientService {
 
 				String indexName = query.get(Constants.JsonPaths.INDEX_NAME).asText();
 				logger.info("indexName in  executeConfiguredQueries:: {}"+indexName);
-				ObjectNode objectNode = queryService.getChartConfigurationQuery(request, query, indexName, interval);
-				try {
-					JsonNode aggrNode = restService.search(indexName,objectNode.toString());
-					if(nodes.has(indexName)) { 
-						indexName = indexName + "_" + randIndexCount;
-						randIndexCount += 1;
-					}
-					nodes.set(indexName,aggrNode.get(Constants.JsonPaths.AGGREGATIONS));
-				}catch (Exception e) {
-					logger.error("Encountered an Exception while Executing the Query : " + e.getMessage());
-					throw new RuntimeException(e);
-				}
-				aggrObjectNode.set(Constants.JsonPaths.AGGREGATIONS, nodes);
+				// the response stays keyed by the index of the query when it is served by a rollup
+				JsonNode routedQuery = rollupRouter.route(request, query, interval);
+				String routedIndexName = routedQuery.get(Constants.JsonPaths.INDEX_NAME).asText();
+				ObjectNode objectNode = queryService.getChartConfigurationQuery(request, routedQuery, routedIndexName, interval);
+				nodeNames.add(indexName);
+				indexNames.add(routedIndexName);
+				esQueries.add(objectNode.toString());
+			}
+		}
+		if(indexNames.isEmpty())
+			return;
+
+		List<JsonNode> aggrNodes = new ArrayList<>();
+		try {
+			// the queries of the charts of a page are searched together
+			if(request.getSearchBatch() != null) {
+				aggrNodes = request.getSearchBatch().search(indexNames, esQueries);
+			} else {
+				for(int i = 0; i < indexNames.size(); i++)
+					aggrNodes.add(restService.search(indexNames.get(i), esQueries.get(i)));
+			}
+		}catch (Exception e) {
+			logger.error("Encountered an Exception while Executing the Query : " + e.getMessage());
+			throw new RuntimeException(e);
+		}
 
+		int randIndexCount = 1;
+		for(int i = 0; i < nodeNames.size(); i++) {
+			String indexName = nodeNames.get(i);
+			if(nodes.has(indexName)) { 
+				indexName = indexName + "_" + randIndexCount;
+				randIndexCount += 1;
 			}
+			nodes.set(indexName,aggrNodes.get(i).get(Constants.JsonPaths.AGGREGATIONS));
 		}
+		aggrObjectNode.set(Constants.JsonPaths.AGGREGATIONS, nodes);
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package com.tarento.analytics.service.impl;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -8,6 +9,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
@@ -62,6 +64,10 @@ public class QueryServiceImpl implements QueryService {
 	@Autowired
     private ConfigurationLoader configurationLoader;
 
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Map<String, JsonNode> parsedConfigs = new ConcurrentHashMap<>();
+
 	private static final Map<Integer, String> WeekDayMap = createMap();
 
 	private static Map<Integer, String> createMap() {
@@ -426,10 +432,9 @@ public class QueryServiceImpl implements QueryService {
 		String dateReferenceField = query.get(Constants.JsonPaths.DATE_REF_FIELD).asText(); 
 		JsonNode requestQueryMaps = null;
 		ObjectNode objectNode = null; 
-		ObjectMapper mapper = new ObjectMapper();
 		Map<String, Object> esFilterMap = new HashMap<>();
 	    try {
-			requestQueryMaps = new ObjectMapper().readTree(rqMs);
+			requestQueryMaps = readConfigTree(rqMs);
 			request.setEsFilters(esFilterMap);
 			if(query.get(Constants.JsonPaths.MODULE).asText().equals(Constants.Modules.COMMON) && 
 					!request.getModuleLevel().equals(Constants.Modules.HOME_REVENUE) &&
@@ -451,8 +456,7 @@ public class QueryServiceImpl implements QueryService {
 			SearchRequest searchRequest = elasticSearchDao.buildElasticSearchQuery(dictator);
 			JsonNode querySegment = mapper.readTree(searchRequest.source().toString());
 			objectNode = (ObjectNode) querySegment;
-			JsonNode aggrNode = mapper.readTree(aggrQuery).get(Constants.JsonPaths.AGGS);
-			objectNode.put(Constants.JsonPaths.AGGS, mapper.readTree(aggrQuery).get(Constants.JsonPaths.AGGS));
+			objectNode.set(Constants.JsonPaths.AGGS, readConfigTree(aggrQuery).get(Constants.JsonPaths.AGGS));
 		} catch (Exception ex) {
 			logger.error("Encountered an Exception while parsing the JSON : " + ex.getMessage());
 			throw new RuntimeException(ex);
@@ -461,4 +465,20 @@ public class QueryServiceImpl implements QueryService {
 		
 	}
 
+	/**
+	 * Parses a json string of the chart configs. The configs are fixed, so every distinct string
+	 * is parsed once and the tree is shared between requests, it must not be modified.
+	 * @param json
+	 * @return
+	 */
+	private JsonNode readConfigTree(String json) {
+		return parsedConfigs.computeIfAbsent(json, key -> {
+			try {
+				return mapper.readTree(key);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
 }
@@ -40,6 +40,12 @@ public class RestService {
     @Autowired
     private RetryTemplate retryTemplate;
 
+    private static final String MULTI_SEARCH_PATH = "/_msearch";
+    private static final String RESPONSES = "responses";
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
 
     /**
      * search on Elastic search for a search query
@@ -73,6 +79,29 @@ public class RestService {
         return responseNode;
     }
 
+    /**
+     * search on Elastic search for several queries on an index in one _msearch round trip
+     * @param index           elastic search index name against which search operation
+     * @param searchQueries   search queries as request bodies
+     * @return responses in the order of the queries
+     */
+    public List<JsonNode> multiSearch(String index, List<String> searchQueries) {
+        String url = indexServiceHost + index + MULTI_SEARCH_PATH;
+        HttpHeaders headers = getHttpHeaders();
+        headers.setContentType(NDJSON);
+        StringBuilder body = new StringBuilder();
+        for (String searchQuery : searchQueries)
+            body.append("{}\n").append(searchQuery).append("\n");
+        LOGGER.info("Multi searching ES index " + index + " for " + searchQueries.size() + " queries");
+        HttpEntity<String> requestEntity = new HttpEntity<>(body.toString(), headers);
+
+        ResponseEntity<Object> response = retryTemplate.postForEntity(url, requestEntity);
+        JsonNode responseNode = mapper.convertValue(response.getBody(), JsonNode.class);
+        List<JsonNode> responses = new ArrayList<>();
+        responseNode.get(RESPONSES).forEach(responses::add);
+        return responses;
+    }
+
     /**
      * makes a client rest api call of Http POST option
      * @param uri
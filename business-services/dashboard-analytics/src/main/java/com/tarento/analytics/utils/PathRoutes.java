@@ -11,6 +11,7 @@ public interface PathRoutes {
 		final String GET_CHART = "/getChart";
 		final String GET_CHART_V2 = "/getChartV2";
 		final String GET_CHART_V3 = "/getChartV3";
+		final String GET_CHARTS = "/getCharts";
 		final String GET_DASHBOARD_CONFIG = "/getDashboardConfig"; 
 		final String GET_HOME_CONFIG = "/getHomeConfig";
 		final String GET_ALL_VISUALIZATIONS = "/getAllVisualizations"; 
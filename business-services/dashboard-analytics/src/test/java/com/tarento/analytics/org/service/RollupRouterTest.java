@@ -0,0 +1,188 @@
+package com.tarento.analytics.org.service;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tarento.analytics.dto.AggregateRequestDto;
+import com.tarento.analytics.dto.RequestDate;
+
+import junit.framework.TestCase;
+
+public class RollupRouterTest extends TestCase {
+
+	private static final String ROLLUP_INDEX = "dss-collection-rollup_v1";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private RollupRouter router;
+
+	@Override
+	protected void setUp() throws Exception {
+		router = router(true, "UTC", 0);
+	}
+
+	public void testWholeMonthsAreServedByTheMonthlyRollup() {
+		JsonNode routed = router.route(request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1), query("PT"), "month");
+
+		assertEquals(ROLLUP_INDEX, routed.get("indexName").asText());
+		assertEquals("bucketStart", routed.get("dateRefField").asText());
+		assertEquals("PT", routed.get("module").asText());
+		assertEquals("granularity month", routed.get("aggrQuery").asText());
+	}
+
+	public void testWholeDaysAreServedByTheDailyRollup() {
+		JsonNode routed = router.route(request(epoch(2026, 8, 5, "UTC"), epoch(2026, 10, 1, "UTC") - 1), query("PT"), "month");
+
+		assertEquals("granularity day", routed.get("aggrQuery").asText());
+	}
+
+	public void testWeeklyAndDailyIntervalsUseTheDailyRollup() {
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+
+		assertEquals("granularity day", router.route(request, query("PT"), "week").get("aggrQuery").asText());
+		assertEquals("granularity day", router.route(request, query("PT"), "day").get("aggrQuery").asText());
+	}
+
+	public void testPartialDaysAreServedByTheQuery() {
+		JsonNode query = query("PT");
+
+		assertSame(query, router.route(request(epoch(2026, 8, 5, "UTC") + 3600000, epoch(2026, 10, 1, "UTC") - 1), query, "month"));
+		assertSame(query, router.route(request(epoch(2026, 8, 5, "UTC"), epoch(2026, 9, 20, "UTC") + 3600000), query, "month"));
+	}
+
+	public void testEndInTheFutureFitsTheLastBucket() {
+		long today = Instant.now().atZone(ZoneId.of("UTC")).truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+
+		JsonNode routed = router.route(request(today, System.currentTimeMillis() + 3600000), query("PT"), "day");
+
+		assertEquals("granularity day", routed.get("aggrQuery").asText());
+	}
+
+	public void testBucketsStartInTheConfiguredZone() throws Exception {
+		router = router(true, "Asia/Kolkata", 0);
+		JsonNode query = query("PT");
+
+		JsonNode routed = router.route(request(epoch(2026, 8, 1, "Asia/Kolkata"), epoch(2026, 10, 1, "Asia/Kolkata") - 1), query, "month");
+		assertEquals("granularity month", routed.get("aggrQuery").asText());
+		assertSame(query, router.route(request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1), query, "month"));
+	}
+
+	public void testRequestsBeforeTheRollupsAreCompleteUseTheQuery() throws Exception {
+		router = router(true, "UTC", epoch(2026, 9, 1, "UTC"));
+		JsonNode query = query("PT");
+
+		assertSame(query, router.route(request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1), query, "month"));
+		assertNotSame(query, router.route(request(epoch(2026, 9, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1), query, "month"));
+	}
+
+	public void testDisabledRoutingOrMissingRollupUseTheQuery() throws Exception {
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+		ObjectNode query = query("PT");
+		query.remove("rollup");
+		assertSame(query, router.route(request, query, "month"));
+
+		router = router(false, "UTC", 0);
+		query = query("PT");
+		assertSame(query, router.route(request, query, "month"));
+	}
+
+	public void testDatesThatAreNotEpochsUseTheQuery() {
+		JsonNode query = query("PT");
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+		request.getRequestDate().setStartDate("2026-08-01");
+
+		assertSame(query, router.route(request, query, "month"));
+		request.setRequestDate(null);
+		assertSame(query, router.route(request, query, "month"));
+	}
+
+	public void testFilterTheRollupDoesNotMapUsesTheQuery() {
+		JsonNode query = query("PT");
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+
+		request.getFilters().put("tenantId", "pb.amritsar");
+		assertNotSame(query, router.route(request, query, "month"));
+
+		request.getFilters().put("wardId", "*");
+		assertNotSame(query, router.route(request, query, "month"));
+
+		request.getFilters().put("wardId", "Ward 1");
+		assertSame(query, router.route(request, query, "month"));
+	}
+
+	public void testFilterTheQueryDoesNotMapIsIgnored() {
+		JsonNode query = query("PT");
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+		request.getFilters().put("zoneId", "Zone 1");
+
+		assertNotSame(query, router.route(request, query, "month"));
+	}
+
+	public void testCommonQueryFilteredOnTheModuleNeedsTheModuleMapped() {
+		ObjectNode query = query("COMMON");
+		query.put("requestQueryMap", "{\"tenantId\" : \"dataObject.tenantId\", \"module\" : \"dataObject.paymentDetails.businessService\"}");
+		AggregateRequestDto request = request(epoch(2026, 8, 1, "UTC"), epoch(2026, 10, 1, "UTC") - 1);
+
+		request.setModuleLevel("PT");
+		assertSame(query, router.route(request, query, "month"));
+
+		request.setModuleLevel("HOME_REVENUE");
+		assertNotSame(query, router.route(request, query, "month"));
+
+		((ObjectNode) query.get("rollup")).put("requestQueryMap", "{\"tenantId\" : \"tenantId\", \"module\" : \"module\"}");
+		request.setModuleLevel("PT");
+		assertNotSame(query, router.route(request, query, "month"));
+	}
+
+	private RollupRouter router(boolean enabled, String timeZone, long completeFrom) throws Exception {
+		RollupRouter rollupRouter = new RollupRouter();
+		setField(rollupRouter, "mapper", mapper);
+		setField(rollupRouter, "enabled", enabled);
+		setField(rollupRouter, "timeZone", timeZone);
+		setField(rollupRouter, "completeFrom", completeFrom);
+		return rollupRouter;
+	}
+
+	private AggregateRequestDto request(long startDate, long endDate) {
+		RequestDate requestDate = new RequestDate();
+		requestDate.setStartDate(String.valueOf(startDate));
+		requestDate.setEndDate(String.valueOf(endDate));
+		AggregateRequestDto request = new AggregateRequestDto();
+		request.setVisualizationCode("cumulativeCollection");
+		request.setModuleLevel("PT");
+		request.setRequestDate(requestDate);
+		Map<String, Object> filters = new HashMap<>();
+		request.setFilters(filters);
+		return request;
+	}
+
+	private ObjectNode query(String module) {
+		ObjectNode query = mapper.createObjectNode();
+		query.put("module", module);
+		query.put("dateRefField", "dataObject.paymentDetails.receiptDate");
+		query.put("requestQueryMap", "{\"wardId\" : \"domainObject.ward.name.keyword\", \n\"tenantId\" : \"dataObject.tenantId\"}");
+		query.put("indexName", "dss-collection_v2");
+		query.put("aggrQuery", "raw");
+		query.putObject("rollup").put("indexName", ROLLUP_INDEX).put("dateRefField", "bucketStart")
+				.put("requestQueryMap", "{\"tenantId\" : \"tenantId\"}").put("aggrQuery", "granularity granularityvalue");
+		return query;
+	}
+
+	private static long epoch(int year, int month, int day, String zone) {
+		return ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneId.of(zone)).toInstant().toEpochMilli();
+	}
+
+	private static void setField(Object target, String name, Object value) throws Exception {
+		Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+}
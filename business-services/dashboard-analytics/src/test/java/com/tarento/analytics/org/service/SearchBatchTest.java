@@ -0,0 +1,266 @@
+package com.tarento.analytics.org.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tarento.analytics.service.impl.RestService;
+
+import junit.framework.TestCase;
+
+public class SearchBatchTest extends TestCase {
+
+	private static final long TIMEOUT_SECONDS = 5;
+
+	private StubRestService restService;
+
+	private ExecutorService charts;
+
+	@Override
+	protected void setUp() {
+		restService = new StubRestService();
+		charts = Executors.newCachedThreadPool();
+	}
+
+	@Override
+	protected void tearDown() {
+		charts.shutdownNow();
+	}
+
+	public void testChartsThatNeverSearchDoNotHoldBackTheOthers() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> searching = charts.submit(searchAndDeregister(batch, "index1:q1"));
+		batch.deregister();
+		Thread.sleep(100);
+		assertFalse("searched while a chart was still running", searching.isDone());
+		batch.deregister();
+
+		assertEquals(Collections.singletonList("q1"), queriesOf(get(searching)));
+		assertEquals(Collections.singletonList("index1 [q1]"), restService.calls);
+	}
+
+	public void testChartThatThrowsReleasesTheOthers() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> searching = charts.submit(searchAndDeregister(batch, "index1:q1"));
+		Callable<List<JsonNode>> failingChart = () -> {
+			try {
+				throw new IllegalStateException("chart config missing");
+			} finally {
+				batch.deregister();
+			}
+		};
+		Future<List<JsonNode>> failing = charts.submit(failingChart);
+
+		assertEquals(Collections.singletonList("q1"), queriesOf(get(searching)));
+		try {
+			get(failing);
+			fail("the failing chart completed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	public void testQueriesOfWaitingChartsAreSentTogetherByIndex() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> first = charts.submit(searchAndDeregister(batch, "index1:q1", "index2:q2"));
+		Future<List<JsonNode>> second = charts.submit(searchAndDeregister(batch, "index1:q3"));
+
+		assertEquals(Arrays.asList("q1", "q2"), queriesOf(get(first)));
+		assertEquals(Collections.singletonList("q3"), queriesOf(get(second)));
+		assertEquals(2, restService.calls.size());
+		assertTrue(restService.calls.contains("index1 [q1, q3]") || restService.calls.contains("index1 [q3, q1]"));
+		assertTrue(restService.calls.contains("index2 [q2]"));
+	}
+
+	public void testBatchesAreSplitAtMaxBatchSize() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 2);
+		batch.register();
+
+		Future<List<JsonNode>> chart = charts.submit(searchAndDeregister(batch, "index1:q1", "index1:q2", "index1:q3"));
+
+		assertEquals(Arrays.asList("q1", "q2", "q3"), queriesOf(get(chart)));
+		assertEquals(Arrays.asList("index1 [q1, q2]", "index1 [q3]"), restService.calls);
+	}
+
+	public void testItemErrorReachesOnlyItsOwnChart() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> failing = charts.submit(searchAndDeregister(batch, "index1:error"));
+		Future<List<JsonNode>> searching = charts.submit(searchAndDeregister(batch, "index1:q1"));
+
+		assertEquals(Collections.singletonList("q1"), queriesOf(get(searching)));
+		try {
+			get(failing);
+			fail("the chart with the failed query completed");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause().getMessage().startsWith("ES search on index1 failed"));
+		}
+		assertEquals(1, restService.calls.size());
+	}
+
+	public void testRequestFailureReachesTheChartsOfThatRequestOnly() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> failing = charts.submit(searchAndDeregister(batch, "down:q1"));
+		Future<List<JsonNode>> searching = charts.submit(searchAndDeregister(batch, "index1:q2"));
+
+		assertEquals(Collections.singletonList("q2"), queriesOf(get(searching)));
+		try {
+			get(failing);
+			fail("the chart of the failed request completed");
+		} catch (ExecutionException e) {
+			assertEquals("index down is unavailable", e.getCause().getMessage());
+		}
+	}
+
+	public void testInsightSecondRoundIsSentOnItsOwn() throws Exception {
+		SearchBatch batch = new SearchBatch(restService, 10);
+		batch.register();
+		batch.register();
+
+		Future<List<JsonNode>> insight = charts.submit(() -> {
+			try {
+				List<JsonNode> responses = new ArrayList<>(search(batch, "index1:current"));
+				responses.addAll(search(batch, "index1:previous"));
+				return responses;
+			} finally {
+				batch.deregister();
+			}
+		});
+		Future<List<JsonNode>> chart = charts.submit(searchAndDeregister(batch, "index1:q1"));
+
+		assertEquals(Arrays.asList("current", "previous"), queriesOf(get(insight)));
+		assertEquals(Collections.singletonList("q1"), queriesOf(get(chart)));
+		assertEquals(2, restService.calls.size());
+		assertTrue(restService.calls.get(0).equals("index1 [current, q1]")
+				|| restService.calls.get(0).equals("index1 [q1, current]"));
+		assertEquals("index1 [previous]", restService.calls.get(1));
+	}
+
+	public void testMoreChartsThanPoolThreads() throws Exception {
+		// charts register when a pool thread picks them up, as the page service does
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			SearchBatch batch = new SearchBatch(restService, 10);
+			List<Future<List<JsonNode>>> pageCharts = new ArrayList<>();
+			for (int i = 0; i < 6; i++) {
+				String chart = "q" + i;
+				pageCharts.add(pool.submit(() -> {
+					batch.register();
+					try {
+						List<JsonNode> responses = new ArrayList<>(search(batch, "index1:" + chart));
+						if (chart.equals("q1") || chart.equals("q4"))
+							responses.addAll(search(batch, "index2:" + chart + "-previous"));
+						return responses;
+					} finally {
+						batch.deregister();
+					}
+				}));
+			}
+
+			for (int i = 0; i < 6; i++) {
+				List<String> expected = i == 1 || i == 4 ? Arrays.asList("q" + i, "q" + i + "-previous")
+						: Collections.singletonList("q" + i);
+				assertEquals(expected, queriesOf(get(pageCharts.get(i))));
+			}
+			assertEquals(8, restService.queryCount());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private Callable<List<JsonNode>> searchAndDeregister(SearchBatch batch, String... indexedQueries) {
+		return () -> {
+			try {
+				return search(batch, indexedQueries);
+			} finally {
+				batch.deregister();
+			}
+		};
+	}
+
+	/**
+	 * Searches the given index:query pairs in one round
+	 */
+	private static List<JsonNode> search(SearchBatch batch, String... indexedQueries) {
+		List<String> indexNames = new ArrayList<>();
+		List<String> queries = new ArrayList<>();
+		for (String indexedQuery : indexedQueries) {
+			String[] indexAndQuery = indexedQuery.split(":");
+			indexNames.add(indexAndQuery[0]);
+			queries.add(indexAndQuery[1]);
+		}
+		return batch.search(indexNames, queries);
+	}
+
+	private static <T> T get(Future<T> future) throws Exception {
+		return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	private static List<String> queriesOf(List<JsonNode> responses) {
+		List<String> queries = new ArrayList<>();
+		responses.forEach(response -> queries.add(response.get("query").asText()));
+		return queries;
+	}
+
+	/**
+	 * Answers each query with a response naming it, a query named error gets an
+	 * item error and the index named down fails the whole request
+	 */
+	private static class StubRestService extends RestService {
+
+		private final ObjectMapper mapper = new ObjectMapper();
+
+		private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public List<JsonNode> multiSearch(String index, List<String> searchQueries) {
+			calls.add(index + " " + searchQueries);
+			if ("down".equals(index))
+				throw new RuntimeException("index " + index + " is unavailable");
+			List<JsonNode> responses = new ArrayList<>();
+			for (String query : searchQueries) {
+				ObjectNode response = mapper.createObjectNode();
+				if ("error".equals(query))
+					response.putObject("error").put("type", "search_phase_execution_exception");
+				else
+					response.put("query", query);
+				responses.add(response);
+			}
+			return responses;
+		}
+
+		int queryCount() {
+			int count = 0;
+			synchronized (calls) {
+				for (String call : calls)
+					count += call.substring(call.indexOf('[') + 1, call.length() - 1).split(", ").length;
+			}
+			return count;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.ingestpipeline;
 
 import com.ingestpipeline.service.IngestServiceImpl;
+import com.ingestpipeline.service.RollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,8 @@ public class AppStartupRunner implements ApplicationRunner {
 
 	  @Autowired IngestServiceImpl ingestService;
 
+	  @Autowired RollupService rollupService;
+
     @SuppressWarnings("static-access")
 	@Override
     public void run(ApplicationArguments args) throws Exception {
@@ -47,6 +50,7 @@ public class AppStartupRunner implements ApplicationRunner {
 		}
 
 		ingestService.loadTopicsConfig();
+		rollupService.loadRollups();
         
     }
 }
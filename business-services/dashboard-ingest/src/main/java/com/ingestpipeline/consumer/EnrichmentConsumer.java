@@ -12,8 +12,10 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import com.ingestpipeline.producer.IngestProducer;
+import com.ingestpipeline.service.BulkIngestService;
 import com.ingestpipeline.service.EnrichmentService;
 import com.ingestpipeline.service.IESService;
+import com.ingestpipeline.service.RollupService;
 import com.ingestpipeline.util.Constants;
 
 @Service
@@ -25,6 +27,9 @@ public class EnrichmentConsumer implements KafkaConsumer {
 	
 	@Value("${es.push.direct}")
 	private Boolean esPushDirect;
+
+	@Value("${es.bulk.enabled}")
+	private Boolean esBulkEnabled;
 	
 	@Value("${kafka.topics.enriched.data}")
 	private String enrichedDataTopic;
@@ -41,6 +46,12 @@ public class EnrichmentConsumer implements KafkaConsumer {
 	@Autowired
 	private IESService elasticService;
 
+	@Autowired
+	private RollupService rollupService;
+
+	@Autowired
+	private BulkIngestService bulkIngestService;
+
 	@KafkaListener(id = INTENT, groupId = INTENT, topics = { Constants.KafkaTopics.TRANSFORMED_DATA}, containerFactory = Constants.BeanContainerFactory.INCOMING_KAFKA_LISTENER)
 	public void processMessage(final Map incomingData,
 			@Header(KafkaHeaders.RECEIVED_TOPIC) final String topic) {
@@ -63,7 +74,10 @@ public class EnrichmentConsumer implements KafkaConsumer {
 
 			if(esPushDirect) {
 				LOGGER.info("##esPushDirect## : "+esPushDirect);
-				elasticService.push(incomingData);
+				if(esBulkEnabled)
+					bulkIngestService.add(incomingData);
+				else if(elasticService.push(incomingData))
+					rollupService.rollup(incomingData);
 			} else {
 				LOGGER.info("Pushing to:: {} :: docId:: {}" , enrichedDataTopic, " docId:: "+docId);
 				ingestProducer.pushToPipeline(incomingData, enrichedDataTopic, docId);
@@ -0,0 +1,63 @@
+package com.ingestpipeline.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Describes the daily and monthly pre-aggregated documents maintained for the documents
+ * pushed to the collection index. The fields are paths under the dataObject of a document.
+ * Every rollup needs an index of its own, the contributions of the documents are kept there
+ * by document id.
+ */
+public class Rollup {
+
+	private String indexName;
+	private String tenantField;
+	private String moduleField;
+	private String dateField;
+	/**
+	 * Documents having any of the values for a field are not rolled up
+	 */
+	private Map<String, String[]> excludes = new HashMap<>();
+	/**
+	 * Name of the metric and the field summed into it, the count of documents is always kept
+	 */
+	private Map<String, String> metrics = new HashMap<>();
+
+	public String getIndexName() {
+		return indexName;
+	}
+	public void setIndexName(String indexName) {
+		this.indexName = indexName;
+	}
+	public String getTenantField() {
+		return tenantField;
+	}
+	public void setTenantField(String tenantField) {
+		this.tenantField = tenantField;
+	}
+	public String getModuleField() {
+		return moduleField;
+	}
+	public void setModuleField(String moduleField) {
+		this.moduleField = moduleField;
+	}
+	public String getDateField() {
+		return dateField;
+	}
+	public void setDateField(String dateField) {
+		this.dateField = dateField;
+	}
+	public Map<String, String[]> getExcludes() {
+		return excludes;
+	}
+	public void setExcludes(Map<String, String[]> excludes) {
+		this.excludes = excludes;
+	}
+	public Map<String, String> getMetrics() {
+		return metrics;
+	}
+	public void setMetrics(Map<String, String> metrics) {
+		this.metrics = metrics;
+	}
+}
@@ -0,0 +1,19 @@
+package com.ingestpipeline.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RollupConfig {
+
+    private List<Rollup> rollups = new ArrayList<>();
+
+    @JsonProperty(value = "rollupConfigurations")
+    public List<Rollup> getRollups() {
+        return rollups;
+    }
+    public void setRollups(List<Rollup> rollups) {
+        this.rollups = rollups;
+    }
+}
@@ -0,0 +1,186 @@
+package com.ingestpipeline.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ingestpipeline.model.ErrorWrapper;
+import com.ingestpipeline.producer.IngestProducer;
+
+/**
+ * Pushes the enriched collection documents to the collection index through bulk requests.
+ * Documents are accumulated until the batch reaches the configured number of documents or
+ * bytes, or the flush interval passes. The documents the bulk request failed for are handed
+ * over to the dead letter topic with the error of the index, the documents it created or
+ * updated are rolled up. The enrichment lookups memoized for a batch are dropped after its flush.
+ *
+ * The consumer auto commits its offsets while documents wait in the batch. A graceful
+ * shutdown flushes the batch, but if the instance dies the documents buffered since the
+ * last flush, at most the flush interval or the max documents worth, are not re-consumed
+ * and have to be reloaded.
+ */
+@Service
+public class BulkIngestService {
+
+	public static final Logger LOGGER = LoggerFactory.getLogger(BulkIngestService.class);
+	private static final String ERROR_CODE = "INDEX";
+
+	@Value("${es.bulk.max.documents}")
+	private int maxDocuments;
+
+	@Value("${es.bulk.max.bytes}")
+	private int maxBytes;
+
+	@Value("${es.bulk.flush.interval.ms}")
+	private long flushInterval;
+
+	@Value("${kafka.topics.bulk.dead.letter}")
+	private String deadLetterTopic;
+
+	@Value("${es.index.name}")
+	private String collectionIndexName;
+
+	@Value("${es.index.type}")
+	private String documentType;
+
+	@Autowired
+	private IESService elasticService;
+
+	@Autowired
+	private RollupService rollupService;
+
+	@Autowired
+	private EnrichmentLookupCache lookupCache;
+
+	@Autowired
+	private IngestProducer ingestProducer;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	private final Object lock = new Object();
+
+	private List<Map> documents = new ArrayList<>();
+
+	private StringBuilder requestBody = new StringBuilder();
+
+	private ScheduledExecutorService flusher;
+
+	@PostConstruct
+	public void init() {
+		flusher = Executors.newSingleThreadScheduledExecutor();
+		flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Runs after the listener containers have stopped, so the last batch is complete
+	 */
+	@PreDestroy
+	public void destroy() {
+		flusher.shutdownNow();
+		flush();
+	}
+
+	/**
+	 * Adds a document to the current batch, a full batch is sent by the calling thread
+	 * @param document
+	 */
+	public void add(Map document) {
+		ObjectNode action = mapper.createObjectNode();
+		action.putObject("index").put("_index", collectionIndexName).put("_type", documentType).put("_id",
+				elasticService.getDocumentId(document));
+		String source = mapper.convertValue(document, ObjectNode.class).toString();
+
+		List<Map> batch = null;
+		String batchBody = null;
+		synchronized (lock) {
+			documents.add(document);
+			requestBody.append(action.toString()).append('\n').append(source).append('\n');
+			if (documents.size() >= maxDocuments || requestBody.length() >= maxBytes) {
+				batch = documents;
+				batchBody = requestBody.toString();
+				documents = new ArrayList<>();
+				requestBody = new StringBuilder();
+			}
+		}
+		if (batch != null)
+			send(batch, batchBody);
+	}
+
+	/**
+	 * Sends the current batch
+	 */
+	public void flush() {
+		List<Map> batch;
+		String batchBody;
+		synchronized (lock) {
+			if (documents.isEmpty())
+				return;
+			batch = documents;
+			batchBody = requestBody.toString();
+			documents = new ArrayList<>();
+			requestBody = new StringBuilder();
+		}
+		send(batch, batchBody);
+	}
+
+	private void send(List<Map> batch, String batchBody) {
+		try {
+			Map response = null;
+			try {
+				response = elasticService.bulk(batchBody);
+			} catch (Exception e) {
+				LOGGER.error("Exception while posting the bulk request : " + e.getMessage());
+			}
+			List items = response == null ? null : (List) response.get("items");
+			if (items == null || items.size() != batch.size()) {
+				batch.forEach(document -> deadLetter(document, "Bulk request failed"));
+				return;
+			}
+
+			int created = 0;
+			List<Map> indexed = new ArrayList<>();
+			for (int i = 0; i < batch.size(); i++) {
+				Map result = (Map) ((Map) items.get(i)).values().iterator().next();
+				Object error = result.get("error");
+				if (error != null) {
+					deadLetter(batch.get(i), String.valueOf(error));
+				} else {
+					if (Integer.valueOf(201).equals(result.get("status")))
+						created++;
+					indexed.add(batch.get(i));
+				}
+			}
+			rollupService.rollup(indexed);
+			LOGGER.info("Bulk pushed {} documents to {}, created :: {}", batch.size(), collectionIndexName, created);
+		} finally {
+			lookupCache.clear();
+		}
+	}
+
+	private void deadLetter(Map document, String error) {
+		ErrorWrapper errorWrapper = new ErrorWrapper();
+		errorWrapper.setErrorCode(ERROR_CODE);
+		errorWrapper.setErrorMessage(error);
+		errorWrapper.setIncomingData(document);
+		try {
+			ingestProducer.pushToPipeline(errorWrapper, deadLetterTopic, elasticService.getDocumentId(document));
+		} catch (Exception e) {
+			LOGGER.error("Exception while pushing to the dead letter topic : " + e.getMessage());
+		}
+	}
+}
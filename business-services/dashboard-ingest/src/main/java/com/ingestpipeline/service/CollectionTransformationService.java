@@ -13,11 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service(Constants.Qualifiers.TRANSFORM_COLLECTION_SERVICE)
 public class CollectionTransformationService implements TransformService {
@@ -41,6 +44,19 @@ public class CollectionTransformationService implements TransformService {
 
     private String previousKey= "";
 
+    /**
+     * Chainrs of the spec files with the $i and $j indices of a document replaced, they are
+     * compiled once instead of for every document of every collection
+     */
+    private final Map<String, Chainr> chainrs = new ConcurrentHashMap<>();
+
+    /**
+     * Parsed spec files with the fields holding the $i and $j arrays, read once per spec file
+     */
+    private final Map<String, CompiledSpec> specs = new ConcurrentHashMap<>();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
     @Override
     public Boolean transformData(Map incomingData) {
 
@@ -50,8 +66,6 @@ public class CollectionTransformationService implements TransformService {
 
         String dataContext = incomingDataCopy.get(Constants.DATA_CONTEXT).toString();
         String dataContextVersion = incomingDataCopy.get(Constants.DATA_CONTEXT_VERSION).toString();
-        ObjectMapper mapper = new ObjectMapper();
-        List chainrSpecJSON = null ;
 
         try {
 
@@ -62,8 +76,8 @@ public class CollectionTransformationService implements TransformService {
 
             //To change: for loading the file from config root
             String trsFile = OBJECTIVE.concat(SEPARATOR).concat(dataContext).concat(SEPARATOR).concat(dataContextVersion).concat(JSON_EXTENSION);
-            String strFile = configLoader.get(trsFile);
-            JsonNode specNode = mapper.readTree(strFile);
+            CompiledSpec compiledSpec = specs.computeIfAbsent(trsFile, this::compileSpec);
+            JsonNode specNode = compiledSpec.specNode;
             // LOGGER.info("specNode:## "+specNode);
 
 
@@ -80,23 +94,23 @@ public class CollectionTransformationService implements TransformService {
             //String sourceUrl = (OBJECTIVE.concat(SEPARATOR).concat(dataContext).concat(SEPARATOR).concat(dataContextVersion).concat(JSON_EXTENSION));
             //JsonNode specNode = mapper.readTree(configLoader.get(sourceUrl));
 
-            String previousField = findParentKey(specNode.findPath(JOLT_SPEC), "$i", "");
-            int parentNodeSize = incomingNode.findValues(previousField).get(0).size();
+            int parentNodeSize = incomingNode.findValues(compiledSpec.parentField).get(0).size();
 
             for(int i=0; (i<parentNodeSize); i++){
-                previousField = findParentKey(specNode.findPath(JOLT_SPEC), "$j", "");
-                ArrayNode nestedNodes = (ArrayNode)incomingNode.findValues(previousField).get(i);
+                ArrayNode nestedNodes = (ArrayNode)incomingNode.findValues(compiledSpec.nestedField).get(i);
 
                 for(int j=0; j< nestedNodes.size(); j++){
                     JsonNode idNode = nestedNodes.get(j).get(ID);
-                    String spec = specNode.toString();
-                    spec = spec.replace("$i", i+"");
-                    spec = spec.replace("$j", j+"");
-
-
-                    InputStream stream = new ByteArrayInputStream(spec.getBytes());
-                    chainrSpecJSON = JsonUtils.jsonToList(stream);
-                    Chainr chainr = Chainr.fromSpec( chainrSpecJSON );
+                    final int parentIndex = i;
+                    final int nestedIndex = j;
+                    Chainr chainr = chainrs.computeIfAbsent(trsFile + SEPARATOR + i + SEPARATOR + j, key -> {
+                        String spec = specNode.toString();
+                        spec = spec.replace("$i", parentIndex+"");
+                        spec = spec.replace("$j", nestedIndex+"");
+
+                        InputStream stream = new ByteArrayInputStream(spec.getBytes());
+                        return Chainr.fromSpec( JsonUtils.jsonToList(stream) );
+                    });
                     Object inputJSON = incomingDataCopy.get(Constants.DATA_OBJECT);
 
                     try {
@@ -128,6 +142,32 @@ public class CollectionTransformationService implements TransformService {
 
     }
 
+    private synchronized CompiledSpec compileSpec(String trsFile) {
+        try {
+            JsonNode specNode = mapper.readTree(configLoader.get(trsFile));
+            String parentField = findParentKey(specNode.findPath(JOLT_SPEC), "$i", "");
+            String nestedField = findParentKey(specNode.findPath(JOLT_SPEC), "$j", "");
+            return new CompiledSpec(specNode, parentField, nestedField);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class CompiledSpec {
+
+        private final JsonNode specNode;
+
+        private final String parentField;
+
+        private final String nestedField;
+
+        CompiledSpec(JsonNode specNode, String parentField, String nestedField) {
+            this.specNode = specNode;
+            this.parentField = parentField;
+            this.nestedField = nestedField;
+        }
+    }
+
     private String findParentKey(JsonNode node, String value, String key) {
         Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
         while (fields.hasNext()) {
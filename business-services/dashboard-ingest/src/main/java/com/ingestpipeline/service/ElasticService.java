@@ -86,6 +86,10 @@ public class ElasticService implements IESService {
 
 	private static final String SLASH_SEPERATOR  = "/";
 
+	private static final String BULK_PATH  = "_bulk";
+
+	private static final String MULTI_GET_PATH  = "_mget";
+
 	public static final Logger LOGGER = LoggerFactory.getLogger(ElasticService.class);
 
 	public String getSearchQueryCollection() {
@@ -183,14 +187,13 @@ public class ElasticService implements IESService {
 	@Override
 	public Boolean push(Map requestBody) throws Exception {
 
-		Object id = requestBody.get(Constants.IDENTIFIER);
 		Object trxid = ((Map)requestBody.get(Constants.DATA_OBJECT)).get(Constants.TRANSACTION_ID);
 		LOGGER.info("request body on ### trxid "  +trxid);
 		//Object dataObjectId = ((Map)requestBody.get(Constants.DATA_OBJECT)).get("id");
 
 
 
-		String docId = id!=null ? id.toString(): trxid.toString();
+		String docId = getDocumentId(requestBody);
 		StringBuilder url = new StringBuilder().append(indexerServiceHost).append(collectionIndexName).append(SLASH_SEPERATOR).append(DOC_PATH).append(SLASH_SEPERATOR).append(docId);
 		LOGGER.info("url ## " +url);
 
@@ -209,7 +212,7 @@ public class ElasticService implements IESService {
 		try {
 			ResponseEntity<Object> response = retryTemplate.postForEntity(url.toString(), requestEntity);
 			LOGGER.info("Status code on pushing to collection index : {}",  response.getStatusCode());
-			if (response.getStatusCode().value() == HttpStatus.CREATED.value())
+			if (response.getStatusCode().is2xxSuccessful())
 				return Boolean.TRUE;
 
 		} catch (HttpClientErrorException e) {
@@ -222,6 +225,49 @@ public class ElasticService implements IESService {
 		return Boolean.FALSE;
 	}
 
+	@Override
+	public Map bulk(String requestBody) throws Exception {
+
+		String url = indexerServiceHost + BULK_PATH;
+		HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, getHttpHeaders());
+
+		try {
+			ResponseEntity<Object> response = retryTemplate.postForEntity(url, requestEntity);
+			Map responseNode = new ObjectMapper().convertValue(response.getBody(), Map.class);
+			if (responseNode != null && Boolean.TRUE.equals(responseNode.get("errors")))
+				LOGGER.error("bulk request had failed items, took :: {}", responseNode.get("took"));
+			return responseNode;
+
+		} catch (HttpClientErrorException e) {
+			LOGGER.error("client error while posting bulk request : {}", e.getMessage());
+
+		}
+		return null;
+	}
+
+	@Override
+	public Map multiGet(String requestBody) throws Exception {
+
+		String url = indexerServiceHost + MULTI_GET_PATH;
+		HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, getHttpHeaders());
+
+		try {
+			ResponseEntity<Object> response = retryTemplate.postForEntity(url, requestEntity);
+			return new ObjectMapper().convertValue(response.getBody(), Map.class);
+
+		} catch (HttpClientErrorException e) {
+			LOGGER.error("client error while posting multi get request : {}", e.getMessage());
+
+		}
+		return null;
+	}
+
+	@Override
+	public String getDocumentId(Map requestBody) {
+		Object id = requestBody.get(Constants.IDENTIFIER);
+		return id != null ? id.toString() : ((Map) requestBody.get(Constants.DATA_OBJECT)).get(Constants.TRANSACTION_ID).toString();
+	}
+
 	@Override
 	public Boolean push(TargetData requestBody) throws Exception {
 
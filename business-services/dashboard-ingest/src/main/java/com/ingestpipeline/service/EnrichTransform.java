@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +13,6 @@ import org.springframework.stereotype.Service;
 
 import com.bazaarvoice.jolt.Chainr;
 import com.bazaarvoice.jolt.JsonUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ingestpipeline.util.ConfigLoader;
 
 @Service
@@ -33,6 +33,11 @@ public class EnrichTransform {
     private static final String VERSION = "v1";
     private static final String ENHANCE = "enhance";
 
+    /**
+     * Chainrs compiled from the spec files, the specs are fixed and a chainr is thread safe
+     */
+    private final Map<String, Chainr> chainrs = new ConcurrentHashMap<>();
+
 
 
     /**
@@ -45,13 +50,9 @@ public class EnrichTransform {
      */
     public Object transform (Map rawResponseNode, String businessService) throws IOException {
     	
-    	ObjectMapper mapper = new ObjectMapper(); 
-		List chainrSpecJSON = null ;
         Object transNode = null;
 		try {
-            chainrSpecJSON = mapper.readValue(configLoader.get(OBJECTIVE.concat(SEPARATOR).concat(businessService.toLowerCase()).concat(SEPARATOR).concat(VERSION).concat(JSON_EXTENSION)), List.class);
-            LOGGER.info("ChainrSpecJSON::" + chainrSpecJSON);
-            Chainr chainr = Chainr.fromSpec( chainrSpecJSON );
+            Chainr chainr = getChainr(OBJECTIVE.concat(SEPARATOR).concat(businessService.toLowerCase()).concat(SEPARATOR).concat(VERSION).concat(JSON_EXTENSION));
 
             Object indexData = rawResponseNode.keySet().contains("_source") ? ((Map)rawResponseNode.get("_source")).get("Data") : null;
             transNode = indexData!= null ? chainr.transform(indexData) : null;
@@ -75,15 +76,11 @@ public class EnrichTransform {
      */
     public Object transformEnhanceData (List rawResponseList, String businessService) throws IOException {
     	
-    	ObjectMapper mapper = new ObjectMapper(); 
-		List chainrSpecJSON = null ;
         Object transNode = null;
         List response = new ArrayList();
         
 		try {
-            chainrSpecJSON = mapper.readValue(configLoader.get(OBJECTIVE.concat(SEPARATOR).concat(businessService.toLowerCase()).concat(SEPARATOR).concat(ENHANCE).concat(SEPARATOR).concat(VERSION).concat(JSON_EXTENSION)), List.class);
-            LOGGER.info("ChainrSpecJSON::" + chainrSpecJSON);
-            Chainr chainr = Chainr.fromSpec( chainrSpecJSON );
+            Chainr chainr = getChainr(OBJECTIVE.concat(SEPARATOR).concat(businessService.toLowerCase()).concat(SEPARATOR).concat(ENHANCE).concat(SEPARATOR).concat(VERSION).concat(JSON_EXTENSION));
             
             for (Object object : rawResponseList) {
             	if(object instanceof Map) {
@@ -103,4 +100,12 @@ public class EnrichTransform {
 
     }
     
+    private Chainr getChainr(String specFile) {
+        return chainrs.computeIfAbsent(specFile, key -> {
+            List chainrSpecJSON = JsonUtils.jsonToList(configLoader.get(key));
+            LOGGER.info("ChainrSpecJSON::" + chainrSpecJSON);
+            return Chainr.fromSpec( chainrSpecJSON );
+        });
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.ingestpipeline.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memoizes the lookups of the enrichment, the mdms categories of a tenant and the domain
+ * records searched for a collection, for the documents of a bulk batch. The documents of
+ * a payment and the payments of a reload share most of their lookups. The lookups are
+ * dropped on every flush of a batch and at the latest after the flush interval, so
+ * updated domain records are picked up by the next batch.
+ */
+@Component
+public class EnrichmentLookupCache {
+
+	private static final Object NOT_FOUND = new Object();
+
+	@Value("${es.bulk.flush.interval.ms}")
+	private long maxAge;
+
+	private final Map<String, Object> lookups = new ConcurrentHashMap<>();
+
+	private volatile long clearedAt = System.currentTimeMillis();
+
+	/**
+	 * Returns the result of the lookup for the key, looking it up if it is not memoized yet
+	 * @param key
+	 * @param lookup
+	 * @return
+	 * @throws Exception
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String key, Callable<T> lookup) throws Exception {
+		if (System.currentTimeMillis() - clearedAt > maxAge)
+			clear();
+		Object value = lookups.get(key);
+		if (value == null) {
+			value = lookup.call();
+			lookups.put(key, value == null ? NOT_FOUND : value);
+		}
+		return value == NOT_FOUND ? null : (T) value;
+	}
+
+	public void clear() {
+		clearedAt = System.currentTimeMillis();
+		lookups.clear();
+	}
+}
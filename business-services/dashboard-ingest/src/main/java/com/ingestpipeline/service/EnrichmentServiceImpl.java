@@ -64,6 +64,8 @@ public class EnrichmentServiceImpl implements EnrichmentService {
 	private static final String DATA_ENHANCEMENT = "dataEnhancement";
 	private static final String TENANTID = "tenantId";
 	private static final String MCOLLECT = "MCOLLECT";
+	private static final String SEARCH = "search_";
+	private static final String SEARCH_MULTIPLE = "searchMultiple_";
 
 	@Autowired
 	private ElasticSearchRepository elasticRepository;
@@ -86,6 +88,9 @@ public class EnrichmentServiceImpl implements EnrichmentService {
 	@Autowired
 	private JSONUtil util;
 
+	@Autowired
+	private EnrichmentLookupCache lookupCache;
+
 	public EnrichmentServiceImpl(@Value("${services.esindexer.host}") String indexServiceHost,
 			@Value("${services.esindexer.username}") String userName,
 			@Value("${services.esindexer.password}") String password,
@@ -105,7 +110,12 @@ public class EnrichmentServiceImpl implements EnrichmentService {
 		Map<String,Object> dataObject = new ObjectMapper().convertValue(incomingData.get(DATA_OBJECT), Map.class);
 		String tenantId = dataObject.get(TENANTID).toString();
 		
-		List<String> mCollectCategories = util.fetchMCollectCategories(tenantId);
+		List<String> mCollectCategories;
+		try {
+			mCollectCategories = lookupCache.get(MCOLLECT + SEPARATOR + tenantId, () -> util.fetchMCollectCategories(tenantId));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
 
 		DomainConfig domainConfig = domainConfigFactory.getConfiguration(incomingData.get(DATA_CONTEXT).toString());
 		LOGGER.info("domainConfig ## "+domainConfig);
@@ -161,7 +171,8 @@ public class EnrichmentServiceImpl implements EnrichmentService {
 
 					}
 					LOGGER.info("Query node "+ queryNode);
-					Map domainNode = elasticService.search(indexName, queryNode.toString());
+					String searchQuery = queryNode.toString();
+					Map domainNode = lookupCache.get(SEARCH + indexName + SEPARATOR + searchQuery, () -> elasticService.search(indexName, searchQuery));
 					if(domainNode != null){
 						Object transDomainResponse = enrichTransform.transform(domainNode, businessTypeVal.toString());
 						incomingData.put("domainObject", transDomainResponse);
@@ -296,7 +307,8 @@ public class EnrichmentServiceImpl implements EnrichmentService {
 
 					}
 					LOGGER.info("Enhance Query node "+ queryNode);
-					List domainNode = elasticService.searchMultiple(indexName, queryNode.toString());
+					String searchQuery = queryNode.toString();
+					List domainNode = lookupCache.get(SEARCH_MULTIPLE + indexName + SEPARATOR + searchQuery, () -> elasticService.searchMultiple(indexName, searchQuery));
 					if(domainNode != null){
 						Object transDomainResponse = enrichTransform.transformEnhanceData(domainNode, businessTypeVal.toString());
 						Object domainObject = incomingData.get("domainObject");
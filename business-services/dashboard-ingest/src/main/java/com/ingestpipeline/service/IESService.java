@@ -52,8 +52,37 @@ public interface IESService {
     Map search(String index, String query) throws Exception;
     
     List searchMultiple(String index, String query) throws Exception;
+    /**
+     * Indexes a document in the collection index
+     * @param requestBody
+     * @return true if the document was created or updated
+     * @throws Exception
+     */
     Boolean push(Map requestBody) throws Exception;
 
+    /**
+     * Posts the newline delimited actions of a bulk request
+     * @param requestBody
+     * @return the bulk response, holding the result of every action in order, null if the request failed
+     * @throws Exception
+     */
+    Map bulk(String requestBody) throws Exception;
+
+    /**
+     * Fetches documents by id through a multi get request
+     * @param requestBody the docs to fetch
+     * @return the multi get response, holding the docs in the order they were asked for, null if the request failed
+     * @throws Exception
+     */
+    Map multiGet(String requestBody) throws Exception;
+
+    /**
+     * Returns the id of a document of the collection index
+     * @param requestBody
+     * @return
+     */
+    String getDocumentId(Map requestBody);
+
 
     /**
      * Translates a string query to SearchRequest
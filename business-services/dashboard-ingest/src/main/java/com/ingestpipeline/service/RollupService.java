@@ -0,0 +1,375 @@
+package com.ingestpipeline.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ingestpipeline.model.Rollup;
+import com.ingestpipeline.model.RollupConfig;
+import com.ingestpipeline.util.ConfigLoader;
+import com.ingestpipeline.util.Constants;
+
+/**
+ * Maintains the daily and monthly pre-aggregated documents of the rollups in RollupConfig.json.
+ * Every document pushed to the collection index adds its count and metrics to the rollup
+ * documents of its tenant, module and day/month through scripted upserts, so the charts can
+ * aggregate a few documents per bucket instead of every collection.
+ *
+ * What a document added is kept in a contribution document next to the buckets. When the
+ * document is pushed again its previous contribution is taken out of the buckets and the new
+ * one added, so an update that excludes the document, like the cancellation of its bill, or
+ * moves it to another day is reflected the way the raw index counts it, and a replayed push
+ * changes nothing. The contributions are read before the buckets are written: two pushes of
+ * the same document rolled up at the same time can both apply their change, and a push whose
+ * contributions can't be read is not rolled up. Either leaves the buckets off until the rollup
+ * is rebuilt, by dropping its index and ingesting the collections into a fresh collection index.
+ */
+@Service
+public class RollupService {
+
+	public static final Logger LOGGER = LoggerFactory.getLogger(RollupService.class);
+	private static final String ROLLUP_CONFIG = "RollupConfig.json";
+	private static final String DAY = "day";
+	private static final String MONTH = "month";
+	private static final String CONTRIBUTION = "contribution";
+	private static final String GRANULARITY = "granularity";
+	private static final String BUCKETS = "buckets";
+	private static final String METRICS = "metrics";
+	private static final String ID = "id";
+	private static final String COUNT = "count";
+	private static final String INCREMENT_SCRIPT = "for (entry in params.metrics.entrySet()) { "
+			+ "ctx._source.metrics[entry.getKey()] = (ctx._source.metrics[entry.getKey()] ?: 0) + entry.getValue(); }";
+
+	@Value("${es.rollup.enabled}")
+	private Boolean rollupEnabled;
+
+	@Value("${es.rollup.timezone}")
+	private String rollupTimeZone;
+
+	@Value("${es.index.type}")
+	private String documentType;
+
+	@Autowired
+	private ConfigLoader configLoader;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Autowired
+	private IESService elasticService;
+
+	private List<Rollup> rollups = new ArrayList<>();
+
+	public void loadRollups() {
+		try {
+			RollupConfig rollupConfig = mapper.readValue(configLoader.get(ROLLUP_CONFIG), RollupConfig.class);
+			rollups = rollupConfig.getRollups();
+			LOGGER.info("Number of rollups loaded " + rollups.size());
+		} catch (Exception e) {
+			LOGGER.error("Encountered an error while reading Rollup Configuration" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Rolls up a document created or updated in the collection index
+	 * @param document
+	 */
+	public void rollup(Map document) {
+		rollup(Collections.singletonList(document));
+	}
+
+	/**
+	 * Rolls up documents created or updated in the collection index, in the order they were
+	 * indexed. Failures are logged, the ingestion of the documents doesn't depend on their rollups.
+	 * @param documents
+	 */
+	public void rollup(List<Map> documents) {
+		if (!rollupEnabled || rollups.isEmpty() || documents.isEmpty())
+			return;
+		try {
+			StringBuilder requestBody = new StringBuilder();
+			appendActions(documents, requestBody);
+			post(requestBody);
+		} catch (Exception e) {
+			LOGGER.error("Exception while rolling up the documents : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Appends the bulk actions replacing the previous contributions of the documents to the
+	 * rollups by their current ones
+	 * @param documents
+	 * @param requestBody
+	 * @throws Exception when the previous contributions can't be read
+	 */
+	void appendActions(List<Map> documents, StringBuilder requestBody) throws Exception {
+		List<Contribution> contributions = new ArrayList<>();
+		for (Map document : documents) {
+			if (!(document.get(Constants.DATA_OBJECT) instanceof Map))
+				continue;
+			Map dataObject = (Map) document.get(Constants.DATA_OBJECT);
+			try {
+				String documentId = elasticService.getDocumentId(document);
+				List<Contribution> documentContributions = new ArrayList<>();
+				for (Rollup rollup : rollups)
+					documentContributions.add(new Contribution(rollup, CONTRIBUTION + "_" + documentId,
+							getContribution(rollup, dataObject)));
+				contributions.addAll(documentContributions);
+			} catch (Exception e) {
+				LOGGER.error("Exception while rolling up the document : " + e.getMessage());
+			}
+		}
+		if (contributions.isEmpty())
+			return;
+
+		Map<String, JsonNode> latest = fetchContributions(contributions);
+		for (Contribution contribution : contributions) {
+			String key = contribution.rollup.getIndexName() + "/" + contribution.id;
+			JsonNode previous = latest.get(key);
+			latest.put(key, contribution.current);
+			appendActions(contribution.rollup, contribution.id, previous, contribution.current, requestBody);
+		}
+	}
+
+	/**
+	 * Posts the appended rollup actions
+	 * @param requestBody
+	 */
+	public void post(StringBuilder requestBody) {
+		if (requestBody.length() == 0)
+			return;
+		try {
+			Map response = elasticService.bulk(requestBody.toString());
+			if (response == null || !Boolean.FALSE.equals(response.get("errors")))
+				LOGGER.error("Rolling up the documents failed");
+		} catch (Exception e) {
+			LOGGER.error("Exception while rolling up the documents : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the buckets the document counts in and the metrics it adds to each of them, null
+	 * when the rollup excludes the document or the document lacks a tenant, module or date
+	 */
+	private ObjectNode getContribution(Rollup rollup, Map dataObject) {
+		for (Map.Entry<String, String[]> exclude : rollup.getExcludes().entrySet()) {
+			List<String> excludedValues = Arrays.asList(exclude.getValue());
+			for (Object value : getValues(dataObject, exclude.getKey())) {
+				if (excludedValues.contains(String.valueOf(value)))
+					return null;
+			}
+		}
+		List<Object> tenantIds = getValues(dataObject, rollup.getTenantField());
+		Set<String> modules = new LinkedHashSet<>();
+		getValues(dataObject, rollup.getModuleField()).forEach(module -> modules.add(String.valueOf(module)));
+		Set<Long> dates = new LinkedHashSet<>();
+		getValues(dataObject, rollup.getDateField()).forEach(date -> {
+			Double epoch = toNumber(date);
+			if (epoch != null)
+				dates.add(epoch.longValue());
+		});
+		if (tenantIds.isEmpty() || modules.isEmpty() || dates.isEmpty())
+			return null;
+
+		// multi valued fields are summed by a sum aggregation, a document matching more than
+		// one module or date adds its whole sum to each of them
+		Map<String, Double> metrics = new HashMap<>();
+		metrics.put(COUNT, 1d);
+		rollup.getMetrics().forEach((name, field) -> {
+			double sum = 0;
+			for (Object value : getValues(dataObject, field)) {
+				Double number = toNumber(value);
+				if (number != null)
+					sum += number;
+			}
+			metrics.put(name, sum);
+		});
+
+		ObjectNode contribution = mapper.createObjectNode();
+		contribution.put(GRANULARITY, CONTRIBUTION);
+		ArrayNode buckets = contribution.putArray(BUCKETS);
+		contribution.set(METRICS, mapper.valueToTree(metrics));
+
+		String tenantId = String.valueOf(tenantIds.get(0));
+		ZoneId zone = ZoneId.of(rollupTimeZone);
+		Set<String> bucketIds = new LinkedHashSet<>();
+		for (String module : modules) {
+			for (Long date : dates) {
+				ZonedDateTime day = Instant.ofEpochMilli(date).atZone(zone).truncatedTo(ChronoUnit.DAYS);
+				addBucket(DAY, tenantId, module, day, bucketIds, buckets);
+				addBucket(MONTH, tenantId, module, day.withDayOfMonth(1), bucketIds, buckets);
+			}
+		}
+		return contribution;
+	}
+
+	private void addBucket(String granularity, String tenantId, String module, ZonedDateTime bucket,
+			Set<String> bucketIds, ArrayNode buckets) {
+		long bucketStart = bucket.toInstant().toEpochMilli();
+		String id = granularity + "_" + tenantId + "_" + module + "_" + bucketStart;
+		if (bucketIds.add(id))
+			buckets.addObject().put(ID, id).put(GRANULARITY, granularity).put("tenantId", tenantId)
+					.put("module", module).put("bucketStart", bucketStart);
+	}
+
+	/**
+	 * Returns the stored contributions by index and id, read in one multi get
+	 */
+	private Map<String, JsonNode> fetchContributions(List<Contribution> contributions) throws Exception {
+		ObjectNode request = mapper.createObjectNode();
+		ArrayNode docs = request.putArray("docs");
+		contributions.forEach(contribution -> docs.addObject().put("_index", contribution.rollup.getIndexName())
+				.put("_type", documentType).put("_id", contribution.id));
+		Map response = elasticService.multiGet(request.toString());
+		List results = response == null ? null : (List) response.get("docs");
+		if (results == null || results.size() != contributions.size())
+			throw new IllegalStateException("Reading the rollup contributions failed");
+
+		// the docs are returned in the order they were asked for, the index of a doc may be
+		// the one behind an alias
+		Map<String, JsonNode> stored = new HashMap<>();
+		for (int i = 0; i < results.size(); i++) {
+			Map result = (Map) results.get(i);
+			if (result.get("error") != null)
+				throw new IllegalStateException("Reading the rollup contributions failed : " + result.get("error"));
+			Contribution contribution = contributions.get(i);
+			if (Boolean.TRUE.equals(result.get("found")))
+				stored.put(contribution.rollup.getIndexName() + "/" + contribution.id,
+						mapper.valueToTree(result.get("_source")));
+		}
+		return stored;
+	}
+
+	/**
+	 * Appends the updates taking the previous contribution out of its buckets and adding the
+	 * current one, followed by the write of the current contribution. Nothing is appended when
+	 * the buckets stay the same.
+	 */
+	private void appendActions(Rollup rollup, String contributionId, JsonNode previous, JsonNode current,
+			StringBuilder requestBody) {
+		Map<String, JsonNode> buckets = new LinkedHashMap<>();
+		Map<String, Map<String, Double>> deltas = new LinkedHashMap<>();
+		addDeltas(previous, -1, buckets, deltas);
+		addDeltas(current, 1, buckets, deltas);
+
+		boolean changed = false;
+		for (Map.Entry<String, Map<String, Double>> delta : deltas.entrySet()) {
+			if (delta.getValue().values().stream().allMatch(value -> value == 0))
+				continue;
+			appendBucketAction(rollup, buckets.get(delta.getKey()), delta.getValue(), requestBody);
+			changed = true;
+		}
+		if (!changed)
+			return;
+
+		ObjectNode action = mapper.createObjectNode();
+		ObjectNode metadata = action.putObject(current == null ? "delete" : "index");
+		metadata.put("_index", rollup.getIndexName()).put("_type", documentType).put("_id", contributionId);
+		requestBody.append(action.toString()).append('\n');
+		if (current != null)
+			requestBody.append(current.toString()).append('\n');
+	}
+
+	private void addDeltas(JsonNode contribution, int sign, Map<String, JsonNode> buckets,
+			Map<String, Map<String, Double>> deltas) {
+		if (contribution == null)
+			return;
+		for (JsonNode bucket : contribution.get(BUCKETS)) {
+			String id = bucket.get(ID).asText();
+			buckets.putIfAbsent(id, bucket);
+			Map<String, Double> bucketDeltas = deltas.computeIfAbsent(id, bucketId -> new LinkedHashMap<>());
+			contribution.get(METRICS).fields().forEachRemaining(
+					metric -> bucketDeltas.merge(metric.getKey(), sign * metric.getValue().asDouble(), Double::sum));
+		}
+	}
+
+	private void appendBucketAction(Rollup rollup, JsonNode bucket, Map<String, Double> metrics,
+			StringBuilder requestBody) {
+		ObjectNode action = mapper.createObjectNode();
+		action.putObject("update").put("_index", rollup.getIndexName()).put("_type", documentType)
+				.put("_id", bucket.get(ID).asText()).put("retry_on_conflict", 5);
+
+		ObjectNode update = mapper.createObjectNode();
+		ObjectNode script = update.putObject("script");
+		script.put("source", INCREMENT_SCRIPT).put("lang", "painless");
+		script.putObject("params").set(METRICS, mapper.valueToTree(metrics));
+		ObjectNode upsert = update.putObject("upsert");
+		bucket.fields().forEachRemaining(field -> {
+			if (!field.getKey().equals(ID))
+				upsert.set(field.getKey(), field.getValue());
+		});
+		upsert.set(METRICS, mapper.valueToTree(metrics));
+
+		requestBody.append(action.toString()).append('\n').append(update.toString()).append('\n');
+	}
+
+	/**
+	 * Returns the values at a dot separated path, a list on the path contributes each of its values
+	 */
+	private List<Object> getValues(Object node, String path) {
+		List<Object> values = new ArrayList<>();
+		if (StringUtils.isBlank(path))
+			return values;
+		collectValues(node, path.split("\\."), 0, values);
+		return values;
+	}
+
+	private void collectValues(Object node, String[] keys, int depth, List<Object> values) {
+		if (node instanceof Collection) {
+			for (Object element : (Collection) node)
+				collectValues(element, keys, depth, values);
+		} else if (depth == keys.length) {
+			if (node != null)
+				values.add(node);
+		} else if (node instanceof Map) {
+			collectValues(((Map) node).get(keys[depth]), keys, depth + 1, values);
+		}
+	}
+
+	private Double toNumber(Object value) {
+		if (value instanceof Number)
+			return ((Number) value).doubleValue();
+		try {
+			return value == null ? null : Double.valueOf(value.toString());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static class Contribution {
+
+		private final Rollup rollup;
+
+		private final String id;
+
+		private final ObjectNode current;
+
+		private Contribution(Rollup rollup, String id, ObjectNode current) {
+			this.rollup = rollup;
+			this.id = id;
+			this.current = current;
+		}
+	}
+}
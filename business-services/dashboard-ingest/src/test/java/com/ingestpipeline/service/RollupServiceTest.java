@@ -0,0 +1,278 @@
+package com.ingestpipeline.service;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ingestpipeline.util.ConfigLoader;
+
+import junit.framework.TestCase;
+
+public class RollupServiceTest extends TestCase {
+
+	private static final String INDEX = "dss-collection-rollup_v1";
+
+	private static final String TENANT = "pb.amritsar";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private StubElasticService elasticService;
+
+	private RollupService rollupService;
+
+	@Override
+	protected void setUp() throws Exception {
+		elasticService = new StubElasticService();
+		rollupService = rollupService("UTC");
+	}
+
+	public void testCreateAddsToTheDayAndMonthBuckets() {
+		long receiptDate = epoch(2026, 10, 19, 10, "UTC");
+
+		rollupService.rollup(collection("c1", payment("PT", receiptDate, 500, "Active")));
+
+		assertBucket("day", "PT", epoch(2026, 10, 19, 0, "UTC"), 1, 500);
+		assertBucket("month", "PT", epoch(2026, 10, 1, 0, "UTC"), 1, 500);
+		assertEquals(3, elasticService.documents.size());
+		assertTrue(elasticService.documents.containsKey(INDEX + "/contribution_c1"));
+	}
+
+	public void testReplayedPushChangesNothing() {
+		Map document = collection("c1", payment("PT", epoch(2026, 10, 19, 10, "UTC"), 500, "Active"));
+		rollupService.rollup(document);
+		rollupService.rollup(document);
+
+		assertEquals(1, elasticService.bulkRequests);
+		assertBucket("day", "PT", epoch(2026, 10, 19, 0, "UTC"), 1, 500);
+	}
+
+	public void testCancelledBillTakesTheCollectionOut() {
+		long receiptDate = epoch(2026, 10, 19, 10, "UTC");
+		rollupService.rollup(collection("c1", payment("PT", receiptDate, 500, "Active")));
+		rollupService.rollup(collection("c2", payment("PT", receiptDate, 200, "Active")));
+
+		rollupService.rollup(collection("c1", payment("PT", receiptDate, 500, "Cancelled")));
+
+		assertBucket("day", "PT", epoch(2026, 10, 19, 0, "UTC"), 1, 200);
+		assertBucket("month", "PT", epoch(2026, 10, 1, 0, "UTC"), 1, 200);
+		assertFalse(elasticService.documents.containsKey(INDEX + "/contribution_c1"));
+	}
+
+	public void testExcludedCollectionIsNotRolledUp() {
+		rollupService.rollup(collection("c1", payment("PT", epoch(2026, 10, 19, 10, "UTC"), 500, "Cancelled")));
+
+		assertEquals(0, elasticService.bulkRequests);
+		assertTrue(elasticService.documents.isEmpty());
+	}
+
+	public void testUpdateMovesTheCollectionToItsNewDay() {
+		rollupService.rollup(collection("c1", payment("PT", epoch(2026, 10, 19, 10, "UTC"), 500, "Active")));
+
+		rollupService.rollup(collection("c1", payment("PT", epoch(2026, 10, 20, 10, "UTC"), 500, "Active")));
+
+		assertBucket("day", "PT", epoch(2026, 10, 19, 0, "UTC"), 0, 0);
+		assertBucket("day", "PT", epoch(2026, 10, 20, 0, "UTC"), 1, 500);
+		assertBucket("month", "PT", epoch(2026, 10, 1, 0, "UTC"), 1, 500);
+		// the month bucket is left alone, its metrics did not change
+		assertEquals(1, elasticService.bucketUpdates.get("month_" + TENANT + "_PT_" + epoch(2026, 10, 1, 0, "UTC")).intValue());
+	}
+
+	public void testMultiValuedFieldsAddTheWholeSumToEachBucket() {
+		long firstDate = epoch(2026, 10, 19, 10, "UTC");
+		long secondDate = epoch(2026, 11, 2, 10, "UTC");
+
+		rollupService.rollup(collection("c1", payment("PT", firstDate, 300, "Active"), payment("TL", secondDate, 200, "Active")));
+
+		for (String module : Arrays.asList("PT", "TL")) {
+			assertBucket("day", module, epoch(2026, 10, 19, 0, "UTC"), 1, 500);
+			assertBucket("day", module, epoch(2026, 11, 2, 0, "UTC"), 1, 500);
+			assertBucket("month", module, epoch(2026, 10, 1, 0, "UTC"), 1, 500);
+			assertBucket("month", module, epoch(2026, 11, 1, 0, "UTC"), 1, 500);
+		}
+	}
+
+	public void testAnyExcludedValueOfMultiValuedFieldExcludes() {
+		long receiptDate = epoch(2026, 10, 19, 10, "UTC");
+
+		rollupService.rollup(collection("c1", payment("PT", receiptDate, 300, "Active"),
+				payment("PT", receiptDate, 200, "Cancelled")));
+
+		assertEquals(0, elasticService.bulkRequests);
+	}
+
+	public void testBucketsStartInTheRollupZone() throws Exception {
+		rollupService = rollupService("Asia/Kolkata");
+
+		// 01:30 on the 1st of November in Kolkata
+		rollupService.rollup(collection("c1", payment("PT", epoch(2026, 10, 31, 20, "UTC"), 500, "Active")));
+
+		assertBucket("day", "PT", epoch(2026, 11, 1, 0, "Asia/Kolkata"), 1, 500);
+		assertBucket("month", "PT", epoch(2026, 11, 1, 0, "Asia/Kolkata"), 1, 500);
+	}
+
+	public void testPushesOfADocumentInOneBatchAreAppliedInOrder() {
+		long receiptDate = epoch(2026, 10, 19, 10, "UTC");
+
+		rollupService.rollup(Arrays.asList(collection("c1", payment("PT", receiptDate, 500, "Active")),
+				collection("c1", payment("PT", receiptDate, 700, "Active"))));
+
+		assertEquals(1, elasticService.multiGetRequests);
+		assertBucket("day", "PT", epoch(2026, 10, 19, 0, "UTC"), 1, 700);
+	}
+
+	public void testBatchIsSkippedWhenContributionsCantBeRead() {
+		elasticService.failMultiGet = true;
+
+		rollupService.rollup(collection("c1", payment("PT", epoch(2026, 10, 19, 10, "UTC"), 500, "Active")));
+
+		assertEquals(0, elasticService.bulkRequests);
+	}
+
+	private RollupService rollupService(String timeZone) throws Exception {
+		RollupService service = new RollupService();
+		setField(service, "rollupEnabled", Boolean.TRUE);
+		setField(service, "rollupTimeZone", timeZone);
+		setField(service, "documentType", "general");
+		setField(service, "mapper", mapper);
+		setField(service, "configLoader", new StubConfigLoader());
+		setField(service, "elasticService", elasticService);
+		service.loadRollups();
+		return service;
+	}
+
+	private void assertBucket(String granularity, String module, long bucketStart, double count, double amount) {
+		String id = INDEX + "/" + granularity + "_" + TENANT + "_" + module + "_" + bucketStart;
+		JsonNode bucket = elasticService.documents.get(id);
+		assertNotNull("no bucket " + id, bucket);
+		assertEquals(granularity, bucket.get("granularity").asText());
+		assertEquals(bucketStart, bucket.get("bucketStart").asLong());
+		assertEquals(count, bucket.get("metrics").get("count").asDouble(), 0);
+		assertEquals(amount, bucket.get("metrics").get("totalAmountPaid").asDouble(), 0);
+	}
+
+	private Map collection(String id, Map... paymentDetails) {
+		Map<String, Object> dataObject = new LinkedHashMap<>();
+		dataObject.put("tenantId", TENANT);
+		dataObject.put("paymentDetails", Arrays.asList(paymentDetails));
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("identifier", id);
+		document.put("dataObject", dataObject);
+		return document;
+	}
+
+	private Map payment(String businessService, long receiptDate, double amount, String billStatus) {
+		Map<String, Object> bill = new HashMap<>();
+		bill.put("status", billStatus);
+		Map<String, Object> payment = new HashMap<>();
+		payment.put("businessService", businessService);
+		payment.put("receiptDate", receiptDate);
+		payment.put("totalAmountPaid", amount);
+		payment.put("bill", bill);
+		return payment;
+	}
+
+	private static long epoch(int year, int month, int day, int hour, String zone) {
+		return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, ZoneId.of(zone)).toInstant().toEpochMilli();
+	}
+
+	private static void setField(Object target, String name, Object value) throws Exception {
+		Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	/**
+	 * Serves the RollupConfig.json of the service
+	 */
+	private static class StubConfigLoader extends ConfigLoader {
+
+		@Override
+		public String get(String name) {
+			InputStream config = RollupServiceTest.class.getResourceAsStream("/config/" + name);
+			try (Scanner scanner = new Scanner(config, "UTF-8")) {
+				return scanner.useDelimiter("\\A").next();
+			}
+		}
+	}
+
+	/**
+	 * Keeps the documents of the rollup index in memory and applies the bulk actions of the
+	 * rollups the way the increment script does
+	 */
+	private class StubElasticService extends ElasticService {
+
+		private final Map<String, JsonNode> documents = new HashMap<>();
+
+		private final Map<String, Integer> bucketUpdates = new HashMap<>();
+
+		private int bulkRequests;
+
+		private int multiGetRequests;
+
+		private boolean failMultiGet;
+
+		@Override
+		public Map multiGet(String requestBody) throws Exception {
+			multiGetRequests++;
+			if (failMultiGet)
+				return null;
+			List<Map> docs = new ArrayList<>();
+			for (JsonNode doc : mapper.readTree(requestBody).get("docs")) {
+				String key = doc.get("_index").asText() + "/" + doc.get("_id").asText();
+				Map<String, Object> result = new LinkedHashMap<>();
+				result.put("_index", doc.get("_index").asText());
+				result.put("_id", doc.get("_id").asText());
+				result.put("found", documents.containsKey(key));
+				if (documents.containsKey(key))
+					result.put("_source", mapper.convertValue(documents.get(key), Map.class));
+				docs.add(result);
+			}
+			Map<String, Object> response = new HashMap<>();
+			response.put("docs", docs);
+			return response;
+		}
+
+		@Override
+		public Map bulk(String requestBody) throws Exception {
+			bulkRequests++;
+			Iterator<String> lines = Arrays.asList(requestBody.split("\n")).iterator();
+			while (lines.hasNext()) {
+				JsonNode action = mapper.readTree(lines.next());
+				String type = action.fieldNames().next();
+				JsonNode metadata = action.get(type);
+				String id = metadata.get("_id").asText();
+				String key = metadata.get("_index").asText() + "/" + id;
+				if (type.equals("delete")) {
+					documents.remove(key);
+				} else if (type.equals("index")) {
+					documents.put(key, mapper.readTree(lines.next()));
+				} else {
+					JsonNode update = mapper.readTree(lines.next());
+					bucketUpdates.merge(id, 1, Integer::sum);
+					if (!documents.containsKey(key)) {
+						documents.put(key, update.get("upsert"));
+						continue;
+					}
+					ObjectNode metrics = (ObjectNode) documents.get(key).get("metrics");
+					update.get("script").get("params").get("metrics").fields().forEachRemaining(metric -> metrics
+							.put(metric.getKey(), metrics.path(metric.getKey()).asDouble() + metric.getValue().asDouble()));
+				}
+			}
+			Map<String, Object> response = new HashMap<>();
+			response.put("errors", Boolean.FALSE);
+			return response;
+		}
+	}
+}
@@ -43,9 +43,39 @@ public class FileStoreConfig {
 	
 	@Value("${presigned.url.expiry.time.in.secs}")
 	private Integer preSignedUrlTimeOut;
+
+	@Value("${presigned.url.cache.refresh.margin.secs}")
+	private Long preSignedUrlRefreshMargin;
+
+	@Value("${presigned.url.cache.max.size}")
+	private Integer preSignedUrlCacheMaxSize;
+
+	@Value("${presigned.url.signer.pool.size}")
+	private Integer preSignedUrlSignerPoolSize;
 	
 	@Value("#{'${image.formats}'.split(',')}") 
 	private List<String> imageFormats;
+
+	@Value("${thumbnail.worker.pool.size}")
+	private Integer thumbnailWorkerPoolSize;
+
+	@Value("${thumbnail.poll.interval.ms}")
+	private Long thumbnailPollInterval;
+
+	@Value("${thumbnail.job.lease.ms}")
+	private Long thumbnailJobLease;
+
+	@Value("${thumbnail.job.retry.delay.ms}")
+	private Long thumbnailRetryDelay;
+
+	@Value("${thumbnail.job.max.attempts}")
+	private Integer thumbnailMaxAttempts;
+
+	@Value("${thumbnail.job.dead.retention.ms}")
+	private Long thumbnailDeadJobRetention;
+
+	@Value("${thumbnail.job.dead.purge.interval.ms}")
+	private Long thumbnailDeadJobPurgeInterval;
 	
 	@PostConstruct
 	private void enrichKeysetForFormats() {
@@ -2,9 +2,6 @@ package org.egov.filestore.domain.model;
 
 import lombok.*;
 
-import java.awt.image.BufferedImage;
-import java.util.Map;
-
 import org.egov.common.contract.request.RequestInfo;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,14 +12,10 @@ import org.springframework.web.multipart.MultipartFile;
 @Setter
 public class Artifact {
 	
-	private String fileContentInString;
-	
     private MultipartFile multipartFile;
     
     private FileLocation fileLocation;
     
-    private Map<String, BufferedImage> thumbnailImages;
-    
     private String createdBy;
 
     private String lastModifiedBy;
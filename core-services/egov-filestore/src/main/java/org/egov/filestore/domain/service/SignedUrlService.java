@@ -0,0 +1,185 @@
+package org.egov.filestore.domain.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.egov.filestore.config.FileStoreConfig;
+import org.egov.filestore.persistence.entity.Artifact;
+import org.egov.filestore.repository.CloudFilesManager;
+import org.egov.filestore.repository.impl.CloudFileMgrUtils;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Signs the urls of artifacts and their image versions.
+ *
+ * Signed urls are cached per filestore id and version until the configured
+ * margin before they expire, so a client always gets at least the margin of
+ * validity. The urls missing from the cache are signed in parallel.
+ */
+@Service
+@Slf4j
+public class SignedUrlService {
+
+	private static final String ORIGINAL = "";
+
+	private CloudFilesManager cloudFilesManager;
+
+	private CloudFileMgrUtils util;
+
+	private FileStoreConfig fileStoreConfig;
+
+	private Map<String, SignedUrl> signedUrls;
+
+	private ExecutorService signers;
+
+	@Autowired
+	public SignedUrlService(CloudFilesManager cloudFilesManager, CloudFileMgrUtils util,
+			FileStoreConfig fileStoreConfig) {
+		this.cloudFilesManager = cloudFilesManager;
+		this.util = util;
+		this.fileStoreConfig = fileStoreConfig;
+	}
+
+	@PostConstruct
+	public void init() {
+		final int maxSize = fileStoreConfig.getPreSignedUrlCacheMaxSize();
+		signedUrls = Collections.synchronizedMap(new LinkedHashMap<String, SignedUrl>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SignedUrl> eldest) {
+				return size() > maxSize;
+			}
+		});
+		signers = Executors.newFixedThreadPool(fileStoreConfig.getPreSignedUrlSignerPoolSize());
+	}
+
+	@PreDestroy
+	public void destroy() {
+		signers.shutdown();
+	}
+
+	/**
+	 * Returns a map of filestoreid and url. For images the url is followed by the
+	 * urls of the large, medium and small versions, comma separated. Don't change
+	 * this order, it is index-based and UI will break.
+	 *
+	 * @param artifacts
+	 * @return
+	 */
+	public Map<String, String> getUrls(List<Artifact> artifacts) {
+
+		long now = System.currentTimeMillis();
+		Map<String, String> urls = new HashMap<>();
+		Map<String, String> fileNamesToSign = new LinkedHashMap<>();
+		for (Artifact artifact : artifacts) {
+			getVersions(artifact).forEach((version, fileName) -> {
+				String key = getKey(artifact.getFileStoreId(), version);
+				SignedUrl signedUrl = signedUrls.get(key);
+				if (signedUrl != null && signedUrl.refreshAt > now)
+					urls.put(key, signedUrl.url);
+				else
+					fileNamesToSign.put(key, fileName);
+			});
+		}
+		urls.putAll(sign(fileNamesToSign));
+
+		Map<String, String> mapOfIdAndUrls = new HashMap<>();
+		for (Artifact artifact : artifacts) {
+			List<String> versionUrls = new ArrayList<>();
+			getVersions(artifact).keySet().forEach(version -> {
+				String url = urls.get(getKey(artifact.getFileStoreId(), version));
+				versionUrls.add(url == null ? "" : url);
+			});
+			mapOfIdAndUrls.put(artifact.getFileStoreId(), String.join(",", versionUrls));
+		}
+		return mapOfIdAndUrls;
+	}
+
+	private Map<String, String> sign(Map<String, String> fileNamesToSign) {
+		if (fileNamesToSign.isEmpty())
+			return Collections.emptyMap();
+
+		long signedAt = System.currentTimeMillis();
+		Map<String, String> urls = new HashMap<>();
+		if (fileNamesToSign.size() == 1) {
+			fileNamesToSign.forEach((key, fileName) -> urls.put(key, cloudFilesManager.getSignedUrl(fileName)));
+		} else {
+			Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+			fileNamesToSign.forEach((key, fileName) -> futures.put(key,
+					CompletableFuture.supplyAsync(() -> cloudFilesManager.getSignedUrl(fileName), signers)));
+			futures.forEach((key, future) -> urls.put(key, await(future)));
+		}
+
+		long refreshAt = signedAt + (cloudFilesManager.getSignedUrlExpiry()
+				- fileStoreConfig.getPreSignedUrlRefreshMargin()) * 1000;
+		urls.forEach((key, url) -> {
+			if (url != null)
+				signedUrls.put(key, new SignedUrl(url, refreshAt));
+		});
+		log.debug("Signed {} urls", fileNamesToSign.size());
+		return urls;
+	}
+
+	/**
+	 * Waits for a url signed on the pool, failures surface as they would from a
+	 * signing call made on the request thread
+	 */
+	private String await(CompletableFuture<String> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof CustomException)
+				throw (CustomException) e.getCause();
+			log.error("Error while signing url: ", e.getCause());
+			throw new CustomException("EG_FILESTORE_SIGN_URL_ERROR", "Failed to sign the url of the file");
+		}
+	}
+
+	/**
+	 * Returns the file names of the original and, for images, of the large,
+	 * medium and small versions, keyed by version in the order of the url list
+	 */
+	private Map<String, String> getVersions(Artifact artifact) {
+		String fileName = artifact.getFileName();
+		Map<String, String> versions = new LinkedHashMap<>();
+		versions.put(ORIGINAL, fileName);
+		if (util.isFileAnImage(fileName)) {
+			String replaceString = fileName.substring(fileName.lastIndexOf('.'), fileName.length());
+			for (String version : new String[] { fileStoreConfig.get_large(), fileStoreConfig.get_medium(),
+					fileStoreConfig.get_small() }) {
+				versions.put(version, fileName.replace(replaceString, version + replaceString));
+			}
+		}
+		return versions;
+	}
+
+	private String getKey(String fileStoreId, String version) {
+		return fileStoreId + "|" + version;
+	}
+
+	@AllArgsConstructor
+	private static class SignedUrl {
+
+		private final String url;
+
+		private final long refreshAt;
+	}
+}
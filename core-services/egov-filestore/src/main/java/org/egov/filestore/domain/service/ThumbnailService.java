@@ -0,0 +1,156 @@
+package org.egov.filestore.domain.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+
+import org.egov.filestore.config.FileStoreConfig;
+import org.egov.filestore.domain.model.Artifact;
+import org.egov.filestore.persistence.entity.ThumbnailJob;
+import org.egov.filestore.persistence.repository.ThumbnailJobRepository;
+import org.egov.filestore.repository.CloudFilesManager;
+import org.egov.filestore.repository.impl.CloudFileMgrUtils;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the small, medium and large versions of uploaded images off the
+ * upload request.
+ *
+ * Uploads enqueue a job in the thumbnail job table, a poller claims due jobs
+ * for the free workers of the pool. A worker reads the original back from the
+ * storage, stores the versions next to it and deletes the job. Failed jobs are
+ * retried with a growing delay up to the configured attempts, jobs claimed by
+ * an instance that died are retried once their lease runs out. Jobs out of
+ * attempts are dead, they are purged once past the retention.
+ */
+@Service
+@Slf4j
+public class ThumbnailService {
+
+	@Autowired
+	private ThumbnailJobRepository thumbnailJobRepository;
+
+	@Autowired
+	private CloudFilesManager cloudFilesManager;
+
+	@Autowired
+	private CloudFileMgrUtils util;
+
+	@Autowired
+	private FileStoreConfig fileStoreConfig;
+
+	private ExecutorService workers;
+
+	private ScheduledExecutorService poller;
+
+	private Semaphore idleWorkers;
+
+	@PostConstruct
+	public void init() {
+		int poolSize = fileStoreConfig.getThumbnailWorkerPoolSize();
+		idleWorkers = new Semaphore(poolSize);
+		workers = Executors.newFixedThreadPool(poolSize);
+		poller = Executors.newSingleThreadScheduledExecutor();
+		poller.scheduleWithFixedDelay(this::poll, fileStoreConfig.getThumbnailPollInterval(),
+				fileStoreConfig.getThumbnailPollInterval(), TimeUnit.MILLISECONDS);
+		poller.scheduleWithFixedDelay(this::purge, fileStoreConfig.getThumbnailDeadJobPurgeInterval(),
+				fileStoreConfig.getThumbnailDeadJobPurgeInterval(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		poller.shutdownNow();
+		workers.shutdown();
+	}
+
+	public void enqueue(List<Artifact> artifacts) {
+		thumbnailJobRepository.enqueue(artifacts);
+		try {
+			poller.execute(this::poll);
+		} catch (RejectedExecutionException e) {
+			log.debug("Thumbnail poller is shut down, jobs are picked up on the next start");
+		}
+	}
+
+	private void poll() {
+		int available = idleWorkers.drainPermits();
+		if (available == 0)
+			return;
+
+		/*
+		 * Every drained permit goes back unless a worker took it over, a failed
+		 * claim or a rejected job must not shrink the pool
+		 */
+		int handedOver = 0;
+		try {
+			List<ThumbnailJob> jobs = thumbnailJobRepository.claim(available);
+			for (ThumbnailJob job : jobs) {
+				workers.execute(() -> {
+					try {
+						process(job);
+					} finally {
+						idleWorkers.release();
+					}
+				});
+				handedOver++;
+			}
+		} catch (Exception e) {
+			log.error("Error while polling thumbnail jobs: ", e);
+		} finally {
+			idleWorkers.release(available - handedOver);
+		}
+	}
+
+	private void purge() {
+		try {
+			int purged = thumbnailJobRepository.purgeDeadJobs();
+			if (purged > 0)
+				log.info("Purged {} dead thumbnail jobs", purged);
+		} catch (Exception e) {
+			log.error("Error while purging dead thumbnail jobs: ", e);
+		}
+	}
+
+	private void process(ThumbnailJob job) {
+		try (InputStream inputStream = cloudFilesManager.getFileStream(job.getFileName())) {
+
+			Map<String, BufferedImage> mapOfImagesAndPaths = util.createVersionsOfImage(inputStream, job.getFileName());
+			if (mapOfImagesAndPaths.isEmpty())
+				throw new CustomException("EG_FILESTORE_THUMBNAIL_ERROR", "Failed to create versions of the image");
+
+			for (Map.Entry<String, BufferedImage> entry : mapOfImagesAndPaths.entrySet()) {
+				ByteArrayOutputStream os = new ByteArrayOutputStream();
+				ImageIO.write(entry.getValue(), job.getFormat(), os);
+				byte[] byteArray = os.toByteArray();
+				cloudFilesManager.saveFile(entry.getKey(), new ByteArrayInputStream(byteArray), byteArray.length,
+						job.getContentType());
+				entry.getValue().flush();
+			}
+			thumbnailJobRepository.complete(job);
+			log.debug("Thumbnails created for {}", job.getFileStoreId());
+
+		} catch (Exception e) {
+			log.error("Error while creating thumbnails for " + job.getFileStoreId() + ": ", e);
+			if (thumbnailJobRepository.fail(job, e.getMessage()))
+				log.warn("Giving up on the thumbnails of {} after {} attempts", job.getFileStoreId(),
+						job.getAttempts());
+		}
+	}
+}
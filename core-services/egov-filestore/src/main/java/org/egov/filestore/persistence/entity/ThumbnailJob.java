@@ -0,0 +1,66 @@
+package org.egov.filestore.persistence.entity;
+
+import static org.egov.filestore.persistence.entity.ThumbnailJob.SEQ_THUMBNAIL_JOB;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Pending generation of the thumbnails of an uploaded image. A job is claimed
+ * by moving its next attempt time past the lease, and deleted once the
+ * thumbnails are stored. A job out of attempts is dead, it is kept for the
+ * retention after its last attempt and then purged.
+ */
+@Getter
+@Setter
+@Table(name = "eg_filestore_thumbnail_job")
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@SequenceGenerator(name = SEQ_THUMBNAIL_JOB, sequenceName = SEQ_THUMBNAIL_JOB, allocationSize = 1)
+public class ThumbnailJob {
+	public static final String SEQ_THUMBNAIL_JOB = "SEQ_EG_FILESTORE_THUMBNAIL_JOB";
+
+	@Id
+	@GeneratedValue(generator = SEQ_THUMBNAIL_JOB, strategy = GenerationType.SEQUENCE)
+	private Long id;
+
+	@Column(name = "filestoreid")
+	private String fileStoreId;
+
+	@Column(name = "tenantid")
+	private String tenantId;
+
+	@Column(name = "filename")
+	private String fileName;
+
+	@Column(name = "contenttype")
+	private String contentType;
+
+	@Column(name = "format")
+	private String format;
+
+	@Column(name = "attempts")
+	private Integer attempts;
+
+	@Column(name = "nextattempttime")
+	private Long nextAttemptTime;
+
+	@Column(name = "lasterror")
+	private String lastError;
+
+	@Column(name = "createdtime")
+	private Long createdTime;
+}
@@ -0,0 +1,22 @@
+package org.egov.filestore.persistence.repository;
+
+import java.util.List;
+
+import org.egov.filestore.persistence.entity.ThumbnailJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ThumbnailJobJpaRepository extends JpaRepository<ThumbnailJob, Long> {
+
+	@Query(value = "SELECT * FROM eg_filestore_thumbnail_job T WHERE T.nextattempttime <= (?1) AND T.attempts < (?2) "
+			+ "ORDER BY T.nextattempttime LIMIT (?3) FOR UPDATE SKIP LOCKED", nativeQuery = true)
+	List<ThumbnailJob> findDueJobs(Long now, Integer maxAttempts, Integer limit);
+
+	@Modifying
+	@Query(value = "DELETE FROM eg_filestore_thumbnail_job T WHERE T.attempts >= (?1) AND T.nextattempttime <= (?2)",
+			nativeQuery = true)
+	int deleteDeadJobs(Integer maxAttempts, Long before);
+}
@@ -0,0 +1,94 @@
+package org.egov.filestore.persistence.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.egov.filestore.config.FileStoreConfig;
+import org.egov.filestore.domain.model.Artifact;
+import org.egov.filestore.domain.model.FileLocation;
+import org.egov.filestore.persistence.entity.ThumbnailJob;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ThumbnailJobRepository {
+
+	private static final int MAX_ERROR_LENGTH = 1024;
+
+	private ThumbnailJobJpaRepository thumbnailJobJpaRepository;
+
+	private FileStoreConfig fileStoreConfig;
+
+	public ThumbnailJobRepository(ThumbnailJobJpaRepository thumbnailJobJpaRepository,
+			FileStoreConfig fileStoreConfig) {
+		this.thumbnailJobJpaRepository = thumbnailJobJpaRepository;
+		this.fileStoreConfig = fileStoreConfig;
+	}
+
+	public void enqueue(List<Artifact> artifacts) {
+		long now = System.currentTimeMillis();
+		List<ThumbnailJob> jobs = artifacts.stream().map(artifact -> {
+			FileLocation fileLocation = artifact.getFileLocation();
+			return ThumbnailJob.builder().fileStoreId(fileLocation.getFileStoreId())
+					.tenantId(fileLocation.getTenantId()).fileName(fileLocation.getFileName())
+					.contentType(artifact.getMultipartFile().getContentType())
+					.format(FilenameUtils.getExtension(artifact.getMultipartFile().getOriginalFilename()))
+					.attempts(0).nextAttemptTime(now).createdTime(now).build();
+		}).collect(Collectors.toList());
+		thumbnailJobJpaRepository.saveAll(jobs);
+	}
+
+	/**
+	 * Claims up to limit due jobs, a claimed job is not due again until its lease
+	 * runs out, so a job of an instance that died is picked up by another one.
+	 * 
+	 * @param limit
+	 * @return
+	 */
+	@Transactional
+	public List<ThumbnailJob> claim(int limit) {
+		long now = System.currentTimeMillis();
+		List<ThumbnailJob> jobs = thumbnailJobJpaRepository.findDueJobs(now, fileStoreConfig.getThumbnailMaxAttempts(),
+				limit);
+		jobs.forEach(job -> {
+			job.setAttempts(job.getAttempts() + 1);
+			job.setNextAttemptTime(now + fileStoreConfig.getThumbnailJobLease());
+		});
+		return thumbnailJobJpaRepository.saveAll(jobs);
+	}
+
+	public void complete(ThumbnailJob job) {
+		thumbnailJobJpaRepository.deleteById(job.getId());
+	}
+
+	/**
+	 * Schedules the retry of a failed job. A job out of attempts is dead, it is
+	 * no longer claimed and its next attempt time records when it died.
+	 * 
+	 * @param job
+	 * @param error
+	 * @return true if the job is dead
+	 */
+	public boolean fail(ThumbnailJob job, String error) {
+		long now = System.currentTimeMillis();
+		boolean dead = job.getAttempts() >= fileStoreConfig.getThumbnailMaxAttempts();
+		job.setNextAttemptTime(dead ? now : now + fileStoreConfig.getThumbnailRetryDelay() * job.getAttempts());
+		job.setLastError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+		thumbnailJobJpaRepository.save(job);
+		return dead;
+	}
+
+	/**
+	 * Deletes the dead jobs older than the retention, including the jobs whose
+	 * last attempt was claimed by an instance that died
+	 * 
+	 * @return the number of jobs deleted
+	 */
+	@Transactional
+	public int purgeDeadJobs() {
+		long before = System.currentTimeMillis() - fileStoreConfig.getThumbnailDeadJobRetention();
+		return thumbnailJobJpaRepository.deleteDeadJobs(fileStoreConfig.getThumbnailMaxAttempts(), before);
+	}
+}
@@ -1,7 +1,7 @@
 package org.egov.filestore.repository;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
 
 import org.egov.filestore.domain.model.Artifact;
 
@@ -17,15 +17,41 @@ public interface CloudFilesManager {
 	public void saveFiles(List<Artifact> artifacts);
 	
 	/**
-	 * Interface to fetch files from the cloud storage. 
-	 * Takes a map of filestoreid and file path as input and returns a map of filestoreid and urls with access permissions. 
-	 * Current Implementations:
+	 * Interface to save a single stream to the cloud storage, the file name is
+	 * the complete name stored on the artifact.
+	 * 
+	 * @param fileName
+	 * @param inputStream
+	 * @param contentLength
+	 * @param contentType
+	 */
+	public void saveFile(String fileName, InputStream inputStream, long contentLength, String contentType);
+
+	/**
+	 * Interface to open a stream on a stored file, the file name is the complete
+	 * name stored on the artifact. The caller closes the stream.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public InputStream getFileStream(String fileName);
+
+	/**
+	 * Interface to sign a url with read access to a stored file, the file name is
+	 * the complete name stored on the artifact. Current Implementations:
 	 * 1. Signed Urls from AWS S3
 	 * 2. SAS Urls from Azure
 	 * 
-	 * @param mapOfIdAndFilePath
+	 * @param fileName
+	 * @return the signed url or null when the url could not be signed
+	 */
+	public String getSignedUrl(String fileName);
+
+	/**
+	 * Seconds for which a signed url stays valid
+	 * 
 	 * @return
 	 */
-	public Map<String, String> getFiles(List<org.egov.filestore.persistence.entity.Artifact> artifacts);
+	public long getSignedUrlExpiry();
 
 }
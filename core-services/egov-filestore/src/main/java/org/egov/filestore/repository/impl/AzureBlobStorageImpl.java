@@ -1,18 +1,13 @@
 package org.egov.filestore.repository.impl;
 
 import java.awt.image.BufferedImage;
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.imageio.ImageIO;
 
-import org.apache.commons.io.FilenameUtils;
 import org.egov.filestore.domain.model.Artifact;
 import org.egov.filestore.repository.AzureClientFacade;
 import org.egov.filestore.repository.CloudFilesManager;
@@ -28,7 +23,6 @@ import com.microsoft.azure.storage.blob.BlobRequestOptions;
 import com.microsoft.azure.storage.blob.CloudBlobClient;
 import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
-import com.microsoft.azure.storage.blob.ListBlobItem;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -60,14 +54,8 @@ public class AzureBlobStorageImpl implements CloudFilesManager {
 	@Value("${azure.accountKey}")
 	private String azureAccountKey;
 	
-	@Value("${image.small}")
-	private String _small;
-
-	@Value("${image.medium}")
-	private String _medium;
-
-	@Value("${image.large}")
-	private String _large;
+	@Value("${azure.sas.expiry.time.in.secs}")
+	private Integer azureSASExpiryinSecs;
 	
 	
 	/**
@@ -76,82 +64,67 @@ public class AzureBlobStorageImpl implements CloudFilesManager {
 	 */
 	@Override
 	public void saveFiles(List<Artifact> artifacts) {
-		if(null == azureBlobClient)
-			azureBlobClient = azureFacade.getAzureClient();
-		
 		artifacts.forEach(artifact -> {
-			CloudBlobContainer container= null;
 			String completeName = artifact.getFileLocation().getFileName();
 			int index = completeName.indexOf('/');
-			String containerName = completeName.substring(0, index);
 			String fileNameWithPath = completeName.substring(index + 1, completeName.length());
-			try {
-				if(isContainerFixed)
-					container = azureBlobClient.getContainerReference(fixedContainerName);
-				else
-					container = azureBlobClient.getContainerReference(containerName);
-				container.createIfNotExists(BlobContainerPublicAccessType.CONTAINER, new BlobRequestOptions(), new OperationContext());
-				
-				Long contentLength = artifact.getMultipartFile().getSize();
-				BufferedInputStream inputStream = new BufferedInputStream(artifact.getMultipartFile().getInputStream());
-				
-				if(artifact.getMultipartFile().getContentType().startsWith("image/")) {
-					String extension = FilenameUtils.getExtension(artifact.getMultipartFile().getOriginalFilename());
-					Map<String, BufferedImage> mapOfImagesAndPaths = util.createVersionsOfImage(inputStream, fileNameWithPath);
-					for(String key: mapOfImagesAndPaths.keySet()) {
-						upload(container, key, null, null, mapOfImagesAndPaths.get(key), extension);
-						mapOfImagesAndPaths.get(key).flush();
-					}
-				}
-				upload(container, fileNameWithPath, inputStream, contentLength, null, null);
-				
-				for (ListBlobItem blobItem : container.listBlobs())
-					log.info("URI of blob is: " + blobItem.getStorageUri().getPrimaryUri());
+			try (InputStream inputStream = artifact.getMultipartFile().getInputStream()) {
+				CloudBlobContainer container = getContainer(completeName);
+				upload(container, fileNameWithPath, inputStream, artifact.getMultipartFile().getSize(), null, null);
 			} catch (Exception e) {
 				log.error("Exceptione while creating the container: ", e);
 			}
 			
 		});			
 	}
-	
-	/**
-	 * There's a problem with this implementation: In case of images, we are trying to retrieve 4 different versions of the same file namely - 
-	 * small, medium, large and the original. The path stored in the db is the path of the original file only, we are making suitable changes
-	 * to that file path by appending some extensions to obtain file paths of the different versions. 
-	 * TODO: This has to be fixed, we need to keep track of all these versions by storing their paths in the db separately instead of deriving them.
-	 * 
-	 * Secondly, once these paths are obtained, their SAS urls are being returned as comma separated values in a single string, this has to change to
-	 * list of strings. We aren't taking this up because this will cause high impact on UI.
-	 * TODO: Change comma separated string to list of strings and test it with UI once their changes are done.
-	 */
-	
-	public Map<String, String> getFiles(Map<String, String> mapOfIdAndFilePath) {
+
+	@Override
+	public void saveFile(String fileName, InputStream inputStream, long contentLength, String contentType) {
+		String fileNameWithPath = fileName.substring(fileName.indexOf('/') + 1);
+		try {
+			upload(getContainer(fileName), fileNameWithPath, inputStream, contentLength, null, null);
+		} catch (CustomException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new CustomException("WG_WF_UPLOAD_ERROR", e.getMessage());
+		}
+	}
+
+	@Override
+	public InputStream getFileStream(String fileName) {
+		String fileNameWithPath = fileName.substring(fileName.indexOf('/') + 1);
+		try {
+			return getContainer(fileName).getBlockBlobReference(fileNameWithPath).openInputStream();
+		} catch (Exception e) {
+			throw new CustomException("WG_WF_DOWNLOAD_ERROR", e.getMessage());
+		}
+	}
+
+	private CloudBlobContainer getContainer(String completeName) throws Exception {
 		if(null == azureBlobClient)
 			azureBlobClient = azureFacade.getAzureClient();
-		Map<String, String> mapOfIdAndSASUrls = new HashMap<>();
-		mapOfIdAndFilePath.keySet().forEach(id -> {
-			if(util.isFileAnImage(mapOfIdAndFilePath.get(id))) {
-				
-				StringBuilder url = new StringBuilder();
-				/* Don't change the order of images within this if, it is index-based and UI will break.*/
-				String[] imageFormats = {_large, _medium, _small};
-				url.append(getSASURL(mapOfIdAndFilePath.get(id), util.generateSASToken(azureBlobClient, mapOfIdAndFilePath.get(id))));
-				String replaceString = mapOfIdAndFilePath.get(id).substring(mapOfIdAndFilePath.get(id).lastIndexOf('.'),
-						mapOfIdAndFilePath.get(id).length());
-				for(String format: Arrays.asList(imageFormats)) {
-					url.append(",");
-					String path = mapOfIdAndFilePath.get(id);
-					path = path.replaceAll(replaceString, format + replaceString);
-					url.append(getSASURL(path, util.generateSASToken(azureBlobClient, path)));
-				}
-				mapOfIdAndSASUrls.put(id, url.toString());
-			}else {
-				mapOfIdAndSASUrls.put(id, getSASURL(mapOfIdAndFilePath.get(id), util.generateSASToken(azureBlobClient, mapOfIdAndFilePath.get(id))));
-			}
-		});
-		return mapOfIdAndSASUrls;
+
+		CloudBlobContainer container = null;
+		if(isContainerFixed)
+			container = azureBlobClient.getContainerReference(fixedContainerName);
+		else
+			container = azureBlobClient.getContainerReference(completeName.substring(0, completeName.indexOf('/')));
+		container.createIfNotExists(BlobContainerPublicAccessType.CONTAINER, new BlobRequestOptions(), new OperationContext());
+		return container;
 	}
 	
+	@Override
+	public String getSignedUrl(String fileName) {
+		if(null == azureBlobClient)
+			azureBlobClient = azureFacade.getAzureClient();
+		String sasToken = util.generateSASToken(azureBlobClient, fileName);
+		return null == sasToken ? null : getSASURL(fileName, sasToken);
+	}
+
+	@Override
+	public long getSignedUrlExpiry() {
+		return azureSASExpiryinSecs;
+	}
 	
 	/**
 	 * Prepares the SASUrls for the resource on azure
@@ -194,11 +167,4 @@ public class AzureBlobStorageImpl implements CloudFilesManager {
 		}
 	}
 
-	@Override
-	public Map<String, String> getFiles(List<org.egov.filestore.persistence.entity.Artifact> artifacts) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-	
-	
 }
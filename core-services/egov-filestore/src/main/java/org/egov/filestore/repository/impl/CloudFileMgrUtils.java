@@ -80,12 +80,11 @@ public class CloudFileMgrUtils {
 			mapOfImagesAndPaths.put(fileName.replace(replaceString, fileStoreConfig.get_small() + replaceString), smallImg);
 
 			log.info("Different versions of the image created!");
+			originalImage.flush();
+		} catch (CustomException e) {
+			throw e;
 		} catch (Exception e) {
 			log.error("Error while creating different versions of the image: ", e);
-		} finally {
-			largeImage.flush();
-			mediumImg.flush();
-			smallImg.flush();
 		}
 
 		return mapOfImagesAndPaths;
@@ -24,4 +24,7 @@ public class MinioConfig {
 	@Value("${minio.source}")
 	private String source;
 
+	@Value("${minio.upload.part.size}")
+	private Long uploadPartSize;
+
 }
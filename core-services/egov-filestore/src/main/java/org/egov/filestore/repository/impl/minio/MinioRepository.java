@@ -1,8 +1,5 @@
 package org.egov.filestore.repository.impl.minio;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,14 +7,10 @@ import java.nio.file.Paths;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
-import org.apache.commons.io.FilenameUtils;
 import org.egov.filestore.config.FileStoreConfig;
 import org.egov.filestore.domain.model.FileLocation;
 import org.egov.filestore.persistence.entity.Artifact;
@@ -73,28 +66,40 @@ public class MinioRepository implements CloudFilesManager {
 			String fileNameWithPath = completeName.substring(index + 1, completeName.length());
 			push(artifact.getMultipartFile(), fileNameWithPath);
 
-			if (artifact.getThumbnailImages() != null && !artifact.getThumbnailImages().isEmpty())
-				pushThumbnailImages(artifact);
-
 			fileLocation.setFileSource(minioConfig.getSource());
 			persistList.add(mapToEntity(artifact));
 
 		});
 	}
 
-	
+	@Override
+	public void saveFile(String fileName, InputStream inputStream, long contentLength, String contentType) {
+		push(inputStream, contentLength, contentType, fileName.substring(fileName.indexOf('/') + 1));
+	}
 
-	private void push(MultipartFile multipartFile, String fileNameWithPath) {
+	@Override
+	public InputStream getFileStream(String fileName) {
 		try {
-			InputStream is = multipartFile.getInputStream();
-			long contentLength = multipartFile.getSize();
-			PutObjectOptions putObjectOptions = new PutObjectOptions(contentLength, PutObjectOptions.MAX_PART_SIZE);
-			putObjectOptions.setContentType(multipartFile.getContentType());
-			minioClient.putObject(minioConfig.getBucketName(), fileNameWithPath, is, putObjectOptions);
+			return minioClient.getObject(minioConfig.getBucketName(), fileName.substring(fileName.indexOf('/') + 1));
+		} catch (InvalidKeyException | ErrorResponseException | IllegalArgumentException | InsufficientDataException
+				| InternalException | InvalidBucketNameException | InvalidResponseException
+				| NoSuchAlgorithmException | XmlParserException | IOException e) {
+			log.error("Error while reading the file ", e);
+			throw new CustomException("ERROR_MINIO_DOWNLOAD",
+					"An error has occured while trying to download image from filestore system .");
+		}
+	}
+
+	/**
+	 * Streams the file to the bucket in parts of the configured size, so at most
+	 * one part of an upload is held in memory
+	 */
+	private void push(MultipartFile multipartFile, String fileNameWithPath) {
+		try (InputStream is = multipartFile.getInputStream()) {
+			push(is, multipartFile.getSize(), multipartFile.getContentType(), fileNameWithPath);
 			log.debug("Upload Successful");
 
-		} catch (MinioException | InvalidKeyException | IllegalArgumentException | NoSuchAlgorithmException
-				| IOException e) {
+		} catch (IOException e) {
 			log.error("Error occurred: ", e);
 			throw new RuntimeException(ERROR_IN_CONFIGURATION);
 		}
@@ -103,7 +108,7 @@ public class MinioRepository implements CloudFilesManager {
 
 	private void push(InputStream is, long contentLength, String contentType, String fileNameWithPath) {
 		try {
-			PutObjectOptions putObjectOptions = new PutObjectOptions(contentLength, PutObjectOptions.MAX_PART_SIZE);
+			PutObjectOptions putObjectOptions = new PutObjectOptions(contentLength, minioConfig.getUploadPartSize());
 			putObjectOptions.setContentType(contentType);
 			minioClient.putObject(minioConfig.getBucketName(), fileNameWithPath, is, putObjectOptions);
 
@@ -115,70 +120,17 @@ public class MinioRepository implements CloudFilesManager {
 
 	}
 
-	private void pushThumbnailImages(org.egov.filestore.domain.model.Artifact artifact) {
-
-		try {
-
-			for (Map.Entry<String, BufferedImage> entry : artifact.getThumbnailImages().entrySet()) {
-				ByteArrayOutputStream os = new ByteArrayOutputStream();
-				ImageIO.write(entry.getValue(),
-						FilenameUtils.getExtension(artifact.getMultipartFile().getOriginalFilename()), os);
-				byte[] byteArray = os.toByteArray();
-				ByteArrayInputStream is = new ByteArrayInputStream(byteArray);
-				push(is, byteArray.length, artifact.getMultipartFile().getContentType(), entry.getKey());
-				os.flush();
-			}
-
-		} catch (Exception ioe) {
-
-			Map<String, String> map = new HashMap<>();
-			log.error("Exception while uploading the image: ", ioe);
-			map.put("ERROR_MINIO_UPLOAD", "An error has occured while trying to upload image to filestore system .");
-			throw new CustomException(map);
-		}
+	@Override
+	public String getSignedUrl(String fileName) {
+		return presign(fileName.substring(fileName.indexOf('/') + 1));
 	}
 
 	@Override
-	public Map<String, String> getFiles(List<Artifact> artifacts) {
-
-		Map<String, String> mapOfIdAndSASUrls = new HashMap<>();
-
-		for(Artifact artifact : artifacts) {
-			
-			String fileLocation = artifact.getFileLocation().getFileName();
-			String fileName = fileLocation.
-					substring(fileLocation.indexOf('/') + 1, fileLocation.length());
-			String signedUrl = getSignedUrl(fileName);
-			if (util.isFileAnImage(artifact.getFileName())) {
-				try {
-					signedUrl = setThumnailSignedURL(fileName, new StringBuilder(signedUrl));
-				} catch (InvalidKeyException | ErrorResponseException | IllegalArgumentException
-						| InsufficientDataException | InternalException | InvalidBucketNameException
-						| InvalidExpiresRangeException | InvalidResponseException | NoSuchAlgorithmException
-						| XmlParserException | IOException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-			}
-			
-			mapOfIdAndSASUrls.put(artifact.getFileStoreId(), signedUrl);
-			
-		}
-		return mapOfIdAndSASUrls;
+	public long getSignedUrlExpiry() {
+		return fileStoreConfig.getPreSignedUrlTimeOut();
 	}
-		
-	private String setThumnailSignedURL(String fileName, StringBuilder url) throws InvalidKeyException, ErrorResponseException, IllegalArgumentException, InsufficientDataException, InternalException, InvalidBucketNameException, InvalidExpiresRangeException, InvalidResponseException, NoSuchAlgorithmException, XmlParserException, IOException {
-		String[] imageFormats = { fileStoreConfig.get_large(), fileStoreConfig.get_medium(), fileStoreConfig.get_small() };
-		for (String  format : Arrays.asList(imageFormats)) {
-			url.append(",");
-			String replaceString = fileName.substring(fileName.lastIndexOf('.'), fileName.length());
-			String path = fileName.replaceAll(replaceString, format + replaceString);
-			url.append(getSignedUrl(path));
-		}
-		return url.toString();
-	}
-	
-	private String getSignedUrl(String fileName) {
+
+	private String presign(String fileName) {
 
 		String signedUrl = null;
 		try {
@@ -1,10 +1,10 @@
 package org.egov.filestore.validator;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.tika.Tika;
 import org.egov.filestore.config.FileStoreConfig;
 import org.egov.filestore.domain.model.Artifact;
@@ -30,7 +30,7 @@ public class StorageValidator {
 			
 		String extension = (FilenameUtils.getExtension(artifact.getMultipartFile().getOriginalFilename())).toLowerCase();
 		validateFileExtention(extension);
-		validateContentType(artifact.getFileContentInString(), extension);
+		validateContentType(artifact.getMultipartFile(), extension);
 		validateInputContentType(artifact);
 	}
 	
@@ -40,15 +40,16 @@ public class StorageValidator {
 		}
 	}
 	
-	private void validateContentType(String inputStreamAsString, String extension) {
+	/**
+	 * Detects the format from the leading bytes of the file, tika only reads as
+	 * much of the stream as the magic bytes of the formats need
+	 */
+	private void validateContentType(MultipartFile file, String extension) {
 		
 		String inputFormat = null;
 		Tika tika = new Tika();
-		try {
-			
-			InputStream ipStreamForValidation = IOUtils.toInputStream(inputStreamAsString, fileStoreConfig.getImageCharsetType());
+		try (InputStream ipStreamForValidation = new BufferedInputStream(file.getInputStream())) {
 			inputFormat = tika.detect(ipStreamForValidation);
-			ipStreamForValidation.close();
 		} catch (IOException e) {
 			throw new CustomException("EG_FILESTORE_PARSING_ERROR","not able to parse the input please upload a proper file of allowed type : " + e.getMessage());
 		}
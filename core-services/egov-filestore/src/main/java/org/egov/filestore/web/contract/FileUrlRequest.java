@@ -0,0 +1,26 @@
+package org.egov.filestore.web.contract;
+
+import java.util.List;
+
+import org.egov.common.contract.request.RequestInfo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileUrlRequest {
+
+	@JsonProperty("RequestInfo")
+	private RequestInfo requestInfo;
+
+	private String tenantId;
+
+	private List<String> fileStoreIds;
+}
@@ -5,6 +5,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -15,9 +16,11 @@ import org.egov.filestore.domain.service.StorageService;
 import org.egov.filestore.utils.StorageUtil;
 import org.egov.filestore.web.contract.File;
 import org.egov.filestore.web.contract.FileStoreResponse;
+import org.egov.filestore.web.contract.FileUrlRequest;
 import org.egov.filestore.web.contract.GetFilesByTagResponse;
 import org.egov.filestore.web.contract.ResponseFactory;
 import org.egov.filestore.web.contract.StorageResponse;
+import org.egov.tracer.model.CustomException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,8 +29,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -119,11 +125,27 @@ public class StorageController {
 	@ResponseBody
 	public ResponseEntity<Map<String, Object>> getUrls(@RequestParam(value = "tenantId") String tenantId,
 			@RequestParam("fileStoreIds") List<String> fileStoreIds) {
+		return getUrlResponse(tenantId, fileStoreIds);
+	}
+
+	/**
+	 * Bulk variant of the url search for listing screens, the filestore ids are
+	 * taken in the body so a page can resolve all of its documents in one call
+	 */
+	@PostMapping(value = "/url/_search", produces = APPLICATION_JSON_UTF8_VALUE)
+	@ResponseBody
+	public ResponseEntity<Map<String, Object>> searchUrls(@RequestBody FileUrlRequest fileUrlRequest) {
+		if (StringUtils.isEmpty(fileUrlRequest.getTenantId()))
+			throw new CustomException("EG_FILESTORE_INVALID_INPUT", "tenantId is mandatory");
+		return getUrlResponse(fileUrlRequest.getTenantId(), fileUrlRequest.getFileStoreIds());
+	}
+
+	private ResponseEntity<Map<String, Object>> getUrlResponse(String tenantId, List<String> fileStoreIds) {
 		
 		Map<String, Object> responseMap = new HashMap<>();
-		if (fileStoreIds.isEmpty())
+		if (CollectionUtils.isEmpty(fileStoreIds))
 			return new ResponseEntity<>(new HashMap<>(), HttpStatus.OK);
-			Map<String, String> maps= storageService.getUrls(tenantId, fileStoreIds);
+			Map<String, String> maps= storageService.getUrls(tenantId, new ArrayList<>(new LinkedHashSet<>(fileStoreIds)));
 			
 		List<FileStoreResponse> responses = new ArrayList<>();
 		for (Entry<String, String> entry : maps.entrySet()) {
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS eg_filestore_thumbnail_job (
+    id bigint NOT NULL,
+    filestoreid character varying(36) NOT NULL,
+    tenantid character varying(256) NOT NULL,
+    filename character varying(256) NOT NULL,
+    contenttype character varying(100),
+    format character varying(16) NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    nextattempttime bigint NOT NULL,
+    lasterror character varying(1024),
+    createdtime bigint
+);
+CREATE SEQUENCE IF NOT EXISTS seq_eg_filestore_thumbnail_job
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+ALTER TABLE eg_filestore_thumbnail_job ADD CONSTRAINT pk_filestore_thumbnail_job PRIMARY KEY (id);
+CREATE INDEX IF NOT EXISTS idx_filestore_thumbnail_job_due ON eg_filestore_thumbnail_job (nextattempttime);
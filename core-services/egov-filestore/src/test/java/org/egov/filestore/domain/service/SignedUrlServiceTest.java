@@ -0,0 +1,123 @@
+package org.egov.filestore.domain.service;
+
+import org.egov.filestore.config.FileStoreConfig;
+import org.egov.filestore.persistence.entity.Artifact;
+import org.egov.filestore.repository.CloudFilesManager;
+import org.egov.filestore.repository.impl.CloudFileMgrUtils;
+import org.egov.tracer.model.CustomException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SignedUrlServiceTest {
+
+    private CloudFilesManager cloudFilesManager;
+
+    private CloudFileMgrUtils util;
+
+    private FileStoreConfig fileStoreConfig;
+
+    private SignedUrlService signedUrlService;
+
+    @BeforeEach
+    void setUp() {
+        cloudFilesManager = mock(CloudFilesManager.class);
+        util = mock(CloudFileMgrUtils.class);
+        fileStoreConfig = mock(FileStoreConfig.class);
+        when(fileStoreConfig.getPreSignedUrlCacheMaxSize()).thenReturn(100);
+        when(fileStoreConfig.getPreSignedUrlSignerPoolSize()).thenReturn(2);
+        when(fileStoreConfig.getPreSignedUrlRefreshMargin()).thenReturn(3600L);
+        when(fileStoreConfig.get_large()).thenReturn("_large");
+        when(fileStoreConfig.get_medium()).thenReturn("_medium");
+        when(fileStoreConfig.get_small()).thenReturn("_small");
+        when(cloudFilesManager.getSignedUrlExpiry()).thenReturn(86400L);
+        when(cloudFilesManager.getSignedUrl(anyString())).thenAnswer(invocation -> "signed:" + invocation.getArgument(0));
+        signedUrlService = new SignedUrlService(cloudFilesManager, util, fileStoreConfig);
+        signedUrlService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        signedUrlService.destroy();
+    }
+
+    @Test
+    void testGetUrlsOfImageAndDocument() {
+        when(util.isFileAnImage("bucket/pb/photo.png")).thenReturn(true);
+        List<Artifact> artifacts = Arrays.asList(getArtifact("1", "bucket/pb/photo.png"),
+                getArtifact("2", "bucket/pb/plan.pdf"));
+
+        Map<String, String> urls = signedUrlService.getUrls(artifacts);
+
+        assertEquals("signed:bucket/pb/photo.png,signed:bucket/pb/photo_large.png,"
+                + "signed:bucket/pb/photo_medium.png,signed:bucket/pb/photo_small.png", urls.get("1"));
+        assertEquals("signed:bucket/pb/plan.pdf", urls.get("2"));
+        verify(cloudFilesManager, times(5)).getSignedUrl(anyString());
+    }
+
+    @Test
+    void testGetUrlsReusesCachedUrls() {
+        List<Artifact> artifacts = Collections.singletonList(getArtifact("2", "bucket/pb/plan.pdf"));
+
+        signedUrlService.getUrls(artifacts);
+        Map<String, String> urls = signedUrlService.getUrls(artifacts);
+
+        assertEquals("signed:bucket/pb/plan.pdf", urls.get("2"));
+        verify(cloudFilesManager, times(1)).getSignedUrl("bucket/pb/plan.pdf");
+    }
+
+    @Test
+    void testGetUrlsResignsUrlsNearExpiry() {
+        when(cloudFilesManager.getSignedUrlExpiry()).thenReturn(3600L);
+        List<Artifact> artifacts = Collections.singletonList(getArtifact("2", "bucket/pb/plan.pdf"));
+
+        signedUrlService.getUrls(artifacts);
+        signedUrlService.getUrls(artifacts);
+
+        verify(cloudFilesManager, times(2)).getSignedUrl("bucket/pb/plan.pdf");
+    }
+
+    @Test
+    void testGetUrlsDoesNotCacheFailedSignatures() {
+        when(cloudFilesManager.getSignedUrl("bucket/pb/plan.pdf")).thenReturn(null);
+        List<Artifact> artifacts = Collections.singletonList(getArtifact("2", "bucket/pb/plan.pdf"));
+
+        assertEquals("", signedUrlService.getUrls(artifacts).get("2"));
+        signedUrlService.getUrls(artifacts);
+
+        verify(cloudFilesManager, times(2)).getSignedUrl("bucket/pb/plan.pdf");
+    }
+
+    @Test
+    void testGetUrlsRethrowsSigningFailures() {
+        when(cloudFilesManager.getSignedUrl("bucket/pb/plan.pdf"))
+                .thenThrow(new CustomException("ERROR_MINIO_DOWNLOAD", "Error while signing"));
+        when(cloudFilesManager.getSignedUrl("bucket/pb/deed.pdf")).thenThrow(new IllegalStateException("Error"));
+        List<Artifact> artifacts = Arrays.asList(getArtifact("1", "bucket/pb/photo.pdf"),
+                getArtifact("2", "bucket/pb/plan.pdf"));
+
+        CustomException e = assertThrows(CustomException.class, () -> signedUrlService.getUrls(artifacts));
+        assertEquals("ERROR_MINIO_DOWNLOAD", e.getCode());
+
+        List<Artifact> otherArtifacts = Arrays.asList(getArtifact("1", "bucket/pb/photo.pdf"),
+                getArtifact("3", "bucket/pb/deed.pdf"));
+        e = assertThrows(CustomException.class, () -> signedUrlService.getUrls(otherArtifacts));
+        assertEquals("EG_FILESTORE_SIGN_URL_ERROR", e.getCode());
+    }
+
+    private Artifact getArtifact(String fileStoreId, String fileName) {
+        Artifact artifact = new Artifact();
+        artifact.setFileStoreId(fileStoreId);
+        artifact.setFileName(fileName);
+        artifact.setTenantId("pb");
+        return artifact;
+    }
+}
@@ -0,0 +1,106 @@
+package org.egov.filestore.persistence.repository;
+
+import org.egov.filestore.config.FileStoreConfig;
+import org.egov.filestore.domain.model.Artifact;
+import org.egov.filestore.domain.model.FileLocation;
+import org.egov.filestore.persistence.entity.ThumbnailJob;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ThumbnailJobRepositoryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnqueue() {
+        ThumbnailJobJpaRepository thumbnailJobJpaRepository = mock(ThumbnailJobJpaRepository.class);
+        ThumbnailJobRepository thumbnailJobRepository = new ThumbnailJobRepository(thumbnailJobJpaRepository,
+                mock(FileStoreConfig.class));
+        MockMultipartFile multipartFile = new MockMultipartFile("file", "photo.png", "image/png", new byte[] { 1 });
+        Artifact artifact = Artifact.builder().multipartFile(multipartFile)
+                .fileLocation(new FileLocation("42", "Module", "Tag", "pb", "bucket/pb/Module/photo.png", null))
+                .build();
+
+        thumbnailJobRepository.enqueue(Collections.singletonList(artifact));
+
+        ArgumentCaptor<List<ThumbnailJob>> captor = ArgumentCaptor.forClass(List.class);
+        verify(thumbnailJobJpaRepository).saveAll(captor.capture());
+        ThumbnailJob job = captor.getValue().get(0);
+        assertEquals("42", job.getFileStoreId());
+        assertEquals("bucket/pb/Module/photo.png", job.getFileName());
+        assertEquals("png", job.getFormat());
+        assertEquals("image/png", job.getContentType());
+        assertEquals(0, job.getAttempts().intValue());
+    }
+
+    @Test
+    void testClaim() {
+        ThumbnailJobJpaRepository thumbnailJobJpaRepository = mock(ThumbnailJobJpaRepository.class);
+        FileStoreConfig fileStoreConfig = mock(FileStoreConfig.class);
+        when(fileStoreConfig.getThumbnailMaxAttempts()).thenReturn(5);
+        when(fileStoreConfig.getThumbnailJobLease()).thenReturn(60000L);
+        ThumbnailJob job = ThumbnailJob.builder().id(1L).attempts(1).nextAttemptTime(0L).build();
+        List<ThumbnailJob> jobs = new ArrayList<>(Collections.singletonList(job));
+        when(thumbnailJobJpaRepository.findDueJobs(anyLong(), eq(5), eq(3))).thenReturn(jobs);
+        when(thumbnailJobJpaRepository.saveAll(jobs)).thenReturn(jobs);
+
+        long now = System.currentTimeMillis();
+        assertSame(jobs, new ThumbnailJobRepository(thumbnailJobJpaRepository, fileStoreConfig).claim(3));
+        assertEquals(2, job.getAttempts().intValue());
+        assertTrue(job.getNextAttemptTime() >= now + 60000L);
+    }
+
+    @Test
+    void testFail() {
+        ThumbnailJobJpaRepository thumbnailJobJpaRepository = mock(ThumbnailJobJpaRepository.class);
+        FileStoreConfig fileStoreConfig = mock(FileStoreConfig.class);
+        when(fileStoreConfig.getThumbnailRetryDelay()).thenReturn(1000L);
+        when(fileStoreConfig.getThumbnailMaxAttempts()).thenReturn(5);
+        ThumbnailJob job = ThumbnailJob.builder().id(1L).attempts(3).nextAttemptTime(0L).build();
+
+        long now = System.currentTimeMillis();
+        assertFalse(new ThumbnailJobRepository(thumbnailJobJpaRepository, fileStoreConfig).fail(job, "Not readable"));
+
+        assertTrue(job.getNextAttemptTime() >= now + 3000L);
+        assertEquals("Not readable", job.getLastError());
+        verify(thumbnailJobJpaRepository).save(job);
+    }
+
+    @Test
+    void testFailLastAttempt() {
+        ThumbnailJobJpaRepository thumbnailJobJpaRepository = mock(ThumbnailJobJpaRepository.class);
+        FileStoreConfig fileStoreConfig = mock(FileStoreConfig.class);
+        when(fileStoreConfig.getThumbnailRetryDelay()).thenReturn(1000L);
+        when(fileStoreConfig.getThumbnailMaxAttempts()).thenReturn(5);
+        ThumbnailJob job = ThumbnailJob.builder().id(1L).attempts(5).nextAttemptTime(0L).build();
+
+        long now = System.currentTimeMillis();
+        assertTrue(new ThumbnailJobRepository(thumbnailJobJpaRepository, fileStoreConfig).fail(job, "Not readable"));
+
+        assertTrue(job.getNextAttemptTime() >= now && job.getNextAttemptTime() < now + 5000L);
+        verify(thumbnailJobJpaRepository).save(job);
+    }
+
+    @Test
+    void testPurgeDeadJobs() {
+        ThumbnailJobJpaRepository thumbnailJobJpaRepository = mock(ThumbnailJobJpaRepository.class);
+        FileStoreConfig fileStoreConfig = mock(FileStoreConfig.class);
+        when(fileStoreConfig.getThumbnailMaxAttempts()).thenReturn(5);
+        when(fileStoreConfig.getThumbnailDeadJobRetention()).thenReturn(86400000L);
+        when(thumbnailJobJpaRepository.deleteDeadJobs(eq(5), anyLong())).thenReturn(2);
+
+        long now = System.currentTimeMillis();
+        assertEquals(2, new ThumbnailJobRepository(thumbnailJobJpaRepository, fileStoreConfig).purgeDeadJobs());
+
+        ArgumentCaptor<Long> before = ArgumentCaptor.forClass(Long.class);
+        verify(thumbnailJobJpaRepository).deleteDeadJobs(eq(5), before.capture());
+        assertTrue(before.getValue() >= now - 86400000L && before.getValue() <= System.currentTimeMillis() - 86400000L);
+    }
+}
@@ -6,9 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
 
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AzureBlobStorageImplTest {
@@ -33,11 +31,5 @@ class AzureBlobStorageImplTest {
         assertThrows(CustomException.class,
                 () -> (new AzureBlobStorageImpl()).upload(null, "Complete Path", null, 3L, null, "Extension"));
     }
-
-    @Test
-    void testConstructor() {
-        AzureBlobStorageImpl actualAzureBlobStorageImpl = new AzureBlobStorageImpl();
-        assertNull(actualAzureBlobStorageImpl.getFiles(new ArrayList<>()));
-    }
 }
 
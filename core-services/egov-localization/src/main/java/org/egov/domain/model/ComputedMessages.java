@@ -0,0 +1,58 @@
+package org.egov.domain.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Computed messages of a locale and tenant, partitioned by module.
+ *
+ * Only the messages of the searched locale and tenant are kept, which is
+ * what a search returns. Instances are immutable and shared between requests.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class ComputedMessages {
+
+	private final Map<String, List<Message>> moduleMessages;
+
+	public ComputedMessages(Map<String, List<Message>> moduleMessages) {
+		final Map<String, List<Message>> messages = new LinkedHashMap<>();
+		moduleMessages.forEach((module, moduleMessageList) -> messages.put(module,
+				Collections.unmodifiableList(new ArrayList<>(moduleMessageList))));
+		this.moduleMessages = Collections.unmodifiableMap(messages);
+	}
+
+	public static ComputedMessages of(List<Message> computedMessages, String locale, Tenant tenant) {
+		final Map<String, List<Message>> moduleMessages = computedMessages.stream()
+				.filter(message -> message.getLocale().equals(locale)
+						&& message.getTenant().equals(tenant.getTenantId()))
+				.collect(Collectors.groupingBy(Message::getModule, LinkedHashMap::new, Collectors.toList()));
+		return new ComputedMessages(moduleMessages);
+	}
+
+	public List<Message> getMessages() {
+		return getMessages(moduleMessages.keySet());
+	}
+
+	public List<Message> getMessages(Collection<String> modules) {
+		final List<Message> messages = new ArrayList<>();
+		for (String module : new LinkedHashSet<>(modules)) {
+			messages.addAll(moduleMessages.getOrDefault(module, Collections.emptyList()));
+		}
+		if (modules.size() > 1)
+			messages.sort(Comparator.comparing(Message::getCode));
+		return messages;
+	}
+}
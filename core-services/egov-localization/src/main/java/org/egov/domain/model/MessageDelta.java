@@ -0,0 +1,35 @@
+package org.egov.domain.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Messages of a locale, tenant and module changed after a client revision.
+ *
+ * The lists do not overlap. Creating a code again removes its deletion, so a
+ * code deleted and created again after the client revision is reported only
+ * as a message, which replaces the copy the client holds.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MessageDelta {
+
+	private long revision;
+
+	private boolean modified;
+
+	private List<Message> messages;
+
+	private List<String> deletedCodes;
+
+	public static MessageDelta unmodified(long revision) {
+		return new MessageDelta(revision, false, Collections.emptyList(), Collections.emptyList());
+	}
+}
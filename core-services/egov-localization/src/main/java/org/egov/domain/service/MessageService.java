@@ -5,11 +5,14 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.egov.domain.model.AuthenticatedUser;
+import org.egov.domain.model.ComputedMessages;
 import org.egov.domain.model.Message;
+import org.egov.domain.model.MessageDelta;
 import org.egov.domain.model.MessageIdentity;
 import org.egov.domain.model.MessageSearchCriteria;
 import org.egov.domain.model.Tenant;
 import org.egov.persistence.repository.MessageCacheRepository;
+import org.egov.persistence.repository.MessageNearCache;
 import org.egov.persistence.repository.MessageRepository;
 import org.egov.tracer.model.CustomException;
 import org.springframework.stereotype.Service;
@@ -25,21 +28,17 @@ import org.springframework.util.CollectionUtils;
  * from locale: mr_IN and tenant mh.panvel 5) Override messages from step 3 with
  * messages from step 4.
  *
- * The items cached in Redis are - 1) The final computed message list. 2) The
- * raw messages ready from PostGres for every locale and tenant combination.
+ * The items cached in Redis are - 1) The final computed message list of the
+ * searched locale and tenant, partitioned by module. 2) The raw messages ready
+ * from PostGres for every locale and tenant combination. The computed messages
+ * are also held pre-parsed in an in process near cache.
  *
- * Cache bust logic - a) For a create/update request to locale: mr_IN and
- * tenant: mh.panvel - 1) In validate cache entry for raw messages with key
- * mr_IN:mh.panvel 2) In validate cache entry for computed messages with key
- * mr_IN:mh.panvel
- *
- * b) For a create/update request to locale: mr_IN and tenant: mh - 1) In
- * validate cache entry for raw messages with key mr_IN:mh 2) In validate cache
- * entry for computed messages with key mr_IN:mh.panvel and mr_IN:mh
- *
- * c) For a create/update request to locale: <locale> and tenant: default- 1) In
- * validate all computed messages entries. 2) In validate cache entry for raw
- * messages with key <locale>:default
+ * Cache bust logic - For a create/update request to locale: mr_IN and tenant:
+ * mh.panvel - 1) In validate cache entry for raw messages with key
+ * mr_IN:mh.panvel 2) Move the version stamp of locale mr_IN and tenant root mh
+ * forward, which in validates the computed messages of mr_IN for the tenants
+ * under mh, and of every tenant when written to the default tenant, in Redis
+ * and in the near cache of every instance.
  */
 @Service
 //@Slf4j
@@ -47,10 +46,13 @@ public class MessageService {
 	private static final String ENGLISH_INDIA = "en_IN";
 	private MessageRepository messageRepository;
 	private MessageCacheRepository messageCacheRepository;
+	private MessageNearCache messageNearCache;
 
-	public MessageService(MessageRepository messageRepository, MessageCacheRepository messageCacheRepository) {
+	public MessageService(MessageRepository messageRepository, MessageCacheRepository messageCacheRepository,
+			MessageNearCache messageNearCache) {
 		this.messageRepository = messageRepository;
 		this.messageCacheRepository = messageCacheRepository;
+		this.messageNearCache = messageNearCache;
 	}
 
 	public void upsert(Tenant tenant, List<Message> messages, AuthenticatedUser user) {
@@ -75,49 +77,28 @@ public class MessageService {
 	}
 
 	public void bustCache() {
-		messageCacheRepository.bustCache();
+		messageNearCache.onVersion(MessageCacheRepository.ALL_SCOPES, messageCacheRepository.bustCache());
 	}
 
 	public List<Message> getFilteredMessages(MessageSearchCriteria searchCriteria) {
-		List<Message> messages = getMessages(searchCriteria);
-		if (searchCriteria.isModuleAbsent() && !CollectionUtils.isEmpty(searchCriteria.getCodes())) {
-
-		    /*if(!CollectionUtils.isEmpty(searchCriteria.getCodes()))
-		        throw new CustomException("INVALID_SEARCH_CRITERIA","ModuleName should be provided when searching on codes");*/
-
-            Set<String> codes = searchCriteria.getCodes();
-
-			return messages.stream()
-					.filter(e -> e.getLocale().equals(searchCriteria.getLocale())
-							&& e.getTenant().equals(searchCriteria.getTenantId().getTenantId())
-                            && codes.contains(e.getCode()))
-					.collect(Collectors.toList());
-		} else if(searchCriteria.isModuleAbsent() && CollectionUtils.isEmpty(searchCriteria.getCodes())){
-            return messages.parallelStream()
-                .filter(e -> e.getLocale().equals(searchCriteria.getLocale())
-                    && e.getTenant().equals(searchCriteria.getTenantId().getTenantId()))
-                .collect(Collectors.toList());
-        } else {
-			List<String> modules = Arrays.asList(searchCriteria.getModule().split("[,]"));
-
-			if(CollectionUtils.isEmpty(searchCriteria.getCodes()))
-                messages = messages.stream()
-                    .filter(message -> modules.contains(message.getModule())
-                        && message.getLocale().equals(searchCriteria.getLocale())
-                        && message.getTenant().equals(searchCriteria.getTenantId().getTenantId()))
-                    .collect(Collectors.toList());
-			else {
-			    Set<String> codes = searchCriteria.getCodes();
-                messages = messages.stream()
-                    .filter(message -> modules.contains(message.getModule())
-                        && codes.contains(message.getCode())
-                        && message.getLocale().equals(searchCriteria.getLocale())
-                        && message.getTenant().equals(searchCriteria.getTenantId().getTenantId()))
-                    .collect(Collectors.toList());
-            }
+		final ComputedMessages computedMessages = getComputedMessages(searchCriteria.getLocale(),
+				searchCriteria.getTenantId());
+		final List<Message> messages = searchCriteria.isModuleAbsent() ? computedMessages.getMessages()
+				: computedMessages.getMessages(Arrays.asList(searchCriteria.getModule().split("[,]")));
 
-		}
-		return messages;
+		if (CollectionUtils.isEmpty(searchCriteria.getCodes()))
+			return messages;
+
+		final Set<String> codes = searchCriteria.getCodes();
+		return messages.stream().filter(message -> codes.contains(message.getCode())).collect(Collectors.toList());
+	}
+
+	/**
+	 * Delta of the raw messages of exactly the given locale, tenant and module,
+	 * which is what a search of the module returns for them.
+	 */
+	public MessageDelta getMessageDelta(String locale, Tenant tenant, String module, Long revision) {
+		return messageRepository.findDelta(tenant.getTenantId(), locale, module, revision);
 	}
 
 	public void delete(List<MessageIdentity> messageIdentities) {
@@ -139,19 +120,22 @@ public class MessageService {
 	}
 
 	private void bustCacheEntry(Tenant tenant, String locale) {
-		messageCacheRepository.bustCacheEntry(locale, tenant);
+		messageNearCache.onVersion(MessageCacheRepository.getVersionScope(locale, tenant),
+				messageCacheRepository.bustCacheEntry(locale, tenant));
 	}
 
-	private List<Message> getMessages(MessageSearchCriteria searchCriteria) {
-		final List<Message> cachedMessages = messageCacheRepository.getComputedMessages(searchCriteria.getLocale(),
-				searchCriteria.getTenantId());
-		if (cachedMessages != null) {
-			return cachedMessages;
+	private ComputedMessages getComputedMessages(String locale, Tenant tenant) {
+		final long version = messageNearCache.getVersion(locale, tenant);
+		final ComputedMessages nearCachedMessages = messageNearCache.get(locale, tenant, version);
+		if (nearCachedMessages != null) {
+			return nearCachedMessages;
 		}
-		final List<Message> computedMessages = computeMessageList(searchCriteria.getLocale(),
-				searchCriteria.getTenantId());
-		messageCacheRepository.cacheComputedMessages(searchCriteria.getLocale(), searchCriteria.getTenantId(),
-				computedMessages);
+		ComputedMessages computedMessages = messageCacheRepository.getComputedMessages(locale, tenant, version);
+		if (computedMessages == null) {
+			computedMessages = ComputedMessages.of(computeMessageList(locale, tenant), locale, tenant);
+			messageCacheRepository.cacheComputedMessages(locale, tenant, version, computedMessages);
+		}
+		messageNearCache.put(locale, tenant, version, computedMessages);
 		return computedMessages;
 	}
 
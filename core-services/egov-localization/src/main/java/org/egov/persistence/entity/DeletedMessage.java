@@ -0,0 +1,37 @@
+package org.egov.persistence.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Tombstone of a deleted message, kept so that a delta sync can report the
+ * deleted codes to clients holding an older revision.
+ */
+@Entity
+@Data
+@Table(name = "message_deleted")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class DeletedMessage {
+
+	@Id
+	private String id;
+
+	@Column(name = "tenantid")
+	private String tenantId;
+
+	@Column(name = "locale")
+	private String locale;
+
+	@Column(name = "module")
+	private String module;
+
+	@Column(name = "code")
+	private String code;
+
+	@Column(name = "revision")
+	private Long revision;
+}
@@ -49,6 +49,9 @@ public class Message {
 	@Column(name = "lastmodifieddate")
 	private Date lastModifiedDate;
 
+	@Column(name = "revision")
+	private Long revision;
+
 	public Message(org.egov.domain.model.Message domainMessage) {
 		this.tenantId = domainMessage.getTenant();
 		this.locale = domainMessage.getLocale();
@@ -0,0 +1,25 @@
+package org.egov.persistence.repository;
+
+import org.egov.persistence.entity.DeletedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeletedMessageJpaRepository extends JpaRepository<DeletedMessage, String> {
+	@Query("select max(d.revision) from DeletedMessage d where d.tenantId = :tenantId and d.locale = :locale and d.module = :module")
+	Long findMaxRevision(@Param("tenantId") String tenantId, @Param("locale") String locale,
+			@Param("module") String module);
+
+	@Query("select d.code from DeletedMessage d where d.tenantId = :tenantId and d.locale = :locale and d.module = :module and d.revision > :fromRevision and d.revision <= :toRevision")
+	List<String> findCodesDeletedBetween(@Param("tenantId") String tenantId, @Param("locale") String locale,
+			@Param("module") String module, @Param("fromRevision") Long fromRevision,
+			@Param("toRevision") Long toRevision);
+
+	@Query("select d from DeletedMessage d where d.tenantId = :tenantId and d.locale = :locale and d.module = :module and d.code in :codes")
+	List<DeletedMessage> find(@Param("tenantId") String tenantId, @Param("locale") String locale,
+			@Param("module") String module, @Param("codes") List<String> codes);
+}
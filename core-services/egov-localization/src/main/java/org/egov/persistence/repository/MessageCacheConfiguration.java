@@ -0,0 +1,22 @@
+package org.egov.persistence.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class MessageCacheConfiguration {
+
+	@Bean
+	public RedisMessageListenerContainer messageCacheVersionListenerContainer(RedisConnectionFactory connectionFactory,
+			MessageNearCache messageNearCache, @Value("${localization.cache.version.channel}") String versionChannel) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(messageNearCache, new ChannelTopic(versionChannel));
+		return container;
+	}
+
+}
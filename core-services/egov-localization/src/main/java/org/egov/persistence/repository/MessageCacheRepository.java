@@ -2,56 +2,190 @@ package org.egov.persistence.repository;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.egov.domain.model.ComputedMessages;
 import org.egov.domain.model.Message;
 import org.egov.domain.model.Tenant;
 import org.egov.persistence.dto.MessageCacheEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Stream;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw messages are cached in the "messages" hash keyed by locale:tenant.
+ *
+ * Computed messages are cached in one hash per version, locale and tenant with
+ * a field per module. Version stamps are kept per locale and tenant root, a
+ * write moves forward only the stamp of its locale and tenant root and
+ * publishes it so that the near caches of all instances pick it up. The
+ * version of computed messages is the sum of the stamps they are computed
+ * from, a bust orphans only the entries depending on the written scope.
+ * Orphaned entries expire.
+ */
 @Service
 public class MessageCacheRepository {
 
 	private static final String MESSAGES_HASH_KEY = "messages";
 	private static final String COMPUTED_MESSAGES_HASH_KEY = "computedMessages";
+	private static final String COMPUTED_MESSAGES_VERSIONS_KEY = "computedMessagesVersions";
+	private static final String COMPUTED_MARKER_FIELD = "_computed";
+	public static final String ALL_SCOPES = "*";
+	private static final String FALLBACK_LOCALE = "en_IN";
+	private static final String VERSION_SEPARATOR = "=";
+
+	/*
+	 * Version stamps follow the clock so that they keep moving forward even if
+	 * the versions key is lost
+	 */
+	private static final RedisScript<Long> BUMP_VERSION_SCRIPT = new DefaultRedisScript<>(
+			"local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+					+ "local next = math.max(current + 1, tonumber(ARGV[2])) "
+					+ "redis.call('HSET', KEYS[1], ARGV[1], next) "
+					+ "return next",
+			Long.class);
+
 	private StringRedisTemplate stringRedisTemplate;
 	private ObjectMapper objectMapper;
+	private String versionChannel;
+	private long computedMessagesTtl;
     public static final Logger logger = LoggerFactory.getLogger(MessageCacheRepository.class);
 
-	public MessageCacheRepository(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+	public MessageCacheRepository(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+			@Value("${localization.cache.version.channel}") String versionChannel,
+			@Value("${localization.computed.cache.ttl.seconds}") long computedMessagesTtl) {
 		this.stringRedisTemplate = stringRedisTemplate;
 		this.objectMapper = objectMapper;
+		this.versionChannel = versionChannel;
+		this.computedMessagesTtl = computedMessagesTtl;
 	}
 
-	public List<Message> getComputedMessages(String locale, Tenant tenant) {
-		return getMessages(locale, tenant, COMPUTED_MESSAGES_HASH_KEY);
+	public ComputedMessages getComputedMessages(String locale, Tenant tenant, long version) {
+		String computedMessagesKey = getComputedMessagesKey(locale, tenant, version);
+		final Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(computedMessagesKey);
+		if (entries == null || !entries.containsKey(COMPUTED_MARKER_FIELD)) {
+			return null;
+		}
+		final Map<String, List<Message>> moduleMessages = new LinkedHashMap<>();
+		entries.forEach((field, entry) -> {
+			if (!COMPUTED_MARKER_FIELD.equals(field))
+				moduleMessages.put((String) field, readMessages((String) entry));
+		});
+		return new ComputedMessages(moduleMessages);
 	}
 
-	public void cacheComputedMessages(String locale, Tenant tenant, List<Message> messages) {
-		putMessages(locale, tenant, COMPUTED_MESSAGES_HASH_KEY, messages);
+	public void cacheComputedMessages(String locale, Tenant tenant, long version, ComputedMessages computedMessages) {
+		String computedMessagesKey = getComputedMessagesKey(locale, tenant, version);
+		final Map<String, String> entries = new HashMap<>();
+		try {
+			for (Map.Entry<String, List<Message>> moduleMessages : computedMessages.getModuleMessages().entrySet()) {
+				entries.put(moduleMessages.getKey(),
+						objectMapper.writeValueAsString(new MessageCacheEntry(moduleMessages.getValue())));
+			}
+		} catch (JsonProcessingException e) {
+			logger.error("Exception occurred while processing JSON: " + e.getMessage());
+			return;
+		}
+		entries.put(COMPUTED_MARKER_FIELD, String.valueOf(System.currentTimeMillis()));
+		stringRedisTemplate.opsForHash().putAll(computedMessagesKey, entries);
+		stringRedisTemplate.expire(computedMessagesKey, computedMessagesTtl, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @return the version stamps of the computed messages by scope
+	 */
+	public Map<String, Long> getComputedMessagesVersions() {
+		final Map<String, Long> versions = new HashMap<>();
+		stringRedisTemplate.opsForHash().entries(COMPUTED_MESSAGES_VERSIONS_KEY)
+				.forEach((scope, version) -> versions.put((String) scope, Long.parseLong((String) version)));
+		return versions;
 	}
 
 	public List<Message> getMessages(String locale, Tenant tenant) {
-		return getMessages(locale, tenant, MESSAGES_HASH_KEY);
+		String messageKey = getKey(locale, tenant.getTenantId());
+		final String entry = (String) stringRedisTemplate.opsForHash().get(MESSAGES_HASH_KEY, messageKey);
+		if (entry != null) {
+			return readMessages(entry);
+		}
+		return null;
 	}
 
 	public void cacheMessages(String locale, Tenant tenant, List<Message> messages) {
-		putMessages(locale, tenant, MESSAGES_HASH_KEY, messages);
+		String messageKey = getKey(locale, tenant.getTenantId());
+		final MessageCacheEntry messageCacheEntry = new MessageCacheEntry(messages);
+		try {
+			final String cacheEntry = objectMapper.writeValueAsString(messageCacheEntry);
+			stringRedisTemplate.opsForHash().put(MESSAGES_HASH_KEY, messageKey, cacheEntry);
+		} catch (JsonProcessingException e) {
+			logger.error("Exception occurred while processing JSON: " + e.getMessage());
+		}
 	}
 
-	public void bustCache() {
+	/**
+	 * @return the new version stamp of all the computed messages
+	 */
+	public long bustCache() {
 		stringRedisTemplate.delete(MESSAGES_HASH_KEY);
-		bustAllComputedMessagesCache();
+		return bumpComputedMessagesVersion(ALL_SCOPES);
 	}
 
-	public void bustCacheEntry(String locale, Tenant tenant) {
+	/**
+	 * @return the new version stamp of the scope of the locale and tenant
+	 */
+	public long bustCacheEntry(String locale, Tenant tenant) {
 		bustRawMessagesCacheEntry(locale, tenant);
-		bustComputedMessagesCache(locale, tenant);
+		return bumpComputedMessagesVersion(getVersionScope(locale, tenant));
+	}
+
+	/**
+	 * The scope whose stamp a write to the locale and tenant moves forward,
+	 * the locale and the root of the tenant
+	 */
+	public static String getVersionScope(String locale, Tenant tenant) {
+		final List<Tenant> tenantHierarchy = tenant.getTenantHierarchy();
+		final Tenant root = tenant.isDefaultTenant() ? tenant : tenantHierarchy.get(tenantHierarchy.size() - 2);
+		return getKey(locale, root.getTenantId());
+	}
+
+	/**
+	 * The scopes the computed messages of the locale and tenant are computed
+	 * from, the locale along the tenant hierarchy and the fallback locale of the
+	 * default tenant
+	 */
+	public static Set<String> getVersionScopes(String locale, Tenant tenant) {
+		final Tenant defaultTenant = new Tenant(Tenant.DEFAULT_TENANT);
+		final Set<String> scopes = new LinkedHashSet<>();
+		scopes.add(ALL_SCOPES);
+		scopes.add(getVersionScope(locale, tenant));
+		scopes.add(getVersionScope(locale, defaultTenant));
+		scopes.add(getVersionScope(FALLBACK_LOCALE, defaultTenant));
+		return scopes;
+	}
+
+	/**
+	 * Reads a version stamp published on the version channel
+	 *
+	 * @return the scope and its version stamp
+	 */
+	public static Map.Entry<String, Long> parseVersion(String publishedVersion) {
+		final int separator = publishedVersion.lastIndexOf(VERSION_SEPARATOR);
+		if (separator < 0)
+			throw new NumberFormatException("No scope in " + publishedVersion);
+		return new AbstractMap.SimpleImmutableEntry<>(publishedVersion.substring(0, separator),
+				Long.parseLong(publishedVersion.substring(separator + 1)));
 	}
 
 	private void bustRawMessagesCacheEntry(String locale, Tenant tenant) {
@@ -59,62 +193,27 @@ public class MessageCacheRepository {
 		stringRedisTemplate.opsForHash().delete(MESSAGES_HASH_KEY, messageKey);
 	}
 
-	private void bustComputedMessagesCache(String locale, Tenant tenant) {
-		if (tenant.isDefaultTenant()) {
-			bustAllComputedMessagesCache();
-		} else {
-			deleteMatchingSubTenantCacheKeys(locale, tenant);
-		}
-	}
-
-	private void bustAllComputedMessagesCache() {
-		stringRedisTemplate.delete(COMPUTED_MESSAGES_HASH_KEY);
-	}
-
-	private void deleteMatchingSubTenantCacheKeys(String locale, Tenant tenant) {
-		getMatchingSubTenantCacheKeys(locale, tenant).forEach(this::deleteComputedMessageCacheEntry);
-	}
-
-	private Long deleteComputedMessageCacheEntry(String cacheKey) {
-		return stringRedisTemplate.opsForHash().delete(COMPUTED_MESSAGES_HASH_KEY, cacheKey);
+	private long bumpComputedMessagesVersion(String scope) {
+		final Long version = stringRedisTemplate.execute(BUMP_VERSION_SCRIPT,
+				Collections.singletonList(COMPUTED_MESSAGES_VERSIONS_KEY), scope,
+				String.valueOf(System.currentTimeMillis()));
+		stringRedisTemplate.convertAndSend(versionChannel, scope + VERSION_SEPARATOR + version);
+		return version;
 	}
 
-	private Stream<String> getMatchingSubTenantCacheKeys(String locale, Tenant tenant) {
-		String parentCacheKey = getKey(locale, tenant.getTenantId());
-		return getAllComputedMessageCacheKeys().filter(key -> key.contains(parentCacheKey));
-	}
-
-	private Stream<String> getAllComputedMessageCacheKeys() {
-		return stringRedisTemplate.opsForHash().keys(COMPUTED_MESSAGES_HASH_KEY).stream().map(key -> (String) key);
-	}
-
-	private List<Message> getMessages(String locale, Tenant tenant, String hashKey) {
-		String messageKey = getKey(locale, tenant.getTenantId());
-		final String entry = (String) stringRedisTemplate.opsForHash().get(hashKey, messageKey);
-		if (entry != null) {
-			final MessageCacheEntry messageCacheEntry;
-			try {
-				messageCacheEntry = objectMapper.readValue(entry, MessageCacheEntry.class);
-				return messageCacheEntry.getDomainMessages();
-			} catch (IOException e) {
-				throw new RuntimeException(e);
-			}
+	private List<Message> readMessages(String entry) {
+		try {
+			return objectMapper.readValue(entry, MessageCacheEntry.class).getDomainMessages();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
-		return null;
 	}
 
-	private void putMessages(String locale, Tenant tenant, String hashKey, List<Message> messages) {
-		String messageKey = getKey(locale, tenant.getTenantId());
-		final MessageCacheEntry messageCacheEntry = new MessageCacheEntry(messages);
-		try {
-			final String cacheEntry = objectMapper.writeValueAsString(messageCacheEntry);
-			stringRedisTemplate.opsForHash().put(hashKey, messageKey, cacheEntry);
-		} catch (JsonProcessingException e) {
-			logger.error("Exception occurred while processing JSON: " + e.getMessage());
-		}
+	private String getComputedMessagesKey(String locale, Tenant tenant, long version) {
+		return String.format("%s:%d:%s", COMPUTED_MESSAGES_HASH_KEY, version, getKey(locale, tenant.getTenantId()));
 	}
 
-	private String getKey(String locale, String tenant) {
+	private static String getKey(String locale, String tenant) {
 		return String.format("%s:%s", locale, tenant);
 	}
 
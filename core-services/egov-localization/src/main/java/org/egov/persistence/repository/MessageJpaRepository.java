@@ -24,4 +24,19 @@ public interface MessageJpaRepository extends JpaRepository<Message, Long> {
 	@Query("select m.id from Message m where m.tenantId = :tenantId and m.locale = :locale and m.module = :module and m.code = :code")
 	List<Message> find(@Param("tenantId") String tenantId, @Param("locale") String locale,
 			@Param("module") String module, @Param("code") String code);
+
+	@Query(value = "select count(*) from (select pg_advisory_xact_lock(hashtext(:scope))) as scope_lock", nativeQuery = true)
+	Long lockScope(@Param("scope") String scope);
+
+	@Query(value = "select nextval('seq_message_revision')", nativeQuery = true)
+	Long nextRevision();
+
+	@Query("select max(m.revision) from Message m where m.tenantId = :tenantId and m.locale = :locale and m.module = :module")
+	Long findMaxRevision(@Param("tenantId") String tenantId, @Param("locale") String locale,
+			@Param("module") String module);
+
+	@Query("select m from Message m where m.tenantId = :tenantId and m.locale = :locale and m.module = :module and m.revision > :fromRevision and m.revision <= :toRevision")
+	List<Message> findModifiedBetween(@Param("tenantId") String tenantId, @Param("locale") String locale,
+			@Param("module") String module, @Param("fromRevision") Long fromRevision,
+			@Param("toRevision") Long toRevision);
 }
@@ -0,0 +1,114 @@
+package org.egov.persistence.repository;
+
+import org.egov.domain.model.ComputedMessages;
+import org.egov.domain.model.Tenant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In process cache of computed messages in front of the redis cache.
+ *
+ * Entries belong to the version of the computed messages, the sum of the stamps
+ * of the scopes they are computed from. New stamps are received through redis
+ * pub/sub or read from redis at most once per check interval, an entry whose
+ * version moved is recomputed on its next read.
+ */
+@Component
+public class MessageNearCache implements MessageListener {
+
+	public static final Logger logger = LoggerFactory.getLogger(MessageNearCache.class);
+
+	private MessageCacheRepository messageCacheRepository;
+	private int maxEntries;
+	private long versionCheckInterval;
+
+	private final Map<String, VersionedMessages> entries = new ConcurrentHashMap<>();
+	private final Map<String, Long> versions = new ConcurrentHashMap<>();
+	private volatile long versionCheckedAt = Long.MIN_VALUE;
+
+	public MessageNearCache(MessageCacheRepository messageCacheRepository,
+			@Value("${localization.near.cache.max.entries}") int maxEntries,
+			@Value("${localization.cache.version.check.interval.ms}") long versionCheckInterval) {
+		this.messageCacheRepository = messageCacheRepository;
+		this.maxEntries = maxEntries;
+		this.versionCheckInterval = versionCheckInterval;
+	}
+
+	public long getVersion(String locale, Tenant tenant) {
+		final long now = System.currentTimeMillis();
+		if (versionCheckedAt == Long.MIN_VALUE || now - versionCheckedAt >= versionCheckInterval) {
+			versionCheckedAt = now;
+			messageCacheRepository.getComputedMessagesVersions().forEach(this::onVersion);
+		}
+		long version = 0L;
+		for (String scope : MessageCacheRepository.getVersionScopes(locale, tenant))
+			version += versions.getOrDefault(scope, 0L);
+		return version;
+	}
+
+	public ComputedMessages get(String locale, Tenant tenant, long version) {
+		final VersionedMessages entry = entries.get(getKey(locale, tenant));
+		return entry == null || entry.version != version ? null : entry.computedMessages;
+	}
+
+	/**
+	 * Messages computed for an older version than the cached ones are not kept
+	 */
+	public synchronized void put(String locale, Tenant tenant, long version, ComputedMessages computedMessages) {
+		final String key = getKey(locale, tenant);
+		final VersionedMessages entry = entries.get(key);
+		if (entry != null && entry.version > version)
+			return;
+		if (entry == null && entries.size() >= maxEntries) {
+			final Iterator<String> keys = entries.keySet().iterator();
+			if (keys.hasNext()) {
+				keys.next();
+				keys.remove();
+			}
+		}
+		entries.put(key, new VersionedMessages(version, computedMessages));
+	}
+
+	/**
+	 * Moves the scope to the given version stamp, stamps only move forward so a
+	 * late read of an older stamp is ignored
+	 */
+	public void onVersion(String scope, long newVersion) {
+		versions.merge(scope, newVersion, Math::max);
+	}
+
+	@Override
+	public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
+		try {
+			final Map.Entry<String, Long> version = MessageCacheRepository
+					.parseVersion(new String(message.getBody(), StandardCharsets.UTF_8));
+			onVersion(version.getKey(), version.getValue());
+		} catch (NumberFormatException e) {
+			logger.error("Ignoring invalid computed messages version: " + e.getMessage());
+		}
+	}
+
+	private String getKey(String locale, Tenant tenant) {
+		return String.format("%s:%s", locale, tenant.getTenantId());
+	}
+
+	private static class VersionedMessages {
+
+		private final long version;
+		private final ComputedMessages computedMessages;
+
+		private VersionedMessages(long version, ComputedMessages computedMessages) {
+			this.version = version;
+			this.computedMessages = computedMessages;
+		}
+	}
+
+}
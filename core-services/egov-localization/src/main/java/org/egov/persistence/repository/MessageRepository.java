@@ -1,17 +1,24 @@
 package org.egov.persistence.repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.egov.domain.model.AuthenticatedUser;
 import org.egov.domain.model.Message;
+import org.egov.domain.model.MessageDelta;
 import org.egov.domain.model.Tenant;
+import org.egov.persistence.entity.DeletedMessage;
 import org.egov.tracer.model.CustomException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import lombok.extern.slf4j.Slf4j;
@@ -20,10 +27,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class MessageRepository {
 
+	private static final String SCOPE_SEPARATOR = "|";
+
 	private MessageJpaRepository messageJpaRepository;
+	private DeletedMessageJpaRepository deletedMessageJpaRepository;
 
-	public MessageRepository(MessageJpaRepository messageJpaRepository) {
+	public MessageRepository(MessageJpaRepository messageJpaRepository,
+			DeletedMessageJpaRepository deletedMessageJpaRepository) {
 		this.messageJpaRepository = messageJpaRepository;
+		this.deletedMessageJpaRepository = deletedMessageJpaRepository;
 	}
 
 	public List<Message> findByTenantIdAndLocale(Tenant tenant, String locale) {
@@ -36,47 +48,103 @@ public class MessageRepository {
 				.map(org.egov.persistence.entity.Message::toDomain).collect(Collectors.toList());
 	}
 
-	
+	public long getRevision(String tenant, String locale, String module) {
+		final Long messageRevision = messageJpaRepository.findMaxRevision(tenant, locale, module);
+		final Long deletedRevision = deletedMessageJpaRepository.findMaxRevision(tenant, locale, module);
+		return Math.max(messageRevision == null ? 0L : messageRevision,
+				deletedRevision == null ? 0L : deletedRevision);
+	}
+
+	/**
+	 * Messages added, updated or deleted after the given revision, all the
+	 * messages of the module when no revision is given. Only changes up to the
+	 * returned revision are included, so the client can resume from it.
+	 */
+	@Transactional(readOnly = true)
+	public MessageDelta findDelta(String tenant, String locale, String module, Long fromRevision) {
+		final long revision = getRevision(tenant, locale, module);
+		if (fromRevision != null && fromRevision >= revision) {
+			return MessageDelta.unmodified(revision);
+		}
+		if (fromRevision == null) {
+			return new MessageDelta(revision, true, toDomain(messageJpaRepository.find(tenant, locale, module)),
+					Collections.emptyList());
+		}
+		final List<Message> messages = toDomain(
+				messageJpaRepository.findModifiedBetween(tenant, locale, module, fromRevision, revision));
+		final List<String> deletedCodes = deletedMessageJpaRepository.findCodesDeletedBetween(tenant, locale, module,
+				fromRevision, revision);
+		return new MessageDelta(revision, true, messages, deletedCodes);
+	}
+
 	public void setUUID(List<org.egov.persistence.entity.Message> entityMessages){
 		for(org.egov.persistence.entity.Message message : entityMessages){
 			message.setId(UUID.randomUUID().toString());
 		}
 	}
 	
+	@Transactional
 	public void save(List<Message> messages, AuthenticatedUser authenticatedUser) {
+		if (CollectionUtils.isEmpty(messages)) {
+			return;
+		}
 		final List<org.egov.persistence.entity.Message> entityMessages = messages.stream()
 				.map(org.egov.persistence.entity.Message::new).collect(Collectors.toList());
 		setAuditFieldsForCreate(authenticatedUser, entityMessages);
 		//Setting ID in UUID
 		setUUID(entityMessages);
+		final Map<String, List<org.egov.persistence.entity.Message>> scopeToMessagesMap = entityMessages.stream()
+				.collect(Collectors.groupingBy(message -> getScope(message.getTenantId(), message.getLocale(),
+						message.getModule()), TreeMap::new, Collectors.toList()));
+		final long revision = nextRevision(scopeToMessagesMap.keySet());
+		entityMessages.forEach(message -> message.setRevision(revision));
 		log.info("entityMessages: "+entityMessages);
 		try {
 			messageJpaRepository.saveAll(entityMessages);
+			messageJpaRepository.flush();
 		} catch (DataIntegrityViolationException ex) {
 			new DataIntegrityViolationExceptionTransformer(ex).transform();
 		}
+		scopeToMessagesMap.values().forEach(this::removeDeletedMessages);
 	}
 
+	@Transactional
 	public void delete(String tenant, String locale, String module, List<String> codes) {
+		final long revision = nextRevision(Collections.singleton(getScope(tenant, locale, module)));
 		final List<org.egov.persistence.entity.Message> messages = messageJpaRepository.find(tenant, locale, module,
 				codes);
 		if (CollectionUtils.isEmpty(messages)) {
 			return;
 		}
+		final Map<String, DeletedMessage> codeToDeletedMessageMap = deletedMessageJpaRepository
+				.find(tenant, locale, module, getNewCodes(messages)).stream()
+				.collect(Collectors.toMap(DeletedMessage::getCode, Function.identity()));
+		final List<DeletedMessage> deletedMessages = messages.stream().map(message -> {
+			final DeletedMessage deletedMessage = codeToDeletedMessageMap.getOrDefault(message.getCode(),
+					DeletedMessage.builder().id(UUID.randomUUID().toString()).tenantId(tenant).locale(locale)
+							.module(module).code(message.getCode()).build());
+			deletedMessage.setRevision(revision);
+			return deletedMessage;
+		}).collect(Collectors.toList());
 		messageJpaRepository.deleteAll(messages);
+		deletedMessageJpaRepository.saveAll(deletedMessages);
 	}
 
+	@Transactional
 	public void update(String tenant, String locale, String module, List<Message> domainMessages,
 			AuthenticatedUser authenticatedUser) {
 		final List<String> codes = getCodes(domainMessages);
+		final long revision = nextRevision(Collections.singleton(getScope(tenant, locale, module)));
 		final List<org.egov.persistence.entity.Message> entityMessages = fetchMatchEntityMessages(tenant, locale,
 				module, codes);
-		updateMessages(domainMessages, entityMessages, authenticatedUser);
+		updateMessages(domainMessages, entityMessages, authenticatedUser, revision);
 	}
 
+	@Transactional
 	public void upsert(String tenant, String locale, String module, List<Message> domainMessages,
 			AuthenticatedUser authenticatedUser) {
 		final List<String> codes = getCodes(domainMessages);
+		final long revision = nextRevision(Collections.singleton(getScope(tenant, locale, module)));
 		final List<org.egov.persistence.entity.Message> entityMessages = fetchMatchEntityMessages(tenant, locale,
 				module, codes);
 		List<String> newCodes = getNewCodes(entityMessages);
@@ -84,10 +152,38 @@ public class MessageRepository {
 				.collect(Collectors.toList());
 		save(newMsgList, authenticatedUser);
 
-		updateMessages(domainMessages, entityMessages, authenticatedUser);
+		updateMessages(domainMessages, entityMessages, authenticatedUser, revision);
 
 	}
 
+	/**
+	 * Locks the given tenant, locale and module scopes for the rest of the
+	 * transaction before drawing the revision, so that within a scope the
+	 * revisions are committed in increasing order and a delta sync never skips
+	 * a change committed late.
+	 */
+	private long nextRevision(Collection<String> scopes) {
+		scopes.stream().sorted().forEach(messageJpaRepository::lockScope);
+		return messageJpaRepository.nextRevision();
+	}
+
+	private String getScope(String tenant, String locale, String module) {
+		return tenant + SCOPE_SEPARATOR + locale + SCOPE_SEPARATOR + module;
+	}
+
+	private void removeDeletedMessages(List<org.egov.persistence.entity.Message> entityMessages) {
+		final org.egov.persistence.entity.Message message = entityMessages.get(0);
+		final List<DeletedMessage> deletedMessages = deletedMessageJpaRepository.find(message.getTenantId(),
+				message.getLocale(), message.getModule(), getNewCodes(entityMessages));
+		if (!CollectionUtils.isEmpty(deletedMessages)) {
+			deletedMessageJpaRepository.deleteAll(deletedMessages);
+		}
+	}
+
+	private List<Message> toDomain(List<org.egov.persistence.entity.Message> entityMessages) {
+		return entityMessages.stream().map(org.egov.persistence.entity.Message::toDomain).collect(Collectors.toList());
+	}
+
 
 	private void setAuditFieldsForCreate(AuthenticatedUser authenticatedUser,
 			List<org.egov.persistence.entity.Message> entityMessages) {
@@ -103,11 +199,12 @@ public class MessageRepository {
 	}
 
 	private void updateMessages(List<Message> domainMessages, List<org.egov.persistence.entity.Message> entityMessages,
-			AuthenticatedUser authenticatedUser) {
+			AuthenticatedUser authenticatedUser, long revision) {
 		final Map<String, Message> codeToMessageMap = getCodeToMessageMap(domainMessages);
 		entityMessages.stream().forEach(entityMessage -> {
 			final Message matchingMessage = codeToMessageMap.get(entityMessage.getCode());
 			entityMessage.update(matchingMessage);
+			entityMessage.setRevision(revision);
 			setAuditFieldsForUpdate(authenticatedUser, entityMessage);
 
 		});
@@ -0,0 +1,16 @@
+package org.egov.web.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessagesDeltaResponse {
+	private long revision;
+	private List<Message> messages;
+	private List<String> deletedCodes;
+}
@@ -6,6 +6,9 @@ import org.egov.domain.model.Tenant;
 import org.egov.domain.service.MessageService;
 import org.egov.web.contract.*;
 import org.egov.web.exception.InvalidMessageRequest;
+import org.egov.domain.model.MessageDelta;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -51,6 +54,25 @@ public class MessageController {
 		return createResponse(domainMessages);
 	}
 
+	/**
+	 * Returns the messages of the module changed after the given revision, or
+	 * 304 with an empty body when nothing changed. Without a revision all the
+	 * messages of the module are returned.
+	 */
+	@PostMapping("/v1/_delta")
+	public ResponseEntity<MessagesDeltaResponse> getMessagesDelta(@RequestParam("locale") String locale,
+			@RequestParam("module") String module, @RequestParam("tenantId") @Size(max = 256) String tenantId,
+			@RequestParam(value = "revision", required = false) Long revision) {
+		final MessageDelta messageDelta = messageService.getMessageDelta(locale, new Tenant(tenantId), module,
+				revision);
+		if (!messageDelta.isModified()) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+		return ResponseEntity.ok(new MessagesDeltaResponse(messageDelta.getRevision(),
+				messageDelta.getMessages().stream().map(Message::new).collect(Collectors.toList()),
+				messageDelta.getDeletedCodes()));
+	}
+
 	@PostMapping("/v1/_upsert")
 	public MessagesResponse upsertMessages(@Valid @RequestBody CreateMessagesRequest messageRequest,
 			BindingResult bindingResult) {
@@ -0,0 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS seq_message_revision;
+
+ALTER TABLE message ADD COLUMN IF NOT EXISTS revision bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS message_tenant_locale_module_revision ON message (tenantid, locale, module, revision);
+
+CREATE TABLE IF NOT EXISTS message_deleted (
+	id varchar(512) not null primary key,
+	tenantid character varying(256) not null,
+	locale varchar(255) not null,
+	module varchar(255) not null,
+	code varchar(255) not null,
+	revision bigint not null,
+	constraint unique_message_deleted_entry unique (tenantid, locale, module, code)
+);
+
+CREATE INDEX IF NOT EXISTS message_deleted_tenant_locale_module_revision ON message_deleted (tenantid, locale, module, revision);
@@ -3,6 +3,7 @@ package org.egov.domain.service;
 
 import org.egov.domain.model.*;
 import org.egov.persistence.repository.MessageCacheRepository;
+import org.egov.persistence.repository.MessageNearCache;
 import org.egov.persistence.repository.MessageRepository;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -12,11 +13,15 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,6 +38,9 @@ public class MessageServiceTest {
     @Mock
     private MessageCacheRepository messageCacheRepository;
 
+    @Mock
+    private MessageNearCache messageNearCache;
+
     @InjectMocks
     private MessageService messageService;
 
@@ -67,7 +75,7 @@ public class MessageServiceTest {
         when(messageRepository.findByTenantIdAndLocale(new Tenant("a"), MR_IN))
             .thenReturn(marathiMessagesForGivenTenant);
         when(messageCacheRepository.getMessages(anyString(), any())).thenReturn(null);
-        when(messageCacheRepository.getComputedMessages(anyString(), any())).thenReturn(null);
+        when(messageCacheRepository.getComputedMessages(anyString(), any(), anyLong())).thenReturn(null);
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -101,7 +109,7 @@ public class MessageServiceTest {
         when(messageRepository.findByTenantIdAndLocale(new Tenant("a"), MR_IN))
             .thenReturn(Collections.emptyList());
         when(messageCacheRepository.getMessages(anyString(), any())).thenReturn(null);
-        when(messageCacheRepository.getComputedMessages(anyString(), any())).thenReturn(null);
+        when(messageCacheRepository.getComputedMessages(anyString(), any(), anyLong())).thenReturn(null);
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -110,7 +118,8 @@ public class MessageServiceTest {
 
         messageService.getFilteredMessages(searchCriteria);
 
-        verify(messageCacheRepository).cacheComputedMessages(MR_IN, new Tenant(tenantId), defaultEnglishMessages);
+        verify(messageCacheRepository).cacheComputedMessages(MR_IN, new Tenant(tenantId), 0L,
+            new ComputedMessages(Collections.emptyMap()));
     }
 
     @Test
@@ -135,7 +144,7 @@ public class MessageServiceTest {
         when(messageRepository.findByTenantIdAndLocale(new Tenant("a"), MR_IN))
             .thenReturn(tenantSpecificMessages);
         when(messageCacheRepository.getMessages(anyString(), any())).thenReturn(null);
-        when(messageCacheRepository.getComputedMessages(anyString(), any())).thenReturn(null);
+        when(messageCacheRepository.getComputedMessages(anyString(), any(), anyLong())).thenReturn(null);
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -236,7 +245,7 @@ public class MessageServiceTest {
         when(messageRepository.findByTenantIdAndLocale(new Tenant("a"), MR_IN))
             .thenReturn(Collections.emptyList());
         when(messageCacheRepository.getMessages(anyString(), any())).thenReturn(null);
-        when(messageCacheRepository.getComputedMessages(anyString(), any())).thenReturn(null);
+        when(messageCacheRepository.getComputedMessages(anyString(), any(), anyLong())).thenReturn(null);
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -283,8 +292,8 @@ public class MessageServiceTest {
             .message("default message2")
             .build();
         List<Message> expectedMessages = Arrays.asList(defaultMessage1, defaultMessage2);
-        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId)))
-            .thenReturn(expectedMessages);
+        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId), 0L))
+            .thenReturn(new ComputedMessages(Collections.singletonMap("module", expectedMessages)));
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -293,7 +302,8 @@ public class MessageServiceTest {
 
         List<Message> actualMessages = messageService.getFilteredMessages(searchCriteria);
 
-        assertEquals(0, actualMessages.size());
+        assertEquals(expectedMessages, actualMessages);
+        verify(messageRepository, never()).findByTenantIdAndLocale(any(), anyString());
     }
 
     @Test
@@ -320,9 +330,11 @@ public class MessageServiceTest {
             .messageIdentity(messageIdentity2)
             .message("default message2")
             .build();
-        List<Message> expectedMessages = Arrays.asList(defaultMessage1, defaultMessage2);
-        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId)))
-            .thenReturn(expectedMessages);
+        final Map<String, List<Message>> moduleMessages = new HashMap<>();
+        moduleMessages.put("module1", Collections.singletonList(defaultMessage1));
+        moduleMessages.put("module2", Collections.singletonList(defaultMessage2));
+        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId), 0L))
+            .thenReturn(new ComputedMessages(moduleMessages));
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -331,7 +343,8 @@ public class MessageServiceTest {
 
         List<Message> actualMessages = messageService.getFilteredMessages(searchCriteria);
 
-        assertEquals(0, actualMessages.size());
+        assertEquals(1, actualMessages.size());
+        assertEquals("code1", actualMessages.get(0).getCode());
     }
 
   /*  @Test
@@ -359,8 +372,8 @@ public class MessageServiceTest {
             .message("default message2")
             .build();
         List<Message> expectedMessages = Arrays.asList(defaultMessage1, defaultMessage2);
-        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId)))
-            .thenReturn(expectedMessages);
+        when(messageCacheRepository.getComputedMessages(MR_IN, new Tenant(tenantId), 0L))
+            .thenReturn(new ComputedMessages(Collections.singletonMap("module", expectedMessages)));
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -401,7 +414,7 @@ public class MessageServiceTest {
             .thenReturn(marathiMessagesForGivenTenant);
         when(messageCacheRepository.getMessages(ENGLISH_INDIA, new Tenant("default")))
             .thenReturn(defaultEnglishMessages);
-        when(messageCacheRepository.getComputedMessages(anyString(), any())).thenReturn(null);
+        when(messageCacheRepository.getComputedMessages(anyString(), any(), anyLong())).thenReturn(null);
         final MessageSearchCriteria searchCriteria = MessageSearchCriteria.builder()
             .locale(MR_IN)
             .tenantId(new Tenant(tenantId))
@@ -1,20 +1,35 @@
 package org.egov.persistence.repository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.egov.domain.model.ComputedMessages;
+import org.egov.domain.model.Message;
+import org.egov.domain.model.MessageIdentity;
 import org.egov.domain.model.Tenant;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,6 +38,8 @@ public class MessageCacheRepositoryTest {
 
     private static final String MESSAGE_HASH_KEY = "messages";
     private static final String COMPUTED_MESSAGE_HASH_KEY = "computedMessages";
+    private static final String COMPUTED_MESSAGE_VERSIONS_KEY = "computedMessagesVersions";
+    private static final String VERSION_CHANNEL = "localization-cache-version";
     @Mock
     private StringRedisTemplate stringRedisTemplate;
 
@@ -34,11 +51,13 @@ public class MessageCacheRepositoryTest {
     @Before
     public void before() {
         when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
-        cacheRepository = new MessageCacheRepository(stringRedisTemplate, new ObjectMapper());
+        cacheRepository = new MessageCacheRepository(stringRedisTemplate, new ObjectMapper(), VERSION_CHANNEL, 3600);
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void test_should_delete_messages_cached_from_db_for_a_given_tenant_and_locale() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(5L);
         final Tenant tenant = new Tenant("a.b.c");
         final String locale = "en_IN";
 
@@ -49,28 +68,118 @@ public class MessageCacheRepositoryTest {
     }
 
     @Test
-    public void test_should_delete_computed_messages_cached_from_db_for_a_given_locale_tenant_and_its_derived_tenants() {
+    @SuppressWarnings("unchecked")
+    public void test_should_move_the_version_of_the_locale_and_tenant_root_forward_and_publish_it_on_cache_bust() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), eq("en_IN:a"), anyString()))
+            .thenReturn(5L);
         final Tenant tenant = new Tenant("a.b");
         final String locale = "en_IN";
-        final List<Object> cacheKeys =
-            Arrays.asList("mr_IN:a.b", "en_IN:a.b", "mr_IN:a.b.c", "en_IN:a.b.c", "mr_IN:a.b.d", "en_IN:a.b.d", "en_IN:d.e");
-        when(hashOperations.keys(COMPUTED_MESSAGE_HASH_KEY)).thenReturn(new HashSet<>(cacheKeys));
 
-        cacheRepository.bustCacheEntry(locale, tenant);
+        final long version = cacheRepository.bustCacheEntry(locale, tenant);
 
-        verify(hashOperations).delete(COMPUTED_MESSAGE_HASH_KEY, "en_IN:a.b");
-        verify(hashOperations).delete(COMPUTED_MESSAGE_HASH_KEY, "en_IN:a.b.c");
-        verify(hashOperations).delete(COMPUTED_MESSAGE_HASH_KEY, "en_IN:a.b.d");
+        assertEquals(5L, version);
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+            eq(Collections.singletonList(COMPUTED_MESSAGE_VERSIONS_KEY)), eq("en_IN:a"), anyString());
+        verify(stringRedisTemplate).convertAndSend(VERSION_CHANNEL, "en_IN:a=5");
+        verify(hashOperations, never()).keys(COMPUTED_MESSAGE_HASH_KEY);
     }
 
     @Test
-    public void test_should_delete_all_computed_messages_cached_from_db_when_tenant_is_default() {
-        final Tenant tenant = new Tenant("default");
-        final String locale = "en_IN";
+    @SuppressWarnings("unchecked")
+    public void test_should_move_the_version_of_all_scopes_forward_on_full_cache_bust() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), eq("*"), anyString())).thenReturn(6L);
 
-        cacheRepository.bustCacheEntry(locale, tenant);
+        final long version = cacheRepository.bustCache();
+
+        assertEquals(6L, version);
+        verify(stringRedisTemplate).delete(MESSAGE_HASH_KEY);
+        verify(stringRedisTemplate).convertAndSend(VERSION_CHANNEL, "*=6");
+    }
+
+    @Test
+    public void test_should_read_the_version_stamps_by_scope() {
+        final Map<Object, Object> versions = new HashMap<>();
+        versions.put("*", "3");
+        versions.put("mr_IN:a", "7");
+        when(hashOperations.entries(COMPUTED_MESSAGE_VERSIONS_KEY)).thenReturn(versions);
+
+        final Map<String, Long> computedMessagesVersions = cacheRepository.getComputedMessagesVersions();
+
+        assertEquals(2, computedMessagesVersions.size());
+        assertEquals(Long.valueOf(3L), computedMessagesVersions.get("*"));
+        assertEquals(Long.valueOf(7L), computedMessagesVersions.get("mr_IN:a"));
+    }
+
+    @Test
+    public void test_should_scope_versions_by_locale_and_tenant_root() {
+        assertEquals("mr_IN:a", MessageCacheRepository.getVersionScope("mr_IN", new Tenant("a.b.c")));
+        assertEquals("mr_IN:a", MessageCacheRepository.getVersionScope("mr_IN", new Tenant("a")));
+        assertEquals("mr_IN:default", MessageCacheRepository.getVersionScope("mr_IN", new Tenant("default")));
+    }
+
+    @Test
+    public void test_should_compute_messages_from_the_tenant_root_default_tenant_and_fallback_locale_scopes() {
+        assertEquals(new LinkedHashSet<>(Arrays.asList("*", "mr_IN:a", "mr_IN:default", "en_IN:default")),
+            MessageCacheRepository.getVersionScopes("mr_IN", new Tenant("a.b")));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("*", "en_IN:default")),
+            MessageCacheRepository.getVersionScopes("en_IN", new Tenant("default")));
+    }
+
+    @Test
+    public void test_should_parse_a_published_version() {
+        final Map.Entry<String, Long> version = MessageCacheRepository.parseVersion("mr_IN:a=12");
+
+        assertEquals("mr_IN:a", version.getKey());
+        assertEquals(Long.valueOf(12L), version.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_should_cache_computed_messages_per_module_under_the_given_version() {
+        final Tenant tenant = new Tenant("a.b");
+        final Map<String, List<Message>> moduleMessages = new HashMap<>();
+        moduleMessages.put("module1", Collections.singletonList(getMessage("code1", "module1", tenant)));
+        moduleMessages.put("module2", Collections.singletonList(getMessage("code2", "module2", tenant)));
+
+        cacheRepository.cacheComputedMessages("mr_IN", tenant, 7L, new ComputedMessages(moduleMessages));
+
+        final ArgumentCaptor<Map> entriesCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("computedMessages:7:mr_IN:a.b"), entriesCaptor.capture());
+        assertEquals(3, entriesCaptor.getValue().size());
+        verify(stringRedisTemplate).expire("computedMessages:7:mr_IN:a.b", 3600, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_should_read_back_computed_messages_per_module() {
+        final Tenant tenant = new Tenant("a.b");
+        final Map<String, List<Message>> moduleMessages = new HashMap<>();
+        moduleMessages.put("module1", Collections.singletonList(getMessage("code1", "module1", tenant)));
+        cacheRepository.cacheComputedMessages("mr_IN", tenant, 7L, new ComputedMessages(moduleMessages));
+        final ArgumentCaptor<Map> entriesCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("computedMessages:7:mr_IN:a.b"), entriesCaptor.capture());
+        when(hashOperations.entries("computedMessages:7:mr_IN:a.b")).thenReturn(entriesCaptor.getValue());
+
+        final ComputedMessages computedMessages = cacheRepository.getComputedMessages("mr_IN", tenant, 7L);
+
+        assertEquals(new ComputedMessages(moduleMessages), computedMessages);
+    }
+
+    @Test
+    public void test_should_return_null_when_computed_messages_are_not_cached_for_the_version() {
+        when(hashOperations.entries("computedMessages:8:mr_IN:a.b")).thenReturn(Collections.emptyMap());
+
+        assertNull(cacheRepository.getComputedMessages("mr_IN", new Tenant("a.b"), 8L));
+    }
 
-        verify(stringRedisTemplate).delete(COMPUTED_MESSAGE_HASH_KEY);
+    private Message getMessage(String code, String module, Tenant tenant) {
+        final MessageIdentity messageIdentity = MessageIdentity.builder()
+            .code(code)
+            .locale("mr_IN")
+            .module(module)
+            .tenant(tenant)
+            .build();
+        return Message.builder().messageIdentity(messageIdentity).message("message " + code).build();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package org.egov.persistence.repository;
+
+import org.egov.domain.model.ComputedMessages;
+import org.egov.domain.model.Tenant;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageNearCacheTest {
+
+    private static final String MR_IN = "mr_IN";
+
+    @Mock
+    private MessageCacheRepository messageCacheRepository;
+
+    private MessageNearCache messageNearCache;
+
+    private final ComputedMessages computedMessages = new ComputedMessages(Collections.emptyMap());
+
+    @Before
+    public void before() {
+        final Map<String, Long> versions = new HashMap<>();
+        versions.put("*", 1L);
+        versions.put("mr_IN:a", 2L);
+        versions.put("mr_IN:b", 10L);
+        when(messageCacheRepository.getComputedMessagesVersions()).thenReturn(versions);
+        messageNearCache = new MessageNearCache(messageCacheRepository, 10, 60000);
+    }
+
+    @Test
+    public void test_should_sum_the_versions_of_the_scopes_the_messages_are_computed_from() {
+        assertEquals(3L, messageNearCache.getVersion(MR_IN, new Tenant("a.x")));
+        assertEquals(11L, messageNearCache.getVersion(MR_IN, new Tenant("b")));
+    }
+
+    @Test
+    public void test_should_return_cached_messages_for_the_current_version() {
+        final long version = messageNearCache.getVersion(MR_IN, new Tenant("a"));
+        messageNearCache.put(MR_IN, new Tenant("a"), version, computedMessages);
+
+        assertSame(computedMessages, messageNearCache.get(MR_IN, new Tenant("a"), version));
+    }
+
+    @Test
+    public void test_should_miss_entries_of_the_scope_whose_version_moves_forward() {
+        final long versionA = messageNearCache.getVersion(MR_IN, new Tenant("a"));
+        final long versionB = messageNearCache.getVersion(MR_IN, new Tenant("b"));
+        messageNearCache.put(MR_IN, new Tenant("a"), versionA, computedMessages);
+        messageNearCache.put(MR_IN, new Tenant("b"), versionB, computedMessages);
+
+        messageNearCache.onVersion("mr_IN:a", 4L);
+
+        assertNull(messageNearCache.get(MR_IN, new Tenant("a"), messageNearCache.getVersion(MR_IN, new Tenant("a"))));
+        assertSame(computedMessages,
+            messageNearCache.get(MR_IN, new Tenant("b"), messageNearCache.getVersion(MR_IN, new Tenant("b"))));
+    }
+
+    @Test
+    public void test_should_miss_every_entry_of_the_locale_when_the_default_tenant_moves_forward() {
+        final long versionA = messageNearCache.getVersion(MR_IN, new Tenant("a"));
+        messageNearCache.put(MR_IN, new Tenant("a"), versionA, computedMessages);
+
+        messageNearCache.onVersion("mr_IN:default", 1L);
+
+        assertNull(messageNearCache.get(MR_IN, new Tenant("a"), messageNearCache.getVersion(MR_IN, new Tenant("a"))));
+    }
+
+    @Test
+    public void test_should_not_replace_messages_with_ones_computed_for_an_older_version() {
+        messageNearCache.getVersion(MR_IN, new Tenant("a"));
+        messageNearCache.onVersion("mr_IN:a", 4L);
+        final ComputedMessages newerMessages = new ComputedMessages(Collections.emptyMap());
+        messageNearCache.put(MR_IN, new Tenant("a"), 5L, newerMessages);
+
+        messageNearCache.put(MR_IN, new Tenant("a"), 3L, computedMessages);
+
+        assertSame(newerMessages, messageNearCache.get(MR_IN, new Tenant("a"), 5L));
+    }
+
+    @Test
+    public void test_should_ignore_an_older_version() {
+        messageNearCache.getVersion(MR_IN, new Tenant("a"));
+        messageNearCache.onVersion("mr_IN:a", 5L);
+
+        messageNearCache.onVersion("mr_IN:a", 4L);
+
+        assertEquals(6L, messageNearCache.getVersion(MR_IN, new Tenant("a")));
+    }
+
+}
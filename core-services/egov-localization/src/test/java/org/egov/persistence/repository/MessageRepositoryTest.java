@@ -1,8 +1,10 @@
 package org.egov.persistence.repository;
 
 import org.egov.domain.model.AuthenticatedUser;
+import org.egov.domain.model.MessageDelta;
 import org.egov.domain.model.MessageIdentity;
 import org.egov.domain.model.Tenant;
+import org.egov.persistence.entity.DeletedMessage;
 import org.egov.persistence.entity.Message;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,10 +13,18 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -23,9 +33,14 @@ public class MessageRepositoryTest {
     private static final String TENANT_ID = "tenant_123";
     private static final String MR_IN = "MR_IN";
 
+    private static final String MODULE = "module1";
+
     @Mock
     private MessageJpaRepository messageJpaRepository;
-    
+
+    @Mock
+    private DeletedMessageJpaRepository deletedMessageJpaRepository;
+
     @InjectMocks
     private MessageRepository messageRepository;
     
@@ -39,6 +54,54 @@ public class MessageRepositoryTest {
         verify(messageJpaRepository).saveAll(anyListOf(Message.class));
     }
 
+    @Test
+    public void test_should_record_deleted_codes_with_new_revision() {
+        final Message message = Message.builder().id("1").tenantId(TENANT_ID).locale(MR_IN).module(MODULE)
+            .code("core.msg.OTPvalidated").build();
+        final List<String> codes = Collections.singletonList("core.msg.OTPvalidated");
+        when(messageJpaRepository.nextRevision()).thenReturn(7L);
+        when(messageJpaRepository.find(TENANT_ID, MR_IN, MODULE, codes))
+            .thenReturn(Collections.singletonList(message));
+
+        messageRepository.delete(TENANT_ID, MR_IN, MODULE, codes);
+
+        verify(messageJpaRepository).lockScope(TENANT_ID + "|" + MR_IN + "|" + MODULE);
+        verify(messageJpaRepository).deleteAll(Collections.singletonList(message));
+        verify(deletedMessageJpaRepository).saveAll(anyListOf(DeletedMessage.class));
+    }
+
+    @Test
+    public void test_should_return_unmodified_delta_when_client_revision_is_current() {
+        when(messageJpaRepository.findMaxRevision(TENANT_ID, MR_IN, MODULE)).thenReturn(5L);
+        when(deletedMessageJpaRepository.findMaxRevision(TENANT_ID, MR_IN, MODULE)).thenReturn(3L);
+
+        final MessageDelta delta = messageRepository.findDelta(TENANT_ID, MR_IN, MODULE, 5L);
+
+        assertFalse(delta.isModified());
+        assertEquals(5L, delta.getRevision());
+        verify(messageJpaRepository, never()).findModifiedBetween(anyString(), anyString(), anyString(), anyLong(),
+            anyLong());
+    }
+
+    @Test
+    public void test_should_return_changes_after_client_revision() {
+        final Message message = Message.builder().id("1").tenantId(TENANT_ID).locale(MR_IN).module(MODULE)
+            .code("core.msg.OTPvalidated").message("OTP यशस्वीपणे प्रमाणित").revision(9L).build();
+        when(messageJpaRepository.findMaxRevision(TENANT_ID, MR_IN, MODULE)).thenReturn(9L);
+        when(deletedMessageJpaRepository.findMaxRevision(TENANT_ID, MR_IN, MODULE)).thenReturn(8L);
+        when(messageJpaRepository.findModifiedBetween(TENANT_ID, MR_IN, MODULE, 5L, 9L))
+            .thenReturn(Collections.singletonList(message));
+        when(deletedMessageJpaRepository.findCodesDeletedBetween(TENANT_ID, MR_IN, MODULE, 5L, 9L))
+            .thenReturn(Collections.singletonList("core.lbl.imageupload"));
+
+        final MessageDelta delta = messageRepository.findDelta(TENANT_ID, MR_IN, MODULE, 5L);
+
+        assertTrue(delta.isModified());
+        assertEquals(9L, delta.getRevision());
+        assertEquals(Collections.singletonList(message.toDomain()), delta.getMessages());
+        assertEquals(Collections.singletonList("core.lbl.imageupload"), delta.getDeletedCodes());
+    }
+
     List<org.egov.domain.model.Message> getDomainMessages() {
         final MessageIdentity messageIdentity1 = MessageIdentity.builder()
             .code("core.msg.OTPvalidated")
@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
@@ -78,6 +79,34 @@ public class MessageControllerTest {
             .andExpect(content().json(getFileContents("messagesResponse.json")));
     }
 
+    @Test
+    public void test_should_return_not_modified_when_messages_unchanged_since_revision() throws Exception {
+        when(messageService.getMessageDelta(LOCALE, new Tenant(TENANT_ID), "CS", 5L))
+            .thenReturn(MessageDelta.unmodified(5L));
+        mockMvc.perform(post("/messages/v1/_delta")
+            .param("tenantId", TENANT_ID)
+            .param("module", "CS")
+            .param("locale", LOCALE)
+            .param("revision", "5"))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    public void test_should_return_messages_changed_since_revision() throws Exception {
+        final MessageDelta delta = new MessageDelta(8L, true, getModelMessages(),
+            Collections.singletonList("CORE_COMMON_DELETED"));
+        when(messageService.getMessageDelta(LOCALE, new Tenant(TENANT_ID), "CS", 5L)).thenReturn(delta);
+        mockMvc.perform(post("/messages/v1/_delta")
+            .param("tenantId", TENANT_ID)
+            .param("module", "CS")
+            .param("locale", LOCALE)
+            .param("revision", "5"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+            .andExpect(content().json(getFileContents("messagesDeltaResponse.json")));
+    }
+
     @Test
     public void test_should_save_new_messages() throws Exception {
         final Tenant defaultTenant = new Tenant("default");
@@ -87,6 +87,34 @@ public class SMSProperties {
     @Value("${sms.enabled:false}")
     private boolean smsEnabled;
 
+    @Value("${sms.provider.connect.timeout.ms:5000}")
+    private int connectTimeout;
+
+    @Value("${sms.provider.read.timeout.ms:10000}")
+    private int readTimeout;
+
+    //Dispatcher config, the per provider maps are keyed by sms.provider.class
+    @Value("#{${sms.dispatch.provider.concurrency}}")
+    private Map<String, Integer> providerConcurrency;
+
+    @Value("#{${sms.dispatch.provider.rate.per.second}}")
+    private Map<String, Integer> providerRatePerSecond;
+
+    @Value("#{${sms.dispatch.provider.batch.size}}")
+    private Map<String, Integer> providerBatchSize;
+
+    @Value("${sms.dispatch.priority.workers}")
+    private int priorityWorkers;
+
+    @Value("${sms.dispatch.priority.queue.size}")
+    private int priorityQueueSize;
+
+    @Value("${sms.dispatch.bulk.queue.size}")
+    private int bulkQueueSize;
+
+    @Value("${sms.dispatch.shutdown.timeout.ms:10000}")
+    private long shutdownTimeout;
+
     @Setter(AccessLevel.PROTECTED) private List<Pattern> whitelistPatterns;
     @Setter(AccessLevel.PROTECTED) private List<Pattern> blacklistPatterns;
 
@@ -104,6 +132,15 @@ public class SMSProperties {
         return patterns;
     }
 
+    /**
+     * Returns the value configured for the provider in use, or the default when the
+     * provider is not in the map
+     */
+    public int getProviderValue(Map<String, Integer> providerValues, int defaultValue) {
+        Integer value = providerValues == null ? null : providerValues.get(gatewayToUse);
+        return value == null || value < 1 ? defaultValue : value;
+    }
+
     public boolean isNumberBlacklisted(String number) {
         if (this.blacklistPatterns == null) {
             this.blacklistPatterns = convertToPattern(blacklistNumbers);
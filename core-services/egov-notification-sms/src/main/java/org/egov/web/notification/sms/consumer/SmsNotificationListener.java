@@ -4,10 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.*;
 import org.egov.tracer.kafka.*;
+import org.egov.web.notification.sms.config.Producer;
 import org.egov.web.notification.sms.consumer.contract.SMSRequest;
 import org.egov.web.notification.sms.models.Category;
 import org.egov.web.notification.sms.models.RequestContext;
-import org.egov.web.notification.sms.service.SMSService;
+import org.egov.web.notification.sms.service.dispatch.SmsDispatcher;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.boot.autoconfigure.kafka.*;
 import org.springframework.context.ApplicationContext;
@@ -19,7 +20,6 @@ import org.springframework.kafka.listener.*;
 import org.springframework.kafka.listener.ErrorHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.util.*;
-import org.springframework.web.client.RestClientException;
 
 import java.util.HashMap;
 import java.util.UUID;
@@ -29,18 +29,18 @@ import java.util.UUID;
 public class SmsNotificationListener {
 
     private final ApplicationContext context;
-    private SMSService smsService;
+    private SmsDispatcher smsDispatcher;
     private CustomKafkaTemplate<String, SMSRequest> kafkaTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Producer producer;
+
     @Value("${kafka.topics.expiry.sms}")
     String expiredSmsTopic;
 
-    @Value("${kafka.topics.backup.sms}")
-    String backupSmsTopic;
-
     @Value("${kafka.topics.error.sms}")
     String errorSmsTopic;
 
@@ -51,17 +51,36 @@ public class SmsNotificationListener {
     @Autowired
     public SmsNotificationListener(
             ApplicationContext context,
-            SMSService smsService,
+            SmsDispatcher smsDispatcher,
             CustomKafkaTemplate<String, SMSRequest> kafkaTemplate) {
-        this.smsService = smsService;
+        this.smsDispatcher = smsDispatcher;
         this.context = context;
         this.kafkaTemplate = kafkaTemplate;
     }
 
+    /**
+     * Hands the sms to the dispatcher, which sends OTPs ahead of the other
+     * notifications. Expired OTPs are dropped here already.
+     */
     @KafkaListener(
             topics = "${kafka.topics.notification.sms.name}"
     )
     public void process(HashMap<String, Object> consumerRecord) {
+        dispatch(consumerRecord);
+    }
+
+    /**
+     * Consumes the OTPs published to their own topic, so they reach the
+     * priority lane without waiting behind the other sms of the main topic
+     */
+    @KafkaListener(
+            topics = "${kafka.topics.notification.sms.otp.name}"
+    )
+    public void processOtp(HashMap<String, Object> consumerRecord) {
+        dispatch(consumerRecord);
+    }
+
+    private void dispatch(HashMap<String, Object> consumerRecord) {
         RequestContext.setId(UUID.randomUUID().toString());
         SMSRequest request = null;
         try {
@@ -78,22 +97,13 @@ public class SmsNotificationListener {
                         if (!StringUtils.isEmpty(expiredSmsTopic))
                             kafkaTemplate.send(expiredSmsTopic, request);
                     } else {
-                        smsService.sendSMS(request.toDomain());
+                        smsDispatcher.dispatch(request);
                     }
                 } else {
-                    smsService.sendSMS(request.toDomain());
+                    smsDispatcher.dispatch(request);
                 }
             }
 
-        } catch (RestClientException rx) {
-            log.info("Going to backup SMS Service", rx);
-            if (!StringUtils.isEmpty(backupSmsTopic))
-                kafkaTemplate.send(backupSmsTopic, request);
-            else if (!StringUtils.isEmpty(errorSmsTopic)) {
-                kafkaTemplate.send(errorSmsTopic, request);
-            } else {
-                throw rx;
-            }
         } catch (Exception ex) {
             log.error("Sms service failed", ex);
             if (!StringUtils.isEmpty(errorSmsTopic)) {
@@ -103,4 +113,30 @@ public class SmsNotificationListener {
             }
         }
     }
+
+    /**
+     * Consumes the sms that did not fit in the bulk lane, or that producers sent
+     * to the bulk topic directly. Blocks while the lane is full so the backlog
+     * stays in kafka.
+     */
+    @KafkaListener(
+            topics = "${kafka.topics.notification.sms.bulk.name}"
+    )
+    public void processBulk(HashMap<String, Object> consumerRecord) throws InterruptedException {
+        RequestContext.setId(UUID.randomUUID().toString());
+        if (!smsEnable) {
+            log.info("Sms service is disable to enable the notification service set the value of sms.enable flag as true");
+            return;
+        }
+        SMSRequest request;
+        try {
+            request = objectMapper.convertValue(consumerRecord, SMSRequest.class);
+        } catch (Exception ex) {
+            log.error("Sms service failed", ex);
+            if (!StringUtils.isEmpty(errorSmsTopic))
+                producer.push(errorSmsTopic, consumerRecord);
+            return;
+        }
+        smsDispatcher.dispatchBulk(request);
+    }
 }
\ No newline at end of file
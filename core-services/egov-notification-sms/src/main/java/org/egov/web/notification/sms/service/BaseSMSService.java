@@ -60,26 +60,56 @@ abstract public class BaseSMSService implements SMSService, SMSBodyBuilder {
     @Override
     public void sendSMS(Sms sms) {
         log.info("sendSMS() start: "+sms);
+        if (!isSendable(sms)) {
+            return;
+        }
+        log.info("calling submitToExternalSmsService() method");
+        submitToExternalSmsService(sms);
+    }
+
+    @Override
+    public void sendSMS(List<Sms> smsList) {
+        List<Sms> sendableSms = new ArrayList<>(smsList.size());
+        for (Sms sms : smsList) {
+            if (isSendable(sms))
+                sendableSms.add(sms);
+        }
+        if (sendableSms.size() == 1) {
+            submitToExternalSmsService(sendableSms.get(0));
+        } else if (!sendableSms.isEmpty()) {
+            log.info("calling submitToExternalSmsService() method for " + sendableSms.size() + " numbers");
+            submitToExternalSmsService(sendableSms);
+        }
+    }
+
+    private boolean isSendable(Sms sms) {
         if (!sms.isValid()) {
             log.error(String.format("Sms %s is not valid", sms));
-            return;
+            return false;
         }
 
         if (smsProperties.isNumberBlacklisted(sms.getMobileNumber())) {
             log.error(String.format("Sms to %s is blacklisted", sms.getMobileNumber()));
-            return;
+            return false;
         }
 
         if (!smsProperties.isNumberWhitelisted(sms.getMobileNumber())) {
             log.error(String.format("Sms to %s is not in whitelist", sms.getMobileNumber()));
-            return;
+            return false;
         }
-        log.info("calling submitToExternalSmsService() method");
-        submitToExternalSmsService(sms);
+        return true;
     }
 
     protected abstract void submitToExternalSmsService(Sms sms);
 
+    /**
+     * Submits the same message to several numbers, providers supporting multiple
+     * recipients in one request override this
+     */
+    protected void submitToExternalSmsService(List<Sms> smsList) {
+        smsList.forEach(this::submitToExternalSmsService);
+    }
+
     protected <T> ResponseEntity<T> executeAPI(URI uri, HttpMethod method, HttpEntity<?> requestEntity, Class<T> type) {
         log.info("executeAPI() start");
 
@@ -2,7 +2,17 @@ package org.egov.web.notification.sms.service;
 
 import org.egov.web.notification.sms.models.Sms;
 
+import java.util.List;
+
 public interface SMSService {
     void sendSMS(Sms sms);
+
+    /**
+     * Sends the same message to all the given numbers. Providers with a multi
+     * recipient api submit them in one call, the others one by one.
+     */
+    default void sendSMS(List<Sms> smsList) {
+        smsList.forEach(this::sendSMS);
+    }
 }
 
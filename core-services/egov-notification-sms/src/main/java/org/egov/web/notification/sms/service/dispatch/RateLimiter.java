@@ -0,0 +1,35 @@
+package org.egov.web.notification.sms.service.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out calls to the provider evenly to at most the given number of calls
+ * per second, callers block until their slot comes up
+ *
+ * Same limiter as the reconciliation one of egov-pg-service, the services are
+ * built and deployed separately and share no library it could live in.
+ */
+class RateLimiter {
+
+    private final long intervalNanos;
+
+    private long nextFreeSlot;
+
+    RateLimiter(int permitsPerSecond) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.nextFreeSlot = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeSlot);
+            nextFreeSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0)
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+}
@@ -0,0 +1,292 @@
+package org.egov.web.notification.sms.service.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.egov.tracer.kafka.CustomKafkaTemplate;
+import org.egov.web.notification.sms.config.SMSProperties;
+import org.egov.web.notification.sms.consumer.contract.SMSRequest;
+import org.egov.web.notification.sms.models.Category;
+import org.egov.web.notification.sms.models.RequestContext;
+import org.egov.web.notification.sms.models.Sms;
+import org.egov.web.notification.sms.service.SMSService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends sms off the kafka listener threads through two lanes.
+ *
+ * OTPs go to the priority lane and never wait behind bulk notifications. They
+ * are expected on their own topic, so they do not queue behind bulk traffic in
+ * kafka either; OTPs still arriving on the main topic go to the priority lane
+ * once read. All other sms go to the bulk lane; when its queue is full they are
+ * parked on the bulk topic, whose listener blocks until the lane has room again,
+ * so a large notification run builds up as consumer lag instead of delaying
+ * OTPs. Both
+ * lanes share the concurrency and rate limit configured for the provider, the
+ * priority lane has its own workers out of that concurrency. Bulk workers pick
+ * up a batch of queued sms and send the ones sharing text and template in a
+ * single request when the provider supports multiple recipients.
+ *
+ * On shutdown the lanes stop taking sms, their workers get the configured
+ * timeout to send what is queued, and whatever is still queued after that is
+ * published back to the topic it came from.
+ *
+ * The listeners return once the sms is queued and offsets are auto committed,
+ * so delivery is at most once: if the service dies without running the
+ * shutdown above, the sms queued in both lanes are lost, up to
+ * sms.dispatch.priority.queue.size plus sms.dispatch.bulk.queue.size of them.
+ * The queue sizes bound that loss as well as the memory held by the lanes.
+ */
+@Service
+@Slf4j
+public class SmsDispatcher {
+
+    private static final int DEFAULT_CONCURRENCY = 4;
+
+    private static final int DEFAULT_RATE_PER_SECOND = 50;
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    @Autowired
+    private SMSService smsService;
+
+    @Autowired
+    private SMSProperties smsProperties;
+
+    @Autowired
+    private CustomKafkaTemplate<String, SMSRequest> kafkaTemplate;
+
+    @Value("${kafka.topics.notification.sms.otp.name}")
+    private String otpSmsTopic;
+
+    @Value("${kafka.topics.notification.sms.bulk.name}")
+    private String bulkSmsTopic;
+
+    @Value("${kafka.topics.expiry.sms}")
+    private String expiredSmsTopic;
+
+    @Value("${kafka.topics.backup.sms}")
+    private String backupSmsTopic;
+
+    @Value("${kafka.topics.error.sms}")
+    private String errorSmsTopic;
+
+    private RateLimiter rateLimiter;
+
+    private Lane priorityLane;
+
+    private Lane bulkLane;
+
+    @PostConstruct
+    public void init() {
+        int concurrency = smsProperties.getProviderValue(smsProperties.getProviderConcurrency(), DEFAULT_CONCURRENCY);
+        int priorityWorkers = Math.max(1, Math.min(smsProperties.getPriorityWorkers(), concurrency - 1));
+        int bulkWorkers = Math.max(1, concurrency - priorityWorkers);
+        int batchSize = smsProperties.getProviderValue(smsProperties.getProviderBatchSize(), 1);
+
+        rateLimiter = new RateLimiter(
+                smsProperties.getProviderValue(smsProperties.getProviderRatePerSecond(), DEFAULT_RATE_PER_SECOND));
+        priorityLane = new Lane(priorityWorkers, smsProperties.getPriorityQueueSize(), 1, otpSmsTopic);
+        bulkLane = new Lane(bulkWorkers, smsProperties.getBulkQueueSize(), batchSize, bulkSmsTopic);
+        log.info("Sms dispatcher started for {} with {} priority and {} bulk workers", smsProperties.getGatewayToUse(),
+                priorityWorkers, bulkWorkers);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        long deadline = System.currentTimeMillis() + smsProperties.getShutdownTimeout();
+        priorityLane.shutdown(deadline);
+        bulkLane.shutdown(deadline);
+    }
+
+    /**
+     * Queues the sms without blocking the caller. An OTP is sent by the caller
+     * itself if the priority lane is full, other sms are moved to the bulk
+     * topic if the bulk lane is full.
+     */
+    public void dispatch(SMSRequest request) {
+        QueuedSms queuedSms = new QueuedSms(request, RequestContext.getId());
+        if (request.getCategory() == Category.OTP) {
+            if (!priorityLane.offer(queuedSms)) {
+                log.warn("Priority lane is full, sending OTP on the listener thread");
+                deliver(singletonBatch(queuedSms), otpSmsTopic);
+            }
+        } else if (!bulkLane.offer(queuedSms)) {
+            kafkaTemplate.send(bulkSmsTopic, request);
+        }
+    }
+
+    /**
+     * Queues the sms on the bulk lane, waiting for room when it is full
+     */
+    public void dispatchBulk(SMSRequest request) throws InterruptedException {
+        bulkLane.put(new QueuedSms(request, RequestContext.getId()));
+    }
+
+    private List<QueuedSms> singletonBatch(QueuedSms queuedSms) {
+        List<QueuedSms> batch = new ArrayList<>(1);
+        batch.add(queuedSms);
+        return batch;
+    }
+
+    /**
+     * Sends the batch, the sms not sent when the worker is interrupted are
+     * published to the given topic
+     */
+    private void deliver(List<QueuedSms> batch, String leftoverTopic) {
+        Map<String, List<QueuedSms>> groups = new LinkedHashMap<>();
+        for (QueuedSms queuedSms : batch) {
+            SMSRequest request = queuedSms.request;
+            if (isExpired(request)) {
+                log.info("OTP Expired");
+                if (!StringUtils.isEmpty(expiredSmsTopic))
+                    kafkaTemplate.send(expiredSmsTopic, request);
+                continue;
+            }
+            String key = request.getMessage() + "|" + request.getTemplateId() + "|" + request.getCategory();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(queuedSms);
+        }
+
+        Iterator<List<QueuedSms>> pending = groups.values().iterator();
+        while (pending.hasNext()) {
+            List<QueuedSms> group = pending.next();
+            RequestContext.setId(group.get(0).correlationId);
+            List<Sms> smsList = new ArrayList<>(group.size());
+            for (QueuedSms queuedSms : group) {
+                smsList.add(queuedSms.request.toDomain());
+            }
+            try {
+                rateLimiter.acquire();
+                smsService.sendSMS(smsList);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                publish(leftoverTopic, group);
+                pending.forEachRemaining(remaining -> publish(leftoverTopic, remaining));
+                return;
+            } catch (RestClientException rx) {
+                log.info("Going to backup SMS Service", rx);
+                String topic = !StringUtils.isEmpty(backupSmsTopic) ? backupSmsTopic : errorSmsTopic;
+                publish(topic, group);
+            } catch (Exception ex) {
+                log.error("Sms service failed", ex);
+                publish(errorSmsTopic, group);
+            }
+        }
+    }
+
+    private boolean isExpired(SMSRequest request) {
+        return request.getCategory() == Category.OTP && request.getExpiryTime() != null
+                && request.getExpiryTime() < System.currentTimeMillis();
+    }
+
+    private void publish(String topic, List<QueuedSms> group) {
+        if (StringUtils.isEmpty(topic))
+            return;
+        for (QueuedSms queuedSms : group) {
+            kafkaTemplate.send(topic, queuedSms.request);
+        }
+    }
+
+    private class Lane {
+
+        private final BlockingQueue<QueuedSms> queue;
+
+        private final ExecutorService workers;
+
+        private final int batchSize;
+
+        private final String sourceTopic;
+
+        private volatile boolean draining;
+
+        Lane(int workerCount, int queueSize, int batchSize, String sourceTopic) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.batchSize = batchSize;
+            this.sourceTopic = sourceTopic;
+            this.workers = Executors.newFixedThreadPool(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                workers.execute(this::work);
+            }
+        }
+
+        boolean offer(QueuedSms queuedSms) {
+            return queue.offer(queuedSms);
+        }
+
+        void put(QueuedSms queuedSms) throws InterruptedException {
+            queue.put(queuedSms);
+        }
+
+        /**
+         * Lets the workers send the queued sms until the deadline, then stops
+         * them and publishes the sms left in the queue back to the source topic
+         */
+        void shutdown(long deadline) {
+            draining = true;
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS))
+                    workers.shutdownNow();
+            } catch (InterruptedException e) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+
+            List<QueuedSms> leftovers = new ArrayList<>();
+            queue.drainTo(leftovers);
+            if (!leftovers.isEmpty()) {
+                log.warn("Sms dispatcher stopped with {} sms queued, publishing them to {}", leftovers.size(),
+                        sourceTopic);
+                publish(sourceTopic, leftovers);
+            }
+        }
+
+        private void work() {
+            List<QueuedSms> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    QueuedSms queuedSms = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (queuedSms == null) {
+                        if (draining)
+                            return;
+                        continue;
+                    }
+                    batch.add(queuedSms);
+                    if (batchSize > 1)
+                        queue.drainTo(batch, batchSize - 1);
+                    deliver(batch, sourceTopic);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("Error while dispatching sms: ", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class QueuedSms {
+
+        private final SMSRequest request;
+
+        private final String correlationId;
+    }
+}
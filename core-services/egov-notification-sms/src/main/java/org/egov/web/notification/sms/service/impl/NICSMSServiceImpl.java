@@ -13,6 +13,8 @@ import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.net.ssl.HttpsURLConnection;
@@ -107,6 +109,22 @@ public class NICSMSServiceImpl extends BaseSMSService {
 
 	protected void submitToExternalSmsService(Sms sms) {
 		log.info("submitToExternalSmsService() start");
+		submit(sms, "91" + sms.getMobileNumber());
+	}
+
+	/**
+	 * The gateway accepts a comma separated list of numbers for the same message,
+	 * so messages sharing text and template go out in one request
+	 */
+	@Override
+	protected void submitToExternalSmsService(List<Sms> smsList) {
+		log.info("submitToExternalSmsService() start for " + smsList.size() + " numbers");
+		String mobileNumbers = smsList.stream().map(sms -> "91" + sms.getMobileNumber())
+				.collect(Collectors.joining(","));
+		submit(smsList.get(0), mobileNumbers);
+	}
+
+	private void submit(Sms sms, String mobileNumbers) {
 		try {
 
 			String final_data = "";
@@ -130,7 +148,7 @@ public class NICSMSServiceImpl extends BaseSMSService {
 			message = URLEncoder.encode(message, "UTF-8");
 
 			final_data += "&message=" + message;
-			final_data += "&mnumber=91" + sms.getMobileNumber();
+			final_data += "&mnumber=" + mobileNumbers;
 			final_data += "&signature=" + smsProperties.getSenderid();
 			final_data += "&dlt_entity_id=" + smsProperties.getSmsEntityId();
 			if (null == sms.getTemplateId()) {
@@ -142,6 +160,9 @@ public class NICSMSServiceImpl extends BaseSMSService {
 				HttpsURLConnection conn = (HttpsURLConnection) new URL(smsProperties.getUrl() + "?" + final_data)
 						.openConnection();
 				conn.setSSLSocketFactory(sslContext.getSocketFactory());
+				// a hung gateway must not hold a dispatcher worker forever
+				conn.setConnectTimeout(smsProperties.getConnectTimeout());
+				conn.setReadTimeout(smsProperties.getReadTimeout());
 				conn.setDoOutput(true);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json");
@@ -165,7 +186,7 @@ public class NICSMSServiceImpl extends BaseSMSService {
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
-			log.error("Error occurred while sending SMS to : " + sms.getMobileNumber(), e);
+			log.error("Error occurred while sending SMS to : " + mobileNumbers, e);
 		}
 	}
 
@@ -0,0 +1,296 @@
+package org.egov.web.notification.sms.service.dispatch;
+
+import org.egov.tracer.kafka.CustomKafkaTemplate;
+import org.egov.web.notification.sms.config.SMSProperties;
+import org.egov.web.notification.sms.consumer.contract.SMSRequest;
+import org.egov.web.notification.sms.models.Category;
+import org.egov.web.notification.sms.models.Sms;
+import org.egov.web.notification.sms.service.SMSService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class SmsDispatcherTest {
+
+    private static final String OTP_TOPIC = "sms.otp";
+
+    private static final String BULK_TOPIC = "sms.bulk";
+
+    private static final String EXPIRED_TOPIC = "sms.expired";
+
+    private static final String ERROR_TOPIC = "sms.error";
+
+    private FakeSmsService smsService;
+
+    private CustomKafkaTemplate<String, SMSRequest> kafkaTemplate;
+
+    private SMSProperties smsProperties;
+
+    private SmsDispatcher dispatcher;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        smsService = new FakeSmsService();
+        kafkaTemplate = mock(CustomKafkaTemplate.class);
+
+        smsProperties = new SMSProperties();
+        smsProperties.setGatewayToUse("Console");
+        smsProperties.setProviderConcurrency(Collections.singletonMap("Console", 2));
+        smsProperties.setProviderRatePerSecond(Collections.singletonMap("Console", 1000));
+        smsProperties.setProviderBatchSize(Collections.singletonMap("Console", 1));
+        smsProperties.setPriorityWorkers(1);
+        smsProperties.setPriorityQueueSize(10);
+        smsProperties.setBulkQueueSize(10);
+        smsProperties.setShutdownTimeout(1000);
+    }
+
+    @After
+    public void tearDown() {
+        smsService.release();
+        if (dispatcher != null)
+            dispatcher.destroy();
+    }
+
+    @Test
+    public void testOtpIsSentWhileBulkLaneIsBusy() throws Exception {
+        start();
+        smsService.blockCategory(Category.NOTIFICATION);
+
+        dispatcher.dispatch(sms("1111111111", "notice", Category.NOTIFICATION));
+        smsService.awaitBlocked();
+        dispatcher.dispatch(sms("2222222222", "notice", Category.NOTIFICATION));
+        dispatcher.dispatch(sms("3333333333", "otp 1234", Category.OTP));
+
+        smsService.awaitSent(1);
+        assertEquals("3333333333", smsService.sentNumbers().get(0));
+        assertEquals(1, smsService.sentNumbers().size());
+
+        smsService.release();
+        smsService.awaitSent(3);
+    }
+
+    @Test
+    public void testFullBulkLaneOverflowsToBulkTopic() throws Exception {
+        smsProperties.setBulkQueueSize(1);
+        start();
+        smsService.blockCategory(Category.NOTIFICATION);
+
+        dispatcher.dispatch(sms("1111111111", "notice", Category.NOTIFICATION));
+        smsService.awaitBlocked();
+        SMSRequest queued = sms("2222222222", "notice", Category.NOTIFICATION);
+        SMSRequest overflow = sms("3333333333", "notice", Category.NOTIFICATION);
+        dispatcher.dispatch(queued);
+        dispatcher.dispatch(overflow);
+
+        verify(kafkaTemplate).send(BULK_TOPIC, overflow);
+        verify(kafkaTemplate, never()).send(BULK_TOPIC, queued);
+    }
+
+    @Test
+    public void testBulkWorkerSendsSameTextInOneRequest() throws Exception {
+        smsProperties.setProviderBatchSize(Collections.singletonMap("Console", 3));
+        start();
+        smsService.blockCategory(Category.NOTIFICATION);
+
+        dispatcher.dispatch(sms("1111111111", "first", Category.NOTIFICATION));
+        smsService.awaitBlocked();
+        dispatcher.dispatch(sms("2222222222", "notice", Category.NOTIFICATION));
+        dispatcher.dispatch(sms("3333333333", "other", Category.NOTIFICATION));
+        dispatcher.dispatch(sms("4444444444", "notice", Category.NOTIFICATION));
+        smsService.release();
+
+        smsService.awaitSent(4);
+        List<List<Sms>> requests = smsService.requests;
+        assertEquals(3, requests.size());
+        assertEquals(2, requests.get(1).size());
+        assertEquals("2222222222", requests.get(1).get(0).getMobileNumber());
+        assertEquals("4444444444", requests.get(1).get(1).getMobileNumber());
+        assertEquals("3333333333", requests.get(2).get(0).getMobileNumber());
+    }
+
+    @Test
+    public void testExpiredOtpIsPublishedInsteadOfSent() throws Exception {
+        start();
+        SMSRequest expired = new SMSRequest("1111111111", "otp 1234", Category.OTP,
+                System.currentTimeMillis() - 1, null, null, null, null, null);
+
+        dispatcher.dispatch(expired);
+
+        verify(kafkaTemplate, timeout(2000)).send(EXPIRED_TOPIC, expired);
+        assertTrue(smsService.sentNumbers().isEmpty());
+    }
+
+    @Test
+    public void testProviderErrorsArePublishedToErrorTopic() throws Exception {
+        start();
+        smsService.failWith = new RestClientException("provider down");
+        SMSRequest request = sms("1111111111", "otp 1234", Category.OTP);
+
+        dispatcher.dispatch(request);
+
+        verify(kafkaTemplate, timeout(2000)).send(ERROR_TOPIC, request);
+    }
+
+    @Test
+    public void testSendsAreSpacedOutByRateLimit() throws Exception {
+        smsProperties.setProviderRatePerSecond(Collections.singletonMap("Console", 10));
+        start();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(sms("111111111" + i, "otp " + i, Category.OTP));
+        }
+        smsService.awaitSent(5);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 350);
+    }
+
+    @Test
+    public void testShutdownPublishesQueuedSmsBackToTheirTopic() throws Exception {
+        smsProperties.setShutdownTimeout(100);
+        start();
+        smsService.blockCategory(Category.NOTIFICATION);
+
+        dispatcher.dispatch(sms("1111111111", "notice", Category.NOTIFICATION));
+        smsService.awaitBlocked();
+        SMSRequest second = sms("2222222222", "notice", Category.NOTIFICATION);
+        SMSRequest third = sms("3333333333", "notice", Category.NOTIFICATION);
+        dispatcher.dispatch(second);
+        dispatcher.dispatch(third);
+
+        dispatcher.destroy();
+
+        verify(kafkaTemplate).send(BULK_TOPIC, second);
+        verify(kafkaTemplate).send(BULK_TOPIC, third);
+        verifyNoMoreInteractions(kafkaTemplate);
+        assertFalse(smsService.sentNumbers().contains("2222222222"));
+    }
+
+    @Test
+    public void testDispatchBulkWaitsForRoomInsteadOfOverflowing() throws Exception {
+        smsProperties.setBulkQueueSize(1);
+        start();
+        smsService.blockCategory(Category.NOTIFICATION);
+
+        dispatcher.dispatch(sms("1111111111", "notice", Category.NOTIFICATION));
+        smsService.awaitBlocked();
+        dispatcher.dispatchBulk(sms("2222222222", "notice", Category.NOTIFICATION));
+
+        Thread waiting = new Thread(() -> {
+            try {
+                dispatcher.dispatchBulk(sms("3333333333", "notice", Category.NOTIFICATION));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+
+        smsService.release();
+        waiting.join(2000);
+        assertFalse(waiting.isAlive());
+        smsService.awaitSent(3);
+        verify(kafkaTemplate, never()).send(anyString(), any(SMSRequest.class));
+    }
+
+    private void start() {
+        dispatcher = new SmsDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "smsService", smsService);
+        ReflectionTestUtils.setField(dispatcher, "smsProperties", smsProperties);
+        ReflectionTestUtils.setField(dispatcher, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(dispatcher, "otpSmsTopic", OTP_TOPIC);
+        ReflectionTestUtils.setField(dispatcher, "bulkSmsTopic", BULK_TOPIC);
+        ReflectionTestUtils.setField(dispatcher, "expiredSmsTopic", EXPIRED_TOPIC);
+        ReflectionTestUtils.setField(dispatcher, "backupSmsTopic", "");
+        ReflectionTestUtils.setField(dispatcher, "errorSmsTopic", ERROR_TOPIC);
+        dispatcher.init();
+    }
+
+    private SMSRequest sms(String mobileNumber, String message, Category category) {
+        return new SMSRequest(mobileNumber, message, category, null, null, null, null, null, null);
+    }
+
+    /**
+     * Records the sms sent, and holds the sends of one category until released
+     */
+    private static class FakeSmsService implements SMSService {
+
+        private final List<List<Sms>> requests = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        private volatile Category blockedCategory;
+
+        private volatile RuntimeException failWith;
+
+        void blockCategory(Category category) {
+            blockedCategory = category;
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue("no send was held", blocked.await(2, TimeUnit.SECONDS));
+        }
+
+        void awaitSent(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (sentNumbers().size() < count) {
+                assertTrue("only " + sentNumbers().size() + " sms sent", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+        }
+
+        List<String> sentNumbers() {
+            List<String> numbers = new ArrayList<>();
+            requests.forEach(request -> request.forEach(sms -> numbers.add(sms.getMobileNumber())));
+            return numbers;
+        }
+
+        @Override
+        public void sendSMS(Sms sms) {
+            sendSMS(Collections.singletonList(sms));
+        }
+
+        @Override
+        public void sendSMS(List<Sms> smsList) {
+            if (failWith != null)
+                throw failWith;
+            if (smsList.get(0).getCategory() == blockedCategory) {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            requests.add(new ArrayList<>(smsList));
+        }
+    }
+}
@@ -8,6 +8,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Getter
 @ToString
 @Configuration
@@ -98,6 +101,20 @@ public class AppProperties {
 
     private final String internalMicroserviceUserType;
 
+    private final Integer reconciliationPageSize;
+
+    private final Integer reconciliationMaxAttempts;
+
+    private final Long reconciliationRetryBackoff;
+
+    private final Integer reconciliationConcurrency;
+
+    private final Integer reconciliationRatePerSecond;
+
+    private final Map<String, Integer> reconciliationGatewayConcurrency;
+
+    private final Map<String, Integer> reconciliationGatewayRatePerSecond;
+
     @Autowired
     public AppProperties(Environment environment){
         this.earlyReconcileJobRunInterval = Integer.valueOf(environment.getRequiredProperty("pg.earlyReconcileJobRunInterval.mins"));
@@ -142,6 +159,27 @@ public class AppProperties {
         this.internalMicroserviceUserUsername = environment.getRequiredProperty("internal.microservice.user.username");
         this.internalMicroserviceUserMobilenumber = environment.getRequiredProperty("internal.microservice.user.mobilenumber");
         this.internalMicroserviceUserType = environment.getRequiredProperty("internal.microservice.user.type");
+        this.reconciliationPageSize = Integer.valueOf(environment.getRequiredProperty("pg.reconciliation.page.size"));
+        this.reconciliationMaxAttempts = Integer.valueOf(environment.getRequiredProperty("pg.reconciliation.max.attempts"));
+        this.reconciliationRetryBackoff = Long.valueOf(environment.getRequiredProperty("pg.reconciliation.retry.backoff.ms"));
+        this.reconciliationConcurrency = Integer.valueOf(environment.getRequiredProperty("pg.reconciliation.concurrency"));
+        this.reconciliationRatePerSecond = Integer.valueOf(environment.getRequiredProperty("pg.reconciliation.rate.per.sec"));
+        this.reconciliationGatewayConcurrency = toGatewayMap(environment.getRequiredProperty("pg.reconciliation.gateway.concurrency"));
+        this.reconciliationGatewayRatePerSecond = toGatewayMap(environment.getRequiredProperty("pg.reconciliation.gateway.rate.per.sec"));
+    }
+
+    /**
+     * Parses per gateway overrides of the form GATEWAY:value,GATEWAY:value
+     */
+    private static Map<String, Integer> toGatewayMap(String value) {
+        Map<String, Integer> gatewayMap = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.trim().isEmpty())
+                continue;
+            String[] gatewayAndValue = entry.split(":");
+            gatewayMap.put(gatewayAndValue[0].trim().toUpperCase(), Integer.valueOf(gatewayAndValue[1].trim()));
+        }
+        return gatewayMap;
     }
 
 }
\ No newline at end of file
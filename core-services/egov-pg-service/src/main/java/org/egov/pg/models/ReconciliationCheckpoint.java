@@ -0,0 +1,26 @@
+package org.egov.pg.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Progress of a reconciliation run for a gateway, the transactions of the
+ * gateway in the window up to and including the last created time and txn id
+ * have been reconciled
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ReconciliationCheckpoint {
+    private String jobName;
+    private String gateway;
+    private Long windowStart;
+    private Long windowEnd;
+    private Long lastCreatedTime;
+    private String lastTxnId;
+}
@@ -0,0 +1,60 @@
+package org.egov.pg.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.pg.models.ReconciliationCheckpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@Slf4j
+public class ReconciliationCheckpointRepository {
+
+    private static final String SELECT_SQL = "SELECT job_name, gateway, window_start, window_end, last_created_time, " +
+            "last_txn_id FROM eg_pg_reconciliation_checkpoint WHERE job_name = ? ";
+
+    private static final String UPSERT_SQL = "INSERT INTO eg_pg_reconciliation_checkpoint (job_name, gateway, " +
+            "window_start, window_end, last_created_time, last_txn_id, last_modified_time) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (job_name, gateway) DO UPDATE SET window_start = EXCLUDED.window_start, window_end = EXCLUDED" +
+            ".window_end, last_created_time = EXCLUDED.last_created_time, last_txn_id = EXCLUDED.last_txn_id, " +
+            "last_modified_time = EXCLUDED.last_modified_time";
+
+    private static final String DELETE_SQL = "DELETE FROM eg_pg_reconciliation_checkpoint WHERE job_name = ? " +
+            "AND gateway = ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ReconciliationCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the checkpoints of the job, one per gateway whose run was interrupted
+     */
+    public List<ReconciliationCheckpoint> find(String jobName) {
+        return jdbcTemplate.query(SELECT_SQL, new Object[]{jobName},
+                (resultSet, i) -> ReconciliationCheckpoint.builder()
+                        .jobName(resultSet.getString("job_name"))
+                        .gateway(resultSet.getString("gateway"))
+                        .windowStart(resultSet.getLong("window_start"))
+                        .windowEnd(resultSet.getLong("window_end"))
+                        .lastCreatedTime(resultSet.getLong("last_created_time"))
+                        .lastTxnId(resultSet.getString("last_txn_id"))
+                        .build());
+    }
+
+    public void save(ReconciliationCheckpoint checkpoint) {
+        jdbcTemplate.update(UPSERT_SQL, checkpoint.getJobName(), checkpoint.getGateway(), checkpoint.getWindowStart(),
+                checkpoint.getWindowEnd(), checkpoint.getLastCreatedTime(), checkpoint.getLastTxnId(),
+                System.currentTimeMillis());
+        log.debug("Saved reconciliation checkpoint {}", checkpoint);
+    }
+
+    public void delete(String jobName, String gateway) {
+        jdbcTemplate.update(DELETE_SQL, jobName, gateway);
+    }
+
+}
@@ -27,6 +27,37 @@ class TransactionQueryBuilder {
         return buildQueryForTimeRange(transactionCriteria, startTime, endTime, preparedStmtList);
     }
 
+    /**
+     * Distinct gateways of the transactions in the time range
+     */
+    static String getGatewaySearchQueryByCreatedTimeRange(TransactionCriteria transactionCriteria, Long startTime,
+                                                          Long endTime, List<Object> preparedStmtList) {
+        return "SELECT DISTINCT txn.gateway FROM (" + buildQueryForTimeRange(
+                transactionCriteria, startTime, endTime, preparedStmtList) + ") txn ";
+    }
+
+    /**
+     * Page of transactions of the gateway in the time range, in created time and
+     * txn id order, after the given created time and txn id
+     */
+    static String getPaymentSearchQueryByCreatedTimeRangeAfter(TransactionCriteria transactionCriteria, Long startTime,
+                                                                Long endTime, String gateway, Long afterCreatedTime,
+                                                                String afterTxnId, int limit,
+                                                                List<Object> preparedStmtList) {
+        StringBuilder builder = new StringBuilder(buildQueryForTimeRange(transactionCriteria, startTime, endTime,
+                preparedStmtList));
+        builder.append(" AND pg.gateway = ? ");
+        preparedStmtList.add(gateway);
+        if (afterCreatedTime != null) {
+            builder.append(" AND (pg.created_time, pg.txn_id) > (?, ?) ");
+            preparedStmtList.add(afterCreatedTime);
+            preparedStmtList.add(afterTxnId);
+        }
+        builder.append(" order by pg.created_time, pg.txn_id limit ? ");
+        preparedStmtList.add(limit);
+        return builder.toString();
+    }
+
     private static String buildQueryForTimeRange(TransactionCriteria transactionCriteria, Long startTime, Long endTime, List<Object> preparedStmtList) {
         String preparedQuery = buildQuery(transactionCriteria, preparedStmtList);
 
@@ -36,4 +36,23 @@ public class TransactionRepository {
         return jdbcTemplate.query(query, params.toArray(), rowMapper);
     }
 
+    public List<String> fetchGatewaysByTimeRange(TransactionCriteria transactionCriteria, Long startTime,
+                                                 Long endTime) {
+        List<Object> params = new ArrayList<>();
+        String query = TransactionQueryBuilder.getGatewaySearchQueryByCreatedTimeRange(transactionCriteria, startTime,
+                endTime, params);
+        log.debug(query);
+        return jdbcTemplate.queryForList(query, params.toArray(), String.class);
+    }
+
+    public List<Transaction> fetchTransactionsByTimeRangeAfter(TransactionCriteria transactionCriteria, Long startTime,
+                                                               Long endTime, String gateway, Long afterCreatedTime,
+                                                               String afterTxnId, int limit) {
+        List<Object> params = new ArrayList<>();
+        String query = TransactionQueryBuilder.getPaymentSearchQueryByCreatedTimeRangeAfter(transactionCriteria,
+                startTime, endTime, gateway, afterCreatedTime, afterTxnId, limit, params);
+        log.debug(query);
+        return jdbcTemplate.query(query, params.toArray(), rowMapper);
+    }
+
 }
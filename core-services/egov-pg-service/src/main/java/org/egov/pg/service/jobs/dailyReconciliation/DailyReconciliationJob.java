@@ -4,11 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.egov.common.contract.request.RequestInfo;
 import org.egov.common.contract.request.User;
 import org.egov.pg.config.AppProperties;
-import org.egov.pg.constants.PgConstants;
-import org.egov.pg.models.Transaction;
-import org.egov.pg.repository.TransactionRepository;
-import org.egov.pg.service.TransactionService;
-import org.egov.pg.web.models.TransactionCriteria;
+import org.egov.pg.service.reconciliation.ReconciliationService;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +13,6 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,8 +20,11 @@ import java.util.concurrent.TimeUnit;
  */
 @Component
 @Slf4j
+@DisallowConcurrentExecution
 public class DailyReconciliationJob implements Job {
 
+    private static final String JOB_NAME = "daily-reconciliation";
+
     private static RequestInfo requestInfo;
 
     @PostConstruct
@@ -43,9 +42,7 @@ public class DailyReconciliationJob implements Job {
     @Autowired
     private AppProperties appProperties;
     @Autowired
-    private TransactionService transactionService;
-    @Autowired
-    private TransactionRepository transactionRepository;
+    private ReconciliationService reconciliationService;
 
     /**
      * Fetch live status for all pending transactions
@@ -55,18 +52,8 @@ public class DailyReconciliationJob implements Job {
      */
     @Override
     public void execute(JobExecutionContext jobExecutionContext) {
-        List<Transaction> pendingTxns = transactionRepository.fetchTransactionsByTimeRange(TransactionCriteria.builder()
-                        .txnStatus(Transaction.TxnStatusEnum.PENDING).build(), 0L,
+        reconciliationService.reconcile(JOB_NAME, requestInfo, 0L,
                 System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(appProperties.getEarlyReconcileJobRunInterval
                         () * 2));
-
-        log.info("Attempting to reconcile {} pending transactions", pendingTxns.size());
-
-        for (Transaction txn : pendingTxns) {
-            log.info(transactionService.updateTransaction(requestInfo, Collections.singletonMap(PgConstants.PG_TXN_IN_LABEL, txn
-                    .getTxnId
-                    ())).toString());
-        }
-
     }
 }
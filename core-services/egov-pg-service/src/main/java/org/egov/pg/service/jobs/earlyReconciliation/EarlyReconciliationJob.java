@@ -4,11 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.egov.common.contract.request.RequestInfo;
 import org.egov.common.contract.request.User;
 import org.egov.pg.config.AppProperties;
-import org.egov.pg.constants.PgConstants;
-import org.egov.pg.models.Transaction;
-import org.egov.pg.repository.TransactionRepository;
-import org.egov.pg.service.TransactionService;
-import org.egov.pg.web.models.TransactionCriteria;
+import org.egov.pg.service.reconciliation.ReconciliationService;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -17,7 +14,6 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -25,8 +21,11 @@ import java.util.concurrent.TimeUnit;
  */
 @Component
 @Slf4j
+@DisallowConcurrentExecution
 public class EarlyReconciliationJob implements Job {
 
+    private static final String JOB_NAME = "early-reconciliation";
+
     private static RequestInfo requestInfo;
 
     @PostConstruct
@@ -42,9 +41,7 @@ public class EarlyReconciliationJob implements Job {
     @Autowired
     private AppProperties appProperties;
     @Autowired
-    private TransactionService transactionService;
-    @Autowired
-    private TransactionRepository transactionRepository;
+    private ReconciliationService reconciliationService;
 
     /**
      * Fetch live status for pending transactions
@@ -60,19 +57,9 @@ public class EarlyReconciliationJob implements Job {
         startTime = appProperties.getEarlyReconcileJobRunInterval() * 2;
         endTime = startTime - appProperties.getEarlyReconcileJobRunInterval();
 
-        List<Transaction> pendingTxns = transactionRepository.fetchTransactionsByTimeRange(TransactionCriteria.builder()
-                        .txnStatus(Transaction.TxnStatusEnum.PENDING).build(),
+        reconciliationService.reconcile(JOB_NAME, requestInfo,
                 System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(startTime),
                 System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(endTime));
-
-        log.info("Attempting to reconcile {} pending transactions", pendingTxns.size());
-
-        for (Transaction txn : pendingTxns) {
-            log.info(transactionService.updateTransaction(requestInfo, Collections.singletonMap(PgConstants.PG_TXN_IN_LABEL, txn
-                    .getTxnId
-                    ())).toString());
-        }
-
     }
 
 }
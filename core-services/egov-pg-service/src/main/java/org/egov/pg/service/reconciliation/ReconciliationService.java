@@ -0,0 +1,227 @@
+package org.egov.pg.service.reconciliation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.request.RequestInfo;
+import org.egov.pg.config.AppProperties;
+import org.egov.pg.constants.PgConstants;
+import org.egov.pg.models.ReconciliationCheckpoint;
+import org.egov.pg.models.Transaction;
+import org.egov.pg.repository.ReconciliationCheckpointRepository;
+import org.egov.pg.repository.TransactionRepository;
+import org.egov.pg.service.TransactionService;
+import org.egov.pg.web.models.TransactionCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reconciles pending transactions against their gateways
+ * <p>
+ * 1. Runs a lane per gateway, a lane pages through the pending transactions of
+ * its gateway in the window in created time order
+ * 2. Fetches the live status of a page concurrently, each gateway with its own
+ * concurrency and rate limit, lanes move at their own pace so a slow gateway
+ * does not hold up the others
+ * 3. Retries failed status fetches with an exponential backoff
+ * 4. Checkpoints a lane after every page, an interrupted run is resumed per
+ * gateway by the next run of the job instead of starting over
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    private static final String NO_GATEWAY = "";
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final AppProperties appProperties;
+
+    private final Map<String, GatewayLane> lanes = new ConcurrentHashMap<>();
+
+    private final ExecutorService pagers = Executors.newCachedThreadPool();
+
+    @Autowired
+    ReconciliationService(TransactionService transactionService, TransactionRepository transactionRepository,
+                          ReconciliationCheckpointRepository checkpointRepository, AppProperties appProperties) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.appProperties = appProperties;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pagers.shutdownNow();
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    /**
+     * Reconciles the pending transactions created in the window, the window of a
+     * gateway is widened to the window of its checkpoint when a previous run of
+     * the job was interrupted
+     *
+     * @param jobName     Name of the job, the key of its checkpoints
+     * @param requestInfo Request info of the system user
+     * @param windowStart Start of the created time window
+     * @param windowEnd   End of the created time window
+     * @return Number of transactions whose status was fetched
+     */
+    public int reconcile(String jobName, RequestInfo requestInfo, long windowStart, long windowEnd) {
+        TransactionCriteria criteria = TransactionCriteria.builder().txnStatus(Transaction.TxnStatusEnum.PENDING).build();
+        long startTime = System.currentTimeMillis();
+
+        Map<String, ReconciliationCheckpoint> checkpoints = new TreeMap<>();
+        for (ReconciliationCheckpoint checkpoint : checkpointRepository.find(jobName))
+            checkpoints.put(checkpoint.getGateway(), checkpoint);
+        Set<String> gateways = new TreeSet<>(transactionRepository.fetchGatewaysByTimeRange(criteria, windowStart,
+                windowEnd));
+        gateways.addAll(checkpoints.keySet());
+
+        List<CompletableFuture<LaneOutcome>> futures = new ArrayList<>(gateways.size());
+        for (String gateway : gateways) {
+            ReconciliationCheckpoint checkpoint = checkpoints.get(gateway);
+            futures.add(CompletableFuture.supplyAsync(() -> reconcile(jobName, requestInfo, criteria, gateway,
+                    windowStart, windowEnd, checkpoint), pagers));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        int reconciled = 0, failed = 0;
+        for (CompletableFuture<LaneOutcome> future : futures) {
+            reconciled += future.join().reconciled;
+            failed += future.join().failed;
+        }
+
+        long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+        log.info("Reconciled {} pending transactions of {} gateways, {} failed, in {} ms, {} per second", reconciled,
+                gateways.size(), failed, elapsed, (reconciled + failed) * 1000L / elapsed);
+        return reconciled;
+    }
+
+    private LaneOutcome reconcile(String jobName, RequestInfo requestInfo, TransactionCriteria criteria,
+                                  String gateway, long windowStart, long windowEnd,
+                                  ReconciliationCheckpoint checkpoint) {
+        Long afterCreatedTime = null;
+        String afterTxnId = null;
+        if (checkpoint != null) {
+            log.info("Resuming reconciliation from checkpoint {}", checkpoint);
+            windowStart = Math.min(windowStart, checkpoint.getWindowStart());
+            windowEnd = Math.max(windowEnd, checkpoint.getWindowEnd());
+            afterCreatedTime = checkpoint.getLastCreatedTime();
+            afterTxnId = checkpoint.getLastTxnId();
+        }
+
+        GatewayLane lane = getLane(gateway);
+        int pageSize = appProperties.getReconciliationPageSize();
+        LaneOutcome outcome = new LaneOutcome();
+
+        List<Transaction> page;
+        do {
+            page = transactionRepository.fetchTransactionsByTimeRangeAfter(criteria, windowStart, windowEnd, gateway,
+                    afterCreatedTime, afterTxnId, pageSize);
+
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>(page.size());
+            for (Transaction txn : page)
+                futures.add(CompletableFuture.supplyAsync(() -> reconcile(requestInfo, txn, lane), lane.executor));
+            for (CompletableFuture<Boolean> future : futures) {
+                if (future.join())
+                    outcome.reconciled++;
+                else
+                    outcome.failed++;
+            }
+
+            if (!page.isEmpty()) {
+                Transaction last = page.get(page.size() - 1);
+                afterCreatedTime = last.getAuditDetails().getCreatedTime();
+                afterTxnId = last.getTxnId();
+                checkpointRepository.save(ReconciliationCheckpoint.builder()
+                        .jobName(jobName)
+                        .gateway(gateway)
+                        .windowStart(windowStart)
+                        .windowEnd(windowEnd)
+                        .lastCreatedTime(afterCreatedTime)
+                        .lastTxnId(afterTxnId)
+                        .build());
+            }
+        } while (page.size() == pageSize);
+
+        checkpointRepository.delete(jobName, gateway);
+        log.debug("Reconciled {} pending transactions of gateway {}, {} failed", outcome.reconciled, gateway,
+                outcome.failed);
+        return outcome;
+    }
+
+    private boolean reconcile(RequestInfo requestInfo, Transaction txn, GatewayLane lane) {
+        int maxAttempts = appProperties.getReconciliationMaxAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                lane.rateLimiter.acquire();
+                List<Transaction> updatedTxns = transactionService.updateTransaction(requestInfo,
+                        Collections.singletonMap(PgConstants.PG_TXN_IN_LABEL, txn.getTxnId()));
+                log.info(updatedTxns.toString());
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Unable to reconcile transaction " + txn.getTxnId() + " after " + attempt + " attempts", e);
+                    return false;
+                }
+                long backoff = appProperties.getReconciliationRetryBackoff() << (attempt - 1);
+                log.warn("Unable to reconcile transaction {}, attempt {}, retrying in {} ms", txn.getTxnId(),
+                        attempt, backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    private GatewayLane getLane(String gateway) {
+        String key = gateway == null ? NO_GATEWAY : gateway.toUpperCase();
+        return lanes.computeIfAbsent(key, k -> {
+            int concurrency = appProperties.getReconciliationGatewayConcurrency()
+                    .getOrDefault(k, appProperties.getReconciliationConcurrency());
+            int ratePerSecond = appProperties.getReconciliationGatewayRatePerSecond()
+                    .getOrDefault(k, appProperties.getReconciliationRatePerSecond());
+            log.info("Reconciling gateway {} with concurrency {} and {} calls per second", k, concurrency, ratePerSecond);
+            return new GatewayLane(Executors.newFixedThreadPool(concurrency), new RateLimiter(ratePerSecond));
+        });
+    }
+
+    private static class LaneOutcome {
+
+        private int reconciled;
+
+        private int failed;
+    }
+
+    private static class GatewayLane {
+
+        private final ExecutorService executor;
+
+        private final RateLimiter rateLimiter;
+
+        GatewayLane(ExecutorService executor, RateLimiter rateLimiter) {
+            this.executor = executor;
+            this.rateLimiter = rateLimiter;
+        }
+    }
+
+}
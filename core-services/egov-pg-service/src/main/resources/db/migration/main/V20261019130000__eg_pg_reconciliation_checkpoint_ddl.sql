@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS eg_pg_reconciliation_checkpoint (
+    job_name            VARCHAR(128) NOT NULL,
+    window_start        BIGINT NOT NULL,
+    window_end          BIGINT NOT NULL,
+    last_created_time   BIGINT NOT NULL,
+    last_txn_id         VARCHAR(128) NOT NULL,
+    last_modified_time  BIGINT NOT NULL,
+    CONSTRAINT pk_eg_pg_reconciliation_checkpoint PRIMARY KEY (job_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_eg_pg_transactions_status_created_time ON eg_pg_transactions (txn_status, created_time, txn_id);
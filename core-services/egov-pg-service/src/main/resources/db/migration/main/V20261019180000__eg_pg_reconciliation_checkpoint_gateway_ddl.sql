@@ -0,0 +1,7 @@
+-- checkpoints of a whole window cannot be split per gateway, the next run of an interrupted job starts its window over
+DELETE FROM eg_pg_reconciliation_checkpoint;
+
+ALTER TABLE eg_pg_reconciliation_checkpoint ADD COLUMN IF NOT EXISTS gateway VARCHAR(64) NOT NULL DEFAULT '';
+
+ALTER TABLE eg_pg_reconciliation_checkpoint DROP CONSTRAINT IF EXISTS pk_eg_pg_reconciliation_checkpoint;
+ALTER TABLE eg_pg_reconciliation_checkpoint ADD CONSTRAINT pk_eg_pg_reconciliation_checkpoint PRIMARY KEY (job_name, gateway);
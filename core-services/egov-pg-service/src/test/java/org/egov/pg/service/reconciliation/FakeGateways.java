@@ -0,0 +1,84 @@
+package org.egov.pg.service.reconciliation;
+
+import org.egov.pg.models.AuditDetails;
+import org.egov.pg.models.Transaction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand in for the payment gateways, answers status queries after a
+ * fixed latency per gateway and records the peak number of concurrent queries
+ * and the calls per transaction, to measure reconciliation throughput offline
+ */
+class FakeGateways {
+
+    private final Map<String, Long> latencies;
+
+    private final Map<String, String> gatewayOfTxn = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> peakInFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> completedAt = new ConcurrentHashMap<>();
+
+    FakeGateways(Map<String, Long> latencies) {
+        this.latencies = latencies;
+    }
+
+    Transaction register(String txnId, String gateway, long createdTime) {
+        gatewayOfTxn.put(txnId, gateway);
+        return Transaction.builder()
+                .txnId(txnId)
+                .gateway(gateway)
+                .txnStatus(Transaction.TxnStatusEnum.PENDING)
+                .auditDetails(new AuditDetails(null, createdTime, null, createdTime))
+                .build();
+    }
+
+    void failFirst(String txnId, int failures) {
+        failuresLeft.put(txnId, new AtomicInteger(failures));
+    }
+
+    List<Transaction> fetchStatus(String txnId) throws InterruptedException {
+        String gateway = gatewayOfTxn.get(txnId);
+        calls.computeIfAbsent(txnId, k -> new AtomicInteger()).incrementAndGet();
+
+        int current = inFlight.computeIfAbsent(gateway, k -> new AtomicInteger()).incrementAndGet();
+        peakInFlight.computeIfAbsent(gateway, k -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(latencies.get(gateway));
+            AtomicInteger failures = failuresLeft.get(txnId);
+            if (failures != null && failures.getAndDecrement() > 0)
+                throw new IllegalStateException("Gateway " + gateway + " timed out");
+            return Collections.singletonList(Transaction.builder().txnId(txnId).gateway(gateway)
+                    .txnStatus(Transaction.TxnStatusEnum.SUCCESS).build());
+        } finally {
+            inFlight.get(gateway).decrementAndGet();
+            completedAt.put(txnId, System.nanoTime());
+        }
+    }
+
+    int getPeakInFlight(String gateway) {
+        return peakInFlight.getOrDefault(gateway, new AtomicInteger()).get();
+    }
+
+    /**
+     * Nano time the last status query of the transaction completed at
+     */
+    long getCompletedAt(String txnId) {
+        return completedAt.get(txnId);
+    }
+
+    int getCalls(String txnId) {
+        return calls.getOrDefault(txnId, new AtomicInteger()).get();
+    }
+}
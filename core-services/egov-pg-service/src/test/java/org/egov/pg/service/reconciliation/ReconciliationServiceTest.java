@@ -0,0 +1,204 @@
+package org.egov.pg.service.reconciliation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.request.RequestInfo;
+import org.egov.pg.config.AppProperties;
+import org.egov.pg.constants.PgConstants;
+import org.egov.pg.models.ReconciliationCheckpoint;
+import org.egov.pg.models.Transaction;
+import org.egov.pg.repository.ReconciliationCheckpointRepository;
+import org.egov.pg.repository.TransactionRepository;
+import org.egov.pg.service.TransactionService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+@Slf4j
+public class ReconciliationServiceTest {
+
+    private static final String JOB_NAME = "test-reconciliation";
+
+    private ReconciliationService reconciliationService;
+
+    private FakeGateways fakeGateways;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AppProperties appProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        Map<String, Long> latencies = new HashMap<>();
+        latencies.put("PAYGOV", 20L);
+        latencies.put("AXIS", 5L);
+        fakeGateways = new FakeGateways(latencies);
+
+        Map<String, Integer> gatewayConcurrency = new HashMap<>();
+        gatewayConcurrency.put("PAYGOV", 2);
+
+        lenient().when(appProperties.getReconciliationPageSize()).thenReturn(10);
+        lenient().when(appProperties.getReconciliationMaxAttempts()).thenReturn(3);
+        lenient().when(appProperties.getReconciliationRetryBackoff()).thenReturn(1L);
+        lenient().when(appProperties.getReconciliationConcurrency()).thenReturn(4);
+        lenient().when(appProperties.getReconciliationRatePerSecond()).thenReturn(1000);
+        lenient().when(appProperties.getReconciliationGatewayConcurrency()).thenReturn(gatewayConcurrency);
+        lenient().when(appProperties.getReconciliationGatewayRatePerSecond()).thenReturn(Collections.emptyMap());
+
+        lenient().when(transactionService.updateTransaction(any(RequestInfo.class), any())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(1);
+            return fakeGateways.fetchStatus(params.get(PgConstants.PG_TXN_IN_LABEL));
+        });
+
+        reconciliationService = new ReconciliationService(transactionService, transactionRepository,
+                checkpointRepository, appProperties);
+    }
+
+    @After
+    public void tearDown() {
+        reconciliationService.destroy();
+    }
+
+    @Test
+    public void testReconcileLimitsConcurrencyPerGateway() {
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            txns.add(fakeGateways.register("PB_PG_" + i, i % 2 == 0 ? "PAYGOV" : "AXIS", i));
+        mockPages(txns);
+
+        long startTime = System.currentTimeMillis();
+        int reconciled = reconciliationService.reconcile(JOB_NAME, new RequestInfo(), 0L, 100L);
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("Reconciled {} transactions against fake gateways in {} ms", reconciled, elapsed);
+
+        assertEquals(40, reconciled);
+        assertTrue(fakeGateways.getPeakInFlight("PAYGOV") <= 2);
+        assertTrue(fakeGateways.getPeakInFlight("AXIS") <= 4);
+        verify(checkpointRepository, times(4)).save(any(ReconciliationCheckpoint.class));
+        verify(checkpointRepository).delete(JOB_NAME, "PAYGOV");
+        verify(checkpointRepository).delete(JOB_NAME, "AXIS");
+    }
+
+    @Test
+    public void testReconcileDoesNotHoldUpGatewaysBehindASlowOne() {
+        Map<String, Long> latencies = new HashMap<>();
+        latencies.put("PAYGOV", 200L);
+        latencies.put("AXIS", 1L);
+        fakeGateways = new FakeGateways(latencies);
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            txns.add(fakeGateways.register("PB_PG_" + i, i % 4 == 0 ? "PAYGOV" : "AXIS", i));
+        mockPages(txns);
+
+        assertEquals(40, reconciliationService.reconcile(JOB_NAME, new RequestInfo(), 0L, 100L));
+
+        // the slow gateway needs five rounds of two calls, the other lane is done long before its first one
+        long firstSlowCompletion = Long.MAX_VALUE, lastFastCompletion = Long.MIN_VALUE;
+        for (Transaction txn : txns) {
+            long completedAt = fakeGateways.getCompletedAt(txn.getTxnId());
+            if (txn.getGateway().equals("PAYGOV"))
+                firstSlowCompletion = Math.min(firstSlowCompletion, completedAt);
+            else
+                lastFastCompletion = Math.max(lastFastCompletion, completedAt);
+        }
+        assertTrue(lastFastCompletion < firstSlowCompletion);
+    }
+
+    @Test
+    public void testReconcileRetriesFailedStatusFetch() {
+        Transaction txn = fakeGateways.register("PB_PG_1", "AXIS", 1L);
+        fakeGateways.failFirst("PB_PG_1", 1);
+        mockPages(Collections.singletonList(txn));
+
+        assertEquals(1, reconciliationService.reconcile(JOB_NAME, new RequestInfo(), 0L, 100L));
+        assertEquals(2, fakeGateways.getCalls("PB_PG_1"));
+    }
+
+    @Test
+    public void testReconcileGivesUpAfterMaxAttempts() {
+        Transaction txn = fakeGateways.register("PB_PG_1", "AXIS", 1L);
+        fakeGateways.failFirst("PB_PG_1", 5);
+        mockPages(Collections.singletonList(txn));
+
+        assertEquals(0, reconciliationService.reconcile(JOB_NAME, new RequestInfo(), 0L, 100L));
+        assertEquals(3, fakeGateways.getCalls("PB_PG_1"));
+    }
+
+    @Test
+    public void testReconcileResumesFromCheckpointPerGateway() {
+        when(checkpointRepository.find(JOB_NAME)).thenReturn(Collections.singletonList(ReconciliationCheckpoint
+                .builder().jobName(JOB_NAME).gateway("PAYGOV").windowStart(10L).windowEnd(50L).lastCreatedTime(30L)
+                .lastTxnId("PB_PG_30").build()));
+        when(transactionRepository.fetchGatewaysByTimeRange(any(), eq(20L), eq(100L)))
+                .thenReturn(Collections.singletonList("AXIS"));
+        when(transactionRepository.fetchTransactionsByTimeRangeAfter(any(), eq(10L), eq(100L), eq("PAYGOV"), eq(30L),
+                eq("PB_PG_30"), eq(10))).thenReturn(Collections.emptyList());
+        when(transactionRepository.fetchTransactionsByTimeRangeAfter(any(), eq(20L), eq(100L), eq("AXIS"), eq(null),
+                eq(null), eq(10))).thenReturn(Collections.emptyList());
+
+        assertEquals(0, reconciliationService.reconcile(JOB_NAME, new RequestInfo(), 20L, 100L));
+        verify(checkpointRepository).delete(JOB_NAME, "PAYGOV");
+        verify(checkpointRepository).delete(JOB_NAME, "AXIS");
+    }
+
+    /**
+     * Serves the transactions of a gateway in pages of the configured size,
+     * keyed on the cursor the service passes
+     */
+    private void mockPages(List<Transaction> txns) {
+        Set<String> gateways = new TreeSet<>();
+        txns.forEach(txn -> gateways.add(txn.getGateway()));
+        when(transactionRepository.fetchGatewaysByTimeRange(any(), anyLong(), anyLong()))
+                .thenReturn(new ArrayList<>(gateways));
+        when(transactionRepository.fetchTransactionsByTimeRangeAfter(any(), anyLong(), anyLong(), anyString(), any(),
+                any(), anyInt())).thenAnswer(invocation -> {
+            String gateway = invocation.getArgument(3);
+            Long afterCreatedTime = invocation.getArgument(4);
+            int limit = invocation.getArgument(6);
+            List<Transaction> gatewayTxns = txns.stream().filter(txn -> txn.getGateway().equals(gateway))
+                    .collect(Collectors.toList());
+            int from = afterCreatedTime == null ? 0 : indexOf(gatewayTxns, afterCreatedTime) + 1;
+            return new ArrayList<>(gatewayTxns.subList(from, Math.min(from + limit, gatewayTxns.size())));
+        });
+    }
+
+    private int indexOf(List<Transaction> txns, long createdTime) {
+        for (int i = 0; i < txns.size(); i++) {
+            if (txns.get(i).getAuditDetails().getCreatedTime() == createdTime)
+                return i;
+        }
+        return -1;
+    }
+}
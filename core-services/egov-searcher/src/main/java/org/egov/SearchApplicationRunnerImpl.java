@@ -10,8 +10,11 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
+import org.egov.search.model.Definition;
 import org.egov.search.model.SearchDefinition;
 import org.egov.search.model.SearchDefinitions;
+import org.egov.search.model.SearchPlan;
+import org.egov.search.utils.SearchUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,8 +53,13 @@ public class SearchApplicationRunnerImpl implements ApplicationRunner {
     @Autowired
     ApplicationContext applicationContext;
 
+    @Autowired
+    private SearchUtils searchUtils;
+
     public static ConcurrentHashMap<String, SearchDefinition> searchDefinitionMap = new ConcurrentHashMap<>();
 
+    private static ConcurrentHashMap<String, SearchPlan> searchPlanMap = new ConcurrentHashMap<>();
+
 
     public static final Logger logger = LoggerFactory.getLogger(SearchApplicationRunnerImpl.class);
 
@@ -160,9 +168,38 @@ public class SearchApplicationRunnerImpl implements ApplicationRunner {
             SpringApplication.exit(applicationContext);
             System.exit(1);
         }
+        searchPlanMap = compile(map);
         searchDefinitionMap = map;
     }
 
+    /**
+     * Compiles every definition into a search plan, keyed by module and search name
+     */
+    private ConcurrentHashMap<String, SearchPlan> compile(ConcurrentHashMap<String, SearchDefinition> map) {
+        ConcurrentHashMap<String, SearchPlan> plans = new ConcurrentHashMap<>();
+        map.forEach((moduleName, searchDefinition) -> {
+            if (null == searchDefinition.getDefinitions())
+                return;
+            for (Definition definition : searchDefinition.getDefinitions()) {
+                try {
+                    plans.putIfAbsent(getPlanKey(moduleName, definition.getName()), searchUtils.compile(definition));
+                } catch (Exception e) {
+                    log.error("Failed to compile search definition " + definition.getName() + " of " + moduleName, e);
+                }
+            }
+        });
+        log.info("Compiled {} search definitions", plans.size());
+        return plans;
+    }
+
+    private String getPlanKey(String moduleName, String searchName) {
+        return moduleName + "|" + searchName;
+    }
+
+    public SearchPlan getSearchPlan(String moduleName, String searchName) {
+        return searchPlanMap.get(getPlanKey(moduleName, searchName));
+    }
+
 	public ConcurrentHashMap<String, SearchDefinition> getSearchDefinitionMap() {
         return searchDefinitionMap;
     }
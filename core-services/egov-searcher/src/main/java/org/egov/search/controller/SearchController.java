@@ -1,13 +1,19 @@
 package org.egov.search.controller;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
+import org.egov.search.model.SearchPlan;
 import org.egov.search.model.SearchRequest;
 import org.egov.search.service.SearchService;
 import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -50,5 +57,21 @@ public class SearchController {
 
 	}
 
+	@PostMapping("/{moduleName}/{searchName}/_stream")
+	public ResponseEntity<StreamingResponseBody> streamData(@PathVariable("moduleName") String moduleName,
+			@PathVariable("searchName") String searchName,
+			@RequestBody SearchRequest searchRequest, @RequestParam Map<String, Object> queryParams) {
+		if(null == searchRequest.getSearchCriteria()) {
+			searchRequest.setSearchCriteria(queryParams);
+		}
+		SearchPlan plan = searchService.getStreamPlan(searchRequest, moduleName, searchName);
+		StreamingResponseBody body = outputStream -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+			searchService.streamData(searchRequest, plan, writer);
+			writer.flush();
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
 		
 }
\ No newline at end of file
@@ -20,5 +20,18 @@ public class Pagination {
 	
 	@JsonProperty("offset")
 	public String offset;
+
+	/**
+	 * Column to page on with keyset pagination instead of offset, the query is
+	 * ordered on it and the page starts after the afterKey of the request
+	 */
+	@JsonProperty("sortKey")
+	public String sortKey;
+
+	@JsonProperty("sortKeyField")
+	public String sortKeyField;
+
+	@JsonProperty("afterKey")
+	public String afterKey;
 	
 }
@@ -0,0 +1,79 @@
+package org.egov.search.model;
+
+import java.util.List;
+
+import com.jayway.jsonpath.JsonPath;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A search definition compiled once when the definitions are loaded, with the
+ * static clauses of the query assembled, the operators resolved and the json
+ * paths into the request compiled. Only the where clause and the pagination
+ * are built per request.
+ */
+@Getter
+@Builder
+@ToString
+@AllArgsConstructor
+public class SearchPlan {
+
+	private Definition definition;
+
+	private String baseQuery;
+
+	private String groupByClause;
+
+	private String orderByClause;
+
+	private String sortClause;
+
+	private String condition;
+
+	private List<PlanParam> params;
+
+	private JsonPath noOfRecordsPath;
+
+	private JsonPath offsetPath;
+
+	private String sortKey;
+
+	private String sortKeyField;
+
+	private JsonPath afterKeyPath;
+
+	private String outputKey;
+
+	public boolean isKeyset() {
+		return null != sortKey;
+	}
+
+	public enum ValueTransform {
+		NONE, LIKE, UPPERCASE, LOWERCASE
+	}
+
+	@Getter
+	@Builder
+	@ToString
+	@AllArgsConstructor
+	public static class PlanParam {
+
+		private String name;
+
+		private String namedParam;
+
+		private String operator;
+
+		private String listOperator;
+
+		private ValueTransform transform;
+
+		private Object constantValue;
+
+		private JsonPath jsonPath;
+	}
+
+}
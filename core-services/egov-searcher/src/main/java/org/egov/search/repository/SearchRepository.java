@@ -4,19 +4,28 @@ package org.egov.search.repository;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
 
 import org.egov.custom.mapper.billing.impl.Bill;
 import org.egov.custom.mapper.billing.impl.BillRowMapper;
-import org.egov.search.model.Definition;
+import org.egov.search.model.SearchPlan;
 import org.egov.search.model.SearchRequest;
 import org.egov.search.utils.SearchUtils;
 import org.egov.tracer.model.CustomException;
+import org.json.JSONArray;
 import org.postgresql.util.PGobject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,19 +50,67 @@ public class SearchRepository {
 	@Autowired
 	private BillRowMapper rowMapper;
 			
-	public List<String> fetchData(SearchRequest searchRequest, Definition definition) {
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${search.stream.fetch.size}")
+	private Integer streamFetchSize;
+
+	private NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+	@PostConstruct
+	public void init() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.setFetchSize(streamFetchSize);
+		streamingJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	public List<String> fetchData(SearchRequest searchRequest, SearchPlan plan) {
         Map<String, Object> preparedStatementValues = new HashMap<>();
-        String query = searchUtils.buildQuery(searchRequest, definition.getSearchParams(), definition.getQuery(), preparedStatementValues);
+        String query = searchUtils.buildQuery(searchRequest, plan, preparedStatementValues);
 		log.info("Final Query: " + query);
 		//log.debug("preparedStatementValues: " + preparedStatementValues);
 		List<PGobject> maps = namedParameterJdbcTemplate.queryForList(query, preparedStatementValues, PGobject.class);
 
 		return searchUtils.convertPGOBjects(maps);
 	}
+
+	/**
+	 * Hands the rows to the consumer as they are read, the rows are fetched from
+	 * the cursor in batches of the stream fetch size instead of all at once.
+	 * Rows holding a json array are split into their elements.
+	 */
+	public void streamData(SearchRequest searchRequest, SearchPlan plan, Consumer<String> rowConsumer) {
+        Map<String, Object> preparedStatementValues = new HashMap<>();
+        String query = searchUtils.buildQuery(searchRequest, plan, preparedStatementValues);
+		log.info("Final Query: " + query);
+
+		// Postgres uses a cursor for the fetch size only within a transaction
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		transactionTemplate.execute(status -> {
+			streamingJdbcTemplate.query(query, preparedStatementValues, (RowCallbackHandler) resultSet -> {
+				String tuple = resultSet.getString(1);
+				if (null == tuple)
+					return;
+				if (tuple.startsWith("[") && tuple.endsWith("]")) {
+					JSONArray jsonArray = new JSONArray(tuple);
+					for (int i = 0; i < jsonArray.length(); i++)
+						rowConsumer.accept(jsonArray.get(i).toString());
+				} else {
+					rowConsumer.accept(tuple);
+				}
+			});
+			return null;
+		});
+	}
 	
-	public Object fetchWithCustomMapper(SearchRequest searchRequest, Definition searchDefinition) {
+	public Object fetchWithCustomMapper(SearchRequest searchRequest, SearchPlan plan) {
         Map<String, Object> preparedStatementValues = new HashMap<>();
-		String query = searchUtils.buildQuery(searchRequest, searchDefinition.getSearchParams(), searchDefinition.getQuery(), preparedStatementValues);
+		String query = searchUtils.buildQuery(searchRequest, plan, preparedStatementValues);
 		try {
 			log.info("Final Query: " + query);
 			//log.debug("preparedStatementValues: " + preparedStatementValues);
@@ -1,7 +1,8 @@
 package org.egov.search.service;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -11,7 +12,7 @@ import org.egov.SearchApplicationRunnerImpl;
 import org.egov.common.contract.response.ResponseInfo;
 import org.egov.encryption.EncryptionService;
 import org.egov.search.model.Definition;
-import org.egov.search.model.SearchDefinition;
+import org.egov.search.model.SearchPlan;
 import org.egov.search.model.SearchRequest;
 import org.egov.search.repository.SearchRepository;
 import org.egov.search.utils.ResponseInfoFactory;
@@ -21,10 +22,12 @@ import org.egov.tracer.model.CustomException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
@@ -54,38 +57,77 @@ public class SearchService {
 	
 	public static final Logger log = LoggerFactory.getLogger(SearchService.class);
 
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
 
-	public Object searchData(SearchRequest searchRequest, String moduleName, String searchName) {
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Value("${search.stream.decrypt.batch.size}")
+	private Integer decryptBatchSize;
+
+	/**
+	 * Validates the request and returns the compiled plan of the search
+	 * 
+	 * @param searchRequest
+	 * @param moduleName
+	 * @param searchName
+	 * @return
+	 */
+	public SearchPlan getSearchPlan(SearchRequest searchRequest, String moduleName, String searchName) {
 		searchReqValidator.validate(searchRequest, moduleName, searchName);
-		Map<String, SearchDefinition> searchDefinitionMap = runner.getSearchDefinitionMap();
-		Definition searchDefinition = null;
-		searchDefinition = searchUtils.getSearchDefinition(searchDefinitionMap, moduleName, searchName);
+		SearchPlan plan = runner.getSearchPlan(moduleName, searchName);
+		if (null == plan)
+			plan = searchUtils.compile(searchUtils.getSearchDefinition(runner.getSearchDefinitionMap(), moduleName, searchName));
+		return plan;
+	}
+
+	/**
+	 * Validates the request and returns the compiled plan of a search that can be
+	 * streamed, searches with a custom row mapper are materialised by the mapper
+	 * and cannot be streamed
+	 * 
+	 * @param searchRequest
+	 * @param moduleName
+	 * @param searchName
+	 * @return
+	 */
+	public SearchPlan getStreamPlan(SearchRequest searchRequest, String moduleName, String searchName) {
+		SearchPlan plan = getSearchPlan(searchRequest, moduleName, searchName);
+		Boolean isCustomerRowMapEnabled = plan.getDefinition().getIsCustomerRowMapEnabled();
+		if (null != isCustomerRowMapEnabled && isCustomerRowMapEnabled)
+			throw new CustomException("STREAM_NOT_SUPPORTED", "Streaming is not supported for searches with a custom row mapper");
+		return plan;
+	}
+
+	public Object searchData(SearchRequest searchRequest, String moduleName, String searchName) {
+		SearchPlan plan = getSearchPlan(searchRequest, moduleName, searchName);
+		Definition searchDefinition = plan.getDefinition();
 		List<String> maps = new ArrayList<>();
 		Object data = null;
 		try{
 			if(null != searchDefinition.getIsCustomerRowMapEnabled()) {
 				if(!searchDefinition.getIsCustomerRowMapEnabled()) {
-					maps = searchRepository.fetchData(searchRequest, searchDefinition);
+					maps = searchRepository.fetchData(searchRequest, plan);
 					if ((searchDefinition.getDecryptionPathId()!= null)&&(searchRequest.getRequestInfo()!=null)&&(searchRequest.getRequestInfo().getUserInfo()!=null))
 					{
-						Map<String, Object> result = enrichedOuputData(maps, searchDefinition, searchRequest);
+						Map<String, Object> result = enrichedOuputData(maps, plan, searchRequest);
 						data = result;
 					}
 				}
 				else {
 					//This is a custom logic for bill-genie, we'll need to write code seperately to support custom rowmap logic for any search.
-					data =  searchRepository.fetchWithCustomMapper(searchRequest, searchDefinition);
+					data =  searchRepository.fetchWithCustomMapper(searchRequest, plan);
 					Map<String, Object> result = new HashMap<>();
 					result.put("ResponseInfo", responseInfoFactory.createResponseInfoFromRequestInfo(searchRequest.getRequestInfo(), true));
-					String outputKey = searchDefinition.getOutput().getOutJsonPath().split("\\.")[1];
-					result.put(outputKey, data);
+					result.put(plan.getOutputKey(), data);
 					data = result;
 				}
 			}else {
-				maps = searchRepository.fetchData(searchRequest, searchDefinition);
+				maps = searchRepository.fetchData(searchRequest, plan);
 				if ((searchDefinition.getDecryptionPathId()!= null)&&(searchRequest.getRequestInfo()!=null)&&(searchRequest.getRequestInfo().getUserInfo()!=null))
 				{
-					Map<String, Object> result = enrichedOuputData(maps, searchDefinition, searchRequest);
+					Map<String, Object> result = enrichedOuputData(maps, plan, searchRequest);
 					data = result;
 				}
 			}
@@ -106,29 +148,126 @@ public class SearchService {
 		return data;
 	}
 
-	private Map<String, Object> enrichedOuputData(List<String> maps, Definition searchDefinition, SearchRequest searchRequest ){
+	private Map<String, Object> enrichedOuputData(List<String> maps, SearchPlan plan, SearchRequest searchRequest ){
 		try {
-			Type type = new TypeToken<ArrayList<Map<String, Object>>>() {}.getType();
-			Gson gson = new Gson();
-			List<Map<String, Object>> mapData = gson.fromJson(maps.toString(), type);
-			mapData = encryptionService.decryptJson(searchRequest.getRequestInfo(),mapData,
-					searchDefinition.getDecryptionPathId(), "Retrieve Searcher Data", Map.class);
+			List<Map<String, Object>> mapData = encryptionService.decryptJson(searchRequest.getRequestInfo(), toMaps(maps),
+					plan.getDefinition().getDecryptionPathId(), "Retrieve Searcher Data", Map.class);
 			Map<String, Object> result = new HashMap<>();
 			result.put("ResponseInfo", responseInfoFactory.createResponseInfoFromRequestInfo(searchRequest.getRequestInfo(), true));
-			String outputKey = searchDefinition.getOutput().getOutJsonPath().split("\\.")[1];
-			result.put(outputKey, mapData);
+			result.put(plan.getOutputKey(), mapData);
 			return  result;
 		} catch (IOException e) {
 			throw new CustomException("ERROR_IN_DECRYPTION",
 					"There was an error encountered while decrypting the data");
 		}
 	}
+
+	/**
+	 * Streams the result of the search to the writer row by row as
+	 * {"ResponseInfo": {..}, "<output key>": [row, row, ..]}, followed by the
+	 * nextKey to page on for keyset plans. Rows are decrypted in batches when the
+	 * definition has a decryption path.
+	 * 
+	 * @param searchRequest
+	 * @param plan
+	 * @param writer
+	 * @throws IOException
+	 */
+	public void streamData(SearchRequest searchRequest, SearchPlan plan, Writer writer) throws IOException {
+		Definition searchDefinition = plan.getDefinition();
+		boolean decrypt = (searchDefinition.getDecryptionPathId() != null) && (searchRequest.getRequestInfo() != null)
+				&& (searchRequest.getRequestInfo().getUserInfo() != null);
+		RowWriter rowWriter = new RowWriter(writer, decrypt ? searchRequest : null, searchDefinition.getDecryptionPathId());
+
+		ResponseInfo responseInfo = responseInfoFactory.createResponseInfoFromRequestInfo(searchRequest.getRequestInfo(), true);
+		writer.write("{\"ResponseInfo\":");
+		writer.write(mapper.writeValueAsString(responseInfo));
+		writer.write(",");
+		writer.write(mapper.writeValueAsString(plan.getOutputKey()));
+		writer.write(":[");
+		try {
+			searchRepository.streamData(searchRequest, plan, rowWriter::write);
+			rowWriter.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.write("]");
+
+		if (plan.isKeyset() && null != plan.getSortKeyField() && null != rowWriter.lastRow) {
+			JsonNode nextKey = mapper.readTree(rowWriter.lastRow).get(plan.getSortKeyField());
+			writer.write(",\"nextKey\":");
+			writer.write(mapper.writeValueAsString(nextKey));
+		}
+		writer.write("}");
+	}
+
+	private List<Map<String, Object>> toMaps(List<String> maps) throws IOException {
+		List<Map<String, Object>> data = new ArrayList<>(maps.size());
+		for (String map : maps)
+			data.add(mapper.readValue(map, MAP_TYPE));
+		return data;
+	}
+
+	/**
+	 * Writes the rows comma separated as they come in, rows to be decrypted are
+	 * held back until a batch is full
+	 */
+	private class RowWriter {
+
+		private final Writer writer;
+
+		private final SearchRequest decryptRequest;
+
+		private final String decryptionPathId;
+
+		private final List<String> batch = new ArrayList<>();
+
+		private boolean first = true;
+
+		private String lastRow;
+
+		RowWriter(Writer writer, SearchRequest decryptRequest, String decryptionPathId) {
+			this.writer = writer;
+			this.decryptRequest = decryptRequest;
+			this.decryptionPathId = decryptionPathId;
+		}
+
+		void write(String row) {
+			lastRow = row;
+			try {
+				if (null == decryptRequest) {
+					append(row);
+					return;
+				}
+				batch.add(row);
+				if (batch.size() >= decryptBatchSize)
+					flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		void flush() throws IOException {
+			if (batch.isEmpty())
+				return;
+			List<Map<String, Object>> decrypted = encryptionService.decryptJson(decryptRequest.getRequestInfo(),
+					toMaps(batch), decryptionPathId, "Retrieve Searcher Data", Map.class);
+			for (Map<String, Object> row : decrypted)
+				append(mapper.writeValueAsString(row));
+			batch.clear();
+		}
+
+		private void append(String row) throws IOException {
+			if (!first)
+				writer.write(",");
+			writer.write(row);
+			first = false;
+		}
+	}
 	
 	
-	private String formatResult(List<String> maps, Definition searchDefinition, SearchRequest searchRequest){
-	    Type type = new TypeToken<ArrayList<Map<String, Object>>>() {}.getType();
-		Gson gson = new Gson();
-		List<Map<String, Object>> data = gson.fromJson(maps.toString(), type);
+	private String formatResult(List<String> maps, Definition searchDefinition, SearchRequest searchRequest) throws IOException {
+		List<Map<String, Object>> data = toMaps(maps);
 		
     	DocumentContext documentContext = JsonPath.parse((null != searchDefinition.getOutput().getJsonFormat()) ? searchDefinition.getOutput().getJsonFormat() : "{}");
 		String[] expressionArray = (searchDefinition.getOutput().getOutJsonPath()).split("[.]");
@@ -15,6 +15,9 @@ import org.egov.search.model.Params;
 import org.egov.search.model.Query;
 import org.egov.search.model.SearchDefinition;
 import org.egov.search.model.SearchParams;
+import org.egov.search.model.SearchPlan;
+import org.egov.search.model.SearchPlan.PlanParam;
+import org.egov.search.model.SearchPlan.ValueTransform;
 import org.egov.search.model.SearchRequest;
 import org.egov.tracer.model.CustomException;
 import org.json.JSONArray;
@@ -25,6 +28,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
 import lombok.extern.slf4j.Slf4j;
@@ -44,177 +48,247 @@ public class SearchUtils {
 	
 	@Value("${operaters.list}")
 	private List<String> operators;
+
+	private static final String AFTER_KEY_PARAM = "searcher_after_key";
+
+	private static final Pattern p = Pattern.compile("->>");
 	
 	/**
-	 * Builds the query reqd for search
+	 * Compiles the search definition into a plan, done once per definition when
+	 * the definitions are loaded
 	 * 
-	 * @param searchRequest
-	 * @param searchParam
-	 * @param query
-	 * @param preparedStatementValues
+	 * @param definition
 	 * @return
 	 */
-	public String buildQuery(SearchRequest searchRequest, SearchParams searchParam, Query query, Map<String, Object> preparedStatementValues) {
-		StringBuilder queryString = new StringBuilder();
-		StringBuilder where = new StringBuilder();
-		String finalQuery = null;
-		queryString.append(query.getBaseQuery());
-		if(!CollectionUtils.isEmpty(searchParam.getParams())) {
-			String whereClause = buildWhereClause(searchRequest, searchParam, preparedStatementValues);
-			String paginationClause = getPaginationClause(searchRequest, searchParam.getPagination());
-			where.append(" WHERE ").append(whereClause + " ");
-			if (null != query.getGroupBy()) {
-				queryString.append(" GROUP BY ").append(query.getGroupBy() + " ");
-			}
-			if (null != query.getOrderBy()) {
-				where.append(" ORDER BY ").append(query.getOrderBy().split(",")[0]).append(" ").append(query.getOrderBy().split(",")[1]);
-			}
-			if (null != query.getSort()) {
-				queryString.append(" " + query.getSort());
-			}
-			finalQuery = queryString.toString().replace("$where", where.toString());
-			finalQuery = finalQuery.replace("$pagination", paginationClause);
-		}else {
-			finalQuery = queryString.toString();
+	public SearchPlan compile(Definition definition) {
+		Query query = definition.getQuery();
+		SearchParams searchParam = definition.getSearchParams();
+		Pagination pagination = null != searchParam ? searchParam.getPagination() : null;
+
+		List<PlanParam> params = new ArrayList<>();
+		if (null != searchParam && !CollectionUtils.isEmpty(searchParam.getParams())) {
+			for (Params param : searchParam.getParams())
+				params.add(compileParam(param));
 		}
-		
-		return finalQuery;
+
+		String orderByClause = null;
+		if (null != query.getOrderBy()) {
+			String[] orderBy = query.getOrderBy().split(",");
+			orderByClause = " ORDER BY " + orderBy[0] + " " + orderBy[1];
+		}
+
+		String outputKey = null;
+		if (null != definition.getOutput() && null != definition.getOutput().getOutJsonPath())
+			outputKey = definition.getOutput().getOutJsonPath().split("\\.")[1];
+
+		return SearchPlan.builder()
+				.definition(definition)
+				.baseQuery(query.getBaseQuery())
+				.groupByClause(null != query.getGroupBy() ? " GROUP BY " + query.getGroupBy() + " " : null)
+				.orderByClause(orderByClause)
+				.sortClause(null != query.getSort() ? " " + query.getSort() : null)
+				.condition(null != searchParam ? searchParam.getCondition() : null)
+				.params(params)
+				.noOfRecordsPath(null != pagination ? compilePath(pagination.getNoOfRecords()) : null)
+				.offsetPath(null != pagination ? compilePath(pagination.getOffset()) : null)
+				.sortKey(null != pagination ? pagination.getSortKey() : null)
+				.sortKeyField(null != pagination ? pagination.getSortKeyField() : null)
+				.afterKeyPath(null != pagination ? compilePath(pagination.getAfterKey()) : null)
+				.outputKey(outputKey)
+				.build();
 	}
-	
+
+	private PlanParam compileParam(Params param) {
+		String namedParam = param.getName();
+		if (p.matcher(namedParam).find())
+			namedParam = removeJSONOperatorsForNamedParam(namedParam);
+
+		String[] validListOperators = {"NOT IN", "IN"};
+		String listOperator = (!StringUtils.isEmpty(param.getOperator())) ? " " + param.getOperator() + " " : " IN ";
+		if (!Arrays.asList(validListOperators).contains(listOperator))
+			listOperator = " IN ";
+
+		String operator = (!StringUtils.isEmpty(param.getOperator())) ? param.getOperator() : "=";
+		if (!operators.contains(operator))
+			operator = "=";
+
+		ValueTransform transform = ValueTransform.NONE;
+		if (operator.equals("GE")) {
+			operator = ">=";
+		} else if (operator.equals("LE")) {
+			operator = "<=";
+		} else if (operator.equals("NE")) {
+			operator = "!=";
+		} else if (operator.equals("LIKE") || operator.equals("ILIKE")) {
+			transform = ValueTransform.LIKE;
+		} else if (operator.equals("TOUPPERCASE")) {
+			operator = "=";
+			transform = ValueTransform.UPPERCASE;
+		} else if (operator.equals("TOLOWERCASE")) {
+			operator = "=";
+			transform = ValueTransform.LOWERCASE;
+		}
+
+		boolean isConstant = null != param.getIsConstant() && param.getIsConstant();
+		return PlanParam.builder()
+				.name(param.getName())
+				.namedParam(namedParam)
+				.operator(operator)
+				.listOperator(listOperator)
+				.transform(transform)
+				.constantValue(isConstant ? param.getValue() : null)
+				.jsonPath(isConstant ? null : compilePath(param.getJsonPath()))
+				.build();
+	}
+
+	private JsonPath compilePath(String path) {
+		if (StringUtils.isEmpty(path))
+			return null;
+		try {
+			return JsonPath.compile(path);
+		} catch (Exception e) {
+			log.error("Invalid json path " + path + " in search definition: " + e.getMessage());
+			return null;
+		}
+	}
+
 	/**
-	 * Builds the where clause based on configs and request
+	 * Builds the query reqd for search from the compiled plan
 	 * 
 	 * @param searchRequest
-	 * @param searchParam
+	 * @param plan
 	 * @param preparedStatementValues
 	 * @return
 	 */
-	public String buildWhereClause(SearchRequest searchRequest, SearchParams searchParam,  Map<String, Object> preparedStatementValues) {
-		StringBuilder whereClause = new StringBuilder();
-		String condition = searchParam.getCondition();
-		Pattern p = Pattern.compile("->>");
+	public String buildQuery(SearchRequest searchRequest, SearchPlan plan, Map<String, Object> preparedStatementValues) {
+		if (plan.getParams().isEmpty())
+			return plan.getBaseQuery();
+
+		DocumentContext request;
 		try {
-			
-			String request = mapper.writeValueAsString(searchRequest);
-			List<Params> paramsList = searchParam.getParams();
-			
-			for (int i =0; i < paramsList.size(); i++) {
-				
-				
-				Params param = paramsList.get(i);
-				Object paramValue = null;
-			
-				try {
+			request = JsonPath.parse(mapper.writeValueAsString(searchRequest));
+		} catch (Exception e) {
+			log.error("Exception while bulding query: ", e);
+			throw new CustomException("QUERY_BUILD_ERROR", "Exception while bulding query");
+		}
 
-					if (null != param.getIsConstant()) {
-						if (param.getIsConstant())
-							paramValue = param.getValue();
-						else
-							paramValue = JsonPath.read(request, param.getJsonPath());
-					} else
-						paramValue = JsonPath.read(request, param.getJsonPath());
+		StringBuilder queryString = new StringBuilder(plan.getBaseQuery());
+		StringBuilder where = new StringBuilder();
+		where.append(" WHERE ").append(buildWhereClause(request, plan, preparedStatementValues)).append(" ");
+		if (null != plan.getGroupByClause())
+			queryString.append(plan.getGroupByClause());
+		if (plan.isKeyset())
+			where.append(" ORDER BY ").append(plan.getSortKey()).append(" ASC");
+		else if (null != plan.getOrderByClause())
+			where.append(plan.getOrderByClause());
+		if (null != plan.getSortClause())
+			queryString.append(plan.getSortClause());
 
-					if (null == paramValue)
-						continue;
+		return queryString.toString().replace("$where", where.toString())
+				.replace("$pagination", getPaginationClause(request, plan));
+	}
 
+	/**
+	 * Builds the where clause based on the plan and request
+	 * 
+	 * @param request
+	 * @param plan
+	 * @param preparedStatementValues
+	 * @return
+	 */
+	private String buildWhereClause(DocumentContext request, SearchPlan plan, Map<String, Object> preparedStatementValues) {
+		StringBuilder whereClause = new StringBuilder();
+		for (PlanParam param : plan.getParams()) {
+			Object paramValue = param.getConstantValue();
+			if (null == paramValue) {
+				if (null == param.getJsonPath())
+					continue;
+				try {
+					paramValue = request.read(param.getJsonPath());
 				} catch (Exception e) {
 					log.error("Error while building where clause: " + e.getMessage());
 					continue;
 				}
-				
-				/**
-				 * Add and clause if necessary
-				 */
-				if (i > 0) {
-					whereClause.append(" " + condition + " ");
-				}
-				Matcher matcher = p.matcher(param.getName());
-				String namedParam = param.getName();
-                                if(matcher.find())
-                                    namedParam = removeJSONOperatorsForNamedParam(namedParam);
-				/**
-				 * Array operators
-				 */
-				if (paramValue instanceof net.minidev.json.JSONArray) {
-					String[] validListOperators = {"NOT IN", "IN"};
-					String operator = (!StringUtils.isEmpty(param.getOperator())) ? " " + param.getOperator() + " " : " IN ";
-					if(!Arrays.asList(validListOperators).contains(operator))
-						operator = " IN ";
-					
-					whereClause.append(param.getName()).append(operator).append("(").append(":"+namedParam).append(")");
-				} 
-				/**
-				 * single operators
-				 */
-				else {
-					List<String> validOperators = operators;
-					String operator = (!StringUtils.isEmpty(param.getOperator())) ? param.getOperator() : "=";
-
-					if (!validOperators.contains(operator)) {
-						operator = "=";
-					}
-					
-					if (operator.equals("GE")) {
-						operator = ">=";
-					} else if (operator.equals("LE")) {
-						operator = "<=";
-					} else if (operator.equals("NE")) {
-						operator = "!=";
-					} else if (operator.equals("LIKE") || operator.equals("ILIKE")) {
-
-						paramValue=	 "%" + paramValue + "%";
-					} else if (operator.equals("TOUPPERCASE")) {
-						
-						operator =  "=";
-						paramValue = ((String) paramValue).toUpperCase();
-					} else if (operator.equals("TOLOWERCASE")) {
-
-						operator =  "=";
-						paramValue = ((String) paramValue).toLowerCase();
-					}
-					
-					whereClause.append(param.getName()).append(" " + operator + " ").append(":" + namedParam);
-				}
+				if (null == paramValue)
+					continue;
+			}
+
+			/**
+			 * Add and clause if necessary
+			 */
+			if (whereClause.length() > 0)
+				whereClause.append(" " + plan.getCondition() + " ");
 
-				preparedStatementValues.put(namedParam, paramValue);
+			/**
+			 * Array operators
+			 */
+			if (paramValue instanceof net.minidev.json.JSONArray) {
+				whereClause.append(param.getName()).append(param.getListOperator()).append("(")
+						.append(":" + param.getNamedParam()).append(")");
+			}
+			/**
+			 * single operators
+			 */
+			else {
+				if (param.getTransform() == ValueTransform.LIKE)
+					paramValue = "%" + paramValue + "%";
+				else if (param.getTransform() == ValueTransform.UPPERCASE)
+					paramValue = ((String) paramValue).toUpperCase();
+				else if (param.getTransform() == ValueTransform.LOWERCASE)
+					paramValue = ((String) paramValue).toLowerCase();
+
+				whereClause.append(param.getName()).append(" " + param.getOperator() + " ").append(":" + param.getNamedParam());
+			}
+
+			preparedStatementValues.put(param.getNamedParam(), paramValue);
+		}
+
+		if (plan.isKeyset()) {
+			Object afterKey = read(request, plan.getAfterKeyPath());
+			if (null != afterKey) {
+				if (whereClause.length() > 0)
+					whereClause.append(" AND ");
+				whereClause.append(plan.getSortKey()).append(" > :").append(AFTER_KEY_PARAM);
+				preparedStatementValues.put(AFTER_KEY_PARAM, afterKey);
 			}
-		} catch (Exception e) {
-			log.error("Exception while bulding query: ", e);
-			throw new CustomException("QUERY_BUILD_ERROR", "Exception while bulding query");
 		}
 		return whereClause.toString();
 	}
 
-	
 	/**
-	 * Pagination clause builder
+	 * Pagination clause builder, keyset plans page with the limit alone
 	 * 
-	 * @param searchRequest
-	 * @param pagination
+	 * @param request
+	 * @param plan
 	 * @return
 	 */
-	public String getPaginationClause(SearchRequest searchRequest, Pagination pagination) {
+	private String getPaginationClause(DocumentContext request, SearchPlan plan) {
+		Object limit = read(request, plan.getNoOfRecordsPath());
 		StringBuilder paginationClause = new StringBuilder();
-		Object limit = null;
-		Object offset = null;
-		if (null != pagination) {
-			try {
-				limit = JsonPath.read(mapper.writeValueAsString(searchRequest), pagination.getNoOfRecords());
-				offset = JsonPath.read(mapper.writeValueAsString(searchRequest), pagination.getOffset());
-			} catch (Exception e) {
-				log.error("Error while fetching limit and offset, using default values.");
-			}
-		}
 		paginationClause.append(" LIMIT ")
 				.append((!StringUtils.isEmpty((null != limit) ? limit.toString() : null) ? limit.toString()
-						: defaultPageSize))
-				.append(" OFFSET ")
+						: defaultPageSize));
+		if (plan.isKeyset())
+			return paginationClause.toString();
+
+		Object offset = read(request, plan.getOffsetPath());
+		paginationClause.append(" OFFSET ")
 				.append((!StringUtils.isEmpty((null != offset) ? offset.toString() : null) ? offset.toString()
 						: defaultOffset));
 
 		return paginationClause.toString();
 	}
 
+	private Object read(DocumentContext request, JsonPath path) {
+		if (null == path)
+			return null;
+		try {
+			return request.read(path);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Fetches Search Definitions, defined in the configuration.
 	 * 
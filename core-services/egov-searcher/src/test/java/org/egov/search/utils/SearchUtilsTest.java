@@ -0,0 +1,109 @@
+package org.egov.search.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.egov.search.model.Definition;
+import org.egov.search.model.Pagination;
+import org.egov.search.model.Params;
+import org.egov.search.model.Query;
+import org.egov.search.model.SearchParams;
+import org.egov.search.model.SearchPlan;
+import org.egov.search.model.SearchRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SearchUtilsTest {
+
+	private SearchUtils searchUtils;
+
+	@Before
+	public void setUp() {
+		searchUtils = new SearchUtils();
+		ReflectionTestUtils.setField(searchUtils, "mapper", new ObjectMapper());
+		ReflectionTestUtils.setField(searchUtils, "operators",
+				Arrays.asList("GE", "LE", "NE", "LIKE", "ILIKE", "TOUPPERCASE", "TOLOWERCASE", "="));
+		ReflectionTestUtils.setField(searchUtils, "defaultPageSize", "4000");
+		ReflectionTestUtils.setField(searchUtils, "defaultOffset", "0");
+	}
+
+	@Test
+	public void testBuildQueryWithOffsetPagination() {
+		SearchPlan plan = searchUtils.compile(getDefinition(null));
+
+		Map<String, Object> values = new HashMap<>();
+		String query = searchUtils.buildQuery(getRequest("pb.amritsar", null), plan, values);
+
+		assertEquals("select * from eg_tl_tradelicense  WHERE tenantid = :tenantid  ORDER BY id ASC  LIMIT 10 OFFSET 0",
+				query);
+		assertEquals("pb.amritsar", values.get("tenantid"));
+	}
+
+	@Test
+	public void testBuildQuerySkipsMissingParams() {
+		SearchPlan plan = searchUtils.compile(getDefinition(null));
+
+		Map<String, Object> values = new HashMap<>();
+		String query = searchUtils.buildQuery(getRequest(null, "TL-1"), plan, values);
+
+		assertTrue(query.contains(" WHERE applicationnumber ILIKE :applicationnumber "));
+		assertEquals("%TL-1%", values.get("applicationnumber"));
+		assertFalse(values.containsKey("tenantid"));
+	}
+
+	@Test
+	public void testBuildQueryWithKeysetPagination() {
+		SearchPlan plan = searchUtils.compile(getDefinition("id"));
+
+		Map<String, Object> searchCriteria = new HashMap<>();
+		searchCriteria.put("tenantId", "pb.amritsar");
+		searchCriteria.put("afterKey", "abc");
+		searchCriteria.put("noOfRecords", 10);
+		searchCriteria.put("offset", 20);
+		SearchRequest searchRequest = new SearchRequest();
+		searchRequest.setSearchCriteria(searchCriteria);
+
+		Map<String, Object> values = new HashMap<>();
+		String query = searchUtils.buildQuery(searchRequest, plan, values);
+
+		assertEquals("select * from eg_tl_tradelicense  WHERE tenantid = :tenantid AND id > :searcher_after_key"
+				+ "  ORDER BY id ASC  LIMIT 10", query);
+		assertEquals("abc", values.get("searcher_after_key"));
+	}
+
+	private Definition getDefinition(String sortKey) {
+		Query query = new Query("select * from eg_tl_tradelicense $where $pagination", null, "id,ASC", null);
+		Params tenantId = Params.builder().name("tenantid").jsonPath("$.searchCriteria.tenantId").build();
+		Params applicationNumber = Params.builder().name("applicationnumber").operator("ILIKE")
+				.jsonPath("$.searchCriteria.applicationNumber").build();
+		Pagination pagination = new Pagination("$.searchCriteria.noOfRecords", "$.searchCriteria.offset", sortKey,
+				sortKey, "$.searchCriteria.afterKey");
+		SearchParams searchParams = new SearchParams("AND", Arrays.asList(tenantId, applicationNumber), pagination);
+
+		Definition definition = new Definition();
+		definition.setName("search");
+		definition.setQuery(query);
+		definition.setSearchParams(searchParams);
+		return definition;
+	}
+
+	private SearchRequest getRequest(String tenantId, String applicationNumber) {
+		Map<String, Object> searchCriteria = new HashMap<>();
+		if (null != tenantId)
+			searchCriteria.put("tenantId", tenantId);
+		if (null != applicationNumber)
+			searchCriteria.put("applicationNumber", applicationNumber);
+		searchCriteria.put("noOfRecords", 10);
+		SearchRequest searchRequest = new SearchRequest();
+		searchRequest.setSearchCriteria(searchCriteria);
+		return searchRequest;
+	}
+}
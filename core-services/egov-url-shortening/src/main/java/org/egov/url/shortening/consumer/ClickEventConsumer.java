@@ -0,0 +1,61 @@
+package org.egov.url.shortening.consumer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.egov.url.shortening.producer.Producer;
+import org.egov.url.shortening.service.ClickEventService;
+import org.egov.url.shortening.service.URLConverterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enriches the batched click events with the uuid of the user of the mobile
+ * number and publishes them for indexing, keeping the user search off the
+ * redirect.
+ */
+@Service
+@Slf4j
+public class ClickEventConsumer {
+
+    public static final String MOBILE_NUMBER_KEY = "mobileNumber";
+
+    @Autowired
+    private URLConverterService urlConverterService;
+
+    @Autowired
+    private Producer producer;
+
+    @Value("${url.shorten.indexer.topic}")
+    private String indexerTopic;
+
+    @SuppressWarnings("unchecked")
+    @KafkaListener(topics = { "${url.shorten.click.topic}" })
+    public void listen(final HashMap<String, Object> record, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        try {
+            List<Map<String, Object>> clicks = (List<Map<String, Object>>) record.get(ClickEventService.CLICKS_KEY);
+            Map<String, String> uuids = new HashMap<>();
+            for (Map<String, Object> click : clicks) {
+                String mobileNumber = (String) click.remove(MOBILE_NUMBER_KEY);
+                if (mobileNumber != null) {
+                    if (!uuids.containsKey(mobileNumber))
+                        uuids.put(mobileNumber, urlConverterService.getUserUUID(mobileNumber));
+                    if (uuids.get(mobileNumber) != null)
+                        click.put("user", uuids.get(mobileNumber));
+                }
+                producer.push(indexerTopic, click);
+            }
+        } catch (Exception ex) {
+            StringBuilder builder = new StringBuilder("Error while listening to value: ").append(record)
+                    .append("on topic: ").append(topic);
+            log.error(builder.toString(), ex);
+        }
+    }
+}
@@ -2,12 +2,15 @@ package org.egov.url.shortening.controller;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.egov.tracer.model.CustomException;
+import org.egov.url.shortening.model.BulkShortenRequest;
+import org.egov.url.shortening.model.BulkShortenResponse;
 import org.egov.url.shortening.model.ShortenRequest;
 import org.egov.url.shortening.service.URLConverterService;
 import org.egov.url.shortening.validator.URLValidator;
@@ -40,6 +43,16 @@ public class ShortenController {
         throw new CustomException("URL_SHORTENING_INVALID_URL","Please enter a valid URL");
     }
 
+    @RequestMapping(value = "/_shorten", method=RequestMethod.POST, consumes = {"application/json"})
+    public BulkShortenResponse shortenUrls(@RequestBody @Valid final BulkShortenRequest bulkShortenRequest) {
+        List<ShortenRequest> shortenRequests = bulkShortenRequest.getUrls();
+        for (int i = 0; i < shortenRequests.size(); i++) {
+            if (!URLValidator.INSTANCE.validateURL(shortenRequests.get(i).getUrl()))
+                throw new CustomException("URL_SHORTENING_INVALID_URL", "Please enter a valid URL at index " + i);
+        }
+        return new BulkShortenResponse(urlConverterService.shortenURLs(shortenRequests));
+    }
+
     @RequestMapping(value = "/{id}", method=RequestMethod.GET)
     public RedirectView redirectUrl(@PathVariable String id, HttpServletRequest request) throws IOException, URISyntaxException, Exception {
         String redirectUrlString = urlConverterService.getLongURLFromID(id);
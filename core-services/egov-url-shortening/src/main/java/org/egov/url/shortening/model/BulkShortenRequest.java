@@ -0,0 +1,27 @@
+package org.egov.url.shortening.model;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Setter
+@Getter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShortenRequest {
+
+	@Valid
+	@NotEmpty
+	private List<ShortenRequest> urls;
+
+}
@@ -1,5 +1,10 @@
 package org.egov.url.shortening.repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.egov.url.shortening.model.ShortenRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,12 +47,34 @@ public class URLRedisRepository implements URLRepository {
         return id - 1;
     }
 
+    /**
+     * Reserves count consecutive ids with a single increment
+     */
+    @Override
+    public List<Long> incrementIDs(int count) {
+        Long lastId = jedis.incrBy(idKey, count);
+        LOGGER.info("Incrementing ID by {} to: {}", count, lastId - 1);
+        List<Long> ids = new ArrayList<>(count);
+        for (long id = lastId - count; id < lastId; id++)
+            ids.add(id);
+        return ids;
+    }
+
     @Override
     public void saveUrl(String key, ShortenRequest shortenRequest) throws JsonProcessingException {
         LOGGER.info("Saving: {} at {}", shortenRequest.getUrl(), key);
         jedis.hset(urlKey, key, objectMapper.writeValueAsString(shortenRequest));
     }
 
+    @Override
+    public void saveUrls(Map<String, ShortenRequest> shortenRequests) throws JsonProcessingException {
+        LOGGER.info("Saving {} urls", shortenRequests.size());
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, ShortenRequest> entry : shortenRequests.entrySet())
+            values.put(entry.getKey(), objectMapper.writeValueAsString(entry.getValue()));
+        jedis.hmset(urlKey, values);
+    }
+
     @Override
     public String getUrl(Long id) throws Exception {
         LOGGER.info("Retrieving at {}", id);
@@ -1,5 +1,8 @@
 package org.egov.url.shortening.repository;
 
+import java.util.List;
+import java.util.Map;
+
 import org.egov.url.shortening.model.ShortenRequest;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -7,7 +10,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 public interface URLRepository {
 	
 	 public Long incrementID();
+	 public List<Long> incrementIDs(int count);
 	 public void saveUrl(String key, ShortenRequest shortenRequest)throws JsonProcessingException ;
+	 public void saveUrls(Map<String, ShortenRequest> shortenRequests)throws JsonProcessingException ;
 	 public String getUrl(Long id) throws Exception ;
 
 }
@@ -2,6 +2,9 @@ package org.egov.url.shortening.repository;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.egov.url.shortening.model.ShortenRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +38,20 @@ public class UrlDBRepository implements URLRepository{
         return id - 1;
     }
 
+	/**
+	 * Draws count ids from the sequence in a single round trip, the ids are unique
+	 * but not necessarily consecutive when other instances draw concurrently
+	 */
+	@Override
+	public List<Long> incrementIDs(int count) {
+		String query = "SELECT nextval('eg_url_shorter_id') FROM generate_series(1, ?)";
+		List<Long> ids = new ArrayList<>(count);
+		for (Long id : jdbcTemplate.queryForList(query, new Object[] { count }, Long.class))
+			ids.add(id - 1);
+		log.info("Incrementing ID by {}", count);
+		return ids;
+	}
+
 	@Override
     public void saveUrl(String key, ShortenRequest shortenRequest) {
 
@@ -57,6 +74,22 @@ public class UrlDBRepository implements URLRepository{
             });  
     }
 
+	@Override
+	public void saveUrls(Map<String, ShortenRequest> shortenRequests) {
+
+		String query = "INSERT INTO eg_url_shortener "
+				+ "(id,validform,validto,url) "
+				+ "values (?,?,?,?)";
+		log.info("Saving {} urls", shortenRequests.size());
+		List<Object[]> batchArgs = new ArrayList<>(shortenRequests.size());
+		for (Map.Entry<String, ShortenRequest> entry : shortenRequests.entrySet()) {
+			ShortenRequest shortenRequest = entry.getValue();
+			batchArgs.add(new Object[] { entry.getKey(), shortenRequest.getValidFrom(), shortenRequest.getValidTill(),
+					shortenRequest.getUrl() });
+		}
+		jdbcTemplate.batchUpdate(query, batchArgs);
+	}
+
 	@Override
     public String getUrl(Long id) throws Exception {
     	String query =  "SELECT url FROM EG_URL_SHORTENER WHERE id=?";
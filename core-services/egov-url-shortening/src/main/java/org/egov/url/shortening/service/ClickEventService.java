@@ -0,0 +1,86 @@
+package org.egov.url.shortening.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.egov.url.shortening.producer.Producer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Buffers the click events of the redirects and publishes them in batches off
+ * the request thread.
+ *
+ * The buffer is bounded, when it is full the click is dropped instead of
+ * slowing down the redirect. The published batches are enriched and indexed
+ * by the ClickEventConsumer.
+ */
+@Service
+@Slf4j
+public class ClickEventService {
+
+    public static final String CLICKS_KEY = "clicks";
+
+    @Value("${url.shorten.click.topic}")
+    private String clickTopic;
+
+    @Value("${url.shorten.click.buffer.size}")
+    private Integer bufferSize;
+
+    @Value("${url.shorten.click.batch.size}")
+    private Integer batchSize;
+
+    @Value("${url.shorten.click.flush.interval.ms}")
+    private Long flushInterval;
+
+    @Autowired
+    private Producer producer;
+
+    private BlockingQueue<Map<String, Object>> clicks;
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        clicks = new ArrayBlockingQueue<>(bufferSize);
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public void record(Map<String, Object> click) {
+        if (!clicks.offer(click))
+            log.warn("Click buffer is full, dropping click on {}", click.get("shortenUrl"));
+    }
+
+    void flush() {
+        try {
+            List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+            while (clicks.drainTo(batch, batchSize) > 0) {
+                producer.push(clickTopic, Collections.singletonMap(CLICKS_KEY, batch));
+                log.debug("Published {} clicks", batch.size());
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (Exception e) {
+            log.error("Error while publishing clicks: ", e);
+        }
+    }
+}
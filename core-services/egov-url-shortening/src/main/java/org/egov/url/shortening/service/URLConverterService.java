@@ -1,6 +1,11 @@
 package org.egov.url.shortening.service;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -11,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.egov.tracer.model.CustomException;
+import org.egov.url.shortening.consumer.ClickEventConsumer;
 import org.egov.url.shortening.model.ShortenRequest;
 import org.egov.url.shortening.producer.Producer;
 import org.egov.url.shortening.repository.URLRepository;
@@ -57,8 +63,34 @@ public class URLConverterService {
     @Value("${egov.user.search.path}")
     private String userSearchPath;
 
-    @Value("${url.shorten.indexer.topic}")
-    private String kafkaTopic;
+    @Value("${url.shorten.id.block.size}")
+    private Integer idBlockSize;
+
+    @Value("${url.shorten.bulk.max.size}")
+    private Integer bulkMaxSize;
+
+    /*
+     * Ids leased from the repository in blocks, ids left in the block when the
+     * instance stops are never used
+     */
+    private final Deque<Long> leasedIds = new ArrayDeque<>();
+
+    @Value("${url.shorten.redirect.cache.max.size}")
+    private int redirectCacheMaxSize;
+
+    /*
+     * Shortened urls are never changed once saved, so the long urls are cached
+     * without expiry and only evicted by size
+     */
+    private final Map<Long, String> longUrls = Collections.synchronizedMap(new LinkedHashMap<Long, String>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > redirectCacheMaxSize;
+        }
+    });
     
     private ObjectMapper objectMapper;
 
@@ -69,6 +101,9 @@ public class URLConverterService {
     @Autowired
     private HashIdConverter hashIdConverter;
 
+    @Autowired
+    private ClickEventService clickEventService;
+
     @Autowired
     public URLConverterService(List<URLRepository> urlRepositories, ObjectMapper objectMapper, RestTemplate restTemplate, Producer producer) {
     	System.out.println(urlRepositories);
@@ -89,7 +124,7 @@ public class URLConverterService {
 
     public String shortenURL(ShortenRequest shortenRequest) {
         LOGGER.info("Shortening {}", shortenRequest.getUrl());
-        Long id = urlRepository.incrementID();
+        Long id = nextIDs(1).get(0);
         String uniqueID = hashIdConverter.createHashStringForId(id);
         try {
 			urlRepository.saveUrl("url:"+id, shortenRequest);
@@ -97,6 +132,49 @@ public class URLConverterService {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+        return getShortenedUrl(uniqueID);
+    }
+
+    /**
+     * Shortens all the urls with one lease of ids and one write, the shortened
+     * urls are returned in the order of the requests
+     */
+    public List<String> shortenURLs(List<ShortenRequest> shortenRequests) {
+        if (shortenRequests.size() > bulkMaxSize)
+            throw new CustomException("URL_SHORTENING_BULK_LIMIT_EXCEEDED",
+                    "A maximum of " + bulkMaxSize + " urls can be shortened in one request");
+        LOGGER.info("Shortening {} urls", shortenRequests.size());
+
+        List<Long> ids = nextIDs(shortenRequests.size());
+        Map<String, ShortenRequest> keyToRequestMap = new LinkedHashMap<>();
+        List<String> shortenedUrls = new ArrayList<>(shortenRequests.size());
+        for (int i = 0; i < shortenRequests.size(); i++) {
+            Long id = ids.get(i);
+            keyToRequestMap.put("url:" + id, shortenRequests.get(i));
+            shortenedUrls.add(getShortenedUrl(hashIdConverter.createHashStringForId(id)));
+        }
+        try {
+            urlRepository.saveUrls(keyToRequestMap);
+        } catch (JsonProcessingException e) {
+            throw new CustomException("URL_SHORTENING_SAVE_ERROR", "Failed to save the urls");
+        }
+        return shortenedUrls;
+    }
+
+    /**
+     * Takes count ids from the leased block, leasing a new block from the
+     * repository when the block runs out
+     */
+    private synchronized List<Long> nextIDs(int count) {
+        if (leasedIds.size() < count)
+            leasedIds.addAll(urlRepository.incrementIDs(Math.max(idBlockSize, count - leasedIds.size())));
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            ids.add(leasedIds.poll());
+        return ids;
+    }
+
+    private String getShortenedUrl(String uniqueID) {
         StringBuilder shortenedUrl = new StringBuilder();  
         
         if(hostName.endsWith("/"))
@@ -117,9 +195,14 @@ public class URLConverterService {
         // To support previously generated dictionary keys
         if(dictionaryKey == null)
             dictionaryKey = IDConvertor.getDictionaryKeyFromUniqueID(uniqueID);
-        String longUrl = urlRepository.getUrl(dictionaryKey);
-        LOGGER.info("Converting shortened URL back to {}", longUrl);
-        if(longUrl.isEmpty())
+        String longUrl = longUrls.get(dictionaryKey);
+        if(longUrl == null) {
+            longUrl = urlRepository.getUrl(dictionaryKey);
+            if(longUrl != null && !longUrl.isEmpty())
+                longUrls.put(dictionaryKey, longUrl);
+        }
+        LOGGER.debug("Converting shortened URL back to {}", longUrl);
+        if(longUrl == null || longUrl.isEmpty())
         	throw new CustomException("INVALID_REQUEST","Invalid Key");
         else{
             String[] queryString = longUrl.split("\\?");
@@ -162,11 +245,9 @@ public class URLConverterService {
             if(mobileNumber == null)
                 mobileNumber = params.get("mobileNo");
             
-            if(mobileNumber != null){
-                String uuid = getUserUUID(mobileNumber);
-                if(uuid != null)
-                    data.put("user",uuid);
-            }
+            // Resolved to the user by the ClickEventConsumer
+            if(mobileNumber != null)
+                data.put(ClickEventConsumer.MOBILE_NUMBER_KEY, mobileNumber);
             String  tag = params.get("tag");
             if(tag.equalsIgnoreCase("billPayment")){
                 String businessService = params.get("businessService");
@@ -191,7 +272,7 @@ public class URLConverterService {
                 data.put("tag", "Unidentified link");
             }
 
-            producer.push(kafkaTopic,data);
+            clickEventService.record(data);
 
         }
 
@@ -13,6 +13,8 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import redis.clients.jedis.Jedis;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -61,5 +63,13 @@ public class URLRedisRepositoryTest {
                         .longValue());
         verify(jedis).incr((String) any());
     }
-}
 
+    @Test
+    void IncrementIDs() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedis.incrBy((String) any(), eq(3L))).thenReturn(3L);
+        assertEquals(Arrays.asList(0L, 1L, 2L),
+                (new URLRedisRepository(jedis, "https://example.org/example", "https://example.org/example")).incrementIDs(3));
+        verify(jedis).incrBy((String) any(), eq(3L));
+    }
+}
@@ -10,6 +10,11 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -57,5 +62,21 @@ class UrlDBRepositoryTest {
         assertThrows(Exception.class, () -> this.urlDBRepository.getUrl(123L));
         verify(this.jdbcTemplate).queryForObject((String) any(), (Object[]) any(), (Class<String>) any());
     }
-}
 
+    @Test
+    void IncrementIDs() throws DataAccessException {
+        when(this.jdbcTemplate.queryForList((String) any(), (Object[]) any(), eq(Long.class)))
+                .thenReturn(Arrays.asList(1L, 2L, 5L));
+        assertEquals(Arrays.asList(0L, 1L, 4L), this.urlDBRepository.incrementIDs(3));
+        verify(this.jdbcTemplate).queryForList((String) any(), (Object[]) any(), eq(Long.class));
+    }
+
+    @Test
+    void SaveUrls() throws DataAccessException {
+        Map<String, ShortenRequest> shortenRequests = new LinkedHashMap<>();
+        shortenRequests.put("url:1", ShortenRequest.builder().url("https://example.org/1").build());
+        shortenRequests.put("url:2", ShortenRequest.builder().url("https://example.org/2").build());
+        this.urlDBRepository.saveUrls(shortenRequests);
+        verify(this.jdbcTemplate).batchUpdate((String) any(), (List<Object[]>) argThat(args -> args.size() == 2));
+    }
+}
@@ -0,0 +1,63 @@
+package org.egov.url.shortening.service;
+
+import org.egov.url.shortening.producer.Producer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ClickEventServiceTest {
+
+    @Mock
+    private Producer producer;
+
+    @InjectMocks
+    private ClickEventService clickEventService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(clickEventService, "clickTopic", "click-topic");
+        ReflectionTestUtils.setField(clickEventService, "batchSize", 2);
+        ReflectionTestUtils.setField(clickEventService, "clicks", new ArrayBlockingQueue<>(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void FlushPublishesClicksInBatches() {
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            Map<String, List<?>> batch = invocation.getArgument(1);
+            batchSizes.add(batch.get(ClickEventService.CLICKS_KEY).size());
+            return null;
+        }).when(producer).push(eq("click-topic"), any());
+
+        for (int i = 0; i < 3; i++)
+            clickEventService.record(Collections.singletonMap("id", i));
+        clickEventService.flush();
+
+        assertEquals(2, batchSizes.size());
+        assertEquals(Integer.valueOf(2), batchSizes.get(0));
+        assertEquals(Integer.valueOf(1), batchSizes.get(1));
+    }
+
+    @Test
+    void RecordDropsClicksWhenBufferIsFull() {
+        for (int i = 0; i < 5; i++)
+            clickEventService.record(Collections.singletonMap("id", i));
+        clickEventService.flush();
+
+        verify(producer, times(2)).push(eq("click-topic"), any());
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -94,6 +95,19 @@ public class URLConverterServiceTest {
         assertEquals(longUrl, actualLongUrl);
     }
 
+    @Test
+    @DisplayName("Should serve the long url of a redirected id from the cache")
+    public void testGetLongURLFromIDWhenRedirectedBeforeThenReadFromCache() throws Exception {
+
+        ReflectionTestUtils.setField(uRLConverterService, "redirectCacheMaxSize", 10);
+        when(hashIdConverter.getIdForString("uniqueID")).thenReturn(1L);
+        when(urlRepository.getUrl(1L)).thenReturn("longUrl");
+
+        assertEquals("longUrl", uRLConverterService.getLongURLFromID("uniqueID"));
+        assertEquals("longUrl", uRLConverterService.getLongURLFromID("uniqueID"));
+        verify(urlRepository, times(1)).getUrl(1L);
+    }
+
     @Test
     @DisplayName("Should throw an exception when the unique id is invalid")
     public void testGetLongURLFromIDWhenUniqueIdIsInvalidThenThrowException() {
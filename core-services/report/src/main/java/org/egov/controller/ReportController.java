@@ -6,16 +6,20 @@ import org.egov.ReportApp;
 import org.egov.domain.model.MetaDataRequest;
 import org.egov.domain.model.ReportDefinitions;
 import org.egov.report.service.ReportService;
+import org.egov.report.service.export.ExportFormat;
 import org.egov.swagger.model.MetadataResponse;
 import org.egov.swagger.model.ReportRequest;
 import org.egov.swagger.model.ReportResponse;
 import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -77,6 +81,34 @@ public class ReportController {
     }
 
 
+    /**
+     * Streams the report as csv, xlsx or json. The rows are written while they are
+     * read from the database, so errors after the first rows can only abort the download.
+     */
+    @PostMapping("/{moduleName}/_export")
+    public ResponseEntity<StreamingResponseBody> exportReportData(@PathVariable("moduleName") String moduleName,
+                                                                  @RequestParam(value = "format", defaultValue = "csv") String format,
+                                                                  @RequestBody @Valid final ReportRequest reportRequest,
+                                                                  final BindingResult errors) {
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        String authToken = reportRequest.getRequestInfo().getAuthToken();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                long rows = reportService.exportReportData(reportRequest, moduleName, authToken, exportFormat, outputStream);
+                log.info("Exported " + rows + " rows of report " + reportRequest.getReportName());
+            } catch (Exception e) {
+                log.error("Error in exporting report data", e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + reportRequest.getReportName()
+                        + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+
     @PostMapping("/{moduleName}/total/_get")
     @ResponseBody
     public ResponseEntity<?> getReportDataTotal(@PathVariable("moduleName") String moduleName, @RequestBody @Valid final ReportRequest reportRequest,
@@ -98,6 +130,7 @@ public class ReportController {
         try {
 
             ReportApp.loadYaml("common");
+            reportService.evictExternalServiceValues();
 
         } catch (Exception e) {
             log.error("Error in reloading Yaml data", e);
@@ -142,6 +175,7 @@ public class ReportController {
         try {
 
             ReportApp.loadYaml(moduleName);
+            reportService.evictExternalServiceValues();
         } catch (Exception e) {
             log.error("Error in reloading yaml data v1", e);
             throw new CustomException("ERROR_IN_RELOADING_YAML_DATA", e.getMessage());
@@ -9,12 +9,18 @@ import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.*;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.*;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,10 +41,29 @@ public class ReportRepository {
     @Value(("${report.query.timeout}"))
     public int queryExecutionTimeout;
 
+    @Value("${report.stream.fetch.size}")
+    private int streamFetchSize;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
     @PostConstruct
     private void init(){
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
         jdbcTemplate.setQueryTimeout(queryExecutionTimeout);
+
+        // Postgres only fetches a result set in chunks through a cursor when a fetch size is set and
+        // the statement runs inside a transaction, otherwise the driver reads every row into memory
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(streamFetchSize);
+        streamingTemplate.setQueryTimeout(queryExecutionTimeout);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     private Map<String, Object>  getQueryParameters(ReportRequest reportRequest) {
@@ -94,13 +119,7 @@ public class ReportRepository {
             // convert 'abc, xyz' -> ['abc','xyz'] to allow decryptions of each entity
             convertStringArraystoListForEncryption(maps, reportDefinition.getSourceColumns());
         } catch (DataAccessResourceFailureException ex) {
-            log.info("Query Execution Failed Due To Timeout: ", ex);
-            PSQLException cause = (PSQLException) ex.getCause();
-            if (cause != null && cause.getSQLState().equals("57014")) {
-                throw new CustomException("QUERY_EXECUTION_TIMEOUT", "Query failed, as it took more than: "+ (queryExecutionTimeout) + " seconds to execute");
-            } else {
-                throw ex;
-            }
+            throw handleTimeout(ex);
         } catch (Exception e) {
             log.info("Query Execution Failed: ", e);
             throw new CustomException("QUERY_EXEC_ERROR", "Error while executing query: " + e.getMessage());
@@ -114,24 +133,92 @@ public class ReportRepository {
         return maps;
     }
 
+    /**
+     * Runs the report query through a server side cursor and hands the rows to the
+     * consumer one by one as they are fetched, in chunks of the configured fetch size,
+     * so the result set is never held in memory
+     *
+     * @param reportRequest
+     * @param reportDefinition
+     * @param authToken
+     * @param rowConsumer receives each row, string array columns split to lists like in getData
+     * @return the number of rows streamed
+     */
+    public long streamData(ReportRequest reportRequest, ReportDefinition reportDefinition, String authToken,
+                           Consumer<Map<String, Object>> rowConsumer) throws CustomException {
+
+        Long startTime = new Date().getTime();
+
+        String query = getQuery(reportRequest, reportDefinition, authToken);
+        MapSqlParameterSource params = new MapSqlParameterSource(getQueryParameters(reportRequest));
+        Set<String> arrayColumns = getArrayColumns(reportDefinition.getSourceColumns());
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        log.info("final streaming query:" + query);
+
+        long[] rowCount = new long[1];
+        try {
+            readOnlyTransactionTemplate.execute(status -> {
+                streamingJdbcTemplate.query(query, params, (RowCallbackHandler) rs -> {
+                    Map<String, Object> row = rowMapper.mapRow(rs, rs.getRow());
+                    convertStringArraystoListForEncryption(row, arrayColumns);
+                    rowConsumer.accept(row);
+                    rowCount[0]++;
+                });
+                return null;
+            });
+        } catch (DataAccessResourceFailureException ex) {
+            throw handleTimeout(ex);
+        } catch (CustomException | UncheckedIOException e) {
+            // raised by the row consumer, writing the row failed
+            throw e;
+        } catch (Exception e) {
+            log.info("Query Execution Failed: ", e);
+            throw new CustomException("QUERY_EXEC_ERROR", "Error while executing query: " + e.getMessage());
+        }
+
+        log.info("streamed " + rowCount[0] + " rows in millisecount:" + (new Date().getTime() - startTime));
+        return rowCount[0];
+    }
+
+    private RuntimeException handleTimeout(DataAccessResourceFailureException ex) {
+        log.info("Query Execution Failed Due To Timeout: ", ex);
+        PSQLException cause = (PSQLException) ex.getCause();
+        if (cause != null && cause.getSQLState().equals("57014")) {
+            return new CustomException("QUERY_EXECUTION_TIMEOUT", "Query failed, as it took more than: "+ (queryExecutionTimeout) + " seconds to execute");
+        } else {
+            return ex;
+        }
+    }
+
 
     private void convertStringArraystoListForEncryption(List<Map<String, Object>> maps, List<SourceColumn> columns) {
-        HashSet<String> arrayColumns = new HashSet<>();
+        Set<String> arrayColumns = getArrayColumns(columns);
+        for (Map<String, Object> fieldValueMap : maps) {
+            convertStringArraystoListForEncryption(fieldValueMap, arrayColumns);
+        }
+    }
+
+    private void convertStringArraystoListForEncryption(Map<String, Object> fieldValueMap, Set<String> arrayColumns) {
+        if (arrayColumns.isEmpty())
+            return;
+        for (String key : fieldValueMap.keySet()) {
+            if (arrayColumns.contains(key)) {
+                if (fieldValueMap.get(key) == null)
+                    continue;
+                String values[] = String.valueOf(fieldValueMap.get(key)).split(",");
+                List<String> valueList = Arrays.asList(values).stream().map(value -> value.trim()).collect(Collectors.toList());
+                fieldValueMap.put(key, valueList);
+            }
+        }
+    }
+
+    private Set<String> getArrayColumns(List<SourceColumn> columns) {
+        Set<String> arrayColumns = new HashSet<>();
         for (SourceColumn sourceColumn : columns) {
             if (sourceColumn.getType().toString().equals("stringarray")) {
                 arrayColumns.add(sourceColumn.getName());
             }
         }
-        for (Map<String, Object> fieldValueMap : maps) {
-            for (String key : fieldValueMap.keySet()) {
-                if (arrayColumns.contains(key)) {
-                    if (fieldValueMap.get(key) == null)
-                        continue;
-                    String values[] = String.valueOf(fieldValueMap.get(key)).split(",");
-                    List<String> valueList = Arrays.asList(values).stream().map(value -> value.trim()).collect(Collectors.toList());
-                    fieldValueMap.put(key, valueList);
-                }
-            }
-        }
+        return arrayColumns;
     }
 }
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.gson.Gson;
 import com.jayway.jsonpath.JsonPath;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.egov.common.contract.request.RequestInfo;
@@ -32,6 +33,7 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
 import java.net.URI;
 import java.util.*;
 
@@ -48,6 +50,31 @@ public class ReportQueryBuilder {
     @Value("${id.timezone}")
     private String timezone;
 
+    @Value("${report.external.service.cache.ttl.ms}")
+    private long externalServiceCacheTtl;
+
+    @Value("${report.external.service.cache.max.size}")
+    private int externalServiceCacheMaxSize;
+
+    /*
+     * Resolved values of the external services of a report definition per
+     * tenant, kept for the configured ttl
+     */
+    private Map<String, CachedValues> externalServiceValues;
+
+    @PostConstruct
+    public void init() {
+        final int maxSize = externalServiceCacheMaxSize;
+        externalServiceValues = Collections.synchronizedMap(new LinkedHashMap<String, CachedValues>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValues> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
 
 
     public String buildQuery(List<SearchParam> searchParams, String tenantId, ReportDefinition reportDefinition, String authToken, Long userId) {
@@ -85,201 +112,238 @@ public class ReportQueryBuilder {
 
     private String populateExternalServiceValues(ReportDefinition reportDefinition, String baseQuery, String tenantid, String authToken)
             throws JSONException {
+        String replacetableQuery = baseQuery;
+        for (ExternalService es : reportDefinition.getExternalService()) {
+
+            String key = reportDefinition.getModuleName() + "|" + reportDefinition.getReportName() + "|" + tenantid
+                    + "|" + es.getTableName();
+            String values = getCachedExternalServiceValues(key);
+            if (values == null) {
+                values = resolveExternalServiceValues(reportDefinition, es, tenantid, authToken);
+                externalServiceValues.put(key, new CachedValues(values,
+                        System.currentTimeMillis() + externalServiceCacheTtl));
+            }
+
+            replacetableQuery = replacetableQuery.replace(es.getTableName(), values);
+        }
+        return replacetableQuery;
+    }
+
+    private String getCachedExternalServiceValues(String key) {
+        CachedValues cachedValues = externalServiceValues.get(key);
+        if (cachedValues == null)
+            return null;
+        if (cachedValues.validTill <= System.currentTimeMillis()) {
+            externalServiceValues.remove(key);
+            return null;
+        }
+        return cachedValues.values;
+    }
+
+    /**
+     * Drops the cached external service values, called when the report
+     * definitions are reloaded
+     */
+    public void evictExternalServiceValues() {
+        externalServiceValues.clear();
+    }
+
+    /**
+     * Fetches the data of the external service and renders it as the rows of a
+     * VALUES list in the key order of the service
+     */
+    private String resolveExternalServiceValues(ReportDefinition reportDefinition, ExternalService es, String tenantid,
+                                                String authToken) throws JSONException {
         String url;
         String res = "";
-        String replacetableQuery = baseQuery;
         String requestInfoJson = "";
         String finalJson = "";
-        for (ExternalService es : reportDefinition.getExternalService()) {
 
-            if (es.getPostObject() != null) {
-                //JsonObject jsonObjecttest = (new JsonParser()).parse(es.getPostObject()).getAsJsonObject();
-                String jsonObjecttest = es.getPostObject();
-
-                HashMap map = new HashMap();
-                map.put("RequestInfo", getRInfo(authToken));
-                //map.put(es.getObjectKey(),jsonObjecttest);
-                try {
-                    Gson gson = new Gson();
-                    requestInfoJson = gson.toJson(map);
-                } catch (Exception e1) {
-                    // TODO Auto-generated catch block
-                    log.error("Exception while converting gson to JSON: " + e1.getMessage());
-                }
-                requestInfoJson = StringUtils.chop(requestInfoJson);
-                finalJson = jsonObjecttest.replaceAll("\\$RequestInfo", requestInfoJson);
-                finalJson = finalJson.concat("}");
+        if (es.getPostObject() != null) {
+            //JsonObject jsonObjecttest = (new JsonParser()).parse(es.getPostObject()).getAsJsonObject();
+            String jsonObjecttest = es.getPostObject();
+
+            HashMap map = new HashMap();
+            map.put("RequestInfo", getRInfo(authToken));
+            //map.put(es.getObjectKey(),jsonObjecttest);
+            try {
+                Gson gson = new Gson();
+                requestInfoJson = gson.toJson(map);
+            } catch (Exception e1) {
+                // TODO Auto-generated catch block
+                log.error("Exception while converting gson to JSON: " + e1.getMessage());
             }
+            requestInfoJson = StringUtils.chop(requestInfoJson);
+            finalJson = jsonObjecttest.replaceAll("\\$RequestInfo", requestInfoJson);
+            finalJson = finalJson.concat("}");
+        }
 
-            if (!isSearchEnabled) {
-                log.info("Entering _get block");
-                try {
-                    url = es.getApiURL();
-                } catch (Exception ex) {
-                    throw new CustomException("YAML_CONFIG_ERROR", ex.getMessage());
+        if (!isSearchEnabled) {
+            log.info("Entering _get block");
+            try {
+                url = es.getApiURL();
+            } catch (Exception ex) {
+                throw new CustomException("YAML_CONFIG_ERROR", ex.getMessage());
+            }
+            log.info("URL from yaml config: " + url);
+            url = url.replaceAll("\\$currentTime", Long.toString(getCurrentTime()));
+            String[] stateid = null;
+            if (es.getStateData() && (!tenantid.equals("default"))) {
+                log.info("State Data");
+                stateid = tenantid.split("\\.");
+                url = url.replaceAll("\\$tenantid", stateid[0]);
+                finalJson = finalJson.replaceAll("\\$tenantid", stateid[0]);
+            } else {
+                log.info("Tenant Data");
+                url = url.replaceAll("\\$tenantId", tenantid);
+                finalJson = finalJson.replaceAll("\\$tenantid", tenantid);
+            }
+            log.info("Mapper Converted string with replaced values " + requestInfoJson);
+            URI uri = URI.create(url);
+            log.info("URI: " + uri);
+            MultiValueMap<String, String> headers = new LinkedMultiValueMap<String, String>();
+            Map headerMap = new HashMap<String, String>();
+            headerMap.put("Content-Type", "application/json");
+            headers.setAll(headerMap);
+            HttpEntity<?> request = new HttpEntity<>(finalJson, headers);
+            try {
+                if (es.getPostObject() != null) {
+                    res = restTemplate.postForObject(uri, request, String.class);
+                    log.info("Response - 1: " + res);
+                } else {
+                    res = restTemplate.postForObject(uri, getRInfo(authToken), String.class);
+                    log.info("Response - 2 : " + res);
                 }
-                log.info("URL from yaml config: " + url);
-                url = url.replaceAll("\\$currentTime", Long.toString(getCurrentTime()));
-                String[] stateid = null;
-                if (es.getStateData() && (!tenantid.equals("default"))) {
-                    log.info("State Data");
-                    stateid = tenantid.split("\\.");
-                    url = url.replaceAll("\\$tenantid", stateid[0]);
-                    finalJson = finalJson.replaceAll("\\$tenantid", stateid[0]);
+            } catch (HttpClientErrorException e) {
+                log.error("Exception while fetching data from mdms: ", e);
+            }
+        } else {
+            ObjectMapper mapper = new ObjectMapper();
+            log.info("Entering _search block");
+            url = es.getApiURL();
+            log.info("URL from yaml config: " + url);
+            String uri = null;
+            MdmsCriteriaReq mdmsCriteriaReq = new MdmsCriteriaReq();
+            String[] criteriaArray = null;
+            Map<String, String> keyValueMap = new WeakHashMap<>();
+            if (reportDefinition.getVersion().equals("1.0.0")) {
+                log.info("Entering old config block");
+                String[] splitUrl = url.split("[?]");
+                uri = splitUrl[0].replaceAll("_get", "_search");
+                String queryParam = null;
+                if (splitUrl[1].contains("|")) {
+                    queryParam = splitUrl[1].split("|")[0];
+                    criteriaArray = queryParam.split("[&]");
                 } else {
-                    log.info("Tenant Data");
-                    url = url.replaceAll("\\$tenantId", tenantid);
-                    finalJson = finalJson.replaceAll("\\$tenantid", tenantid);
+                    queryParam = splitUrl[1];
+                    criteriaArray = queryParam.split("[&]");
                 }
-                log.info("Mapper Converted string with replaced values " + requestInfoJson);
-                URI uri = URI.create(url);
-                log.info("URI: " + uri);
-                MultiValueMap<String, String> headers = new LinkedMultiValueMap<String, String>();
-                Map headerMap = new HashMap<String, String>();
-                headerMap.put("Content-Type", "application/json");
-                headers.setAll(headerMap);
-                HttpEntity<?> request = new HttpEntity<>(finalJson, headers);
-                try {
-                    if (es.getPostObject() != null) {
-                        res = restTemplate.postForObject(uri, request, String.class);
-                        log.info("Response - 1: " + res);
-                    } else {
-                        res = restTemplate.postForObject(uri, getRInfo(authToken), String.class);
-                        log.info("Response - 2 : " + res);
-                    }
-                } catch (HttpClientErrorException e) {
-                    log.error("Exception while fetching data from mdms: ", e);
+                log.info("criteria: " + criteriaArray);
+                for (String pair : criteriaArray) {
+                    if (pair.split("=")[0].equals("tenantId"))
+                        continue;
+                    keyValueMap.put(pair.split("=")[0], pair.split("=")[1]);
                 }
             } else {
-                ObjectMapper mapper = new ObjectMapper();
-                log.info("Entering _search block");
-                url = es.getApiURL();
-                log.info("URL from yaml config: " + url);
-                String uri = null;
-                MdmsCriteriaReq mdmsCriteriaReq = new MdmsCriteriaReq();
-                String[] criteriaArray = null;
-                Map<String, String> keyValueMap = new WeakHashMap<>();
-                if (reportDefinition.getVersion().equals("1.0.0")) {
-                    log.info("Entering old config block");
-                    String[] splitUrl = url.split("[?]");
-                    uri = splitUrl[0].replaceAll("_get", "_search");
-                    String queryParam = null;
-                    if (splitUrl[1].contains("|")) {
-                        queryParam = splitUrl[1].split("|")[0];
-                        criteriaArray = queryParam.split("[&]");
-                    } else {
-                        queryParam = splitUrl[1];
-                        criteriaArray = queryParam.split("[&]");
-                    }
+                log.info("Entering new config block");
+                uri = url;
+                String criteria = es.getCriteria();
+                if (null != criteria) {
+                    criteriaArray = criteria.split(",");
                     log.info("criteria: " + criteriaArray);
                     for (String pair : criteriaArray) {
                         if (pair.split("=")[0].equals("tenantId"))
                             continue;
                         keyValueMap.put(pair.split("=")[0], pair.split("=")[1]);
                     }
-                } else {
-                    log.info("Entering new config block");
-                    uri = url;
-                    String criteria = es.getCriteria();
-                    if (null != criteria) {
-                        criteriaArray = criteria.split(",");
-                        log.info("criteria: " + criteriaArray);
-                        for (String pair : criteriaArray) {
-                            if (pair.split("=")[0].equals("tenantId"))
-                                continue;
-                            keyValueMap.put(pair.split("=")[0], pair.split("=")[1]);
-                        }
 
-                    }
-                }
-                log.info("keyValueMap: " + keyValueMap);
-                MasterDetail masterDetail = new MasterDetail();
-                masterDetail.setName(keyValueMap.get("masterName"));
-                masterDetail.setFilter(keyValueMap.get("filter"));
-                List<MasterDetail> masterDetails = new ArrayList<>();
-                masterDetails.add(masterDetail);
-                ModuleDetail moduleDetail = new ModuleDetail();
-                moduleDetail.setMasterDetails(masterDetails);
-                moduleDetail.setModuleName(keyValueMap.get("moduleName"));
-                List<ModuleDetail> moduleDetails = new ArrayList<>();
-                moduleDetails.add(moduleDetail);
-                MdmsCriteria mdmsCriteria = new MdmsCriteria();
-                mdmsCriteria.setTenantId(tenantid);
-                mdmsCriteria.setModuleDetails(moduleDetails);
-                mdmsCriteriaReq.setMdmsCriteria(mdmsCriteria);
-                mdmsCriteriaReq.setRequestInfo(getRInfo(authToken));
-                log.info("URI: " + uri);
-                try {
-                    log.info("Request: " + mapper.writeValueAsString(mdmsCriteriaReq));
-                    res = restTemplate.postForObject(uri, mdmsCriteriaReq, String.class);
-                    log.info("MDMS response: " + res);
-                } catch (Exception e) {
-                    log.error("Exception while fetching data from mdms: ", e);
                 }
             }
+            log.info("keyValueMap: " + keyValueMap);
+            MasterDetail masterDetail = new MasterDetail();
+            masterDetail.setName(keyValueMap.get("masterName"));
+            masterDetail.setFilter(keyValueMap.get("filter"));
+            List<MasterDetail> masterDetails = new ArrayList<>();
+            masterDetails.add(masterDetail);
+            ModuleDetail moduleDetail = new ModuleDetail();
+            moduleDetail.setMasterDetails(masterDetails);
+            moduleDetail.setModuleName(keyValueMap.get("moduleName"));
+            List<ModuleDetail> moduleDetails = new ArrayList<>();
+            moduleDetails.add(moduleDetail);
+            MdmsCriteria mdmsCriteria = new MdmsCriteria();
+            mdmsCriteria.setTenantId(tenantid);
+            mdmsCriteria.setModuleDetails(moduleDetails);
+            mdmsCriteriaReq.setMdmsCriteria(mdmsCriteria);
+            mdmsCriteriaReq.setRequestInfo(getRInfo(authToken));
+            log.info("URI: " + uri);
+            try {
+                log.info("Request: " + mapper.writeValueAsString(mdmsCriteriaReq));
+                res = restTemplate.postForObject(uri, mdmsCriteriaReq, String.class);
+                log.info("MDMS response: " + res);
+            } catch (Exception e) {
+                log.error("Exception while fetching data from mdms: ", e);
+            }
+        }
 
 
-            Object jsonObject = JsonPath.read(res, es.getEntity());
-
-            JSONArray mdmsArray = new JSONArray(jsonObject.toString());
+        Object jsonObject = JsonPath.read(res, es.getEntity());
 
-            StringBuffer finalString = new StringBuffer();
+        JSONArray mdmsArray = new JSONArray(jsonObject.toString());
 
-            for (int i = 0; i < mdmsArray.length(); i++) {
-                JSONObject obj = mdmsArray.getJSONObject(i);
+        StringBuffer finalString = new StringBuffer();
 
-                StringBuffer sb = new StringBuffer();
-                sb.append("(");
+        for (int i = 0; i < mdmsArray.length(); i++) {
+            JSONObject obj = mdmsArray.getJSONObject(i);
 
-                String[] jsonKeys = es.getKeyOrder().split(",");
+            StringBuffer sb = new StringBuffer();
+            sb.append("(");
 
-                for (int k = 0; k < jsonKeys.length; k++) {
+            String[] jsonKeys = es.getKeyOrder().split(",");
 
-                    String value = "";
-                    if (obj.has(jsonKeys[k])) {
-                        value = String.valueOf(obj.get(jsonKeys[k]));
-                    }
-                    if (value.contains("'")) {
-                        String formatted = value.replace("'", "''");
-                        sb.append("'" + formatted + "'");
+            for (int k = 0; k < jsonKeys.length; k++) {
 
-                    } else {
-                        sb.append("'" + value + "'");
-                    }
+                String value = "";
+                if (obj.has(jsonKeys[k])) {
+                    value = String.valueOf(obj.get(jsonKeys[k]));
+                }
+                if (value.contains("'")) {
+                    String formatted = value.replace("'", "''");
+                    sb.append("'" + formatted + "'");
 
-                    if ((k != jsonKeys.length - 1)) {
-                        sb.append(",");
-                    }
+                } else {
+                    sb.append("'" + value + "'");
                 }
-                sb.append(")");
-                if (i != (mdmsArray.length() - 1)) {
+
+                if ((k != jsonKeys.length - 1)) {
                     sb.append(",");
                 }
+            }
+            sb.append(")");
+            if (i != (mdmsArray.length() - 1)) {
+                sb.append(",");
+            }
 
-                finalString.append(sb);
+            finalString.append(sb);
 
-            }
+        }
 
-            if (mdmsArray.length() == 0) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("(");
-                int i = 0;
-                for (String key : es.getKeyOrder().split(",")) {
-                    if (i != es.getKeyOrder().split(",").length - 1) {
-                        sb.append("'',");
-                    } else {
-                        sb.append("''");
-                    }
-                    i++;
+        if (mdmsArray.length() == 0) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("(");
+            int i = 0;
+            for (String key : es.getKeyOrder().split(",")) {
+                if (i != es.getKeyOrder().split(",").length - 1) {
+                    sb.append("'',");
+                } else {
+                    sb.append("''");
                 }
-                sb.append(")");
-                finalString.append(sb);
+                i++;
             }
-
-            replacetableQuery = replacetableQuery.replace(es.getTableName(), finalString.toString());
-
+            sb.append(")");
+            finalString.append(sb);
         }
-        return replacetableQuery;
+
+        return finalString.toString();
     }
 
     public String generateQuery(List<SearchParam> searchParams, String tenantId, ReportDefinition reportDefinition, String inlineQuery) {
@@ -571,6 +635,14 @@ public class ReportQueryBuilder {
         return mapper;
     }
 
+    @AllArgsConstructor
+    private static class CachedValues {
+
+        private final String values;
+
+        private final long validTill;
+    }
+
 }
 
 
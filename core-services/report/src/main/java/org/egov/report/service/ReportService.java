@@ -16,15 +16,21 @@ import org.egov.domain.model.Response;
 import org.egov.encryption.EncryptionService;
 import org.egov.encryption.audit.AuditService;
 import org.egov.report.repository.ReportRepository;
+import org.egov.report.repository.builder.ReportQueryBuilder;
+import org.egov.report.service.export.*;
 import org.egov.swagger.model.*;
 import org.egov.swagger.model.ColumnDetail.TypeEnum;
 import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedCaseInsensitiveMap;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -41,6 +47,9 @@ public class ReportService {
     @Autowired
     private IntegrationService integrationService;
 
+    @Autowired
+    private ReportQueryBuilder reportQueryBuilder;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -50,6 +59,12 @@ public class ReportService {
     @Autowired
     private AuditService auditService;
 
+    @Value("${report.stream.decrypt.batch.size}")
+    private int decryptBatchSize;
+
+    @Value("${report.export.xlsx.window.size}")
+    private int xlsxWindowSize;
+
     public MetadataResponse getMetaData(MetaDataRequest metaDataRequest, String moduleName) throws CustomException {
         try {
             MetadataResponse metadataResponse = new MetadataResponse();
@@ -247,32 +262,127 @@ public class ReportService {
         return reportResponse;
     }
 
+    /**
+     * Exports the report to the output stream in the given format without holding the
+     * rows in memory. The rows are read through a database cursor, decrypted in batches
+     * when the report requires it and written as they arrive. Sub reports are not part
+     * of the export.
+     *
+     * @return the number of rows exported
+     */
+    public long exportReportData(ReportRequest reportRequest, String moduleName, String authToken, ExportFormat format,
+                                 OutputStream outputStream) throws IOException {
+        ReportDefinitions rds = ReportApp.getReportDefs();
+        ReportDefinition reportDefinition = rds.getReportDefinition(moduleName + " " + reportRequest.getReportName());
+        if (reportDefinition == null)
+            throw new CustomException("REPORT_CONFIG_ERROR", "Error in retrieving report definition");
+
+        List<SourceColumn> columns = reportDefinition.getSourceColumns();
+        boolean decrypt = (reportDefinition.getdecryptionPathId() != null) && (reportRequest.getRequestInfo() != null)
+                && (reportRequest.getRequestInfo().getUserInfo() != null);
+
+        try (ReportWriter writer = getReportWriter(format, outputStream, reportDefinition.getReportName())) {
+            writer.writeHeader(getReportHeader(reportDefinition));
+
+            List<Map<String, Object>> batch = new ArrayList<>();
+            long rows = reportRepository.streamData(reportRequest, reportDefinition, authToken, row -> {
+                if (!decrypt) {
+                    writeRow(writer, toRow(columns, row));
+                    return;
+                }
+                batch.add(row);
+                if (batch.size() >= decryptBatchSize)
+                    writeDecryptedRows(writer, reportRequest, reportDefinition, batch);
+            });
+            writeDecryptedRows(writer, reportRequest, reportDefinition, batch);
+
+            writer.finish();
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ReportWriter getReportWriter(ExportFormat format, OutputStream outputStream, String reportName) throws IOException {
+        switch (format) {
+            case XLSX:
+                return new XlsxReportWriter(outputStream, reportName, xlsxWindowSize);
+            case JSON:
+                return new JsonReportWriter(objectMapper, outputStream);
+            default:
+                return new CsvReportWriter(outputStream);
+        }
+    }
+
+    private void writeDecryptedRows(ReportWriter writer, ReportRequest reportRequest, ReportDefinition reportDefinition,
+                                    List<Map<String, Object>> batch) {
+        if (batch.isEmpty())
+            return;
+        List<Map<String, Object>> maps;
+        try {
+            maps = encryptionService.decryptJson(reportRequest.getRequestInfo(), batch,
+                    reportDefinition.getdecryptionPathId(), "Retrieve Report Data", Map.class);
+        } catch (IOException e) {
+            log.error("IO exception while decrypting report: " + e.getMessage());
+            throw new CustomException("REPORT_DECRYPTION_ERROR", "Error while decrypting report data");
+        }
+        for (Map<String, Object> map : maps) {
+            writeRow(writer, toRow(reportDefinition.getSourceColumns(), map));
+        }
+        batch.clear();
+    }
+
+    private void writeRow(ReportWriter writer, List<Object> row) {
+        try {
+            writer.writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void populateData(List<SourceColumn> columns, List<Map<String, Object>> maps,
                               ReportResponse reportResponse) {
 
-        List<List<Object>> lists = new ArrayList<>();
+        List<List<Object>> lists = new ArrayList<>(maps.size());
 
-        for (int i = 0; i < maps.size(); i++) {
-            List<Object> objects = new ArrayList<>();
-            Map<String, Object> map = maps.get(i);
-            Map<String, Object> newMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map<String, Object> map : maps) {
+            lists.add(toRow(columns, map));
+        }
+        reportResponse.setReportData(lists);
+    }
+
+    /**
+     * Picks the values of the source columns from the row, column names are matched
+     * case insensitively
+     */
+    private List<Object> toRow(List<SourceColumn> columns, Map<String, Object> map) {
+        List<Object> objects = new ArrayList<>(columns.size());
+        Map<String, Object> newMap = map;
+        // rows read from the database already are case insensitive, decrypted rows are not
+        if (!(map instanceof LinkedCaseInsensitiveMap)) {
+            newMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
             newMap.putAll(map);
-            // restore ['abc','xyz'] -> 'abc, xyz'  -- earlier the string had to be transformed to array to allow decryption incase of encrypted columns
-            for (SourceColumn sourceColm : columns) {
-                if (sourceColm.getType().toString().equals("stringarray") && (newMap.get(sourceColm.getName()) != null)) {
-                    List<String> stringlist = (List<String>) newMap.get(sourceColm.getName());
-                    String value = StringUtils.join(stringlist, ", ");
-                    objects.add(value);
-                } else {
-                    objects.add(newMap.get(sourceColm.getName()));
-                }
+        }
+        // restore ['abc','xyz'] -> 'abc, xyz'  -- earlier the string had to be transformed to array to allow decryption incase of encrypted columns
+        for (SourceColumn sourceColm : columns) {
+            if (sourceColm.getType().toString().equals("stringarray") && (newMap.get(sourceColm.getName()) != null)) {
+                List<String> stringlist = (List<String>) newMap.get(sourceColm.getName());
+                String value = StringUtils.join(stringlist, ", ");
+                objects.add(value);
+            } else {
+                objects.add(newMap.get(sourceColm.getName()));
             }
-            lists.add(objects);
         }
-        reportResponse.setReportData(lists);
+        return objects;
     }
 
     private void populateReportHeader(ReportDefinition reportDefinition, ReportResponse reportResponse) {
+        reportResponse.setViewPath(reportDefinition.getViewPath());
+        reportResponse.setSelectiveDownload(reportDefinition.isSelectiveDownload());
+        reportResponse.setReportHeader(getReportHeader(reportDefinition));
+    }
+
+    private List<ColumnDetail> getReportHeader(ReportDefinition reportDefinition) {
 
         //Let's check whether there's a linked report, we will set the default value in header columns according to that
 
@@ -296,10 +406,15 @@ public class ReportService {
                 .map(p -> new ColumnDetail(p.getShowColumn(), p.getLabel(), p.getType(), p.getDefaultValue(), p.getTotal(), p.getName(), p.getLocalisationRequired(), p.getLocalisationPrefix(), p.getIsMandatory(), p.getRowTotal(), p.getColumnTotal(), p.getInitialValue(), p.getMinValue(), p.getMaxValue()))
                 .collect(Collectors.toList());
 
+        return columnDetails;
+    }
 
-        reportResponse.setViewPath(reportDefinition.getViewPath());
-        reportResponse.setSelectiveDownload(reportDefinition.isSelectiveDownload());
-        reportResponse.setReportHeader(columnDetails);
+    /**
+     * Drops the cached external service values so reloaded report definitions are
+     * resolved afresh
+     */
+    public void evictExternalServiceValues() {
+        reportQueryBuilder.evictExternalServiceValues();
     }
 
     private User getEncrichedandCopiedUserInfo(User userInfo)
@@ -0,0 +1,63 @@
+package org.egov.report.service.export;
+
+import org.egov.swagger.model.ColumnDetail;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the report as RFC 4180 csv with the column labels as the header line
+ */
+public class CsvReportWriter implements ReportWriter {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    public CsvReportWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeHeader(List<ColumnDetail> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDetail column = columns.get(i);
+            writeValue(i, column.getLabel() != null ? column.getLabel() : column.getName());
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void writeRow(List<Object> row) throws IOException {
+        for (int i = 0; i < row.size(); i++) {
+            writeValue(i, row.get(i));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeValue(int index, Object value) throws IOException {
+        if (index > 0)
+            writer.write(',');
+        if (value == null)
+            return;
+
+        String text = String.valueOf(value);
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
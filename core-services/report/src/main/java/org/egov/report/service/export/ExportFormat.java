@@ -0,0 +1,41 @@
+package org.egov.report.service.export;
+
+import org.egov.tracer.model.CustomException;
+
+/**
+ * Formats a report can be exported in
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+
+    JSON("application/json", "json");
+
+    private final String contentType;
+
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat fromValue(String text) {
+        for (ExportFormat format : ExportFormat.values()) {
+            if (format.name().equalsIgnoreCase(text)) {
+                return format;
+            }
+        }
+        throw new CustomException("INVALID_EXPORT_FORMAT", "Export format " + text + " is not supported, use one of csv, xlsx or json");
+    }
+}
@@ -0,0 +1,45 @@
+package org.egov.report.service.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.egov.swagger.model.ColumnDetail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the report in the shape of the report response, the header under
+ * reportHeader and the rows as arrays under reportData
+ */
+public class JsonReportWriter implements ReportWriter {
+
+    private final JsonGenerator generator;
+
+    public JsonReportWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        // the servlet container owns the response stream
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void writeHeader(List<ColumnDetail> columns) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("reportHeader");
+        generator.writeObject(columns);
+        generator.writeArrayFieldStart("reportData");
+    }
+
+    @Override
+    public void writeRow(List<Object> row) throws IOException {
+        generator.writeObject(row);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+}
@@ -0,0 +1,31 @@
+package org.egov.report.service.export;
+
+import org.egov.swagger.model.ColumnDetail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a report to the output incrementally, the header first and then one row
+ * at a time as the rows are read from the database
+ */
+public interface ReportWriter extends Closeable {
+
+    void writeHeader(List<ColumnDetail> columns) throws IOException;
+
+    void writeRow(List<Object> row) throws IOException;
+
+    /**
+     * Completes the document and flushes it to the output
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases the resources held by the writer, also when the report was not
+     * finished. Does not close the underlying stream.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,78 @@
+package org.egov.report.service.export;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.egov.swagger.model.ColumnDetail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the report as a single sheet workbook. Only a window of the rows is kept
+ * in memory, older rows are flushed to a temporary file which is copied to the
+ * output when the report is complete, as the xlsx format can not be written in
+ * one pass.
+ */
+public class XlsxReportWriter implements ReportWriter {
+
+    private static final int MAX_CELL_LENGTH = 32767;
+
+    private final OutputStream outputStream;
+
+    private final SXSSFWorkbook workbook;
+
+    private final Sheet sheet;
+
+    private int rowIndex = 0;
+
+    public XlsxReportWriter(OutputStream outputStream, String sheetName, int windowSize) {
+        this.outputStream = outputStream;
+        this.workbook = new SXSSFWorkbook(windowSize);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+    }
+
+    @Override
+    public void writeHeader(List<ColumnDetail> columns) throws IOException {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDetail column = columns.get(i);
+            row.createCell(i).setCellValue(column.getLabel() != null ? column.getLabel() : column.getName());
+        }
+    }
+
+    @Override
+    public void writeRow(List<Object> values) throws IOException {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null)
+                continue;
+
+            Cell cell = row.createCell(i);
+            if (value instanceof Number) {
+                cell.setCellValue(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                cell.setCellValue((Boolean) value);
+            } else {
+                String text = String.valueOf(value);
+                cell.setCellValue(text.length() > MAX_CELL_LENGTH ? text.substring(0, MAX_CELL_LENGTH) : text);
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(outputStream);
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
@@ -0,0 +1,39 @@
+package org.egov.report.service.export;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.egov.swagger.model.ColumnDetail;
+import org.junit.Test;
+
+public class CsvReportWriterTest {
+
+    @Test
+    public void testWritesHeaderAndRows() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CsvReportWriter writer = new CsvReportWriter(outputStream);
+
+        ColumnDetail name = new ColumnDetail();
+        name.setName("name");
+        name.setLabel("Name");
+        ColumnDetail amount = new ColumnDetail();
+        amount.setName("amount");
+
+        writer.writeHeader(Arrays.asList(name, amount));
+        writer.writeRow(Arrays.asList("Ward 1, Zone \"A\"", 100));
+        writer.writeRow(Arrays.asList(null, 2.5));
+        writer.finish();
+
+        assertEquals("Name,amount\r\n\"Ward 1, Zone \"\"A\"\"\",100\r\n,2.5\r\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = org.egov.tracer.model.CustomException.class)
+    public void testRejectsUnknownFormat() {
+        ExportFormat.fromValue("pdf");
+    }
+}
@@ -48,11 +48,22 @@
 package org.egov.common.entity.edcr;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PlanFeature implements Serializable {
     private static final long serialVersionUID = 53L;
     private String name;
     private Class ruleClass;
+    /*
+     * Features whose extraction and rule have to be completed before the ones of this feature, because this feature reads or
+     * overwrites what they set on the plan. Only features listed before this one are considered.
+     */
+    private List<Class> dependencies = new ArrayList<>();
+    /*
+     * A barrier feature runs after every feature listed before it and before every feature listed after it
+     */
+    private boolean barrier;
 
     public PlanFeature(String string) {
         this.name = string;
@@ -74,6 +85,22 @@ public class PlanFeature implements Serializable {
         this.ruleClass = ruleClass;
     }
 
+    public List<Class> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(List<Class> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public boolean isBarrier() {
+        return barrier;
+    }
+
+    public void setBarrier(boolean barrier) {
+        this.barrier = barrier;
+    }
+
     public PlanFeature(Class ruleClass) {
         super();
         this.ruleClass = ruleClass;
@@ -1,6 +1,7 @@
 package org.egov.edcr.entity.blackbox;
 
 import org.egov.common.entity.edcr.Plan;
+import org.egov.edcr.utility.LayerIndex;
 import org.kabeja.dxf.DXFDocument;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -14,6 +15,9 @@ public class PlanDetail extends Plan {
     @JsonIgnore
     private DXFDocument doc;
 
+    @JsonIgnore
+    private transient LayerIndex layerIndex;
+
     public DXFDocument getDoc() {
         return doc;
     }
@@ -27,4 +31,12 @@ public class PlanDetail extends Plan {
         return doc;
     }
 
+    public LayerIndex getLayerIndex() {
+        return layerIndex;
+    }
+
+    public void setLayerIndex(LayerIndex layerIndex) {
+        this.layerIndex = layerIndex;
+    }
+
 }
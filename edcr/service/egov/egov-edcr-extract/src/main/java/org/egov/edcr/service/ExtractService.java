@@ -24,6 +24,7 @@ import org.egov.edcr.entity.AmendmentDetails;
 import org.egov.edcr.entity.blackbox.PlanDetail;
 import org.egov.edcr.feature.FeatureExtract;
 import org.egov.edcr.utility.DcrConstants;
+import org.egov.edcr.utility.LayerIndex;
 import org.egov.infra.admin.master.entity.AppConfigValues;
 import org.egov.infra.admin.master.entity.City;
 import org.egov.infra.admin.master.service.AppConfigValueService;
@@ -58,15 +59,23 @@ public class ExtractService {
     private CityService cityService;
     @Autowired
     private MDMSValidator mdmsValidator;
+    @Autowired
+    private ScrutinyEngine scrutinyEngine;
 
     private Logger LOG = LogManager.getLogger(ExtractService.class);
 
     public Plan extract(File dxfFile, Amendment amd, Date scrutinyDate, List<PlanFeature> features) {
+        return extract(dxfFile, amd, scrutinyDate, new FeatureGraph(features));
+    }
+
+    public Plan extract(File dxfFile, Amendment amd, Date scrutinyDate, FeatureGraph featureGraph) {
 
         PlanInformation pi = new PlanInformation();
         DXFDocument doc = getDxfDocument(dxfFile);
         PlanDetail planDetail = new PlanDetail();
         planDetail.setDoc(doc);
+        // the layer table is indexed once for all the extractors, the plan keeps the index
+        planDetail.setLayerIndex(LayerIndex.build(doc));
         planDetail.setPlanInformation(pi);
         planDetail.setApplicationDate(scrutinyDate);
         Map<String, String> cityDetails = specificRuleService.getCityDetails();
@@ -146,55 +155,18 @@ public class ExtractService {
 
         int index = -1;
         AmendmentDetails[] a = null;
-        int length = amd.getDetails().size();
         if (!amd.getDetails().isEmpty()) {
             index = amd.getIndex(planDetail.getApplicationDate());
             a = new AmendmentDetails[amd.getDetails().size()];
             amd.getDetails().toArray(a);
         }
+        int amendmentIndex = index;
+        AmendmentDetails[] amendments = a;
 
         Date start = new Date();
         LOG.info("Initializeing fetch extract api" + start);
-        for (PlanFeature ruleClass : features) {
-            FeatureExtract rule = null;
-
-            try {
-
-                if (ruleClass.getRuleClass() != null) {
-                    String str = ruleClass.getRuleClass().getSimpleName();
-                    str = str.substring(0, 1).toLowerCase() + str.substring(1);
-                    LOG.info("Looking for bean " + str);
-
-                    if (amd.getDetails().isEmpty() || index == -1)
-                        rule = (FeatureExtract) specificRuleService.find(str + "Extract");
-                    else {
-
-                        if (index >= 0) {
-                            for (int i = index; i < length; i++) {
-                                if (a[i].getChanges().keySet().contains(ruleClass.getClass().getSimpleName())) {
-                                    String strNew = str + "Extract_" + a[i].getDateOfBylawString();
-
-                                    rule = (FeatureExtract) specificRuleService.find(strNew);
-                                    if (rule != null)
-                                        break;
-                                }
-
-                            }
-
-                        }
-
-                        if (rule == null) {
-                            rule = (FeatureExtract) specificRuleService.find(str + "Extract");
-                        }
-                        // for all amendments
-
-                    }
-
-                }
-            } catch (Exception e) {
-                LOG.error("Exception while finding extract api for  " + ruleClass.getRuleClass(), e);
-            }
-
+        scrutinyEngine.run(planDetail, featureGraph, ruleClass -> {
+            FeatureExtract rule = findExtract(ruleClass, amd, amendmentIndex, amendments);
             if (rule != null) {
                 LOG.info("Got bean ..." + rule.getClass().getSimpleName());
                 try {
@@ -206,14 +178,53 @@ public class ExtractService {
                 }
             } else
                 LOG.error("Extract Api is not defined for " + ruleClass.getRuleClass());
-
-        }
+        }, null);
         Date end = new Date();
         LOG.info("Ending fetch extract api" + end);
         return (Plan) planDetail;
 
     }
 
+    private FeatureExtract findExtract(PlanFeature ruleClass, Amendment amd, int index, AmendmentDetails[] a) {
+        FeatureExtract rule = null;
+        try {
+            if (ruleClass.getRuleClass() != null) {
+                String str = ruleClass.getRuleClass().getSimpleName();
+                str = str.substring(0, 1).toLowerCase() + str.substring(1);
+                LOG.info("Looking for bean " + str);
+
+                if (amd.getDetails().isEmpty() || index == -1)
+                    rule = (FeatureExtract) scrutinyEngine.find(str + "Extract");
+                else {
+
+                    if (index >= 0) {
+                        for (int i = index; i < a.length; i++) {
+                            if (a[i].getChanges().keySet().contains(ruleClass.getClass().getSimpleName())) {
+                                String strNew = str + "Extract_" + a[i].getDateOfBylawString();
+
+                                rule = (FeatureExtract) scrutinyEngine.find(strNew);
+                                if (rule != null)
+                                    break;
+                            }
+
+                        }
+
+                    }
+
+                    if (rule == null) {
+                        rule = (FeatureExtract) scrutinyEngine.find(str + "Extract");
+                    }
+                    // for all amendments
+
+                }
+
+            }
+        } catch (Exception e) {
+            LOG.error("Exception while finding extract api for  " + ruleClass.getRuleClass(), e);
+        }
+        return rule;
+    }
+
     private DXFDocument getDxfDocument(File file) {
         Parser parser = ParserBuilder.createDefaultParser();
         try {
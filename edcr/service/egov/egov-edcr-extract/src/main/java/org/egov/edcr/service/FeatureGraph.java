@@ -0,0 +1,100 @@
+package org.egov.edcr.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.egov.common.entity.edcr.PlanFeature;
+
+/**
+ * Dependency graph of the plan features, built once from the feature list and shared by the scrutiny of every plan.
+ *
+ * The order of the feature list is the reference order, the graph only has edges from a feature to a feature listed after it.
+ * A feature depends on the features it declares and on the barriers listed before it, a barrier depends on every feature
+ * listed before it. Features without a path between them can be extracted and processed concurrently.
+ */
+public class FeatureGraph {
+    private static final Logger LOG = LogManager.getLogger(FeatureGraph.class);
+
+    private final List<PlanFeature> features;
+    private final int[][] successors;
+    private final int[] predecessorCounts;
+
+    public FeatureGraph(List<PlanFeature> features) {
+        this.features = Collections.unmodifiableList(new ArrayList<>(features));
+        int size = this.features.size();
+
+        Map<Class, Integer> indices = new HashMap<>();
+        List<List<Integer>> predecessors = new ArrayList<>();
+        int lastBarrier = -1;
+        for (int i = 0; i < size; i++) {
+            PlanFeature feature = this.features.get(i);
+            List<Integer> featurePredecessors = new ArrayList<>();
+            if (feature.isBarrier()) {
+                // the features after the last barrier, the ones before depend on it already
+                for (int j = Math.max(lastBarrier, 0); j < i; j++)
+                    featurePredecessors.add(j);
+                lastBarrier = i;
+            } else {
+                if (lastBarrier >= 0)
+                    featurePredecessors.add(lastBarrier);
+                if (feature.getDependencies() != null)
+                    for (Class dependency : feature.getDependencies()) {
+                        Integer index = indices.get(dependency);
+                        if (index == null)
+                            LOG.warn("Ignoring the dependency of " + feature.getRuleClass() + " on " + dependency
+                                    + ", it is not listed before it");
+                        else if (!featurePredecessors.contains(index))
+                            featurePredecessors.add(index);
+                    }
+            }
+            predecessors.add(featurePredecessors);
+            if (feature.getRuleClass() != null)
+                indices.putIfAbsent(feature.getRuleClass(), i);
+        }
+
+        List<List<Integer>> featureSuccessors = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            featureSuccessors.add(new ArrayList<>());
+        predecessorCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            predecessorCounts[i] = predecessors.get(i).size();
+            for (Integer predecessor : predecessors.get(i))
+                featureSuccessors.get(predecessor).add(i);
+        }
+        successors = new int[size][];
+        for (int i = 0; i < size; i++)
+            successors[i] = featureSuccessors.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public List<PlanFeature> getFeatures() {
+        return features;
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Returns the indices of the features depending directly on the feature
+     *
+     * @param index
+     * @return
+     */
+    public int[] getSuccessors(int index) {
+        return successors[index];
+    }
+
+    /**
+     * Returns the number of features the features directly depend on, a copy the caller can count down
+     *
+     * @return
+     */
+    public int[] getPredecessorCounts() {
+        return predecessorCounts.clone();
+    }
+}
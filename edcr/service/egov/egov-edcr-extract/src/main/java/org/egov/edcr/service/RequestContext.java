@@ -0,0 +1,37 @@
+package org.egov.edcr.service;
+
+import org.egov.infra.config.core.ApplicationThreadLocals;
+
+/**
+ * The values of the request the features and the bean lookups depend on, captured on the request thread when created and
+ * handed over to the pool threads scrutinizing the plan
+ */
+public class RequestContext {
+    private final String domainName = ApplicationThreadLocals.getDomainName();
+    private final Long userId = ApplicationThreadLocals.getUserId();
+    private final String tenantId = ApplicationThreadLocals.getTenantID();
+    private final String cityCode = ApplicationThreadLocals.getCityCode();
+    private final String cityName = ApplicationThreadLocals.getCityName();
+    private final String cityNameLocal = ApplicationThreadLocals.getCityNameLocal();
+    private final String municipalityName = ApplicationThreadLocals.getMunicipalityName();
+    private final String domainURL = ApplicationThreadLocals.getDomainURL();
+    private final String districtName = ApplicationThreadLocals.getDistrictName();
+    private final String districtCode = ApplicationThreadLocals.getDistrictCode();
+    private final String stateName = ApplicationThreadLocals.getStateName();
+    private final String grade = ApplicationThreadLocals.getGrade();
+
+    public void apply() {
+        ApplicationThreadLocals.setDomainName(domainName);
+        ApplicationThreadLocals.setUserId(userId);
+        ApplicationThreadLocals.setTenantID(tenantId);
+        ApplicationThreadLocals.setCityCode(cityCode);
+        ApplicationThreadLocals.setCityName(cityName);
+        ApplicationThreadLocals.setCityNameLocal(cityNameLocal);
+        ApplicationThreadLocals.setMunicipalityName(municipalityName);
+        ApplicationThreadLocals.setDomainURL(domainURL);
+        ApplicationThreadLocals.setDistrictName(districtName);
+        ApplicationThreadLocals.setDistrictCode(districtCode);
+        ApplicationThreadLocals.setStateName(stateName);
+        ApplicationThreadLocals.setGrade(grade);
+    }
+}
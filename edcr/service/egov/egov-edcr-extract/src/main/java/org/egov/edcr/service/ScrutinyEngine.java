@@ -0,0 +1,379 @@
+package org.egov.edcr.service;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.egov.common.entity.edcr.Plan;
+import org.egov.common.entity.edcr.PlanFeature;
+import org.egov.common.entity.edcr.ScrutinyDetail;
+import org.egov.infra.config.core.ApplicationThreadLocals;
+import org.egov.infra.custom.CustomImplProvider;
+import org.egov.infra.exception.ApplicationRuntimeException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the extraction or the rules of the features of a plan along the feature graph. The features whose dependencies are
+ * completed run concurrently on a pool shared by all plans, at most edcr.scrutiny.parallelism of them per plan.
+ *
+ * The errors and the scrutiny details the features add to the plan are kept in the order the features are listed in and
+ * in the order each feature added them, so the errors and the report are the same as when the features run one after the
+ * other. With a parallelism of 1 the features run one after the other in the calling thread.
+ */
+@Service
+public class ScrutinyEngine {
+    private static final Logger LOG = LogManager.getLogger(ScrutinyEngine.class);
+    private static final Object NOT_FOUND = new Object();
+    private static final int NO_FEATURE = -1;
+    private static final ThreadLocal<Integer> CURRENT_FEATURE = new ThreadLocal<>();
+
+    @Value("${edcr.scrutiny.threads:8}")
+    private int threads;
+
+    @Value("${edcr.scrutiny.parallelism:4}")
+    private int parallelism;
+
+    @Autowired
+    private CustomImplProvider specificRuleService;
+
+    private final Map<String, Object> beans = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (threads > 0 && parallelism > 1) {
+            AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "scrutiny-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    /**
+     * Returns the bean of the name for the city, district, state and grade of the current request. The beans are resolved
+     * once for each of them.
+     *
+     * @param beanName
+     * @return
+     */
+    public Object find(String beanName) {
+        String key = ApplicationThreadLocals.getCityName() + "|" + ApplicationThreadLocals.getDistrictName() + "|"
+                + ApplicationThreadLocals.getStateName() + "|" + ApplicationThreadLocals.getGrade() + "|" + beanName;
+        Object bean = beans.get(key);
+        if (bean == null) {
+            bean = specificRuleService.find(beanName);
+            beans.put(key, bean == null ? NOT_FOUND : bean);
+        }
+        return bean == NOT_FOUND ? null : bean;
+    }
+
+    /**
+     * Runs the task for every feature of the graph. Once the stop condition holds, the features not started yet are skipped.
+     * The exception of the first failed feature in the list is thrown after the running features are completed.
+     *
+     * @param plan
+     * @param graph
+     * @param task
+     * @param stop
+     */
+    public void run(Plan plan, FeatureGraph graph, Consumer<PlanFeature> task, Predicate<Plan> stop) {
+        if (executor == null || graph.size() < 2) {
+            for (PlanFeature feature : graph.getFeatures()) {
+                task.accept(feature);
+                if (stop != null && stop.test(plan))
+                    return;
+            }
+            return;
+        }
+
+        OrderedMap<String, String> errors = new OrderedMap<>(plan.getErrors());
+        OrderedList<ScrutinyDetail> scrutinyDetails = plan.getReportOutput() == null ? null
+                : new OrderedList<>(plan.getReportOutput().getScrutinyDetails());
+        plan.setErrors(errors);
+        if (scrutinyDetails != null)
+            plan.getReportOutput().setScrutinyDetails(scrutinyDetails);
+
+        RuntimeException failure = null;
+        try {
+            failure = schedule(plan, graph, task, stop);
+        } finally {
+            plan.setErrors(errors.toLinkedHashMap());
+            if (scrutinyDetails != null)
+                plan.getReportOutput().setScrutinyDetails(scrutinyDetails.toArrayList());
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    private RuntimeException schedule(Plan plan, FeatureGraph graph, Consumer<PlanFeature> task, Predicate<Plan> stop) {
+        RequestContext context = new RequestContext();
+        int[] pending = graph.getPredecessorCounts();
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < pending.length; i++)
+            if (pending[i] == 0)
+                ready.add(i);
+        BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+
+        int running = 0;
+        boolean stopped = false;
+        Completion failed = null;
+        try {
+            while (true) {
+                while (!stopped && running < parallelism && !ready.isEmpty()) {
+                    int index = ready.poll();
+                    PlanFeature feature = graph.getFeatures().get(index);
+                    executor.execute(() -> {
+                        context.apply();
+                        CURRENT_FEATURE.set(index);
+                        try {
+                            task.accept(feature);
+                            completions.add(new Completion(index, null));
+                        } catch (RuntimeException | Error e) {
+                            completions.add(new Completion(index, e));
+                        } finally {
+                            CURRENT_FEATURE.remove();
+                            ApplicationThreadLocals.clearValues();
+                        }
+                    });
+                    running++;
+                }
+                if (running == 0)
+                    break;
+
+                Completion completion = completions.take();
+                running--;
+                if (completion.failure != null) {
+                    stopped = true;
+                    if (failed == null || completion.index < failed.index)
+                        failed = completion;
+                } else {
+                    for (int successor : graph.getSuccessors(completion.index))
+                        if (--pending[successor] == 0)
+                            ready.add(successor);
+                }
+                if (stop != null && stop.test(plan))
+                    stopped = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationRuntimeException("Interrupted while running the features of the plan", e);
+        }
+
+        if (failed == null)
+            return null;
+        LOG.error("Feature " + graph.getFeatures().get(failed.index).getRuleClass() + " failed", failed.failure);
+        if (failed.failure instanceof Error)
+            throw (Error) failed.failure;
+        return (RuntimeException) failed.failure;
+    }
+
+    private static int currentFeature() {
+        Integer feature = CURRENT_FEATURE.get();
+        return feature == null ? NO_FEATURE : feature;
+    }
+
+    private static class Completion {
+        private final int index;
+        private final Throwable failure;
+
+        Completion(int index, Throwable failure) {
+            this.index = index;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Position of a value, the feature that added it and the order it was added in
+     */
+    private static class Position {
+        private static final Comparator<Position> ORDER = Comparator.<Position> comparingInt(p -> p.feature)
+                .thenComparingLong(p -> p.sequence);
+
+        private final int feature;
+        private final long sequence;
+
+        Position(int feature, long sequence) {
+            this.feature = feature;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Map shared by the features of a plan. A key holds the value of the last feature in the list that put or removed it and
+     * is positioned where the first feature in the list after the last remove put it, as if the features had run one after
+     * the other. Its views are copies.
+     */
+    private static class OrderedMap<K, V> extends AbstractMap<K, V> {
+        private final Map<K, V> values = new HashMap<>();
+        private final Map<K, Position> positions = new HashMap<>();
+        private final Map<K, Integer> writers = new HashMap<>();
+        private final Map<K, Integer> removers = new HashMap<>();
+        private long sequence;
+
+        OrderedMap(Map<K, V> initial) {
+            if (initial != null)
+                for (Map.Entry<K, V> entry : initial.entrySet()) {
+                    values.put(entry.getKey(), entry.getValue());
+                    positions.put(entry.getKey(), new Position(NO_FEATURE, sequence++));
+                    writers.put(entry.getKey(), NO_FEATURE);
+                }
+        }
+
+        @Override
+        public synchronized V put(K key, V value) {
+            int feature = currentFeature();
+            Integer remover = removers.get(key);
+            // a feature listed after this one removed the key
+            if (remover != null && remover > feature)
+                return values.get(key);
+            Position position = positions.get(key);
+            if (position == null || position.feature > feature)
+                positions.put(key, new Position(feature, sequence++));
+            Integer writer = writers.get(key);
+            if (writer != null && writer > feature)
+                return values.get(key);
+            writers.put(key, feature);
+            return values.put(key, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized V remove(Object key) {
+            int feature = currentFeature();
+            Integer remover = removers.get(key);
+            if (remover == null || remover < feature)
+                removers.put((K) key, feature);
+            // only the puts of the features listed after this one come after the remove
+            Position position = positions.get(key);
+            if (position != null && position.feature <= feature)
+                positions.remove(key);
+            Integer writer = writers.get(key);
+            if (writer != null && writer > feature)
+                return values.get(key);
+            writers.put((K) key, feature);
+            return values.remove(key);
+        }
+
+        @Override
+        public synchronized V get(Object key) {
+            return values.get(key);
+        }
+
+        @Override
+        public synchronized boolean containsKey(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public synchronized int size() {
+            return values.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+            values.clear();
+            positions.clear();
+            writers.clear();
+            removers.clear();
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return toLinkedHashMap().entrySet();
+        }
+
+        synchronized LinkedHashMap<K, V> toLinkedHashMap() {
+            List<K> keys = new ArrayList<>(values.keySet());
+            keys.sort(Comparator.comparing(positions::get, Position.ORDER));
+            LinkedHashMap<K, V> ordered = new LinkedHashMap<>();
+            for (K key : keys)
+                ordered.put(key, values.get(key));
+            return ordered;
+        }
+    }
+
+    /**
+     * List shared by the features of a plan, the values can only be added. Its values are ordered by the feature that added
+     * them and within a feature in the order they were added.
+     */
+    private static class OrderedList<E> extends AbstractList<E> {
+        private final List<E> values = new ArrayList<>();
+        private final List<Position> positions = new ArrayList<>();
+
+        OrderedList(Collection<E> initial) {
+            if (initial != null)
+                for (E value : initial)
+                    append(value, NO_FEATURE);
+        }
+
+        @Override
+        public synchronized boolean add(E value) {
+            append(value, currentFeature());
+            return true;
+        }
+
+        private void append(E value, int feature) {
+            positions.add(new Position(feature, values.size()));
+            values.add(value);
+        }
+
+        @Override
+        public E get(int index) {
+            return toArrayList().get(index);
+        }
+
+        @Override
+        public synchronized int size() {
+            return values.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return toArrayList().iterator();
+        }
+
+        synchronized ArrayList<E> toArrayList() {
+            List<Integer> indices = new ArrayList<>();
+            for (int i = 0; i < values.size(); i++)
+                indices.add(i);
+            indices.sort(Comparator.comparing(positions::get, Position.ORDER));
+            ArrayList<E> ordered = new ArrayList<>();
+            for (Integer index : indices)
+                ordered.add(values.get(index));
+            return ordered;
+        }
+    }
+}
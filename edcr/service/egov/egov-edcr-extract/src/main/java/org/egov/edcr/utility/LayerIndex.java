@@ -0,0 +1,166 @@
+package org.egov.edcr.utility;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFLayer;
+
+/**
+ * Index of the layers of a parsed DXF document, built once per plan after parsing and
+ * queried by the feature extractors instead of the layer table of the document.
+ *
+ * Layer names follow the BLK_n_FLR_n_... convention, so the regular expressions of the
+ * extractors start with a literal prefix. The names are kept sorted, an anchored
+ * expression only scans the range of names starting with its prefix and an unanchored
+ * one only the names containing it. The patterns are compiled once for all plans, the
+ * layer names matching an expression and the entities of a layer are cached per plan.
+ *
+ * The index is kept by the plan. The documents are mapped weakly to weak references of their
+ * index so that the lookups of Util by document find it without keeping the plan alive, the
+ * cached entities refer back to their document.
+ *
+ * The index is safe for concurrent use, the layer table must not change once it is built.
+ */
+public class LayerIndex {
+
+    private static final int MAX_PATTERNS = 4096;
+    private static final String META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String QUANTIFIERS = "?*+{";
+
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+    private static final Map<DXFDocument, WeakReference<LayerIndex>> INDICES = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private final DXFDocument doc;
+    private final NavigableSet<String> layerNames = new TreeSet<>();
+    private final Map<String, List<String>> layerNamesLike = new ConcurrentHashMap<>();
+    private final Map<String, List<?>> entities = new ConcurrentHashMap<>();
+
+    private LayerIndex(DXFDocument doc) {
+        this.doc = doc;
+        Iterator dxfLayerIterator = doc.getDXFLayerIterator();
+        while (dxfLayerIterator.hasNext())
+            layerNames.add(((DXFLayer) dxfLayerIterator.next()).getName());
+    }
+
+    /**
+     * Builds the index of the document. The caller keeps it for as long as the document is
+     * extracted, of() only finds it while it is referenced.
+     *
+     * @param doc
+     * @return
+     */
+    public static LayerIndex build(DXFDocument doc) {
+        LayerIndex index = new LayerIndex(doc);
+        INDICES.put(doc, new WeakReference<>(index));
+        return index;
+    }
+
+    /**
+     * Returns the index built for the document, or a new one not kept if there is none
+     *
+     * @param doc
+     * @return
+     */
+    public static LayerIndex of(DXFDocument doc) {
+        WeakReference<LayerIndex> reference = INDICES.get(doc);
+        LayerIndex index = reference == null ? null : reference.get();
+        return index == null ? new LayerIndex(doc) : index;
+    }
+
+    /**
+     * Returns the distinct parts of the layer names found by the regular expression, sorted.
+     * The result is shared, it must not be modified.
+     *
+     * @param regExp
+     * @return
+     */
+    public List<String> getLayerNamesLike(String regExp) {
+        return layerNamesLike.computeIfAbsent(regExp, key -> {
+            Matcher m = getPattern(regExp).matcher("");
+            Set<String> found = new TreeSet<>();
+            for (String name : getCandidates(layerNames, regExp)) {
+                m.reset(name);
+                while (m.find())
+                    found.add(m.group());
+            }
+            return Collections.unmodifiableList(new ArrayList<>(found));
+        });
+    }
+
+    /**
+     * Returns the entities of a type on the layer, empty if the document has no layer with the
+     * name. The result is shared, it must not be modified.
+     *
+     * @param layerName
+     * @param entityType
+     * @return
+     */
+    public List<?> getEntities(String layerName, String entityType) {
+        return entities.computeIfAbsent(layerName + "|" + entityType, key -> {
+            if (!doc.containsDXFLayer(layerName))
+                return Collections.emptyList();
+            DXFLayer dxfLayer = doc.getDXFLayer(layerName);
+            if (!dxfLayer.getName().equalsIgnoreCase(layerName) || !dxfLayer.hasDXFEntities(entityType))
+                return Collections.emptyList();
+            return Collections.unmodifiableList(new ArrayList<>(dxfLayer.getDXFEntities(entityType)));
+        });
+    }
+
+    /**
+     * Returns the names a match of the expression can be found in
+     */
+    static Collection<String> getCandidates(NavigableSet<String> layerNames, String regExp) {
+        // an alternation can let a match start with something else than the prefix
+        if (regExp.indexOf('|') >= 0)
+            return layerNames;
+        boolean anchored = regExp.startsWith("^");
+        String prefix = getLiteralPrefix(anchored ? regExp.substring(1) : regExp);
+        if (prefix.isEmpty())
+            return layerNames;
+        if (anchored)
+            return layerNames.subSet(prefix, true, prefix + Character.MAX_VALUE, true);
+        List<String> candidates = new ArrayList<>();
+        for (String name : layerNames)
+            if (name.contains(prefix))
+                candidates.add(name);
+        return candidates;
+    }
+
+    /**
+     * Returns the literal characters every match of the expression starts with
+     */
+    static String getLiteralPrefix(String regExp) {
+        int end = 0;
+        while (end < regExp.length() && META_CHARS.indexOf(regExp.charAt(end)) < 0)
+            end++;
+        // a quantifier applies to the last literal character
+        if (end < regExp.length() && end > 0 && QUANTIFIERS.indexOf(regExp.charAt(end)) >= 0)
+            end--;
+        return regExp.substring(0, end);
+    }
+
+    private static Pattern getPattern(String regExp) {
+        Pattern pattern = PATTERNS.get(regExp);
+        if (pattern == null) {
+            if (PATTERNS.size() >= MAX_PATTERNS)
+                PATTERNS.clear();
+            pattern = Pattern.compile(regExp);
+            PATTERNS.put(regExp, pattern);
+        }
+        return pattern;
+    }
+}
@@ -10,10 +10,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Logger;
@@ -139,13 +136,9 @@ public class Util {
             return Collections.emptyList();
         name = name.toUpperCase();
 
-        if (dxfDocument.containsDXFLayer(name)) {
-            DXFLayer dxfLayer = dxfDocument.getDXFLayer(name);
-            List<DXFDimension> dimensions = dxfLayer.getDXFEntities(DXFConstants.ENTITY_TYPE_DIMENSION);
-            if (dimensions != null)
-                return dimensions;
-        }
-        return Collections.emptyList();
+        List<DXFDimension> dimensions = (List<DXFDimension>) LayerIndex.of(dxfDocument).getEntities(name,
+                DXFConstants.ENTITY_TYPE_DIMENSION);
+        return dimensions.isEmpty() ? Collections.emptyList() : new ArrayList<>(dimensions);
     }
 
     protected static int getFloorCountExcludingCeller(DXFDocument dxfDocument, Integer colorCode) {
@@ -179,23 +172,7 @@ public class Util {
     }
 
     public static List<String> getLayerNamesLike(DXFDocument doc, String regExp) {
-        Set<String> layerNames = new TreeSet<>();
-        List<String> disNames = new ArrayList();
-        Iterator dxfLayerIterator = doc.getDXFLayerIterator();
-        while (dxfLayerIterator.hasNext()) {
-            DXFLayer name = (DXFLayer) dxfLayerIterator.next();
-            Pattern pat = Pattern.compile(regExp);
-            LOG.trace(pat);
-            Matcher m = pat.matcher(name.getName());
-            while (m.find()) {
-                String group = m.group();
-                LOG.trace("Found:" + group);
-                layerNames.add(group);
-            }
-
-        }
-        disNames.addAll(layerNames);
-        return disNames;
+        return new ArrayList<>(LayerIndex.of(doc).getLayerNamesLike(regExp));
     }
 
     public static List<DXFLine> getLinesByLayer(DXFDocument dxfDocument, String name) {
@@ -846,18 +823,8 @@ public class Util {
         List<DXFCircle> dxfCircles = new ArrayList<>();
         if (name == null)
             return dxfCircles;
-        if (dxfDocument.containsDXFLayer(name)) {
-            DXFLayer dxfLayer = dxfDocument.getDXFLayer(name);
-
-            if (dxfLayer.getName().equalsIgnoreCase(name) && dxfLayer.hasDXFEntities(DXFConstants.ENTITY_TYPE_CIRCLE)) {
-                List dxfCircleEntities = dxfLayer.getDXFEntities(DXFConstants.ENTITY_TYPE_CIRCLE);
-                for (Object dxfEntity : dxfCircleEntities) {
-                    DXFCircle dxflwPolyline = (DXFCircle) dxfEntity;
-                    dxfCircles.add(dxflwPolyline);
-                }
-
-            }
-        }
+        for (Object dxfEntity : LayerIndex.of(dxfDocument).getEntities(name, DXFConstants.ENTITY_TYPE_CIRCLE))
+            dxfCircles.add((DXFCircle) dxfEntity);
         return dxfCircles;
 
     }
@@ -895,21 +862,8 @@ public class Util {
         List<DXFLWPolyline> dxflwPolylines = new ArrayList<>();
         if (name == null)
             return dxflwPolylines;
-        if (dxfDocument.containsDXFLayer(name)) {
-            DXFLayer dxfLayer = dxfDocument.getDXFLayer(name);
-            if (dxfLayer.getName().equalsIgnoreCase(name))
-                if (dxfLayer.hasDXFEntities(DXFConstants.ENTITY_TYPE_LWPOLYLINE)) {
-                    List dxfPolyLineEntities = dxfLayer.getDXFEntities(DXFConstants.ENTITY_TYPE_LWPOLYLINE);
-                    for (Object dxfEntity : dxfPolyLineEntities) {
-                        DXFLWPolyline dxflwPolyline = (DXFLWPolyline) dxfEntity;
-                        dxflwPolylines.add(dxflwPolyline);
-                    }
-
-                } else {
-                    // TODO: add what if polylines not found
-
-                }
-        }
+        for (Object dxfEntity : LayerIndex.of(dxfDocument).getEntities(name, DXFConstants.ENTITY_TYPE_LWPOLYLINE))
+            dxflwPolylines.add((DXFLWPolyline) dxfEntity);
         return dxflwPolylines;
 
     }
@@ -921,22 +875,11 @@ public class Util {
 
         if (layerName == null)
             return dxflwPolylines;
-        if (dxfDocument.containsDXFLayer(layerName)) {
-            DXFLayer dxfLayer = dxfDocument.getDXFLayer(layerName);
-            if (dxfLayer.getName().equalsIgnoreCase(layerName)) {
-
-                if (dxfLayer.hasDXFEntities(DXFConstants.ENTITY_TYPE_LWPOLYLINE)) {
-                    List dxfPolyLineEntities = dxfLayer.getDXFEntities(DXFConstants.ENTITY_TYPE_LWPOLYLINE);
-                    for (Object dxfEntity : dxfPolyLineEntities) {
-                        DXFLWPolyline dxflwPolyline = (DXFLWPolyline) dxfEntity;
-                        if (colorCode == dxflwPolyline.getColor())
-                            dxflwPolylines.add(dxflwPolyline);
-                    }
-                }
-
-            } else {
-                // TODO: add what if polylines not found
-            }
+        for (Object dxfEntity : LayerIndex.of(dxfDocument).getEntities(layerName,
+                DXFConstants.ENTITY_TYPE_LWPOLYLINE)) {
+            DXFLWPolyline dxflwPolyline = (DXFLWPolyline) dxfEntity;
+            if (colorCode == dxflwPolyline.getColor())
+                dxflwPolylines.add(dxflwPolyline);
         }
 
         return dxflwPolylines;
@@ -0,0 +1,77 @@
+package org.egov.edcr.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.egov.common.entity.edcr.PlanFeature;
+import org.junit.Test;
+
+public class FeatureGraphTest {
+
+    static PlanFeature feature(Class ruleClass, boolean barrier, Class... dependencies) {
+        PlanFeature feature = new PlanFeature(ruleClass);
+        feature.setName(ruleClass.getSimpleName());
+        feature.setBarrier(barrier);
+        feature.setDependencies(Arrays.asList(dependencies));
+        return feature;
+    }
+
+    @Test
+    public void testIndependentFeaturesHaveNoEdges() {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false), feature(Integer.class, false),
+                feature(Long.class, false)));
+
+        assertArrayEquals(new int[] { 0, 0, 0 }, graph.getPredecessorCounts());
+        assertArrayEquals(new int[0], graph.getSuccessors(0));
+        assertArrayEquals(new int[0], graph.getSuccessors(2));
+    }
+
+    @Test
+    public void testBarriersAndDeclaredDependencies() {
+        List<PlanFeature> features = Arrays.asList(
+                feature(String.class, false),
+                feature(Integer.class, false, String.class),
+                feature(Long.class, false),
+                feature(Short.class, true),
+                feature(Byte.class, false),
+                feature(Double.class, false, Byte.class),
+                feature(Float.class, false, String.class, Character.class),
+                feature(Character.class, true));
+        FeatureGraph graph = new FeatureGraph(features);
+
+        assertEquals(8, graph.size());
+        assertEquals(features, graph.getFeatures());
+        // the first barrier depends on everything before it, the second only on what follows the first
+        assertArrayEquals(new int[] { 0, 1, 0, 3, 1, 2, 2, 4 }, graph.getPredecessorCounts());
+        assertArrayEquals(new int[] { 1, 3, 6 }, graph.getSuccessors(0));
+        assertArrayEquals(new int[] { 3 }, graph.getSuccessors(1));
+        assertArrayEquals(new int[] { 3 }, graph.getSuccessors(2));
+        assertArrayEquals(new int[] { 4, 5, 6, 7 }, graph.getSuccessors(3));
+        assertArrayEquals(new int[] { 5, 7 }, graph.getSuccessors(4));
+        assertArrayEquals(new int[] { 7 }, graph.getSuccessors(5));
+        assertArrayEquals(new int[] { 7 }, graph.getSuccessors(6));
+        assertArrayEquals(new int[0], graph.getSuccessors(7));
+    }
+
+    @Test
+    public void testDependencyOnALaterFeatureIsIgnored() {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false, Integer.class),
+                feature(Integer.class, false), feature(Long.class, false, Integer.class, Integer.class)));
+
+        assertArrayEquals(new int[] { 0, 0, 1 }, graph.getPredecessorCounts());
+        assertArrayEquals(new int[] { 2 }, graph.getSuccessors(1));
+    }
+
+    @Test
+    public void testPredecessorCountsAreACopy() {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false),
+                feature(Integer.class, false, String.class)));
+
+        graph.getPredecessorCounts()[1]--;
+
+        assertArrayEquals(new int[] { 0, 1 }, graph.getPredecessorCounts());
+    }
+}
@@ -0,0 +1,251 @@
+package org.egov.edcr.service;
+
+import static org.egov.edcr.service.FeatureGraphTest.feature;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.egov.common.entity.edcr.Plan;
+import org.egov.common.entity.edcr.PlanFeature;
+import org.egov.common.entity.edcr.ScrutinyDetail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScrutinyEngineTest {
+
+    private static final Class[] RULE_CLASSES = { String.class, Integer.class, Long.class, Short.class, Byte.class,
+            Double.class, Float.class, Character.class, Boolean.class, Object.class, Number.class, StringBuilder.class };
+
+    private ScrutinyEngine serialEngine;
+    private ScrutinyEngine parallelEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        serialEngine = engine(4, 1);
+        parallelEngine = engine(4, 4);
+    }
+
+    @After
+    public void tearDown() {
+        serialEngine.destroy();
+        parallelEngine.destroy();
+    }
+
+    @Test
+    public void testLaterFeatureWinsPutAndRemove() throws Exception {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false), feature(Integer.class, false)));
+        CountDownLatch secondDone = new CountDownLatch(1);
+        Plan plan = new Plan();
+        plan.addError("initial", "x");
+
+        parallelEngine.run(plan, graph, feature -> {
+            if (feature.getRuleClass() == String.class) {
+                await(secondDone);
+                plan.addError("shared", "first");
+                plan.addError("first", "first");
+                plan.addError("removed", "first");
+                plan.getErrors().remove("kept");
+            } else {
+                plan.addError("shared", "second");
+                plan.addError("kept", "second");
+                plan.getErrors().remove("removed");
+                secondDone.countDown();
+            }
+        }, null);
+
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("initial", "x");
+        expected.put("shared", "second");
+        expected.put("first", "first");
+        expected.put("kept", "second");
+        assertEquals(expected, plan.getErrors());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(plan.getErrors().keySet()));
+        assertTrue(plan.getErrors() instanceof LinkedHashMap);
+    }
+
+    @Test
+    public void testScrutinyDetailsAreInFeatureOrder() throws Exception {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false), feature(Integer.class, false)));
+        CountDownLatch secondDone = new CountDownLatch(1);
+        Plan plan = new Plan();
+        plan.getReportOutput().getScrutinyDetails().add(detail("initial"));
+
+        parallelEngine.run(plan, graph, feature -> {
+            if (feature.getRuleClass() == String.class) {
+                await(secondDone);
+                plan.getReportOutput().getScrutinyDetails().add(detail("first-1"));
+                plan.getReportOutput().getScrutinyDetails().add(detail("first-2"));
+            } else {
+                plan.getReportOutput().getScrutinyDetails().add(detail("second-1"));
+                plan.getReportOutput().getScrutinyDetails().add(detail("second-2"));
+                secondDone.countDown();
+            }
+        }, null);
+
+        assertEquals(Arrays.asList("initial", "first-1", "first-2", "second-1", "second-2"),
+                keys(plan.getReportOutput().getScrutinyDetails()));
+        assertTrue(plan.getReportOutput().getScrutinyDetails() instanceof ArrayList);
+    }
+
+    @Test
+    public void testFirstFailureInListOrderIsThrown() throws Exception {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false), feature(Integer.class, false),
+                feature(Long.class, false)));
+        CountDownLatch secondFailed = new CountDownLatch(1);
+        RuntimeException first = new IllegalStateException("first");
+        RuntimeException second = new IllegalArgumentException("second");
+        Plan plan = new Plan();
+
+        try {
+            parallelEngine.run(plan, graph, feature -> {
+                if (feature.getRuleClass() == String.class) {
+                    await(secondFailed);
+                    throw first;
+                } else if (feature.getRuleClass() == Integer.class) {
+                    secondFailed.countDown();
+                    throw second;
+                }
+            }, null);
+            fail("The failure of the first feature is expected");
+        } catch (IllegalStateException e) {
+            assertSame(first, e);
+        }
+        assertTrue(plan.getErrors() instanceof LinkedHashMap);
+    }
+
+    @Test
+    public void testFeaturesAfterAFailureAreNotStarted() throws Exception {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false),
+                feature(Integer.class, false, String.class)));
+        Set<Class> started = ConcurrentHashMap.newKeySet();
+
+        try {
+            parallelEngine.run(new Plan(), graph, feature -> {
+                started.add(feature.getRuleClass());
+                throw new IllegalStateException(feature.getName());
+            }, null);
+            fail("The failure of the first feature is expected");
+        } catch (IllegalStateException e) {
+            assertEquals("String", e.getMessage());
+        }
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    public void testStopPredicateSkipsTheFeaturesNotStarted() {
+        FeatureGraph graph = new FeatureGraph(Arrays.asList(feature(String.class, false), feature(Integer.class, true),
+                feature(Long.class, false)));
+
+        for (ScrutinyEngine engine : Arrays.asList(serialEngine, parallelEngine)) {
+            Plan plan = new Plan();
+            List<Class> ran = new ArrayList<>();
+            engine.run(plan, graph, feature -> {
+                synchronized (ran) {
+                    ran.add(feature.getRuleClass());
+                }
+                if (feature.getRuleClass() == String.class)
+                    plan.addError("stop", "stop");
+            }, p -> p.getErrors().containsKey("stop"));
+
+            assertEquals(Arrays.asList(String.class), ran);
+        }
+    }
+
+    @Test
+    public void testParallelRunMatchesSerialRun() {
+        List<PlanFeature> features = new ArrayList<>();
+        for (int i = 0; i < RULE_CLASSES.length; i++) {
+            boolean barrier = i == 5;
+            Class[] dependencies = i == 3 ? new Class[] { RULE_CLASSES[1] }
+                    : i == 9 ? new Class[] { RULE_CLASSES[7], RULE_CLASSES[8] } : new Class[0];
+            features.add(feature(RULE_CLASSES[i], barrier, dependencies));
+        }
+        FeatureGraph graph = new FeatureGraph(features);
+
+        Plan serialPlan = new Plan();
+        serialEngine.run(serialPlan, graph, task(serialPlan, features, new Random(1)), null);
+
+        for (int run = 0; run < 20; run++) {
+            Plan parallelPlan = new Plan();
+            parallelEngine.run(parallelPlan, graph, task(parallelPlan, features, new Random(run)), null);
+
+            assertEquals(new ArrayList<>(serialPlan.getErrors().entrySet()),
+                    new ArrayList<>(parallelPlan.getErrors().entrySet()));
+            assertEquals(keys(serialPlan.getReportOutput().getScrutinyDetails()),
+                    keys(parallelPlan.getReportOutput().getScrutinyDetails()));
+        }
+    }
+
+    /**
+     * Every feature adds its own errors and details, overwrites a shared error and removes the error of the feature
+     * listed two before it, after a random pause
+     */
+    private Consumer<PlanFeature> task(Plan plan, List<PlanFeature> features, Random random) {
+        int[] pauses = random.ints(features.size(), 0, 5).toArray();
+        return feature -> {
+            int index = features.indexOf(feature);
+            try {
+                Thread.sleep(pauses[index]);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            plan.addError("shared", feature.getName());
+            plan.addError(feature.getName() + ".error", feature.getName());
+            if (index >= 2)
+                plan.getErrors().remove(features.get(index - 2).getName() + ".error");
+            plan.getReportOutput().getScrutinyDetails().add(detail(feature.getName() + ".1"));
+            plan.getReportOutput().getScrutinyDetails().add(detail(feature.getName() + ".2"));
+        };
+    }
+
+    private static ScrutinyEngine engine(int threads, int parallelism) throws Exception {
+        ScrutinyEngine engine = new ScrutinyEngine();
+        setField(engine, "threads", threads);
+        setField(engine, "parallelism", parallelism);
+        engine.init();
+        return engine;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS))
+                throw new IllegalStateException("Timed out waiting for the other feature");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ScrutinyDetail detail(String key) {
+        ScrutinyDetail detail = new ScrutinyDetail();
+        detail.setKey(key);
+        return detail;
+    }
+
+    private static List<String> keys(List<ScrutinyDetail> details) {
+        List<String> keys = new ArrayList<>();
+        for (ScrutinyDetail detail : details)
+            keys.add(detail.getKey());
+        return keys;
+    }
+}
@@ -0,0 +1,56 @@
+package org.egov.edcr.utility;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class LayerIndexTest {
+
+    private final NavigableSet<String> layerNames = new TreeSet<>(Arrays.asList("BLK_1_FLR_0_BLT_UP_AREA",
+            "BLK_1_FLR_1_BLT_UP_AREA", "BLK_2_FLR_0_BLT_UP_AREA", "PLOT_BOUNDARY", "SITE_PLOT_BOUNDARY"));
+
+    @Test
+    public void testLiteralPrefixStopsAtMetaCharacter() {
+        assertEquals("BLK_", LayerIndex.getLiteralPrefix("BLK_\\d+_FLR_\\d+_BLT_UP_AREA"));
+        assertEquals("BLK_1_FLR_", LayerIndex.getLiteralPrefix("BLK_1_FLR_\\d+"));
+        assertEquals("PLOT_BOUNDARY", LayerIndex.getLiteralPrefix("PLOT_BOUNDARY"));
+        assertEquals("", LayerIndex.getLiteralPrefix(".*_BLT_UP_AREA"));
+    }
+
+    @Test
+    public void testLiteralPrefixExcludesQuantifiedCharacter() {
+        assertEquals("BLK", LayerIndex.getLiteralPrefix("BLK_?\\d"));
+        assertEquals("BL", LayerIndex.getLiteralPrefix("BLK*"));
+        assertEquals("BLK_", LayerIndex.getLiteralPrefix("BLK_1{2}"));
+        assertEquals("", LayerIndex.getLiteralPrefix("B+"));
+    }
+
+    @Test
+    public void testAnchoredCandidatesAreThePrefixRange() {
+        assertEquals(Arrays.asList("BLK_1_FLR_0_BLT_UP_AREA", "BLK_1_FLR_1_BLT_UP_AREA"),
+                new ArrayList<>(LayerIndex.getCandidates(layerNames, "^BLK_1_FLR_\\d+")));
+        assertEquals(Arrays.asList("PLOT_BOUNDARY"),
+                new ArrayList<>(LayerIndex.getCandidates(layerNames, "^PLOT_BOUNDARY")));
+    }
+
+    @Test
+    public void testUnanchoredCandidatesContainThePrefix() {
+        assertEquals(Arrays.asList("PLOT_BOUNDARY", "SITE_PLOT_BOUNDARY"),
+                new ArrayList<>(LayerIndex.getCandidates(layerNames, "PLOT_BOUNDARY")));
+        assertEquals(Arrays.asList("BLK_2_FLR_0_BLT_UP_AREA"),
+                new ArrayList<>(LayerIndex.getCandidates(layerNames, "BLK_2_FLR_\\d+")));
+    }
+
+    @Test
+    public void testAllNamesAreCandidatesWithoutPrefix() {
+        List<String> all = new ArrayList<>(layerNames);
+        assertEquals(all, new ArrayList<>(LayerIndex.getCandidates(layerNames, "^.*_AREA")));
+        assertEquals(all, new ArrayList<>(LayerIndex.getCandidates(layerNames, "BLK_1|PLOT")));
+    }
+}
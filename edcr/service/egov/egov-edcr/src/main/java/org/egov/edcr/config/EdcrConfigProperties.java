@@ -12,6 +12,12 @@ public class EdcrConfigProperties {
     @Value("${edcr.default.isStateWise:false}")
     private boolean isStateWise;
 
+    @Value("${edcr.mdms.rules.cache.ttl.minutes:30}")
+    private long rulesCacheTtlMinutes;
+
+    @Value("${edcr.mdms.rules.cache.max.tenants:100}")
+    private int rulesCacheMaxTenants;
+
     public String getDefaultState() {
         return defaultState;
     }
@@ -20,4 +26,12 @@ public class EdcrConfigProperties {
         return isStateWise;
     }
 
+    public long getRulesCacheTtlMinutes() {
+        return rulesCacheTtlMinutes;
+    }
+
+    public int getRulesCacheMaxTenants() {
+        return rulesCacheMaxTenants;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+/*
+ * eGov  SmartCity eGovernance suite aims to improve the internal efficiency,transparency,
+ * accountability and the service delivery of the government  organizations.
+ *
+ *  Copyright (C) <2017>  eGovernments Foundation
+ *
+ *  The updated version of eGov suite of products as by eGovernments Foundation
+ *  is available at http://www.egovernments.org
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see http://www.gnu.org/licenses/ or
+ *  http://www.gnu.org/licenses/gpl.html .
+ *
+ *  In addition to the terms of the GPL license to be adhered to in using this
+ *  program, the following additional terms are to be complied with:
+ *
+ *      1) All versions of this program, verbatim or modified must carry this
+ *         Legal Notice.
+ *      Further, all user interfaces, including but not limited to citizen facing interfaces,
+ *         Urban Local Bodies interfaces, dashboards, mobile applications, of the program and any
+ *         derived works should carry eGovernments Foundation logo on the top right corner.
+ *
+ *      For the logo, please refer http://egovernments.org/html/logo/egov_logo.png.
+ *      For any further queries on attribution, including queries on brand guidelines,
+ *         please contact contact@egovernments.org
+ *
+ *      2) Any misrepresentation of the origin of the material is prohibited. It
+ *         is required that all modified versions of this material be marked in
+ *         reasonable ways as different from the original version.
+ *
+ *      3) This license does not grant any rights to any user of the program
+ *         with regards to rights under trademark law for use of the trade names
+ *         or trademarks of eGovernments Foundation.
+ *
+ *  In case of any queries, you can reach eGovernments Foundation at contact@egovernments.org.
+ */
+
+package org.egov.edcr.entity;
+
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.egov.infra.persistence.entity.AbstractAuditable;
+import org.hibernate.validator.constraints.Length;
+
+/**
+ * Plan submitted for scrutiny in the background. Holds the request and the uploaded plan until a worker scrutinizes it, then
+ * the response of the scrutiny or the reason it failed.
+ */
+@Entity
+@Table(name = "EDCR_SCRUTINY_JOB")
+@SequenceGenerator(name = EdcrScrutinyJob.SEQ_EDCR_SCRUTINY_JOB, sequenceName = EdcrScrutinyJob.SEQ_EDCR_SCRUTINY_JOB, allocationSize = 1)
+public class EdcrScrutinyJob extends AbstractAuditable {
+
+    public static final String SEQ_EDCR_SCRUTINY_JOB = "SEQ_EDCR_SCRUTINY_JOB";
+    private static final long serialVersionUID = 65L;
+
+    @Id
+    @GeneratedValue(generator = SEQ_EDCR_SCRUTINY_JOB, strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Length(min = 1, max = 64)
+    private String jobId;
+
+    @Length(min = 1, max = 64)
+    private String fileHash;
+
+    @Length(min = 1, max = 64)
+    private String fileStoreId;
+
+    @Length(max = 256)
+    private String fileName;
+
+    @Length(max = 128)
+    private String contentType;
+
+    @Length(max = 128)
+    private String transactionNumber;
+
+    @Length(max = 64)
+    private String applicationType;
+
+    @Length(max = 128)
+    private String tenantId;
+
+    @Length(max = 128)
+    private String thirdPartyUserCode;
+
+    private String request;
+
+    private String masterData;
+
+    @Enumerated(EnumType.STRING)
+    private ScrutinyJobStatus status;
+
+    private String response;
+
+    @Length(max = 1024)
+    private String errors;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedDate;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    protected void setId(final Long id) {
+        this.id = id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public String getFileStoreId() {
+        return fileStoreId;
+    }
+
+    public void setFileStoreId(String fileStoreId) {
+        this.fileStoreId = fileStoreId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getTransactionNumber() {
+        return transactionNumber;
+    }
+
+    public void setTransactionNumber(String transactionNumber) {
+        this.transactionNumber = transactionNumber;
+    }
+
+    public String getApplicationType() {
+        return applicationType;
+    }
+
+    public void setApplicationType(String applicationType) {
+        this.applicationType = applicationType;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public String getThirdPartyUserCode() {
+        return thirdPartyUserCode;
+    }
+
+    public void setThirdPartyUserCode(String thirdPartyUserCode) {
+        this.thirdPartyUserCode = thirdPartyUserCode;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public void setRequest(String request) {
+        this.request = request;
+    }
+
+    public String getMasterData() {
+        return masterData;
+    }
+
+    public void setMasterData(String masterData) {
+        this.masterData = masterData;
+    }
+
+    public ScrutinyJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ScrutinyJobStatus status) {
+        this.status = status;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public void setErrors(String errors) {
+        this.errors = errors;
+    }
+
+    public Date getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Date startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Date getCompletedDate() {
+        return completedDate;
+    }
+
+    public void setCompletedDate(Date completedDate) {
+        this.completedDate = completedDate;
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.egov.edcr.entity;
+
+public enum ScrutinyJobStatus {
+
+    QUEUED, PROCESSING, COMPLETED, FAILED;
+
+    public boolean isActive() {
+        return this == QUEUED || this == PROCESSING;
+    }
+
+}
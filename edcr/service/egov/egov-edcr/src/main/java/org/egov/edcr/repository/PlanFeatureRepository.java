@@ -48,6 +48,7 @@
 package org.egov.edcr.repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.egov.common.entity.edcr.PlanFeature;
@@ -140,10 +141,14 @@ public class PlanFeatureRepository {
     public List<PlanFeature> getFeatures() {
         ArrayList<PlanFeature> features = new ArrayList<>();
 
+        // The features run concurrently unless they are ordered by a dependency or a barrier, the
+        // dependencies are the ones found between the extractions and rules of the features listed here
         PlanFeature pf = new PlanFeature(PlanInfoFeature.class);
+        pf.setBarrier(true);
         features.add(pf);
 
         pf = new PlanFeature(Far.class);
+        pf.setBarrier(true);
         features.add(pf);
 
         pf = new PlanFeature(Coverage.class);
@@ -189,6 +194,7 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(FireStair.class);
+        pf.setDependencies(Arrays.asList(SpiralStair.class));
         features.add(pf);
 
         pf = new PlanFeature(Balcony.class);
@@ -201,12 +207,15 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(StairCover.class);
+        pf.setDependencies(Arrays.asList(RoofTank.class));
         features.add(pf);
 
         pf = new PlanFeature(Chimney.class);
+        pf.setDependencies(Arrays.asList(StairCover.class));
         features.add(pf);
 
         pf = new PlanFeature(HeightOfRoom.class);
+        pf.setDependencies(Arrays.asList(MezzanineFloorService.class, Parking.class));
         features.add(pf);
        
 
@@ -229,6 +238,7 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(GeneralStair.class);
+        pf.setDependencies(Arrays.asList(Chimney.class));
         features.add(pf);
 
         pf = new PlanFeature(RampService.class);
@@ -262,6 +272,7 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(BuildingHeight.class);
+        pf.setBarrier(true);
         features.add(pf);
 
         pf = new PlanFeature(DistanceToRoad.class);
@@ -298,6 +309,7 @@ public class PlanFeatureRepository {
 //        features.add(pf);
 
         pf = new PlanFeature(AdditionalFeature.class);
+        pf.setDependencies(Arrays.asList(Coverage.class));
         features.add(pf);
 
         pf = new PlanFeature(FireTenderMovement.class);
@@ -322,6 +334,7 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(AccessoryBuildingService.class);
+        pf.setDependencies(Arrays.asList(Coverage.class, DistanceToRoad.class));
         features.add(pf);
 
         pf = new PlanFeature(DepthCuttingService.class);
@@ -334,9 +347,11 @@ public class PlanFeatureRepository {
         features.add(pf);
 
         pf = new PlanFeature(Ventilation.class);
+        pf.setDependencies(Arrays.asList(HeightOfRoom.class));
         features.add(pf);
         
         pf = new PlanFeature(VehicleRamp.class);
+        pf.setDependencies(Arrays.asList(RampService.class));
         features.add(pf);
         
         pf = new PlanFeature(Verandah.class);
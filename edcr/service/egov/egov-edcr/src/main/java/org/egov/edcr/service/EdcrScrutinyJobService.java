@@ -0,0 +1,425 @@
+package org.egov.edcr.service;
+
+import static org.egov.edcr.utility.DcrConstants.FILESTORE_MODULECODE;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.egov.common.entity.dcr.helper.ErrorDetail;
+import org.egov.edcr.contract.EdcrDetail;
+import org.egov.edcr.contract.EdcrRequest;
+import org.egov.edcr.contract.ScrutinyJobDetail;
+import org.egov.edcr.entity.EdcrScrutinyJob;
+import org.egov.edcr.entity.ScrutinyJobStatus;
+import org.egov.edcr.repository.EdcrScrutinyJobRepository;
+import org.egov.infra.config.core.ApplicationThreadLocals;
+import org.egov.infra.exception.ApplicationRuntimeException;
+import org.egov.infra.filestore.entity.FileStoreMapper;
+import org.egov.infra.filestore.service.FileStoreService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Scrutinizes the plans submitted through the job API in the background.
+ *
+ * A submitted plan is stored with its request as a queued job and scrutinized by a fixed pool of workers, the pool queues
+ * at most the configured number of jobs and refuses the others. The response of the scrutiny, or the reason it failed, is
+ * kept on the job for the clients polling it. A plan submitted again by the same user for the same application type gets
+ * the job of its previous submission while it is queued or processing, or completed within the reuse period. Otherwise
+ * it is scrutinized again, against the rules in force.
+ *
+ * The jobs live in the schema of the tenant and the workers run with the request values of the submission. A job left
+ * queued or processing by a stopped instance is resubmitted when it is polled after the stale period.
+ */
+@Service
+public class EdcrScrutinyJobService {
+
+    private static final Logger LOG = LogManager.getLogger(EdcrScrutinyJobService.class);
+    private static final String BPA_01 = "BPA-01";
+    private static final String MSG_UNQ_TRANSACTION_NUMBER = "Transaction Number should be unique";
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    @Value("${edcr.scrutiny.job.threads:2}")
+    private int threads;
+
+    @Value("${edcr.scrutiny.job.queue.capacity:50}")
+    private int queueCapacity;
+
+    @Value("${edcr.scrutiny.job.stale.minutes:60}")
+    private long staleMinutes;
+
+    @Value("${edcr.scrutiny.job.max.wait.seconds:60}")
+    private long maxWaitSeconds;
+
+    @Value("${edcr.scrutiny.job.reuse.minutes:10}")
+    private long reuseMinutes;
+
+    @Autowired
+    private EdcrScrutinyJobRepository scrutinyJobRepository;
+
+    @Autowired
+    private FileStoreService fileStoreService;
+
+    @Autowired
+    private EdcrRestService edcrRestService;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), runnable -> {
+                    Thread thread = new Thread(runnable, "scrutiny-job-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // the interrupted jobs are resubmitted once stale
+        executor.shutdownNow();
+    }
+
+    /**
+     * Builds the job of a scrutiny request as received, identifying the plan by the digest of the file
+     *
+     * @param edcrRequest
+     * @param planFile
+     * @return
+     */
+    public EdcrScrutinyJob newJob(EdcrRequest edcrRequest, MultipartFile planFile) {
+        EdcrScrutinyJob job = new EdcrScrutinyJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setFileHash(getFileHash(planFile));
+        job.setFileName(planFile.getOriginalFilename());
+        job.setContentType(planFile.getContentType());
+        job.setTransactionNumber(edcrRequest.getTransactionNumber());
+        job.setApplicationType(edcrRequest.getAppliactionType());
+        job.setTenantId(edcrRequest.getTenantId());
+        if (edcrRequest.getRequestInfo() != null && edcrRequest.getRequestInfo().getUserInfo() != null)
+            job.setThirdPartyUserCode(StringUtils.isNotBlank(edcrRequest.getRequestInfo().getUserInfo().getUuid())
+                    ? edcrRequest.getRequestInfo().getUserInfo().getUuid()
+                    : edcrRequest.getRequestInfo().getUserInfo().getId());
+        return job;
+    }
+
+    /**
+     * Returns the job the plan was last submitted with by the user for the application type, when it is queued, processing
+     * or completed within the reuse period
+     *
+     * @param job The job of the new submission
+     * @return null when the plan is to be scrutinized again
+     */
+    public EdcrScrutinyJob findSubmitted(EdcrScrutinyJob job) {
+        EdcrScrutinyJob submitted = scrutinyJobRepository
+                .findFirstByFileHashAndTenantIdAndThirdPartyUserCodeAndApplicationTypeAndStatusNotOrderByIdDesc(
+                        job.getFileHash(), job.getTenantId(), job.getThirdPartyUserCode(), job.getApplicationType(),
+                        ScrutinyJobStatus.FAILED);
+        if (submitted == null)
+            return null;
+        if (!submitted.getStatus().isActive())
+            return submitted.getCompletedDate() != null && System.currentTimeMillis()
+                    - submitted.getCompletedDate().getTime() < TimeUnit.MINUTES.toMillis(reuseMinutes) ? submitted : null;
+        resumeIfStale(submitted);
+        return submitted;
+    }
+
+    /**
+     * Validates the transaction number is not used by a job still to be scrutinized, the applications are created by the
+     * scrutiny
+     *
+     * @param edcrRequest
+     * @return
+     */
+    public ErrorDetail validateTransactionNumber(EdcrRequest edcrRequest) {
+        if (StringUtils.isNotBlank(edcrRequest.getTransactionNumber())
+                && !scrutinyJobRepository.findByTransactionNumberAndStatusIn(edcrRequest.getTransactionNumber(),
+                        Arrays.asList(ScrutinyJobStatus.QUEUED, ScrutinyJobStatus.PROCESSING)).isEmpty())
+            return new ErrorDetail(BPA_01, MSG_UNQ_TRANSACTION_NUMBER);
+        return null;
+    }
+
+    /**
+     * Stores the plan and the validated request on the job and queues it for scrutiny
+     *
+     * @param job         The job built from the request as received
+     * @param edcrRequest The validated request
+     * @param planFile
+     * @param masterData  The MDMS master data the request was validated with
+     * @return The queued job
+     * @throws RejectedExecutionException when the queue is full, the job is saved as failed
+     * @throws DataIntegrityViolationException when the plan was submitted concurrently, its stored file is deleted
+     */
+    public EdcrScrutinyJob submit(EdcrScrutinyJob job, EdcrRequest edcrRequest, MultipartFile planFile,
+            Map<String, List<Object>> masterData) {
+        try (InputStream planStream = planFile.getInputStream()) {
+            FileStoreMapper fileStoreMapper = fileStoreService.store(planStream, planFile.getOriginalFilename(),
+                    planFile.getContentType(), FILESTORE_MODULECODE);
+            job.setFileStoreId(fileStoreMapper.getFileStoreId());
+            job.setRequest(mapper.writeValueAsString(edcrRequest));
+            job.setMasterData(mapper.writeValueAsString(masterData));
+        } catch (IOException e) {
+            throw new ApplicationRuntimeException("Error occurred while storing the plan of the scrutiny job", e);
+        }
+        job.setStatus(ScrutinyJobStatus.QUEUED);
+        EdcrScrutinyJob queued;
+        try {
+            queued = scrutinyJobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            deletePlan(job.getFileStoreId());
+            throw e;
+        }
+        if (!enqueue(queued, new RequestContext())) {
+            queued.setStatus(ScrutinyJobStatus.FAILED);
+            queued.setErrors("The scrutiny queue is full");
+            queued.setCompletedDate(new Date());
+            scrutinyJobRepository.save(queued);
+            throw new RejectedExecutionException("The scrutiny queue is full, submit the plan again later");
+        }
+        LOG.info("Queued the scrutiny job {} of transaction {}, {} jobs waiting", queued.getJobId(),
+                queued.getTransactionNumber(), executor.getQueue().size());
+        return queued;
+    }
+
+    private void deletePlan(String fileStoreId) {
+        try {
+            fileStoreService.delete(fileStoreId, FILESTORE_MODULECODE);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not delete the plan {} of the rejected scrutiny job", fileStoreId, e);
+        }
+    }
+
+    /**
+     * Returns the job, waiting for its scrutiny to complete at most the given seconds, capped by the configured maximum
+     *
+     * @param jobId
+     * @param waitSeconds 0 to return the job as it is
+     * @return null when there is no job with the id
+     */
+    public EdcrScrutinyJob getJob(String jobId, long waitSeconds) {
+        CompletableFuture<Void> done = running.get(jobId);
+        if (done != null && waitSeconds > 0)
+            try {
+                done.get(Math.min(waitSeconds, maxWaitSeconds), TimeUnit.SECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // returned as it is
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        EdcrScrutinyJob job = scrutinyJobRepository.findByJobId(jobId);
+        if (job != null)
+            resumeIfStale(job);
+        return job;
+    }
+
+    public ScrutinyJobDetail getScrutinyJobDetail(EdcrScrutinyJob job) {
+        ScrutinyJobDetail jobDetail = new ScrutinyJobDetail();
+        jobDetail.setJobId(job.getJobId());
+        jobDetail.setStatus(job.getStatus().toString());
+        jobDetail.setFileHash(job.getFileHash());
+        jobDetail.setTransactionNumber(job.getTransactionNumber());
+        jobDetail.setTenantId(job.getTenantId());
+        jobDetail.setSubmittedDate(job.getCreatedDate());
+        jobDetail.setCompletedDate(job.getCompletedDate());
+        jobDetail.setErrors(job.getErrors());
+        if (job.getResponse() != null)
+            try {
+                jobDetail.setEdcrDetail(mapper.readValue(job.getResponse(), EdcrDetail.class));
+            } catch (IOException e) {
+                throw new ApplicationRuntimeException("Error occurred while reading the response of the scrutiny job", e);
+            }
+        return jobDetail;
+    }
+
+    private boolean enqueue(EdcrScrutinyJob job, RequestContext context) {
+        String jobId = job.getJobId();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (running.putIfAbsent(jobId, done) != null)
+            return true;
+        try {
+            executor.execute(() -> {
+                context.apply();
+                try {
+                    process(jobId);
+                } finally {
+                    running.remove(jobId);
+                    done.complete(null);
+                    ApplicationThreadLocals.clearValues();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.remove(jobId);
+            done.complete(null);
+            return false;
+        }
+    }
+
+    /**
+     * Resubmits a job queued or processing for longer than the stale period, its instance stopped before completing it
+     */
+    private void resumeIfStale(EdcrScrutinyJob job) {
+        Date lastModified = job.getLastModifiedDate() == null ? job.getCreatedDate() : job.getLastModifiedDate();
+        if (!job.getStatus().isActive() || running.containsKey(job.getJobId()) || lastModified == null
+                || System.currentTimeMillis() - lastModified.getTime() < TimeUnit.MINUTES.toMillis(staleMinutes))
+            return;
+        try {
+            job.setStatus(ScrutinyJobStatus.QUEUED);
+            EdcrScrutinyJob queued = scrutinyJobRepository.save(job);
+            if (enqueue(queued, new RequestContext()))
+                LOG.info("Resubmitted the stale scrutiny job {}", queued.getJobId());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // resubmitted by another instance
+        }
+    }
+
+    private void process(String jobId) {
+        EdcrScrutinyJob job = scrutinyJobRepository.findByJobId(jobId);
+        // a processing job is taken by another worker, a stale one is queued again before it is resubmitted
+        if (job == null || job.getStatus() != ScrutinyJobStatus.QUEUED)
+            return;
+        try {
+            job.setStatus(ScrutinyJobStatus.PROCESSING);
+            job.setStartedDate(new Date());
+            job = scrutinyJobRepository.save(job);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            LOG.info("Scrutiny job {} is taken by another instance", jobId);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            EdcrRequest edcrRequest = mapper.readValue(job.getRequest(), EdcrRequest.class);
+            Map<String, List<Object>> masterData = job.getMasterData() == null ? new HashMap<>()
+                    : mapper.readValue(job.getMasterData(), new TypeReference<Map<String, List<Object>>>() {
+                    });
+            File planFile = fileStoreService.fetch(job.getFileStoreId(), FILESTORE_MODULECODE);
+            EdcrDetail edcrDetail = edcrRestService.createEdcr(edcrRequest,
+                    new StoredPlanFile(planFile, job.getFileName(), job.getContentType()), masterData);
+            job.setResponse(mapper.writeValueAsString(edcrDetail));
+            job.setStatus(ScrutinyJobStatus.COMPLETED);
+        } catch (Exception e) {
+            LOG.error("Error occurred while scrutinizing the plan of job " + jobId, e);
+            job.setErrors(StringUtils.abbreviate(e.getMessage() == null ? e.toString() : e.getMessage(),
+                    MAX_ERROR_LENGTH));
+            job.setStatus(ScrutinyJobStatus.FAILED);
+        }
+        job.setCompletedDate(new Date());
+        scrutinyJobRepository.save(job);
+        LOG.info("Scrutiny job {} {} in {} ms", jobId, job.getStatus(), System.currentTimeMillis() - start);
+    }
+
+    private static String getFileHash(MultipartFile planFile) {
+        try (DigestInputStream in = new DigestInputStream(planFile.getInputStream(),
+                MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // digested as it is read
+            }
+            return String.format("%064x", new BigInteger(1, in.getMessageDigest().digest()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ApplicationRuntimeException("Error occurred while reading the plan file", e);
+        }
+    }
+
+    /**
+     * The plan of a job fetched from the file store, in place of the upload the request held
+     */
+    private static class StoredPlanFile implements MultipartFile {
+        private final File file;
+        private final String originalFilename;
+        private final String contentType;
+
+        StoredPlanFile(File file, String originalFilename, String contentType) {
+            this.file = file;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getName() {
+            return "planFile";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return file.length() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return file.length();
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(file.toPath());
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FileInputStream(file);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
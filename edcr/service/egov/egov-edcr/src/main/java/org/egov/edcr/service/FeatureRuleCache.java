@@ -0,0 +1,178 @@
+package org.egov.edcr.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.egov.common.entity.edcr.FeatureRuleKey;
+import org.egov.edcr.config.EdcrConfigProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the MDMS feature rules of the cities and states, shared by the concurrent scrutinies.
+ *
+ * The rules of a city or state are loaded from MDMS by the first scrutiny needing them, the other scrutinies needing them
+ * wait for that load. After the TTL the next scrutiny reloads them while the others keep using the cached rules. The rules
+ * are replaced only when the version of the MDMS data changed, when the reload fails the cached rules are kept until the
+ * next TTL. At most the configured number of cities and states are cached, the least recently used one is evicted.
+ */
+@Component
+public class FeatureRuleCache {
+
+	private static final Logger LOG = LogManager.getLogger(FeatureRuleCache.class);
+
+	@Autowired
+	private EdcrConfigProperties edcrConfigProperties;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong refreshes = new AtomicLong();
+	private final AtomicLong updates = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Rules of a city or state with the version of the MDMS data they were built from
+	 */
+	public static class RuleSet {
+		private final Map<FeatureRuleKey, List<Object>> rules;
+		private final String version;
+
+		public RuleSet(Map<FeatureRuleKey, List<Object>> rules, String version) {
+			this.rules = Collections.unmodifiableMap(rules);
+			this.version = version;
+		}
+	}
+
+	private static class Entry {
+		private final RuleSet ruleSet;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+		private volatile long loadedAt;
+		private volatile long accessedAt;
+
+		Entry(RuleSet ruleSet, long now) {
+			this.ruleSet = ruleSet;
+			this.loadedAt = now;
+			this.accessedAt = now;
+		}
+	}
+
+	/**
+	 * Returns the rules of the city or state, loading them when they are not cached or expired. Returns null when they are not
+	 * cached and can't be loaded.
+	 *
+	 * @param cacheKey The city or state
+	 * @param loader   Loads the rules of the city or state from MDMS, returns null when MDMS has no data for it
+	 * @return The rules by FeatureRuleKey
+	 */
+	public Map<FeatureRuleKey, List<Object>> get(String cacheKey, Callable<RuleSet> loader) {
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(cacheKey);
+		if (entry != null) {
+			hits.incrementAndGet();
+			entry.accessedAt = now;
+			if (now - entry.loadedAt > TimeUnit.MINUTES.toMillis(edcrConfigProperties.getRulesCacheTtlMinutes())
+					&& entry.refreshing.compareAndSet(false, true)) {
+				try {
+					refresh(cacheKey, entry, loader);
+				} finally {
+					entry.refreshing.set(false);
+				}
+			}
+			return entries.getOrDefault(cacheKey, entry).ruleSet.rules;
+		}
+
+		misses.incrementAndGet();
+		synchronized (loadLocks.computeIfAbsent(cacheKey, k -> new Object())) {
+			entry = entries.get(cacheKey);
+			if (entry == null) {
+				RuleSet ruleSet = load(cacheKey, loader);
+				if (ruleSet == null)
+					return null;
+				entry = new Entry(ruleSet, System.currentTimeMillis());
+				entries.put(cacheKey, entry);
+				evict(cacheKey);
+				LOG.info("Loaded the MDMS rules of '{}', version {}. {}", cacheKey, ruleSet.version, getStatistics());
+			}
+			return entry.ruleSet.rules;
+		}
+	}
+
+	/**
+	 * Returns the counters of the cache
+	 *
+	 * @return The hits, misses, refreshes, updates found by the refreshes, failed loads, evictions and the cached cities and
+	 *         states
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> statistics = new LinkedHashMap<>();
+		statistics.put("hits", hits.get());
+		statistics.put("misses", misses.get());
+		statistics.put("refreshes", refreshes.get());
+		statistics.put("updates", updates.get());
+		statistics.put("failures", failures.get());
+		statistics.put("evictions", evictions.get());
+		statistics.put("size", (long) entries.size());
+		return statistics;
+	}
+
+	private void refresh(String cacheKey, Entry entry, Callable<RuleSet> loader) {
+		refreshes.incrementAndGet();
+		RuleSet ruleSet = load(cacheKey, loader);
+		if (ruleSet == null || ruleSet.version.equals(entry.ruleSet.version)) {
+			// unchanged, or kept until the next TTL when MDMS can't be reached
+			entry.loadedAt = System.currentTimeMillis();
+			return;
+		}
+		updates.incrementAndGet();
+		entries.replace(cacheKey, entry, new Entry(ruleSet, System.currentTimeMillis()));
+		LOG.info("MDMS rules of '{}' changed from version {} to {}. {}", cacheKey, entry.ruleSet.version,
+				ruleSet.version, getStatistics());
+	}
+
+	private RuleSet load(String cacheKey, Callable<RuleSet> loader) {
+		try {
+			RuleSet ruleSet = loader.call();
+			if (ruleSet == null)
+				failures.incrementAndGet();
+			return ruleSet;
+		} catch (Exception e) {
+			failures.incrementAndGet();
+			LOG.error("Error occurred while loading the MDMS rules of '{}'", cacheKey, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used cities and states above the maximum, other than the one just loaded
+	 */
+	private void evict(String loadedKey) {
+		while (entries.size() > Math.max(edcrConfigProperties.getRulesCacheMaxTenants(), 1)) {
+			String eldest = null;
+			long eldestAccess = Long.MAX_VALUE;
+			for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+				if (!cached.getKey().equals(loadedKey) && cached.getValue().accessedAt < eldestAccess) {
+					eldest = cached.getKey();
+					eldestAccess = cached.getValue().accessedAt;
+				}
+			}
+			if (eldest == null || entries.remove(eldest) == null)
+				return;
+			loadLocks.remove(eldest);
+			evictions.incrementAndGet();
+			LOG.info("Evicted the MDMS rules of '{}'", eldest);
+		}
+	}
+}
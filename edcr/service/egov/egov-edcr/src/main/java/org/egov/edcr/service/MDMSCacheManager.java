@@ -1,10 +1,14 @@
 package org.egov.edcr.service;
 
+import java.math.BigInteger;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,12 +41,10 @@ public class MDMSCacheManager {
 	@Autowired
 	FetchEdcrRulesMdms fetchEdcrRulesMdms;
 
+	@Autowired
+	private FeatureRuleCache featureRuleCache;
+
 	private static final Logger LOG = LogManager.getLogger(MDMSCacheManager.class);
-	/**
-	 * Cache to store MDMS rules for different features and cities. The key is the
-	 * city or state, and the value is a map of FeatureRuleKey to list of rules.
-	 */
-	Map<String, Map<FeatureRuleKey, List<Object>>> featureRuleCache = new HashMap<>();
     @Autowired
     private EdcrConfigProperties edcrConfigProperties;
 
@@ -61,33 +63,12 @@ public class MDMSCacheManager {
 
 		LOG.info("Fetching rules for FeatureRuleKey: {}", lookupKey);
 
-		// Try fetching from in-memory cache
-		Map<FeatureRuleKey, List<Object>> cityRules = featureRuleCache.get(cacheKey);
+		// Construct tenantId (state or state.city format)
+		String tenantId = city != null ? state + "." + city : state;
 
-		// If not found, fetch from MDMS and populate cache
-		if (cityRules == null) {
-			LOG.info("Cache miss for key: '{}'. Initiating MDMS fetch...", cacheKey);
-
-			// Construct tenantId (state or state.city format)
-			String tenantId = city != null ? state + "." + city : state;
-			LOG.info("Constructed tenantId for MDMS request: '{}'", tenantId);
-
-			try {
-				Object mdmsCityData = bpaMdmsUtil.mDMSCall(new RequestInfo(), tenantId);
-				if (mdmsCityData != null) {
-					transformCityRules(mdmsCityData);
-					LOG.info("MDMS rules transformed and cached successfully for tenantId: '{}'", tenantId);
-				} else {
-					LOG.warn("MDMS response was null for tenantId: '{}'", tenantId);
-				}
-			} catch (Exception e) {
-				LOG.error("Error occurred while fetching or transforming MDMS rules for tenantId: '{}'", tenantId, e);
-				return Collections.emptyList(); // Fail-safe
-			}
-
-			// Retry fetching from cache after transformation
-			cityRules = featureRuleCache.get(cacheKey);
-		}
+		// Fetch from the rule cache, which loads from MDMS on a miss or after the TTL
+		Map<FeatureRuleKey, List<Object>> cityRules = featureRuleCache.get(cacheKey,
+				() -> loadCityRules(cacheKey, tenantId));
 
 		// Fetch rules for the exact FeatureRuleKey
 		List<Object> rules = cityRules != null ? cityRules.get(lookupKey) : null;
@@ -102,22 +83,56 @@ public class MDMSCacheManager {
 	}
 
 	/**
-	 * Transforms MDMS raw JSON data into structured in-memory rule cache. This
-	 * method parses and groups the rules based on FeatureRuleKey.
+	 * Fetches the MDMS data of the tenant and transforms the rules of the city or state.
 	 *
-	 * @param mdmsCityData Raw response from MDMS containing rules
+	 * @param cacheKey The city or state the rules are cached for
+	 * @param tenantId The tenant to fetch from MDMS
+	 * @return The rules with the version of the BPA module data, or null if MDMS returned nothing
+	 * @throws Exception If MDMS can't be fetched
 	 */
-	private void transformCityRules(Object mdmsCityData) {
-		ObjectMapper mapper = new ObjectMapper();
+	private FeatureRuleCache.RuleSet loadCityRules(String cacheKey, String tenantId) throws Exception {
+		LOG.info("Initiating MDMS fetch for tenantId: '{}'", tenantId);
+		Object mdmsCityData = bpaMdmsUtil.mDMSCall(new RequestInfo(), tenantId);
+		if (mdmsCityData == null) {
+			LOG.warn("MDMS response was null for tenantId: '{}'", tenantId);
+			return null;
+		}
 
+		ObjectMapper mapper = new ObjectMapper();
 		// Convert generic response to domain-specific MdmsResponse
 		MdmsResponse mdmsResponse = mapper.convertValue(mdmsCityData, MdmsResponse.class);
 		Map<String, JSONArray> bpaModuleMap = mdmsResponse.getMdmsRes().getOrDefault(EdcrRulesMdmsConstants.BPA,
 				Collections.emptyMap());
 
+		Map<FeatureRuleKey, List<Object>> cityRules = transformCityRules(bpaModuleMap, cacheKey);
+		LOG.info("MDMS rules transformed successfully for tenantId: '{}'", tenantId);
+		return new FeatureRuleCache.RuleSet(cityRules, getVersion(mapper, bpaModuleMap));
+	}
+
+	/**
+	 * The version of the BPA module data is the digest of its content, MDMS doesn't version the master data.
+	 */
+	private String getVersion(ObjectMapper mapper, Map<String, JSONArray> bpaModuleMap) throws Exception {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(mapper.writeValueAsBytes(new TreeMap<>(bpaModuleMap)));
+		return String.format("%064x", new BigInteger(1, digest));
+	}
+
+	/**
+	 * Transforms MDMS raw JSON data into the structured rules of a city or state. This
+	 * method parses and groups the rules based on FeatureRuleKey.
+	 *
+	 * @param bpaModuleMap BPA module of the MDMS response containing rules
+	 * @param cacheKey The city or state whose rules are kept
+	 * @return The rules of the city or state by FeatureRuleKey
+	 */
+	private Map<FeatureRuleKey, List<Object>> transformCityRules(Map<String, JSONArray> bpaModuleMap,
+			String cacheKey) {
+		ObjectMapper mapper = new ObjectMapper();
+		Map<FeatureRuleKey, List<Object>> cityRules = new HashMap<>();
+
 		if (bpaModuleMap.isEmpty()) {
 			LOG.warn("No BPA module data found in MDMS response.");
-			return;
+			return cityRules;
 		}
 
 		LOG.info("Transforming MDMS data: {} features found in BPA module", bpaModuleMap.size());
@@ -171,12 +186,13 @@ public class MDMSCacheManager {
 				FeatureRuleKey key = new FeatureRuleKey(rule.getState(), rule.getCity(), rule.getZone(),
 						rule.getSubZone(), rule.getOccupancy(), rule.getRiskType(), featureName);
 
-				// Cache structure: Map<City, Map<FeatureRuleKey, List<Rule>>>
+				// Rules of other cities or states are cached when their own tenant is fetched
+				if (!Objects.equals(cityKey, cacheKey)) {
+					continue;
+				}
 
 				    //Added this because it was giving duplicate etries 
-					List<Object> existing = featureRuleCache
-					.computeIfAbsent(cityKey, k -> new HashMap<>())
-					.computeIfAbsent(key, k -> new ArrayList<>());
+					List<Object> existing = cityRules.computeIfAbsent(key, k -> new ArrayList<>());
 
 				if (!existing.contains(rule)) {
 					existing.add(rule);
@@ -187,6 +203,10 @@ public class MDMSCacheManager {
 
 			LOG.debug("Processed feature '{}': {} active rules", featureName, rules.size());
 		}
+
+		// The cached lists are shared by the concurrent scrutinies
+		cityRules.replaceAll((key, rules) -> Collections.unmodifiableList(rules));
+		return cityRules;
 	}
 
 	/**
@@ -2,6 +2,8 @@ package org.egov.edcr.service;
 
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+
 import org.egov.common.entity.edcr.PlanFeature;
 import org.egov.edcr.repository.PlanFeatureRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +15,25 @@ public class PlanFeatureService {
     @Autowired
     private PlanFeatureRepository featureRepository;
 
+    private FeatureGraph featureGraph;
+
+    @PostConstruct
+    public void init() {
+        featureGraph = new FeatureGraph(featureRepository.getFeatures());
+    }
+
     public List<PlanFeature> getFeatures() {
         return featureRepository.getFeatures();
 
     }
 
+    /**
+     * Returns the dependency graph of the features, built once at startup
+     *
+     * @return
+     */
+    public FeatureGraph getFeatureGraph() {
+        return featureGraph;
+    }
+
 }
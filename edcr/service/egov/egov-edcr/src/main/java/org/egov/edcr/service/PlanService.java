@@ -66,6 +66,8 @@ public class PlanService {
     @Autowired
     private ExtractService extractService;
     @Autowired
+    private ScrutinyEngine scrutinyEngine;
+    @Autowired
     private EdcrApplicationService edcrApplicationService;
     @Autowired
     private OcComparisonService ocComparisonService;
@@ -89,7 +91,7 @@ public class PlanService {
         Amendment amd = repo.getAmendments();
 
         Plan plan = extractService.extract(dcrApplication.getSavedDxfFile(), amd, asOnDate,
-                featureService.getFeatures());
+                featureService.getFeatureGraph());
         plan.setTenantId(tenantId);    
         plan.setMdmsMasterData(dcrApplication.getMdmsMasterData());
         plan = applyRules(plan, amd, cityDetails);
@@ -195,55 +197,56 @@ public class PlanService {
         // check whether valid amendments are present
         int index = -1;
         AmendmentDetails[] a = null;
-        int length = amd.getDetails().size();
         if (!amd.getDetails().isEmpty()) {
             index = amd.getIndex(plan.getApplicationDate());
             a = new AmendmentDetails[amd.getDetails().size()];
             amd.getDetails().toArray(a);
         }
+        int amendmentIndex = index;
+        AmendmentDetails[] amendments = a;
 
-        for (PlanFeature ruleClass : featureService.getFeatures()) {
-
-            FeatureProcess rule = null;
-            String str = ruleClass.getRuleClass().getSimpleName();
-            str = str.substring(0, 1).toLowerCase() + str.substring(1);
-            LOG.info("Looking for bean " + str);
-            // when amendments are not present
-            if (amd.getDetails().isEmpty() || index == -1)
-                rule = (FeatureProcess) specificRuleService.find(ruleClass.getRuleClass().getSimpleName());
-            // when amendments are present
-            else {
-                if (index >= 0) {
-                    // find amendment specific beans
-                    for (int i = index; i < length; i++) {
-                        if (a[i].getChanges().keySet().contains(ruleClass.getRuleClass().getSimpleName())) {
-                            String strNew = str + "_" + a[i].getDateOfBylawString();
-                            rule = (FeatureProcess) specificRuleService.find(strNew);
-                            if (rule != null)
-                                break;
-                        }
-                    }
-                    // when amendment specific beans not found
-                    if (rule == null) {
-                        rule = (FeatureProcess) specificRuleService.find(ruleClass.getRuleClass().getSimpleName());
-                    }
-
-                }
-
-            }
-
+        scrutinyEngine.run(plan, featureService.getFeatureGraph(), ruleClass -> {
+            FeatureProcess rule = findRule(ruleClass, amd, amendmentIndex, amendments);
             if (rule != null) {
                 LOG.info("Looking for bean resulted in " + rule.getClass().getSimpleName());
                 rule.process(plan);
                 LOG.info("Completed Process " + rule.getClass().getSimpleName() + "  " + new Date());
             }
+        }, pl -> pl.getErrors().containsKey(DxfFileConstants.OCCUPANCY_ALLOWED_KEY)
+                || pl.getErrors().containsKey("units not in meters")
+                || pl.getErrors().containsKey(DxfFileConstants.OCCUPANCY_PO_NOT_ALLOWED_KEY));
+        return plan;
+    }
+
+    private FeatureProcess findRule(PlanFeature ruleClass, Amendment amd, int index, AmendmentDetails[] a) {
+        FeatureProcess rule = null;
+        String str = ruleClass.getRuleClass().getSimpleName();
+        str = str.substring(0, 1).toLowerCase() + str.substring(1);
+        LOG.info("Looking for bean " + str);
+        // when amendments are not present
+        if (amd.getDetails().isEmpty() || index == -1)
+            rule = (FeatureProcess) scrutinyEngine.find(ruleClass.getRuleClass().getSimpleName());
+        // when amendments are present
+        else {
+            if (index >= 0) {
+                // find amendment specific beans
+                for (int i = index; i < a.length; i++) {
+                    if (a[i].getChanges().keySet().contains(ruleClass.getRuleClass().getSimpleName())) {
+                        String strNew = str + "_" + a[i].getDateOfBylawString();
+                        rule = (FeatureProcess) scrutinyEngine.find(strNew);
+                        if (rule != null)
+                            break;
+                    }
+                }
+                // when amendment specific beans not found
+                if (rule == null) {
+                    rule = (FeatureProcess) scrutinyEngine.find(ruleClass.getRuleClass().getSimpleName());
+                }
+
+            }
 
-            if (plan.getErrors().containsKey(DxfFileConstants.OCCUPANCY_ALLOWED_KEY)
-                    || plan.getErrors().containsKey("units not in meters")
-                    || plan.getErrors().containsKey(DxfFileConstants.OCCUPANCY_PO_NOT_ALLOWED_KEY))
-                return plan;
         }
-        return plan;
+        return rule;
     }
 
     private InputStream generateReport(Plan plan, Amendment amd, EdcrApplication dcrApplication) {
@@ -374,7 +377,7 @@ public class PlanService {
         AmendmentService repo = (AmendmentService) specificRuleService.find(AmendmentService.class.getSimpleName());
         Amendment amd = repo.getAmendments();
 
-        Plan plan = extractService.extract(planFile, amd, asOnDate, featureService.getFeatures());
+        Plan plan = extractService.extract(planFile, amd, asOnDate, featureService.getFeatureGraph());
         plan.setTenantId(edcrRequest.getTenantId());
         if (StringUtils.isNotBlank(edcrRequest.getApplicantName()))
             plan.getPlanInformation().setApplicantName(edcrRequest.getApplicantName());
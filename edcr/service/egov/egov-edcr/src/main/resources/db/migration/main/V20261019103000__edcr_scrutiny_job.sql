@@ -0,0 +1,47 @@
+CREATE TABLE EDCR_SCRUTINY_JOB
+(
+  id bigint NOT NULL,
+  jobid character varying(64) NOT NULL,
+  filehash character varying(64) NOT NULL,
+  filestoreid character varying(64) NOT NULL,
+  filename character varying(256),
+  contenttype character varying(128),
+  transactionnumber character varying(128),
+  applicationtype character varying(64),
+  tenantid character varying(128),
+  thirdpartyusercode character varying(128),
+  request text,
+  masterdata text,
+  status character varying(32) NOT NULL,
+  response text,
+  errors character varying(1024),
+  starteddate timestamp without time zone,
+  completeddate timestamp without time zone,
+  version numeric DEFAULT 0,
+  createdBy bigint,
+  createdDate timestamp without time zone,
+  lastModifiedBy bigint,
+  lastModifiedDate timestamp without time zone,
+  CONSTRAINT pk_edcr_scrutiny_job_id PRIMARY KEY (id),
+  CONSTRAINT unq_edcr_scrutiny_job_jobid UNIQUE (jobid)
+);
+
+CREATE SEQUENCE SEQ_EDCR_SCRUTINY_JOB;
+
+-- a plan is scrutinized once per user and application type, unless its scrutiny failed
+CREATE UNIQUE INDEX unq_edcr_scrutiny_job_filehash ON EDCR_SCRUTINY_JOB (filehash, COALESCE(tenantid, ''),
+  COALESCE(thirdpartyusercode, ''), COALESCE(applicationtype, '')) WHERE status <> 'FAILED';
+
+CREATE INDEX idx_edcr_scrutiny_job_txn ON EDCR_SCRUTINY_JOB (transactionnumber);
+
+Insert into EG_ACTION (id,name,url,queryparams,parentmodule,ordernumber,displayname,enabled,contextroot,version,createdby,createddate,lastmodifiedby,lastmodifieddate,application) 
+values (nextval('SEQ_EG_ACTION'),'Submit plan scrutiny job','/rest/dcr/scrutinizeasync',null,(select id from eg_module where name='E-Application'),13,'Submit plan scrutiny job','false','edcr',0,1,now(),1,now(),
+(select id from eg_module where name='Digit DCR'));
+
+Insert into eg_roleaction (roleid,actionid) values ((select id from eg_role where name='Third Party Operator'), (select id from eg_action where name='Submit plan scrutiny job'));
+
+Insert into EG_ACTION (id,name,url,queryparams,parentmodule,ordernumber,displayname,enabled,contextroot,version,createdby,createddate,lastmodifiedby,lastmodifieddate,application) 
+values (nextval('SEQ_EG_ACTION'),'Get plan scrutiny job','/rest/dcr/scrutinyjob',null,(select id from eg_module where name='E-Application'),13,'Get plan scrutiny job','false','edcr',0,1,now(),1,now(),
+(select id from eg_module where name='Digit DCR'));
+
+Insert into eg_roleaction (roleid,actionid) values ((select id from eg_role where name='Third Party Operator'), (select id from eg_action where name='Get plan scrutiny job'));
@@ -0,0 +1,5 @@
+-- a plan is queued or processed once per user and application type, a completed plan can be scrutinized again
+DROP INDEX IF EXISTS unq_edcr_scrutiny_job_filehash;
+
+CREATE UNIQUE INDEX unq_edcr_scrutiny_job_filehash ON EDCR_SCRUTINY_JOB (filehash, COALESCE(tenantid, ''),
+  COALESCE(thirdpartyusercode, ''), COALESCE(applicationtype, '')) WHERE status IN ('QUEUED', 'PROCESSING');
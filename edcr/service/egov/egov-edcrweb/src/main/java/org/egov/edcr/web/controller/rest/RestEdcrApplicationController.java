@@ -53,6 +53,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
@@ -69,8 +70,11 @@ import org.egov.edcr.contract.EdcrDetail;
 import org.egov.edcr.contract.EdcrRequest;
 import org.egov.edcr.contract.EdcrResponse;
 import org.egov.edcr.contract.PlanResponse;
+import org.egov.edcr.contract.ScrutinyJobResponse;
 import org.egov.edcr.entity.ApplicationType;
+import org.egov.edcr.entity.EdcrScrutinyJob;
 import org.egov.edcr.service.EdcrRestService;
+import org.egov.edcr.service.EdcrScrutinyJobService;
 import org.egov.edcr.service.EdcrValidator;
 import org.egov.edcr.service.FetchEdcrRulesMdms;
 import org.egov.edcr.service.OcComparisonService;
@@ -86,6 +90,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -113,6 +118,7 @@ public class RestEdcrApplicationController {
     private static final String INCORRECT_REQUEST = "INCORRECT_REQUEST";
     private static final String DIGIT_DCR = "Digit DCR";
     private static final String USER_INFO_HEADER_NAME = "x-user-info";
+    private static final String SCRUTINY_QUEUE_FULL = "SCRUTINY_QUEUE_FULL";
     
     private static final Logger LOGGER = LoggerFactory.getLogger(RestEdcrApplicationController.class);
 
@@ -143,6 +149,9 @@ public class RestEdcrApplicationController {
     @Autowired
     private EdcrValidator edcrValidator;
 
+    @Autowired
+    private EdcrScrutinyJobService scrutinyJobService;
+
     @PostMapping(value = "/scrutinizeplan", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public ResponseEntity<?> scrutinizePlan(@RequestBody MultipartFile planFile,
@@ -225,74 +234,87 @@ public class RestEdcrApplicationController {
             return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         }
         try {
-            List<ErrorDetail> errorResponses = new ArrayList<ErrorDetail>();
-            edcr = new ObjectMapper().readValue(edcrRequest, EdcrRequest.class);
-            if(userInfo != null) {
-                UserInfo userInfoReq = new ObjectMapper().readValue(userInfo, UserInfo.class);
-                UserInfo enrichUser = new UserInfo();
-                enrichUser.setId(userInfoReq.getId());
-                enrichUser.setUuid(userInfoReq.getUuid());
-                enrichUser.setMobile(userInfoReq.getMobile());
-                enrichUser.setTenantId(userInfoReq.getTenantId());
-                edcr.getRequestInfo().setUserInfo(enrichUser);
-            }
-            ErrorDetail edcRes = edcrValidator.validate(edcr);
-            if (edcRes != null && StringUtils.isNotBlank(edcRes.getErrorMessage()))
-                return new ResponseEntity<>(edcRes, HttpStatus.BAD_REQUEST);
-            List<ErrorDetail> errors = edcrRestService.validateEdcrMandatoryFields(edcr);
-            if (!errors.isEmpty())
-                return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+            edcr = readScrutinyRequest(edcrRequest, userInfo);
+            ResponseEntity<?> errorResponse = validateScrutinyRequest(edcr);
+            if (errorResponse != null)
+                return errorResponse;
 
-            String applicationType = edcr.getAppliactionType();
-            String serviceType = edcr.getApplicationSubType();
             Map<String, List<Object>> masterData = new HashMap<>();
-            Boolean mdmsEnabled = mdmsConfiguration.getMdmsEnabled();
-            if (mdmsEnabled != null && mdmsEnabled) {
-                Object mdmsData = bpaMdmsUtil.mDMSCall(new RequestInfo(), edcr.getTenantId());
-                HashMap<String, String> data = new HashMap<>();
-                data.put("applicationType", applicationType);
-                data.put("serviceType", serviceType);
-                masterData = mDMSValidator.getAttributeValues(mdmsData, "BPA");
-                List<ErrorDetail> mdmsErrors = mDMSValidator.validateMdmsData(masterData, data);
-                if (!mdmsErrors.isEmpty())
-                    return new ResponseEntity<>(mdmsErrors, HttpStatus.BAD_REQUEST);
-
-                if ("BUILDING_OC_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
-                    edcr.setAppliactionType(ApplicationType.OCCUPANCY_CERTIFICATE.toString());
-                    errorResponses = edcrRestService.validateScrutinizeOcRequest(edcr, planFile);
-                } else if ("BUILDING_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
-                    ErrorDetail validateEdcrRequest = edcrRestService.validateEdcrRequest(edcr, planFile);
-                    if (validateEdcrRequest != null)
-                        errorResponses = Arrays.asList(validateEdcrRequest);
+            errorResponse = validatePlanScrutiny(edcr, planFile, masterData);
+            if (errorResponse != null)
+                return errorResponse;
+            edcrDetail = edcrRestService.createEdcr(edcr, planFile, masterData);
 
-                    edcr.setAppliactionType(ApplicationType.PERMIT.toString());
-                }
+        } catch (IOException e) {
+            ErrorResponse error = new ErrorResponse(INCORRECT_REQUEST, e.getLocalizedMessage(),
+                    HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        return getSuccessResponse(Arrays.asList(edcrDetail), edcr.getRequestInfo());
+    }
 
-            } else {
-                if ("BUILDING_OC_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
-                    edcr.setAppliactionType(ApplicationType.OCCUPANCY_CERTIFICATE.toString());
-                    errorResponses = (edcrRestService.validateScrutinizeOcRequest(edcr, planFile));
-                } else if ("BUILDING_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
-                    ErrorDetail validateEdcrRequest = edcrRestService.validateEdcrRequest(edcr, planFile);
-                    if (validateEdcrRequest != null)
-                        errorResponses = Arrays.asList(validateEdcrRequest);
+    @PostMapping(value = "/scrutinizeasync", consumes = { MediaType.APPLICATION_JSON_UTF8_VALUE,
+            MediaType.MULTIPART_FORM_DATA_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> scrutinizeAsync(@RequestPart("planFile") MultipartFile planFile,
+            @RequestParam("edcrRequest") String edcrRequest, final HttpServletRequest request) throws Exception {
+        String userInfo = request.getHeader(USER_INFO_HEADER_NAME);
+        EdcrRequest edcr;
+        if (!isValidJson(edcrRequest) || (userInfo != null && !isValidJson(userInfo))) {
+            ErrorResponse error = new ErrorResponse(INCORRECT_REQUEST, INVALID_JSON_FORMAT,
+                    HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        EdcrScrutinyJob job;
+        try {
+            edcr = readScrutinyRequest(edcrRequest, userInfo);
+            ResponseEntity<?> errorResponse = validateScrutinyRequest(edcr);
+            if (errorResponse != null)
+                return errorResponse;
 
-                    edcr.setAppliactionType(ApplicationType.PERMIT.toString());
-                }
-            }
+            job = scrutinyJobService.newJob(edcr, planFile);
+            EdcrScrutinyJob submitted = scrutinyJobService.findSubmitted(job);
+            if (submitted != null)
+                return getScrutinyJobResponse(submitted, edcr.getRequestInfo(), HttpStatus.OK);
 
-            if (!errorResponses.isEmpty())
-                return new ResponseEntity<>(errorResponses, HttpStatus.BAD_REQUEST);
-            else {
-                edcrDetail = edcrRestService.createEdcr(edcr, planFile, masterData);
-            }
+            Map<String, List<Object>> masterData = new HashMap<>();
+            errorResponse = validatePlanScrutiny(edcr, planFile, masterData);
+            if (errorResponse != null)
+                return errorResponse;
+            ErrorDetail jobError = scrutinyJobService.validateTransactionNumber(edcr);
+            if (jobError != null)
+                return new ResponseEntity<>(Arrays.asList(jobError), HttpStatus.BAD_REQUEST);
+            job = scrutinyJobService.submit(job, edcr, planFile, masterData);
 
         } catch (IOException e) {
             ErrorResponse error = new ErrorResponse(INCORRECT_REQUEST, e.getLocalizedMessage(),
                     HttpStatus.BAD_REQUEST);
             return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (DataIntegrityViolationException e) {
+            ErrorResponse error = new ErrorResponse(INCORRECT_REQUEST,
+                    "The plan is already submitted for scrutiny, submit it again to get its job", HttpStatus.CONFLICT);
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        } catch (RejectedExecutionException e) {
+            ErrorResponse error = new ErrorResponse(SCRUTINY_QUEUE_FULL, e.getMessage(),
+                    HttpStatus.SERVICE_UNAVAILABLE);
+            return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
         }
-        return getSuccessResponse(Arrays.asList(edcrDetail), edcr.getRequestInfo());
+        return getScrutinyJobResponse(job, edcr.getRequestInfo(), HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping(value = "/scrutinyjob", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> scrutinyJob(@RequestParam String jobId,
+            @RequestParam(defaultValue = "0") long waitSeconds,
+            @RequestBody @Valid RequestInfoWrapper requestInfoWrapper) {
+        ErrorDetail edcRes = edcrValidator.validate(requestInfoWrapper);
+        if (edcRes != null && StringUtils.isNotBlank(edcRes.getErrorMessage()))
+            return new ResponseEntity<>(edcRes, HttpStatus.BAD_REQUEST);
+        EdcrScrutinyJob job = scrutinyJobService.getJob(jobId, waitSeconds);
+        if (job == null)
+            return new ResponseEntity<>(new ErrorDetail("BPA-30", "No scrutiny job found with id " + jobId),
+                    HttpStatus.NOT_FOUND);
+        return getScrutinyJobResponse(job, requestInfoWrapper.getRequestInfo(), HttpStatus.OK);
     }
 
      @PostMapping(value = "/anonymousScrutinize", consumes = { MediaType.APPLICATION_JSON_UTF8_VALUE,
@@ -464,6 +486,75 @@ public class RestEdcrApplicationController {
 
     }
 
+    private EdcrRequest readScrutinyRequest(String edcrRequest, String userInfo) throws IOException {
+        EdcrRequest edcr = new ObjectMapper().readValue(edcrRequest, EdcrRequest.class);
+        if(userInfo != null) {
+            UserInfo userInfoReq = new ObjectMapper().readValue(userInfo, UserInfo.class);
+            UserInfo enrichUser = new UserInfo();
+            enrichUser.setId(userInfoReq.getId());
+            enrichUser.setUuid(userInfoReq.getUuid());
+            enrichUser.setMobile(userInfoReq.getMobile());
+            enrichUser.setTenantId(userInfoReq.getTenantId());
+            edcr.getRequestInfo().setUserInfo(enrichUser);
+        }
+        return edcr;
+    }
+
+    private ResponseEntity<?> validateScrutinyRequest(EdcrRequest edcr) {
+        ErrorDetail edcRes = edcrValidator.validate(edcr);
+        if (edcRes != null && StringUtils.isNotBlank(edcRes.getErrorMessage()))
+            return new ResponseEntity<>(edcRes, HttpStatus.BAD_REQUEST);
+        List<ErrorDetail> errors = edcrRestService.validateEdcrMandatoryFields(edcr);
+        if (!errors.isEmpty())
+            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        return null;
+    }
+
+    /**
+     * Validates the plan for the application type of the request, against the MDMS master data when enabled, and maps the
+     * application type. The master data is added to the given map.
+     */
+    private ResponseEntity<?> validatePlanScrutiny(EdcrRequest edcr, MultipartFile planFile,
+            Map<String, List<Object>> masterData) {
+        List<ErrorDetail> errorResponses = new ArrayList<ErrorDetail>();
+        String applicationType = edcr.getAppliactionType();
+        String serviceType = edcr.getApplicationSubType();
+        Boolean mdmsEnabled = mdmsConfiguration.getMdmsEnabled();
+        if (mdmsEnabled != null && mdmsEnabled) {
+            Object mdmsData = bpaMdmsUtil.mDMSCall(new RequestInfo(), edcr.getTenantId());
+            HashMap<String, String> data = new HashMap<>();
+            data.put("applicationType", applicationType);
+            data.put("serviceType", serviceType);
+            masterData.putAll(mDMSValidator.getAttributeValues(mdmsData, "BPA"));
+            List<ErrorDetail> mdmsErrors = mDMSValidator.validateMdmsData(masterData, data);
+            if (!mdmsErrors.isEmpty())
+                return new ResponseEntity<>(mdmsErrors, HttpStatus.BAD_REQUEST);
+        }
+
+        if ("BUILDING_OC_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
+            edcr.setAppliactionType(ApplicationType.OCCUPANCY_CERTIFICATE.toString());
+            errorResponses = edcrRestService.validateScrutinizeOcRequest(edcr, planFile);
+        } else if ("BUILDING_PLAN_SCRUTINY".equalsIgnoreCase(applicationType)) {
+            ErrorDetail validateEdcrRequest = edcrRestService.validateEdcrRequest(edcr, planFile);
+            if (validateEdcrRequest != null)
+                errorResponses = Arrays.asList(validateEdcrRequest);
+
+            edcr.setAppliactionType(ApplicationType.PERMIT.toString());
+        }
+
+        if (!errorResponses.isEmpty())
+            return new ResponseEntity<>(errorResponses, HttpStatus.BAD_REQUEST);
+        return null;
+    }
+
+    private ResponseEntity<?> getScrutinyJobResponse(EdcrScrutinyJob job, RequestInfo requestInfo, HttpStatus status) {
+        ScrutinyJobResponse jobRes = new ScrutinyJobResponse();
+        jobRes.setScrutinyJob(scrutinyJobService.getScrutinyJobDetail(job));
+        ResponseInfo responseInfo = edcrRestService.createResponseInfoFromRequestInfo(requestInfo, true);
+        jobRes.setResponseInfo(responseInfo);
+        return new ResponseEntity<>(jobRes, status);
+    }
+
     private ResponseEntity<?> getPlanSuccessResponse(String jsonRes, RequestInfo requestInfo) {
         PlanResponse planRes = new PlanResponse();
         Plan plan;
@@ -534,4 +625,4 @@ public class RestEdcrApplicationController {
     }
     
  
-}
\ No newline at end of file
+}
\ No newline at end of file
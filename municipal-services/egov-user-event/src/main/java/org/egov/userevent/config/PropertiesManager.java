@@ -94,4 +94,16 @@ public class PropertiesManager {
 	
 	@Value("${egov.localisation.is.statelevel}")
 	public Boolean isLocalizationStateLevel;
+	
+	@Value("${mseva.notif.counter.enabled}")
+	public Boolean isCounterEnabled;
+	
+	@Value("${mseva.notif.counter.recompute.interval.ms}")
+	public Long counterRecomputeInterval;
+	
+	@Value("${mseva.notif.sweeper.enabled}")
+	public Boolean isSweeperEnabled;
+	
+	@Value("${mseva.notif.sweeper.batch.size}")
+	public Integer sweeperBatchSize;
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.egov.userevent.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The citizen counters an event counts towards: the counters of the given users
+ * in any tenant, the counters of all users in the given tenants, or every counter.
+ * Tenants and all users are counted through broadcast counters, only the users
+ * given by id have their own counter rows updated.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Setter
+@ToString
+@Builder
+public class CounterScope {
+
+	@Builder.Default
+	private Set<String> userIds = new HashSet<>();
+
+	@Builder.Default
+	private Set<String> tenantIds = new HashSet<>();
+
+	private boolean allUsers;
+
+	public boolean isEmpty() {
+		return !allUsers && userIds.isEmpty() && tenantIds.isEmpty();
+	}
+
+	/**
+	 * Whether the counter rows of individual users are addressed, as opposed to
+	 * only broadcast counters
+	 */
+	public boolean hasUsers() {
+		return !allUsers && !userIds.isEmpty();
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.egov.userevent.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Setter
+@ToString
+@Builder
+public class UserEventCounter {
+
+	private String userId;
+
+	private String tenantId;
+
+	private Long unreadCount;
+
+	private Long totalCount;
+
+	private Long lastReadTime;
+
+	private Long lastComputedTime;
+
+	// broadcast events of the tenant when the counts were last computed
+	private Long broadcastCount;
+
+	// broadcast events of the tenant when the user last read the notifications
+	private Long readBroadcastCount;
+
+}
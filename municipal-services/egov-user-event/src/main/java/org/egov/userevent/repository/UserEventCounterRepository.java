@@ -0,0 +1,168 @@
+package org.egov.userevent.repository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.egov.userevent.model.CounterScope;
+import org.egov.userevent.model.UserEventCounter;
+import org.egov.userevent.repository.querybuilder.UserEventCounterQueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.CollectionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads and maintains the per user counters of events. A failed counter write
+ * is only logged, the counter is healed by the next recompute.
+ */
+@Repository
+@Slf4j
+public class UserEventCounterRepository {
+
+	@Autowired
+	private UserEventCounterQueryBuilder queryBuilder;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Repository method to fetch the counter of a user in a tenant
+	 * 
+	 * @param userId
+	 * @param tenantId
+	 * @return
+	 */
+	public UserEventCounter fetchCounter(String userId, String tenantId) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		preparedStatementValues.put("userid", userId);
+		preparedStatementValues.put("tenantid", tenantId);
+		try {
+			List<UserEventCounter> counters = namedParameterJdbcTemplate.query(
+					UserEventCounterQueryBuilder.COUNTER_SEARCH_QUERY, preparedStatementValues,
+					(rs, rowNum) -> UserEventCounter.builder().userId(userId).tenantId(tenantId)
+							.unreadCount(rs.getLong("unreadcount")).totalCount(rs.getLong("totalcount"))
+							.lastComputedTime(rs.getLong("lastcomputedtime")).broadcastCount(rs.getLong("broadcastcount"))
+							.readBroadcastCount(rs.getLong("readbroadcastcount")).build());
+			return counters.isEmpty() ? null : counters.get(0);
+		} catch (Exception e) {
+			log.error("Error while fetching counter from db: ", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Repository method to fetch the number of broadcast events created for the
+	 * tenant and for all users
+	 * 
+	 * @param tenantId
+	 * @return
+	 */
+	public Long fetchBroadcastCount(String tenantId) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		preparedStatementValues.put("tenantid", tenantId);
+		try {
+			return namedParameterJdbcTemplate.queryForObject(UserEventCounterQueryBuilder.BROADCAST_COUNTER_SEARCH_QUERY,
+					preparedStatementValues, Long.class);
+		} catch (Exception e) {
+			log.error("Error while fetching broadcast counter from db: ", e);
+			return 0L;
+		}
+	}
+
+	/**
+	 * Repository method to fetch the last access time of a user, 0 if the user
+	 * never opened the notifications
+	 * 
+	 * @param userId
+	 * @return
+	 */
+	public Long fetchLastAccessTime(String userId) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		preparedStatementValues.put("userid", userId);
+		try {
+			List<Long> lastAccessTimes = namedParameterJdbcTemplate.queryForList(
+					UserEventCounterQueryBuilder.USER_LAT_QUERY, preparedStatementValues, Long.class);
+			return lastAccessTimes.isEmpty() ? 0L : lastAccessTimes.get(0);
+		} catch (Exception e) {
+			log.error("Error while fetching last access time from db: ", e);
+			return 0L;
+		}
+	}
+
+	public void saveCounter(UserEventCounter counter) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		preparedStatementValues.put("userid", counter.getUserId());
+		preparedStatementValues.put("tenantid", counter.getTenantId());
+		preparedStatementValues.put("unreadcount", counter.getUnreadCount());
+		preparedStatementValues.put("totalcount", counter.getTotalCount());
+		preparedStatementValues.put("lastreadtime", counter.getLastReadTime());
+		preparedStatementValues.put("lastcomputedtime", counter.getLastComputedTime());
+		preparedStatementValues.put("broadcastcount", counter.getBroadcastCount());
+		preparedStatementValues.put("readbroadcastcount", counter.getReadBroadcastCount());
+		update(UserEventCounterQueryBuilder.COUNTER_UPSERT_QUERY, preparedStatementValues);
+	}
+
+	public void markRead(String userId, Long lastReadTime) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		preparedStatementValues.put("userid", userId);
+		preparedStatementValues.put("lastreadtime", lastReadTime);
+		update(UserEventCounterQueryBuilder.COUNTER_READ_QUERY, preparedStatementValues);
+	}
+
+	/**
+	 * Counts a new event: an event for all users or for tenants bumps one
+	 * broadcast counter per scope, which is added in when the counts are read,
+	 * only the counter rows of users addressed by id are updated
+	 * 
+	 * @param scope
+	 */
+	public void countNewEvent(CounterScope scope) {
+		if (scope.isAllUsers()) {
+			countBroadcastEvent(Collections.singleton(UserEventCounterQueryBuilder.ALL_USERS_SCOPE));
+			return;
+		}
+		if (!CollectionUtils.isEmpty(scope.getTenantIds()))
+			countBroadcastEvent(scope.getTenantIds());
+		if (scope.hasUsers()) {
+			Map<String, Object> preparedStatementValues = new HashMap<>();
+			update(queryBuilder.getNewEventQuery(scope, preparedStatementValues), preparedStatementValues);
+		}
+	}
+
+	private void countBroadcastEvent(Set<String> scopes) {
+		try {
+			namedParameterJdbcTemplate.batchUpdate(UserEventCounterQueryBuilder.BROADCAST_COUNTER_NEW_EVENT_QUERY,
+					scopes.stream().map(scope -> new MapSqlParameterSource("scope", scope))
+							.toArray(SqlParameterSource[]::new));
+		} catch (Exception e) {
+			log.error("Error while updating broadcast counters in db: ", e);
+		}
+	}
+
+	public void countEventUnreadAgain(CounterScope scope, Long previousLastModifiedTime) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		update(queryBuilder.getEventUnreadAgainQuery(scope, previousLastModifiedTime, preparedStatementValues),
+				preparedStatementValues);
+	}
+
+	public void countEventRemoved(CounterScope scope, Long previousLastModifiedTime) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		update(queryBuilder.getEventRemovedQuery(scope, previousLastModifiedTime, preparedStatementValues),
+				preparedStatementValues);
+	}
+
+	private void update(String query, Map<String, Object> preparedStatementValues) {
+		try {
+			namedParameterJdbcTemplate.update(query, preparedStatementValues);
+		} catch (Exception e) {
+			log.error("Error while updating counters in db: ", e);
+		}
+	}
+}
@@ -2,8 +2,13 @@ package org.egov.userevent.repository;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.egov.userevent.config.PropertiesManager;
 
 import org.egov.userevent.repository.querybuilder.UserEventsQueryBuilder;
 import org.egov.userevent.repository.rowmappers.UserEventRowMapper;
@@ -32,6 +37,9 @@ public class UserEventRepository {
 	
     @Autowired
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @Autowired
+    private PropertiesManager properties;
 	
 	/**
 	 * Repository method to fetch events
@@ -54,6 +62,93 @@ public class UserEventRepository {
 		return events;
 	}
 	
+	/**
+	 * Repository method to fetch the events of a citizen. The events addressed to
+	 * the citizen and the broadcasts addressed to the citizen's audiences are
+	 * fetched separately, each only up to the end of the requested page, and
+	 * merged on createdtime. This keeps the cost of a page independent of how
+	 * many broadcasts the audiences received over time.
+	 * 
+	 * @param criteria
+	 *            criteria enriched with the recepients of the citizen
+	 * @return
+	 */
+	public List<Event> fetchCitizenEvents(EventSearchCriteria criteria) {
+		List<String> recepients = criteria.getRecepients();
+		Integer offset = criteria.getOffset();
+		Integer limit = criteria.getLimit();
+		int skip = null == offset ? properties.getDefaultOffset().intValue() : offset;
+		int size = null == limit ? properties.getDefaultLimit().intValue() : limit;
+
+		List<String> personalRecepients = recepients.stream().filter(criteria.getUserids()::contains)
+				.collect(Collectors.toList());
+		List<String> audienceRecepients = recepients.stream().filter(recepient -> !criteria.getUserids().contains(recepient))
+				.collect(Collectors.toList());
+		List<Event> personalEvents = new ArrayList<>();
+		List<Event> audienceEvents = new ArrayList<>();
+		try {
+			criteria.setOffset(0);
+			criteria.setLimit(skip + size);
+			if (!personalRecepients.isEmpty()) {
+				criteria.setRecepients(personalRecepients);
+				personalEvents = fetchEvents(criteria);
+			}
+			if (!audienceRecepients.isEmpty()) {
+				criteria.setRecepients(audienceRecepients);
+				audienceEvents = fetchEvents(criteria);
+			}
+		} finally {
+			criteria.setRecepients(recepients);
+			criteria.setOffset(offset);
+			criteria.setLimit(limit);
+		}
+
+		return mergeOnCreatedTime(personalEvents, audienceEvents, skip, size);
+	}
+
+	/**
+	 * Merges two lists of events sorted on createdtime descending and returns the
+	 * requested page of the result.
+	 */
+	private List<Event> mergeOnCreatedTime(List<Event> first, List<Event> second, int skip, int size) {
+		List<Event> page = new ArrayList<>();
+		Set<String> ids = new HashSet<>();
+		int i = 0, j = 0, position = 0;
+		while (page.size() < size && (i < first.size() || j < second.size())) {
+			Event event;
+			if (j >= second.size() || (i < first.size() && first.get(i).getAuditDetails().getCreatedTime() >= second
+					.get(j).getAuditDetails().getCreatedTime()))
+				event = first.get(i++);
+			else
+				event = second.get(j++);
+			if (!ids.add(event.getId()))
+				continue;
+			if (position++ >= skip)
+				page.add(event);
+		}
+		return page;
+	}
+
+	/**
+	 * Repository method to fetch the next batch of events whose status may be due
+	 * for a change
+	 * 
+	 * @param lastId
+	 * @param limit
+	 * @return
+	 */
+	public List<Event> fetchEventsToSweep(String lastId, Integer limit) {
+		Map<String, Object> preparedStatementValues = new HashMap<>();
+		String query = queryBuilder.getEventsToSweepQuery(lastId, limit, preparedStatementValues);
+		List<Event> events = new ArrayList<>();
+		try {
+			events = namedParameterJdbcTemplate.query(query, preparedStatementValues, rowMapper);
+		} catch (Exception e) {
+			log.error("Error while fetching events to sweep from db: ", e);
+		}
+		return events;
+	}
+
 	/**
 	 * Repository method to fetch count of events
 	 * 
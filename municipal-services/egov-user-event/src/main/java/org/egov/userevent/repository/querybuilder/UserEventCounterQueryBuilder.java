@@ -0,0 +1,106 @@
+package org.egov.userevent.repository.querybuilder;
+
+import java.util.Map;
+
+import org.egov.userevent.model.CounterScope;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+@Component
+public class UserEventCounterQueryBuilder {
+
+	public static final String ALL_USERS_SCOPE = "*";
+
+	public static final String COUNTER_SEARCH_QUERY = "SELECT unreadcount, totalcount, lastcomputedtime, broadcastcount, readbroadcastcount FROM eg_usrevents_user_counter "
+			+ "WHERE userid = :userid AND tenantid = :tenantid";
+
+	public static final String USER_LAT_QUERY = "SELECT lastaccesstime FROM eg_usrevents_user_lat WHERE userid = :userid";
+
+	public static final String COUNTER_UPSERT_QUERY = "INSERT INTO eg_usrevents_user_counter (userid, tenantid, unreadcount, totalcount, lastreadtime, lastcomputedtime, broadcastcount, readbroadcastcount) "
+			+ "VALUES (:userid, :tenantid, :unreadcount, :totalcount, :lastreadtime, :lastcomputedtime, :broadcastcount, :readbroadcastcount) "
+			+ "ON CONFLICT (userid, tenantid) DO UPDATE SET unreadcount = EXCLUDED.unreadcount, totalcount = EXCLUDED.totalcount, "
+			+ "lastreadtime = EXCLUDED.lastreadtime, lastcomputedtime = EXCLUDED.lastcomputedtime, "
+			+ "broadcastcount = EXCLUDED.broadcastcount, readbroadcastcount = EXCLUDED.readbroadcastcount";
+
+	public static final String COUNTER_READ_QUERY = "UPDATE eg_usrevents_user_counter counter SET unreadcount = 0, lastreadtime = :lastreadtime, "
+			+ "readbroadcastcount = (SELECT COALESCE(SUM(eventcount), 0) FROM eg_usrevents_broadcast_counter "
+			+ "WHERE scope IN (counter.tenantid, '" + ALL_USERS_SCOPE + "')) WHERE userid = :userid";
+
+	public static final String COUNTER_NEW_EVENT_QUERY = "UPDATE eg_usrevents_user_counter SET unreadcount = unreadcount + 1, totalcount = totalcount + 1 WHERE ";
+
+	public static final String BROADCAST_COUNTER_SEARCH_QUERY = "SELECT COALESCE(SUM(eventcount), 0) FROM eg_usrevents_broadcast_counter "
+			+ "WHERE scope IN (:tenantid, '" + ALL_USERS_SCOPE + "')";
+
+	public static final String BROADCAST_COUNTER_NEW_EVENT_QUERY = "INSERT INTO eg_usrevents_broadcast_counter (scope, eventcount) VALUES (:scope, 1) "
+			+ "ON CONFLICT (scope) DO UPDATE SET eventcount = eg_usrevents_broadcast_counter.eventcount + 1";
+
+	public static final String COUNTER_EVENT_UNREAD_AGAIN_QUERY = "UPDATE eg_usrevents_user_counter SET unreadcount = unreadcount + 1 "
+			+ "WHERE lastreadtime >= :previouslastmodifiedtime";
+
+	public static final String COUNTER_EVENT_REMOVED_QUERY = "UPDATE eg_usrevents_user_counter SET unreadcount = unreadcount - 1 "
+			+ "WHERE lastreadtime < :previouslastmodifiedtime AND unreadcount > 0";
+
+	/**
+	 * Returns the update for the counters of the users a new event is addressed
+	 * to by id, the tenants of the event are counted by their broadcast counter
+	 * 
+	 * @param scope
+	 * @param preparedStatementValues
+	 * @return
+	 */
+	public String getNewEventQuery(CounterScope scope, Map<String, Object> preparedStatementValues) {
+		StringBuilder queryBuilder = new StringBuilder(COUNTER_NEW_EVENT_QUERY);
+		addScopeClause(queryBuilder, scope, preparedStatementValues);
+		return queryBuilder.toString();
+	}
+
+	/**
+	 * Returns the update for the counters of the users who had read an event that
+	 * was modified since
+	 * 
+	 * @param scope
+	 * @param previousLastModifiedTime
+	 * @param preparedStatementValues
+	 * @return
+	 */
+	public String getEventUnreadAgainQuery(CounterScope scope, Long previousLastModifiedTime,
+			Map<String, Object> preparedStatementValues) {
+		return addScope(COUNTER_EVENT_UNREAD_AGAIN_QUERY, scope, previousLastModifiedTime, preparedStatementValues);
+	}
+
+	/**
+	 * Returns the update for the counters of the users who had not read an event
+	 * that was cancelled or replaced by a counter event
+	 * 
+	 * @param scope
+	 * @param previousLastModifiedTime
+	 * @param preparedStatementValues
+	 * @return
+	 */
+	public String getEventRemovedQuery(CounterScope scope, Long previousLastModifiedTime,
+			Map<String, Object> preparedStatementValues) {
+		return addScope(COUNTER_EVENT_REMOVED_QUERY, scope, previousLastModifiedTime, preparedStatementValues);
+	}
+
+	private String addScope(String query, CounterScope scope, Long previousLastModifiedTime,
+			Map<String, Object> preparedStatementValues) {
+		StringBuilder queryBuilder = new StringBuilder(query);
+		preparedStatementValues.put("previouslastmodifiedtime", previousLastModifiedTime);
+		queryBuilder.append(" AND ");
+		addScopeClause(queryBuilder, scope, preparedStatementValues);
+		return queryBuilder.toString();
+	}
+
+	/*
+	 * Only the users addressed by id, the ones in a tenant of the scope are
+	 * already counted by the broadcast counter of the tenant
+	 */
+	private void addScopeClause(StringBuilder queryBuilder, CounterScope scope, Map<String, Object> preparedStatementValues) {
+		queryBuilder.append("userid IN (:userids)");
+		preparedStatementValues.put("userids", scope.getUserIds());
+		if (!CollectionUtils.isEmpty(scope.getTenantIds())) {
+			queryBuilder.append(" AND tenantid NOT IN (:tenantids)");
+			preparedStatementValues.put("tenantids", scope.getTenantIds());
+		}
+	}
+}
@@ -7,6 +7,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.egov.tracer.model.CustomException;
 import org.egov.userevent.config.PropertiesManager;
 import org.egov.userevent.model.enums.Status;
+import org.egov.userevent.utils.UserEventsConstants;
 import org.egov.userevent.web.contract.EventSearchCriteria;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -33,6 +34,12 @@ public class UserEventsQueryBuilder {
 			+ "AND id NOT IN (SELECT referenceid FROM eg_usrevents_events WHERE referenceid NOTNULL) AND "
 			+ "lastmodifiedtime > (SELECT lastaccesstime FROM eg_usrevents_user_lat WHERE userid IN (:userid))";
 	
+	public static final String EVENTS_TO_SWEEP_QUERY = EVENT_SEARCH_QUERY + "WHERE id > :lastid AND eventdetails IS NOT NULL AND ("
+			+ "(eventtype = :broadcast AND ((status = 'INACTIVE' AND (eventdetails->>'fromDate')::bigint <= :tomorrow) "
+			+ "OR (status = 'ACTIVE' AND ((eventdetails->>'toDate')::bigint < :tomorrow OR eventdetails->>'fromDate' = eventdetails->>'toDate')))) "
+			+ "OR (eventtype <> :broadcast AND status = 'ACTIVE' AND (eventdetails->>'toDate')::bigint < :now)) "
+			+ "ORDER BY id LIMIT :limit";
+	
 	/**
 	 * Returns query for search events
 	 * 
@@ -46,6 +53,25 @@ public class UserEventsQueryBuilder {
 	}
 	
 
+	/**
+	 * Returns query for the next batch of events whose status may be due for a
+	 * change as of now, keyed on id so that every sweep makes progress.
+	 * 
+	 * @param lastId
+	 * @param limit
+	 * @param preparedStatementValues
+	 * @return
+	 */
+	public String getEventsToSweepQuery(String lastId, Integer limit, Map<String, Object> preparedStatementValues) {
+		long now = Instant.now().toEpochMilli();
+		preparedStatementValues.put("lastid", lastId);
+		preparedStatementValues.put("broadcast", UserEventsConstants.MEN_MDMS_BROADCAST_CODE);
+		preparedStatementValues.put("now", now);
+		preparedStatementValues.put("tomorrow", now + 86400000L);
+		preparedStatementValues.put("limit", limit);
+		return EVENTS_TO_SWEEP_QUERY;
+	}
+
 	/**
 	 * Returns query for inserting user-lat value in the table.
 	 * 
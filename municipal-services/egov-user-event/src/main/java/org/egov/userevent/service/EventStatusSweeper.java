@@ -0,0 +1,62 @@
+package org.egov.userevent.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.egov.common.contract.request.RequestInfo;
+import org.egov.userevent.config.PropertiesManager;
+import org.egov.userevent.repository.UserEventRepository;
+import org.egov.userevent.web.contract.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings the stored status of events up to date with their from and to dates
+ * on a schedule, in place of the writes searches used to make for the events
+ * they returned. Sweeps of several instances may overlap, the updates they
+ * produce are identical.
+ */
+@Service
+@Slf4j
+public class EventStatusSweeper {
+
+	@Autowired
+	private PropertiesManager properties;
+
+	@Autowired
+	private UserEventRepository repository;
+
+	@Autowired
+	private UserEventsService userEventsService;
+
+	@Scheduled(fixedDelayString = "${mseva.notif.sweeper.interval.ms}", initialDelayString = "${mseva.notif.sweeper.interval.ms}")
+	public void sweep() {
+		if (!properties.getIsSweeperEnabled())
+			return;
+		try {
+			String lastId = "";
+			int updated = 0;
+			List<Event> events;
+			do {
+				events = repository.fetchEventsToSweep(lastId, properties.getSweeperBatchSize());
+				List<Event> eventsTobeUpdated = new ArrayList<>();
+				for (Event event : events) {
+					if (userEventsService.applyStatusTransition(event))
+						eventsTobeUpdated.add(event);
+				}
+				if (!eventsTobeUpdated.isEmpty()) {
+					userEventsService.updateEventStatuses(new RequestInfo(), eventsTobeUpdated);
+					updated += eventsTobeUpdated.size();
+				}
+				if (!events.isEmpty())
+					lastId = events.get(events.size() - 1).getId();
+			} while (events.size() == properties.getSweeperBatchSize());
+			log.info("Swept event statuses, {} events updated", updated);
+		} catch (Exception e) {
+			log.error("There was an error while sweeping the event statuses: ", e);
+		}
+	}
+}
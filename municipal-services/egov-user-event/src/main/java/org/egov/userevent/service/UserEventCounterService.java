@@ -0,0 +1,144 @@
+package org.egov.userevent.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.egov.userevent.config.PropertiesManager;
+import org.egov.userevent.model.CounterScope;
+import org.egov.userevent.model.UserEventCounter;
+import org.egov.userevent.model.enums.Status;
+import org.egov.userevent.repository.UserEventCounterRepository;
+import org.egov.userevent.repository.UserEventRepository;
+import org.egov.userevent.utils.UserEventsUtils;
+import org.egov.userevent.web.contract.Event;
+import org.egov.userevent.web.contract.EventSearchCriteria;
+import org.egov.userevent.web.contract.NotificationCountResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves the notification count of a citizen from a counter row instead of
+ * counting the events on every poll.
+ * 
+ * The counters of the citizens an event is addressed to are bumped when the
+ * event is created, modified, cancelled or replaced by a counter event, and
+ * reset when the citizen reads the notifications. Counters are eventually
+ * consistent: changes the increments can't attribute, like a changed recepient
+ * list or a lost update, are healed when a counter older than the recompute
+ * interval is counted again from the events.
+ * 
+ * Events for all users or for whole tenants don't touch the counter rows, they
+ * bump a broadcast counter per tenant (or for all users) instead. A counter row
+ * keeps the broadcast count as of its last compute and of its last read, the
+ * broadcasts created since are added in when the count is served. Changes to a
+ * broadcast event after its creation are left to the recompute.
+ */
+@Service
+@Slf4j
+public class UserEventCounterService {
+
+	@Autowired
+	private PropertiesManager properties;
+
+	@Autowired
+	private UserEventCounterRepository counterRepository;
+
+	@Autowired
+	private UserEventRepository repository;
+
+	@Autowired
+	private UserEventsUtils utils;
+
+	/**
+	 * Returns the count of the citizen from the counter, recomputing it if it is
+	 * missing or stale.
+	 * 
+	 * @param criteria
+	 *            enriched criteria of a citizen
+	 * @return
+	 */
+	public NotificationCountResponse fetchCount(EventSearchCriteria criteria) {
+		String userId = criteria.getUserids().get(0);
+		long now = new Date().getTime();
+		long broadcastCount = counterRepository.fetchBroadcastCount(criteria.getTenantId());
+		UserEventCounter counter = counterRepository.fetchCounter(userId, criteria.getTenantId());
+		if (null != counter && now - counter.getLastComputedTime() < properties.getCounterRecomputeInterval()) {
+			return NotificationCountResponse.builder()
+					.totalCount(counter.getTotalCount() + broadcastCount - counter.getBroadcastCount())
+					.unreadCount(Math.max(0, counter.getUnreadCount() + broadcastCount - counter.getReadBroadcastCount()))
+					.build();
+		}
+
+		Long lastReadTime = counterRepository.fetchLastAccessTime(userId);
+		NotificationCountResponse response = repository.fetchCount(criteria);
+		if (null != response) {
+			counterRepository.saveCounter(UserEventCounter.builder().userId(userId).tenantId(criteria.getTenantId())
+					.unreadCount(response.getUnreadCount()).totalCount(response.getTotalCount())
+					.lastReadTime(lastReadTime).lastComputedTime(now).broadcastCount(broadcastCount)
+					.readBroadcastCount(broadcastCount).build());
+			log.debug("Recomputed counter of {} in {}", userId, criteria.getTenantId());
+		}
+		return response;
+	}
+
+	/**
+	 * Counts the created events as unread for their recepients.
+	 * 
+	 * @param events
+	 */
+	public void onCreate(List<Event> events) {
+		if (!properties.getIsCounterEnabled())
+			return;
+		events.forEach(event -> {
+			if (Status.CANCELLED.equals(event.getStatus()))
+				return;
+			CounterScope scope = utils.getCounterScope(event.getRecepientEventMap());
+			if (!scope.isEmpty())
+				counterRepository.countNewEvent(scope);
+		});
+	}
+
+	/**
+	 * Adjusts the unread counts for the updated events: a cancelled event or an
+	 * event replaced by a counter event is no longer unread, a modified event is
+	 * unread again for the recepients who had read it. Internal status updates
+	 * and the broadcast part of an event don't touch the counts.
+	 * 
+	 * @param events
+	 * @param previousLastModifiedTimes
+	 *            last modified time of the events before the update, by id
+	 * @param supersededIds
+	 *            ids of the events that got a counter event
+	 */
+	public void onUpdate(List<Event> events, Map<String, Long> previousLastModifiedTimes, Set<String> supersededIds) {
+		if (!properties.getIsCounterEnabled())
+			return;
+		events.forEach(event -> {
+			Long previousLastModifiedTime = previousLastModifiedTimes.get(event.getId());
+			if (null == previousLastModifiedTime || Boolean.TRUE.equals(event.getInternallyUpdted()))
+				return;
+			CounterScope scope = utils.getCounterScope(event.getRecepientEventMap());
+			if (!scope.hasUsers())
+				return;
+			if (Status.CANCELLED.equals(event.getStatus()) || supersededIds.contains(event.getId()))
+				counterRepository.countEventRemoved(scope, previousLastModifiedTime);
+			else if (!previousLastModifiedTime.equals(event.getAuditDetails().getLastModifiedTime()))
+				counterRepository.countEventUnreadAgain(scope, previousLastModifiedTime);
+		});
+	}
+
+	/**
+	 * Resets the unread counts of the user who just read the notifications.
+	 * 
+	 * @param userId
+	 * @param lastReadTime
+	 */
+	public void onRead(String userId, Long lastReadTime) {
+		if (properties.getIsCounterEnabled())
+			counterRepository.markRead(userId, lastReadTime);
+	}
+}
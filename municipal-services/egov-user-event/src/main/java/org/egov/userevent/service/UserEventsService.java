@@ -44,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -104,6 +105,9 @@ public class UserEventsService {
 	@Autowired
 	private LocalizationService localizationService;
 
+	@Autowired
+	private UserEventCounterService counterService;
+
 	/**
 	 * Service method to create events Enriches the request and produces it on the
 	 * queue for persister to pick.
@@ -117,6 +121,7 @@ public class UserEventsService {
 		log.info("enriching and storing the event......");
 		enrichCreateEvent(request);
 		producer.push(properties.getSaveEventsPersisterTopic(), request);
+		counterService.onCreate(request.getEvents());
 		request.getEvents().forEach(event -> event.setRecepientEventMap(null));
 		return EventResponse.builder()
 				.responseInfo(responseInfo.createResponseInfoFromRequestInfo(request.getRequestInfo(), true))
@@ -136,6 +141,11 @@ public class UserEventsService {
 	public EventResponse updateEvents(EventRequest request) {
 		validator.validateUpdateEvent(request);
 		log.info("enriching and updating the event......");
+		Map<String, Long> previousLastModifiedTimes = new HashMap<>();
+		request.getEvents().forEach(event -> {
+			if (null != event.getAuditDetails())
+				previousLastModifiedTimes.put(event.getId(), event.getAuditDetails().getLastModifiedTime());
+		});
 		enrichUpdateEvent(request);
 		List<Event> counterEvents = new ArrayList<>();
 		request.getEvents().forEach(event -> {
@@ -155,6 +165,8 @@ public class UserEventsService {
 			createEvents(req, true);
 		}
 		producer.push(properties.getUpdateEventsPersisterTopic(), request);
+		counterService.onUpdate(request.getEvents(), previousLastModifiedTimes,
+				counterEvents.stream().map(Event::getReferenceId).collect(Collectors.toSet()));
 		request.getEvents().forEach(event -> {
 			event.setRecepientEventMap(null);
 			event.setGenerateCounterEvent(null);
@@ -229,7 +241,9 @@ public class UserEventsService {
 		Integer totalCount = 0;
 		if (!isUpdate) {
 			enrichSearchCriteria(requestInfo, criteria);
-			events = repository.fetchEvents(criteria);
+			events = criteria.getIsCitizenSearch() && !CollectionUtils.isEmpty(criteria.getRecepients())
+					? repository.fetchCitizenEvents(criteria)
+					: repository.fetchEvents(criteria);
 			totalCount = repository.fetchTotalEventCount(criteria);
 			searchPostProcessor(requestInfo, events);
 			if (null != criteria.getIsCitizenSearch()) {
@@ -295,7 +309,7 @@ public class UserEventsService {
 		} else {
 			List<Event> counterEvents = events.stream().filter(obj -> !StringUtils.isEmpty(obj.getReferenceId()))
 					.collect(Collectors.toList());
-			List<String> refIds = counterEvents.stream().map(Event::getReferenceId).collect(Collectors.toList());
+			Set<String> refIds = counterEvents.stream().map(Event::getReferenceId).collect(Collectors.toSet());
 			events.forEach(event -> {
 				if (!refIds.contains(event.getId()))
 					counterEvents.add(event);
@@ -309,75 +323,80 @@ public class UserEventsService {
 	}
 
 	/**
-	 * This method performs certain post processing activities on the searc result:
+	 * This method performs certain post processing activities on the search result:
 	 * 1. Finds all the events in the search result that have toDate prior to currentDate and marks them inactive
-	 * 2. The inactive marking is done through an update call just before returning the search result.
-	 * 3. Uses lazy update logic instead of a cron job to set events to inactive when they have already occured.
+	 * 2. The marking is applied only to the returned events, the stored status is brought up to date by the
+	 * EventStatusSweeper so that a search never writes.
 	 * 
 	 * @param requestInfo
 	 * @param events
 	 * @return
 	 */
 	public void searchPostProcessor(RequestInfo requestInfo, List<Event> events){
-		List<Event> eventsTobeUpdated = new ArrayList<>();
-		events.forEach(event -> {
-			Boolean tobeAdded = false;
-			if(null != event.getEventDetails() && !event.getStatus().equals(Status.CANCELLED)) {
-				if(event.getEventType().equals(UserEventsConstants.MEN_MDMS_BROADCAST_CODE)) {				
-					if(null != event.getEventDetails().getFromDate()) {
-						if((event.getEventDetails().getFromDate() <= utils.getTomorrowsEpoch()) && event.getStatus().equals(Status.INACTIVE)) {
-							event.setStatus(Status.ACTIVE);
-							tobeAdded = true;
-						}
-					}
-					if(null != event.getEventDetails().getToDate() ) {
-						if((event.getEventDetails().getToDate() < utils.getTomorrowsEpoch() && event.getStatus().equals(Status.ACTIVE))) {
-							event.setStatus(Status.INACTIVE);
-							tobeAdded = true;
-						}
+		events.forEach(this::applyStatusTransition);
+	}
+
+	/**
+	 * Sets the status an event should have as of now.
+	 * BROADCASTs are ACTIVE only between the given from and to date, they're INACTIVE beyond that.
+	 * Other events become INACTIVE once their toDate has passed.
+	 * 
+	 * @param event
+	 * @return true if the status of the event changed
+	 */
+	public Boolean applyStatusTransition(Event event) {
+		Status previousStatus = event.getStatus();
+		if(null != event.getEventDetails() && !event.getStatus().equals(Status.CANCELLED)) {
+			if(event.getEventType().equals(UserEventsConstants.MEN_MDMS_BROADCAST_CODE)) {				
+				if(null != event.getEventDetails().getFromDate()) {
+					if((event.getEventDetails().getFromDate() <= utils.getTomorrowsEpoch()) && event.getStatus().equals(Status.INACTIVE)) {
+						event.setStatus(Status.ACTIVE);
 					}
-					
-					if((null != event.getEventDetails().getFromDate()) && (null != event.getEventDetails().getToDate())) {
-						if(event.getEventDetails().getFromDate().equals(event.getEventDetails().getToDate())) {
-							Long dateInSecs = event.getEventDetails().getFromDate() / 1000;
-							Long currDateInSecs = new Date().getTime() / 1000;
-							if((((dateInSecs - 86400) < currDateInSecs) && (currDateInSecs < dateInSecs)) && event.getStatus().equals(Status.INACTIVE)) {
-								event.setStatus(Status.ACTIVE);
-								tobeAdded = true;
-							}else {
-								if(event.getStatus().equals(Status.ACTIVE)) {
-									event.setStatus(Status.INACTIVE);
-									tobeAdded = true;
-								}
-							}
-						}// UI sends EOD epoch, which makes fromDate and toDate same incase of 1 day event, which is why the range is manually calculated. Fix at UI needed.
+				}
+				if(null != event.getEventDetails().getToDate() ) {
+					if((event.getEventDetails().getToDate() < utils.getTomorrowsEpoch() && event.getStatus().equals(Status.ACTIVE))) {
+						event.setStatus(Status.INACTIVE);
 					}
-				}// BROADCASTs are ACTIVE only between the given from and to date, they're INACTIVE beyond that.
+				}
 				
-				else {
-					if(null != event.getEventDetails().getToDate()) {
-						if((event.getEventDetails().getToDate() < new Date().getTime())) {
-							event.setStatus(Status.INACTIVE);
-							tobeAdded = true;
+				if((null != event.getEventDetails().getFromDate()) && (null != event.getEventDetails().getToDate())) {
+					if(event.getEventDetails().getFromDate().equals(event.getEventDetails().getToDate())) {
+						Long dateInSecs = event.getEventDetails().getFromDate() / 1000;
+						Long currDateInSecs = new Date().getTime() / 1000;
+						if((((dateInSecs - 86400) < currDateInSecs) && (currDateInSecs < dateInSecs)) && event.getStatus().equals(Status.INACTIVE)) {
+							event.setStatus(Status.ACTIVE);
+						}else {
+							if(event.getStatus().equals(Status.ACTIVE)) {
+								event.setStatus(Status.INACTIVE);
+							}
 						}
-					}
+					}// UI sends EOD epoch, which makes fromDate and toDate same incase of 1 day event, which is why the range is manually calculated. Fix at UI needed.
 				}
-				
-				if(tobeAdded) {
-					event.setInternallyUpdted(true);
-					eventsTobeUpdated.add(event);
+			}// BROADCASTs are ACTIVE only between the given from and to date, they're INACTIVE beyond that.
+			
+			else {
+				if(null != event.getEventDetails().getToDate()) {
+					if((event.getEventDetails().getToDate() < new Date().getTime())) {
+						event.setStatus(Status.INACTIVE);
+					}
 				}
 			}
-		});
-		if(!CollectionUtils.isEmpty(eventsTobeUpdated)) {
-			EventRequest request = EventRequest.builder().requestInfo(requestInfo).events(eventsTobeUpdated).build();
-			try {
-				log.info("Updating events...");
-				updateEvents(request);
-			}catch(Exception e) {
-				log.error("There was an error while lazy-updating the events: ", e);
-			}
 		}
+		return !event.getStatus().equals(previousStatus);
+	}
+
+	/**
+	 * Stores the statuses set by applyStatusTransition. The events are marked as internally updated
+	 * so that their lastmodifiedtime, and with it their read state, is retained.
+	 * 
+	 * @param requestInfo
+	 * @param events
+	 */
+	public void updateEventStatuses(RequestInfo requestInfo, List<Event> events) {
+		events.forEach(event -> event.setInternallyUpdted(true));
+		EventRequest request = EventRequest.builder().requestInfo(requestInfo).events(events).build();
+		enrichUpdateEvent(request);
+		producer.push(properties.getUpdateEventsPersisterTopic(), request);
 	}
 
 	/**
@@ -389,8 +408,12 @@ public class UserEventsService {
 	 */
 	public NotificationCountResponse fetchCount(RequestInfo requestInfo, EventSearchCriteria criteria) {
 		validator.validateSearch(requestInfo, criteria);
+		Boolean isCounted = properties.getIsCounterEnabled() && CollectionUtils.isEmpty(criteria.getStatus())
+				&& null == criteria.getFromDate() && null == criteria.getToDate();
 		enrichSearchCriteria(requestInfo, criteria);
-		NotificationCountResponse response = repository.fetchCount(criteria);
+		NotificationCountResponse response = isCounted && criteria.getIsCitizenSearch()
+				? counterService.fetchCount(criteria)
+				: repository.fetchCount(criteria);
 		response.setResponseInfo(responseInfo.createResponseInfoFromRequestInfo(requestInfo, true));
 		return response;
 	}
@@ -406,6 +429,7 @@ public class UserEventsService {
 				.lastAccessTime(new Date().getTime()).build();
 		LATWrapper wrapper = LATWrapper.builder().lastAccessDetails(loginDetails).build();
 		producer.push(properties.getLatDetailsTopic(), wrapper);
+		counterService.onRead(loginDetails.getUserId(), loginDetails.getLastAccessTime());
 
 		return responseInfo.createResponseInfoFromRequestInfo(requestInfo, true);
 
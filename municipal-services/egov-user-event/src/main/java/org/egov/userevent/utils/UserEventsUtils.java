@@ -11,6 +11,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.egov.common.contract.request.Role;
 import org.egov.common.contract.request.User;
+import org.egov.userevent.model.CounterScope;
 import org.egov.userevent.model.RecepientEvent;
 import org.egov.userevent.web.contract.Event;
 import org.egov.userevent.web.contract.EventSearchCriteria;
@@ -120,6 +121,43 @@ public class UserEventsUtils {
 	}
 	
 	
+	/**
+	 * Derives the citizen counters an event counts towards from its recepients, the
+	 * reverse of buildRecepientListForSearch. Citizens search as CITIZEN.CITIZEN, so
+	 * a TYPE|ROLE|TENANTID recepient reaches them only when TYPE and ROLE are CITIZEN or *.
+	 * 
+	 * @param recepientEventList
+	 * @return
+	 */
+	public CounterScope getCounterScope(List<RecepientEvent> recepientEventList) {
+		CounterScope scope = new CounterScope();
+		if (CollectionUtils.isEmpty(recepientEventList))
+			return scope;
+		for (RecepientEvent recepientEvent : recepientEventList) {
+			String recepient = recepientEvent.getRecepient();
+			if (UserEventsConstants.ALL_KEYWORD.equals(recepient)) {
+				scope.setAllUsers(true);
+			} else if (!recepient.contains("|")) {
+				scope.getUserIds().add(recepient);
+			} else {
+				String[] typeRoleAndTenant = recepient.split("[|]");
+				if (typeRoleAndTenant.length != 3 || !isCitizenOrAny(typeRoleAndTenant[0])
+						|| !isCitizenOrAny(typeRoleAndTenant[1]))
+					continue;
+				if ("*".equals(typeRoleAndTenant[2]))
+					scope.setAllUsers(true);
+				else
+					scope.getTenantIds().add(typeRoleAndTenant[2]);
+			}
+		}
+		return scope;
+	}
+
+	private boolean isCitizenOrAny(String value) {
+		return "*".equals(value) || "CITIZEN".equals(value);
+	}
+	
+	
 	/**
 	 * Enhancement for multi-tenancy: Checks if the user trying to search the event has access to search events in that tenant or not.
 	 * 
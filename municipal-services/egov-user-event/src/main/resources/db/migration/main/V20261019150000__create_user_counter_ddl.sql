@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS eg_usrevents_user_counter(
+
+  userid character varying(500) NOT NULL,
+  tenantid character varying(256) NOT NULL,
+  unreadcount bigint NOT NULL,
+  totalcount bigint NOT NULL,
+  lastreadtime bigint NOT NULL,
+  lastcomputedtime bigint NOT NULL,
+
+  CONSTRAINT pk_eg_usrevents_user_counter PRIMARY KEY (userid, tenantid)
+
+);
+
+CREATE INDEX IF NOT EXISTS index_eg_usrevents_user_counter_tenantid ON eg_usrevents_user_counter (tenantid);
+
+CREATE INDEX IF NOT EXISTS index_eg_usrevents_events_status_eventtype ON eg_usrevents_events (status, eventtype);
@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS index_eg_usrevents_events_createdtime ON eg_usrevents_events (createdtime DESC);
+
+CREATE INDEX IF NOT EXISTS index_eg_usrevents_recepnt_event_registry_recepient_eventid ON eg_usrevents_recepnt_event_registry (recepient, eventid);
+
+CREATE INDEX IF NOT EXISTS index_eg_usrevents_recepnt_event_registry_eventid ON eg_usrevents_recepnt_event_registry (eventid);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS eg_usrevents_broadcast_counter(
+
+  scope character varying(256) NOT NULL,
+  eventcount bigint NOT NULL,
+
+  CONSTRAINT pk_eg_usrevents_broadcast_counter PRIMARY KEY (scope)
+
+);
+
+ALTER TABLE eg_usrevents_user_counter ADD COLUMN IF NOT EXISTS broadcastcount bigint NOT NULL DEFAULT 0;
+ALTER TABLE eg_usrevents_user_counter ADD COLUMN IF NOT EXISTS readbroadcastcount bigint NOT NULL DEFAULT 0;
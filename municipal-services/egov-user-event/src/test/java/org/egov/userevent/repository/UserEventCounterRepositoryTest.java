@@ -0,0 +1,81 @@
+package org.egov.userevent.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.egov.userevent.model.CounterScope;
+import org.egov.userevent.repository.querybuilder.UserEventCounterQueryBuilder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserEventCounterRepositoryTest {
+
+	@Mock
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Spy
+	private UserEventCounterQueryBuilder queryBuilder = new UserEventCounterQueryBuilder();
+
+	@InjectMocks
+	private UserEventCounterRepository repository;
+
+	@Test
+	public void testNewEventForUsersUpdatesTheirCounterRows() {
+		repository.countNewEvent(CounterScope.builder().userIds(new HashSet<>(Arrays.asList("10", "11"))).build());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Map<String, Object>> values = ArgumentCaptor.forClass(Map.class);
+		verify(namedParameterJdbcTemplate).update(eq(UserEventCounterQueryBuilder.COUNTER_NEW_EVENT_QUERY
+				+ "userid IN (:userids)"), values.capture());
+		assertEquals(new HashSet<>(Arrays.asList("10", "11")), values.getValue().get("userids"));
+		verify(namedParameterJdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+	}
+
+	@Test
+	public void testNewEventForTenantsAndUsersBumpsBroadcastCounters() {
+		repository.countNewEvent(CounterScope.builder().userIds(Collections.singleton("10"))
+				.tenantIds(new TreeSet<>(Arrays.asList("pb.amritsar", "pb.jalandhar"))).build());
+
+		assertEquals(new HashSet<>(Arrays.asList("pb.amritsar", "pb.jalandhar")), broadcastScopes());
+		verify(namedParameterJdbcTemplate).update(anyString(), anyMap());
+	}
+
+	@Test
+	public void testNewEventForAllUsersOnlyBumpsTheAllUsersCounter() {
+		repository.countNewEvent(CounterScope.builder().userIds(Collections.singleton("10"))
+				.tenantIds(Collections.singleton("pb.amritsar")).allUsers(true).build());
+
+		assertEquals(Collections.singleton(UserEventCounterQueryBuilder.ALL_USERS_SCOPE), broadcastScopes());
+		verify(namedParameterJdbcTemplate, never()).update(anyString(), anyMap());
+	}
+
+	private Set<Object> broadcastScopes() {
+		ArgumentCaptor<SqlParameterSource[]> sources = ArgumentCaptor.forClass(SqlParameterSource[].class);
+		verify(namedParameterJdbcTemplate).batchUpdate(eq(UserEventCounterQueryBuilder.BROADCAST_COUNTER_NEW_EVENT_QUERY),
+				sources.capture());
+		Set<Object> scopes = new HashSet<>();
+		for (SqlParameterSource source : sources.getValue())
+			scopes.add(source.getValue("scope"));
+		return scopes;
+	}
+}
@@ -0,0 +1,160 @@
+package org.egov.userevent.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.egov.userevent.config.PropertiesManager;
+import org.egov.userevent.model.AuditDetails;
+import org.egov.userevent.repository.querybuilder.UserEventsQueryBuilder;
+import org.egov.userevent.repository.rowmappers.UserEventRowMapper;
+import org.egov.userevent.web.contract.Event;
+import org.egov.userevent.web.contract.EventSearchCriteria;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserEventRepositoryTest {
+
+	private static final String PERSONAL_QUERY = "personal";
+
+	private static final String AUDIENCE_QUERY = "audience";
+
+	private static final List<String> RECEPIENTS = Arrays.asList("10", "CITIZEN|*|pb.amritsar", "All");
+
+	@Mock
+	private UserEventsQueryBuilder queryBuilder;
+
+	@Mock
+	private UserEventRowMapper rowMapper;
+
+	@Mock
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Spy
+	private PropertiesManager properties = new PropertiesManager();
+
+	@InjectMocks
+	private UserEventRepository repository;
+
+	private List<String> queriedWindows;
+
+	@Before
+	public void setUp() {
+		properties.setDefaultOffset(0L);
+		properties.setDefaultLimit(10L);
+		queriedWindows = new ArrayList<>();
+		when(queryBuilder.getSearchQuery(any(EventSearchCriteria.class), anyMap())).thenAnswer(invocation -> {
+			EventSearchCriteria criteria = invocation.getArgument(0);
+			queriedWindows.add(criteria.getRecepients() + " " + criteria.getOffset() + "+" + criteria.getLimit());
+			return criteria.getRecepients().contains("10") ? PERSONAL_QUERY : AUDIENCE_QUERY;
+		});
+	}
+
+	@Test
+	public void testMergesBothQueriesOnCreatedTime() {
+		personalEvents(event("p1", 90), event("p2", 60), event("p3", 20));
+		audienceEvents(event("a1", 100), event("a2", 70), event("a3", 30));
+
+		List<Event> events = repository.fetchCitizenEvents(criteria(null, null));
+
+		assertEquals(Arrays.asList("a1", "p1", "a2", "p2", "a3", "p3"), ids(events));
+	}
+
+	@Test
+	public void testQueriesEachRecepientGroupUpToTheEndOfThePage() {
+		personalEvents();
+		audienceEvents();
+		EventSearchCriteria criteria = criteria(4, 3);
+
+		repository.fetchCitizenEvents(criteria);
+
+		assertEquals(Arrays.asList("[10] 0+7", "[CITIZEN|*|pb.amritsar, All] 0+7"), queriedWindows);
+		assertEquals(RECEPIENTS, criteria.getRecepients());
+		assertEquals(Integer.valueOf(4), criteria.getOffset());
+		assertEquals(Integer.valueOf(3), criteria.getLimit());
+	}
+
+	@Test
+	public void testEventInBothQueriesIsReturnedOnce() {
+		personalEvents(event("p1", 90), event("shared", 80), event("p2", 60));
+		audienceEvents(event("a1", 100), event("shared", 80), event("a2", 50));
+
+		List<Event> events = repository.fetchCitizenEvents(criteria(null, null));
+
+		assertEquals(Arrays.asList("a1", "p1", "shared", "p2", "a2"), ids(events));
+	}
+
+	@Test
+	public void testPageIsTakenAfterMergeAndDedup() {
+		personalEvents(event("p1", 90), event("shared", 80), event("p2", 60), event("p3", 40));
+		audienceEvents(event("a1", 100), event("shared", 80), event("a2", 50), event("a3", 30));
+
+		// merged and deduplicated: a1, p1, shared, p2, a2, p3, a3
+		List<Event> events = repository.fetchCitizenEvents(criteria(2, 3));
+
+		assertEquals(Arrays.asList("shared", "p2", "a2"), ids(events));
+	}
+
+	@Test
+	public void testPageBeyondTheEventsIsEmpty() {
+		personalEvents(event("p1", 90));
+		audienceEvents(event("a1", 100), event("p1", 90));
+
+		assertEquals(Collections.emptyList(), ids(repository.fetchCitizenEvents(criteria(2, 3))));
+	}
+
+	@Test
+	public void testSkipsQueryOfEmptyRecepientGroup() {
+		audienceEvents(event("a1", 100));
+		EventSearchCriteria criteria = criteria(null, null);
+		criteria.setRecepients(Arrays.asList("CITIZEN|*|pb.amritsar", "All"));
+
+		assertEquals(Collections.singletonList("a1"), ids(repository.fetchCitizenEvents(criteria)));
+		verify(namedParameterJdbcTemplate, never()).query(eq(PERSONAL_QUERY), anyMap(), eq(rowMapper));
+	}
+
+	private void personalEvents(Event... events) {
+		when(namedParameterJdbcTemplate.query(eq(PERSONAL_QUERY), anyMap(), eq(rowMapper)))
+				.thenReturn(Arrays.asList(events));
+	}
+
+	private void audienceEvents(Event... events) {
+		when(namedParameterJdbcTemplate.query(eq(AUDIENCE_QUERY), anyMap(), eq(rowMapper)))
+				.thenReturn(Arrays.asList(events));
+	}
+
+	private EventSearchCriteria criteria(Integer offset, Integer limit) {
+		EventSearchCriteria criteria = new EventSearchCriteria();
+		criteria.setTenantId("pb.amritsar");
+		criteria.setUserids(Collections.singletonList("10"));
+		criteria.setRecepients(RECEPIENTS);
+		criteria.setOffset(offset);
+		criteria.setLimit(limit);
+		return criteria;
+	}
+
+	private Event event(String id, long createdTime) {
+		return Event.builder().id(id).auditDetails(AuditDetails.builder().createdTime(createdTime).build()).build();
+	}
+
+	private List<String> ids(List<Event> events) {
+		return events.stream().map(Event::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,281 @@
+package org.egov.userevent.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.egov.userevent.config.PropertiesManager;
+import org.egov.userevent.model.AuditDetails;
+import org.egov.userevent.model.CounterScope;
+import org.egov.userevent.model.RecepientEvent;
+import org.egov.userevent.model.UserEventCounter;
+import org.egov.userevent.model.enums.Status;
+import org.egov.userevent.repository.UserEventCounterRepository;
+import org.egov.userevent.repository.UserEventRepository;
+import org.egov.userevent.utils.UserEventsUtils;
+import org.egov.userevent.web.contract.Event;
+import org.egov.userevent.web.contract.EventSearchCriteria;
+import org.egov.userevent.web.contract.NotificationCountResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserEventCounterServiceTest {
+
+	private static final String TENANT = "pb.amritsar";
+
+	private static final long RECOMPUTE_INTERVAL = 60000L;
+
+	@Mock
+	private UserEventCounterRepository counterRepository;
+
+	@Mock
+	private UserEventRepository repository;
+
+	@Spy
+	private PropertiesManager properties = new PropertiesManager();
+
+	@Spy
+	private UserEventsUtils utils = new UserEventsUtils();
+
+	@InjectMocks
+	private UserEventCounterService service;
+
+	@Before
+	public void setUp() {
+		properties.setIsCounterEnabled(true);
+		properties.setCounterRecomputeInterval(RECOMPUTE_INTERVAL);
+	}
+
+	@Test
+	public void testFetchCountAddsBroadcastsSinceComputeAndRead() {
+		when(counterRepository.fetchBroadcastCount(TENANT)).thenReturn(7L);
+		when(counterRepository.fetchCounter("10", TENANT)).thenReturn(counter(new Date().getTime(), 4L, 6L));
+
+		NotificationCountResponse response = service.fetchCount(criteria("10"));
+
+		// 5 counted + 3 broadcasts since the compute, 2 unread + 1 broadcast since the read
+		assertEquals(Long.valueOf(8), response.getTotalCount());
+		assertEquals(Long.valueOf(3), response.getUnreadCount());
+		verifyZeroInteractions(repository);
+		verify(counterRepository, never()).saveCounter(any());
+	}
+
+	@Test
+	public void testFetchCountNeverServesNegativeUnread() {
+		when(counterRepository.fetchBroadcastCount(TENANT)).thenReturn(7L);
+		// a broadcast counter that was reset leaves the read mark of the counter ahead of it
+		UserEventCounter counter = counter(new Date().getTime(), 7L, 9L);
+		counter.setUnreadCount(0L);
+		when(counterRepository.fetchCounter("10", TENANT)).thenReturn(counter);
+
+		assertEquals(Long.valueOf(0), service.fetchCount(criteria("10")).getUnreadCount());
+	}
+
+	@Test
+	public void testFetchCountRecomputesStaleCounter() {
+		long staleTime = new Date().getTime() - RECOMPUTE_INTERVAL - 1;
+		when(counterRepository.fetchBroadcastCount(TENANT)).thenReturn(7L);
+		when(counterRepository.fetchCounter("10", TENANT)).thenReturn(counter(staleTime, 4L, 6L));
+		assertRecomputed();
+	}
+
+	@Test
+	public void testFetchCountComputesMissingCounter() {
+		when(counterRepository.fetchBroadcastCount(TENANT)).thenReturn(7L);
+		when(counterRepository.fetchCounter("10", TENANT)).thenReturn(null);
+		assertRecomputed();
+	}
+
+	@Test
+	public void testFetchCountKeepsCounterWhenCountFails() {
+		when(counterRepository.fetchBroadcastCount(TENANT)).thenReturn(7L);
+		when(counterRepository.fetchLastAccessTime("10")).thenReturn(0L);
+		EventSearchCriteria criteria = criteria("10");
+		when(repository.fetchCount(criteria)).thenReturn(null);
+
+		assertEquals(null, service.fetchCount(criteria));
+		verify(counterRepository, never()).saveCounter(any());
+	}
+
+	@Test
+	public void testCreateCountsPersonalRecepients() {
+		service.onCreate(Collections.singletonList(event("1", Status.ACTIVE, "10", "11")));
+
+		ArgumentCaptor<CounterScope> scope = ArgumentCaptor.forClass(CounterScope.class);
+		verify(counterRepository).countNewEvent(scope.capture());
+		assertEquals(new HashSet<>(Arrays.asList("10", "11")), scope.getValue().getUserIds());
+		assertTrue(scope.getValue().getTenantIds().isEmpty());
+		assertTrue(scope.getValue().hasUsers());
+	}
+
+	@Test
+	public void testCreateCountsBroadcastRecepients() {
+		service.onCreate(Arrays.asList(event("1", Status.ACTIVE, "CITIZEN|*|" + TENANT),
+				event("2", Status.ACTIVE, "All"), event("3", Status.ACTIVE, "*|*|*")));
+
+		ArgumentCaptor<CounterScope> scope = ArgumentCaptor.forClass(CounterScope.class);
+		verify(counterRepository, times(3)).countNewEvent(scope.capture());
+		List<CounterScope> scopes = scope.getAllValues();
+		assertEquals(Collections.singleton(TENANT), scopes.get(0).getTenantIds());
+		assertTrue(!scopes.get(0).hasUsers() && !scopes.get(0).isAllUsers());
+		assertTrue(scopes.get(1).isAllUsers());
+		assertTrue(scopes.get(2).isAllUsers());
+	}
+
+	@Test
+	public void testCreateSkipsCancelledAndEmployeeOnlyEvents() {
+		service.onCreate(Arrays.asList(event("1", Status.CANCELLED, "10"),
+				event("2", Status.ACTIVE, "EMPLOYEE|GRO|" + TENANT)));
+
+		verifyZeroInteractions(counterRepository);
+	}
+
+	@Test
+	public void testCountersDisabled() {
+		properties.setIsCounterEnabled(false);
+
+		service.onCreate(Collections.singletonList(event("1", Status.ACTIVE, "10")));
+		service.onUpdate(Collections.singletonList(modified(event("1", Status.CANCELLED, "10"), 200L)),
+				previousTimes("1", 100L), Collections.emptySet());
+		service.onRead("10", 300L);
+
+		verifyZeroInteractions(counterRepository);
+	}
+
+	@Test
+	public void testUpdateMarksModifiedEventUnreadAgain() {
+		service.onUpdate(Collections.singletonList(modified(event("1", Status.ACTIVE, "10"), 200L)),
+				previousTimes("1", 100L), Collections.emptySet());
+
+		ArgumentCaptor<CounterScope> scope = ArgumentCaptor.forClass(CounterScope.class);
+		verify(counterRepository).countEventUnreadAgain(scope.capture(), eq(100L));
+		assertEquals(Collections.singleton("10"), scope.getValue().getUserIds());
+		verifyNoMoreInteractions(counterRepository);
+	}
+
+	@Test
+	public void testUpdateWithoutChangeLeavesCounts() {
+		service.onUpdate(Collections.singletonList(modified(event("1", Status.ACTIVE, "10"), 100L)),
+				previousTimes("1", 100L), Collections.emptySet());
+
+		verifyZeroInteractions(counterRepository);
+	}
+
+	@Test
+	public void testCancelRemovesEventFromCounts() {
+		service.onUpdate(Collections.singletonList(modified(event("1", Status.CANCELLED, "10"), 200L)),
+				previousTimes("1", 100L), Collections.emptySet());
+
+		ArgumentCaptor<CounterScope> scope = ArgumentCaptor.forClass(CounterScope.class);
+		verify(counterRepository).countEventRemoved(scope.capture(), eq(100L));
+		assertEquals(Collections.singleton("10"), scope.getValue().getUserIds());
+		verifyNoMoreInteractions(counterRepository);
+	}
+
+	@Test
+	public void testSupersededEventIsRemovedFromCounts() {
+		service.onUpdate(Collections.singletonList(modified(event("1", Status.ACTIVE, "10"), 200L)),
+				previousTimes("1", 100L), Collections.singleton("1"));
+
+		verify(counterRepository).countEventRemoved(any(CounterScope.class), eq(100L));
+		verifyNoMoreInteractions(counterRepository);
+	}
+
+	@Test
+	public void testUpdateLeavesInternalBroadcastAndUnknownEvents() {
+		Event internal = modified(event("1", Status.INACTIVE, "10"), 200L);
+		internal.setInternallyUpdted(true);
+		Event broadcast = modified(event("2", Status.CANCELLED, "CITIZEN|*|" + TENANT), 200L);
+		Event unknown = modified(event("3", Status.CANCELLED, "10"), 200L);
+		Map<String, Long> previous = previousTimes("1", 100L);
+		previous.put("2", 100L);
+
+		service.onUpdate(Arrays.asList(internal, broadcast, unknown), previous, Collections.emptySet());
+
+		verifyZeroInteractions(counterRepository);
+	}
+
+	@Test
+	public void testReadResetsCounter() {
+		service.onRead("10", 300L);
+
+		verify(counterRepository).markRead("10", 300L);
+	}
+
+	private void assertRecomputed() {
+		long started = new Date().getTime();
+		EventSearchCriteria criteria = criteria("10");
+		NotificationCountResponse counted = NotificationCountResponse.builder().totalCount(10L).unreadCount(3L).build();
+		when(counterRepository.fetchLastAccessTime("10")).thenReturn(123L);
+		when(repository.fetchCount(criteria)).thenReturn(counted);
+
+		assertSame(counted, service.fetchCount(criteria));
+
+		ArgumentCaptor<UserEventCounter> saved = ArgumentCaptor.forClass(UserEventCounter.class);
+		verify(counterRepository).saveCounter(saved.capture());
+		UserEventCounter counter = saved.getValue();
+		assertEquals("10", counter.getUserId());
+		assertEquals(TENANT, counter.getTenantId());
+		assertEquals(Long.valueOf(10), counter.getTotalCount());
+		assertEquals(Long.valueOf(3), counter.getUnreadCount());
+		assertEquals(Long.valueOf(123), counter.getLastReadTime());
+		assertEquals(Long.valueOf(7), counter.getBroadcastCount());
+		assertEquals(Long.valueOf(7), counter.getReadBroadcastCount());
+		assertTrue(counter.getLastComputedTime() >= started);
+	}
+
+	private UserEventCounter counter(long lastComputedTime, long broadcastCount, long readBroadcastCount) {
+		return UserEventCounter.builder().userId("10").tenantId(TENANT).totalCount(5L).unreadCount(2L)
+				.lastComputedTime(lastComputedTime).broadcastCount(broadcastCount)
+				.readBroadcastCount(readBroadcastCount).build();
+	}
+
+	private EventSearchCriteria criteria(String userId) {
+		EventSearchCriteria criteria = new EventSearchCriteria();
+		criteria.setTenantId(TENANT);
+		criteria.setUserids(Collections.singletonList(userId));
+		return criteria;
+	}
+
+	private Event event(String id, Status status, String... recepients) {
+		List<RecepientEvent> recepientEvents = new ArrayList<>();
+		for (String recepient : recepients)
+			recepientEvents.add(RecepientEvent.builder().recepient(recepient).eventId(id).build());
+		return Event.builder().id(id).tenantId(TENANT).status(status).recepientEventMap(recepientEvents).build();
+	}
+
+	private Event modified(Event event, Long lastModifiedTime) {
+		event.setAuditDetails(AuditDetails.builder().lastModifiedTime(lastModifiedTime).build());
+		return event;
+	}
+
+	private Map<String, Long> previousTimes(String id, Long lastModifiedTime) {
+		Map<String, Long> previous = new HashMap<>();
+		previous.put(id, lastModifiedTime);
+		return previous;
+	}
+}
@@ -139,6 +139,21 @@ public class InboxConfiguration {
 
 	@Value("${es.search.default.sort.order}")
 	private String defaultSortOrder;
+
+	@Value("${inbox.statuscount.cache.enabled}")
+	private Boolean isStatusCountCacheEnabled;
+
+	@Value("${inbox.statuscount.cache.ttl.ms}")
+	private Long statusCountCacheTtl;
+
+	@Value("${inbox.statuscount.cache.max.size}")
+	private Long statusCountCacheMaxSize;
+
+	@Value("${inbox.lookup.pool.size}")
+	private Integer lookupPoolSize;
+
+	@Value("${inbox.lookup.timeout.ms}")
+	private Long lookupTimeout;
 	
 	@Value("${egov.searcher.cnd.search.path}")
 	private String cndInboxSearcherEndpoint;
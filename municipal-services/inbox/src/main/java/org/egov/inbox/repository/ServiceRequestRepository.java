@@ -48,6 +48,26 @@ public class ServiceRequestRepository {
 		return response;
 	}
 	
+	/**
+	 * fetchResult form the different services and maps the response into the given type
+	 * @param uri
+	 * @param request
+	 * @param responseType
+	 * @return
+	 */
+	public <T> T fetchResult(StringBuilder uri, Object request, Class<T> responseType) {
+		T response = null;
+		try {
+			response = restTemplate.postForObject(uri.toString(), request, responseType);
+		} catch (HttpClientErrorException e) {
+			throw new ServiceCallException(e.getResponseBodyAsString());
+		} catch (Exception e) {
+			throw new ServiceCallException(e.getMessage());
+		}
+
+		return response;
+	}
+
 	/**
 	 * fetchResult form the different services based on the url and request object
 	 * @param uri
@@ -44,10 +44,20 @@ import static org.egov.inbox.util.CNDServiceConstants.CND;
 import static org.egov.inbox.util.CNDServiceConstants.APPLICATION_NO_PARAM;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import static java.util.Objects.isNull;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.collections4.MapUtils;
@@ -75,6 +85,7 @@ import org.egov.tracer.model.CustomException;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -161,6 +172,8 @@ public class InboxService {
 	@Autowired
 	ElasticSearchRepository elasticSearchRepository;
 
+	private ExecutorService lookupExecutor;
+
 	@Autowired
 	public InboxService(InboxConfiguration config, ServiceRequestRepository serviceRequestRepository,
 						ObjectMapper mapper, WorkflowService workflowService) {
@@ -172,6 +185,16 @@ public class InboxService {
 		this.workflowService = workflowService;
 	}
 
+	@PostConstruct
+	public void initLookupExecutor() {
+		lookupExecutor = Executors.newFixedThreadPool(config.getLookupPoolSize());
+	}
+
+	@PreDestroy
+	public void shutdownLookupExecutor() {
+		lookupExecutor.shutdown();
+	}
+
 	public InboxResponse fetchInboxData(InboxSearchCriteria criteria, RequestInfo requestInfo) {
 
 		ProcessInstanceSearchCriteria processCriteria = criteria.getProcessSearchCriteria();
@@ -264,9 +287,13 @@ public class InboxService {
 			moduleSearchCriteria.put("offset", criteria.getOffset());
 			moduleSearchCriteria.put("limit", criteria.getLimit());
 			List<BusinessService> bussinessSrvs = new ArrayList<BusinessService>();
+			List<CompletableFuture<BusinessService>> businessServiceLookups = new ArrayList<>();
 			for (String businessSrv : businessServiceName) {
-				BusinessService businessService = workflowService.getBusinessService(criteria.getTenantId(),
-						requestInfo, businessSrv);
+				businessServiceLookups.add(lookupAsync(
+						() -> workflowService.getBusinessService(criteria.getTenantId(), requestInfo, businessSrv)));
+			}
+			for (CompletableFuture<BusinessService> businessServiceLookup : businessServiceLookups) {
+				BusinessService businessService = awaitLookup(businessServiceLookup, "workflow business service");
 				bussinessSrvs.add(businessService);
 				businessServiceSlaMap.put(businessService.getBusinessService(),
 						businessService.getBusinessServiceSla());
@@ -329,11 +356,17 @@ public class InboxService {
 				if (!StatusIdNameMap.isEmpty())
 					processCriteria.setStatus(
 							StatusIdNameMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+				List<CompletableFuture<List<HashMap<String, Object>>>> tenantWiseStatusCountLookups = new ArrayList<>();
 				for (Map.Entry<String, List<String>> t : tenantAndApplnNumbersMap.entrySet()) {
-					processCriteria.setTenantId(t.getKey());
-					processCriteria.setBusinessIds(t.getValue());
-					List<HashMap<String, Object>> tenantWiseStatusCount = workflowService
-							.getProcessStatusCount(requestInfo, processCriteria);
+					ProcessInstanceSearchCriteria tenantProcessCriteria = copyProcessCriteria(processCriteria);
+					tenantProcessCriteria.setTenantId(t.getKey());
+					tenantProcessCriteria.setBusinessIds(t.getValue());
+					tenantWiseStatusCountLookups.add(lookupAsync(
+							() -> workflowService.getProcessStatusCount(requestInfo, tenantProcessCriteria)));
+				}
+				for (CompletableFuture<List<HashMap<String, Object>>> tenantWiseStatusCountLookup : tenantWiseStatusCountLookups) {
+					List<HashMap<String, Object>> tenantWiseStatusCount = awaitLookup(tenantWiseStatusCountLookup,
+							"workflow status count");
 					if (bpaCitizenStatusCountMap.isEmpty()) {
 						bpaCitizenStatusCountMap.addAll(tenantWiseStatusCount);
 					} else {
@@ -873,28 +906,30 @@ public class InboxService {
 			 */
 			if (processCriteria != null && !ObjectUtils.isEmpty(processCriteria.getModuleName())
 					&& processCriteria.getModuleName().equals(BPA) && roles.contains(BpaConstants.CITIZEN)) {
-				Map<String, List<String>> tenantAndApplnNoForProcessInstance = new HashMap<>();
+				Map<String, List<String>> tenantAndApplnNoForProcessInstance = new LinkedHashMap<>();
 				for (Object businessId : businessIds) {
 					for (Map.Entry<String, List<String>> tenantAppln : tenantAndApplnNumbersMap.entrySet()) {
-						String tenantId = tenantAppln.getKey();
-						if (tenantAppln.getValue().contains(businessId)
-								&& tenantAndApplnNoForProcessInstance.containsKey(tenantId)) {
-							List<String> applnNos = tenantAndApplnNoForProcessInstance.get(tenantId);
-							applnNos.add(String.valueOf(businessId));
-							tenantAndApplnNoForProcessInstance.put(tenantId, applnNos);
-						} else {
-							List<String> businesIds = new ArrayList<>();
-							businesIds.add(String.valueOf(businessId));
-							tenantAndApplnNoForProcessInstance.put(tenantId, businesIds);
-						}
+						if (tenantAppln.getValue().contains(businessId))
+							tenantAndApplnNoForProcessInstance.computeIfAbsent(tenantAppln.getKey(), k -> new ArrayList<>())
+									.add(String.valueOf(businessId));
 					}
 				}
-				ProcessInstanceResponse processInstanceRes = new ProcessInstanceResponse();
+				/*
+				 * Workflow search is scoped to a single tenant, the tenant wise searches are
+				 * independent and issued concurrently
+				 */
+				List<CompletableFuture<ProcessInstanceResponse>> processInstanceLookups = new ArrayList<>();
 				for (Map.Entry<String, List<String>> appln : tenantAndApplnNoForProcessInstance.entrySet()) {
-					processCriteria.setTenantId(appln.getKey());
-					processCriteria.setBusinessIds(appln.getValue());
-					ProcessInstanceResponse processInstance = workflowService.getProcessInstance(processCriteria,
-							requestInfo);
+					ProcessInstanceSearchCriteria tenantProcessCriteria = copyProcessCriteria(processCriteria);
+					tenantProcessCriteria.setTenantId(appln.getKey());
+					tenantProcessCriteria.setBusinessIds(appln.getValue());
+					processInstanceLookups.add(lookupAsync(
+							() -> workflowService.getProcessInstance(tenantProcessCriteria, requestInfo)));
+				}
+				ProcessInstanceResponse processInstanceRes = new ProcessInstanceResponse();
+				for (CompletableFuture<ProcessInstanceResponse> processInstanceLookup : processInstanceLookups) {
+					ProcessInstanceResponse processInstance = awaitLookup(processInstanceLookup,
+							"workflow process instances");
 					processInstanceRes.setResponseInfo(processInstance.getResponseInfo());
 					if (processInstanceRes.getProcessInstances() == null)
 						processInstanceRes.setProcessInstances(processInstance.getProcessInstances());
@@ -1025,20 +1060,6 @@ public class InboxService {
 			List<String> applicationStatus = new ArrayList<>();
 			applicationStatus.add(WAITING_FOR_DISPOSAL_STATE);
 			applicationStatus.add(DISPOSED_STATE);
-			List<Map<String, Object>> vehicleResponse = fetchVehicleTripResponse(criteria, requestInfo,
-					applicationStatus);
-			BusinessService businessService = workflowService.getBusinessService(criteria.getTenantId(), requestInfo,
-					FSM_VEHICLE_TRIP_MODULE);
-			// log.info("businessService :::: " + businessService);
-			populateStatusCountMap(statusCountMap, vehicleResponse, businessService);
-
-			for (HashMap<String, Object> vTripMap : statusCountMap) {
-				if ((WAITING_FOR_DISPOSAL_STATE.equals(vTripMap.get(APPLICATIONSTATUS))
-						|| DISPOSED_STATE.equals(vTripMap.get(APPLICATIONSTATUS)))
-						&& inputStatuses.contains(vTripMap.get(STATUSID))) {
-					totalCount += ((int) vTripMap.get(COUNT));
-				}
-			}
 			List<String> requiredApplications = new ArrayList<>();
 			inboxes.forEach(inbox -> {
 				ProcessInstance inboxProcessInstance = inbox.getProcessInstance();
@@ -1052,8 +1073,27 @@ public class InboxService {
 			});
 			// log.info("requiredApplications :::: " + requiredApplications);
 
-			List<VehicleTripDetail> vehicleTripDetail = fetchVehicleStatusForApplication(requiredApplications,
-					requestInfo, criteria.getTenantId());
+			// The vehicle trip counts, vehicle trip workflow and trip details are independent look ups
+			CompletableFuture<List<Map<String, Object>>> vehicleResponseLookup = lookupAsync(
+					() -> fetchVehicleTripResponse(criteria, requestInfo, applicationStatus));
+			CompletableFuture<BusinessService> businessServiceLookup = lookupAsync(
+					() -> workflowService.getBusinessService(criteria.getTenantId(), requestInfo, FSM_VEHICLE_TRIP_MODULE));
+			CompletableFuture<List<VehicleTripDetail>> vehicleTripDetailLookup = lookupAsync(
+					() -> fetchVehicleStatusForApplication(requiredApplications, requestInfo, criteria.getTenantId()));
+
+			List<Map<String, Object>> vehicleResponse = awaitLookup(vehicleResponseLookup, "vehicle trip status count");
+			BusinessService businessService = awaitLookup(businessServiceLookup, "vehicle trip business service");
+			// log.info("businessService :::: " + businessService);
+			populateStatusCountMap(statusCountMap, vehicleResponse, businessService);
+
+			for (HashMap<String, Object> vTripMap : statusCountMap) {
+				if ((WAITING_FOR_DISPOSAL_STATE.equals(vTripMap.get(APPLICATIONSTATUS))
+						|| DISPOSED_STATE.equals(vTripMap.get(APPLICATIONSTATUS)))
+						&& inputStatuses.contains(vTripMap.get(STATUSID))) {
+					totalCount += ((int) vTripMap.get(COUNT));
+				}
+			}
+			List<VehicleTripDetail> vehicleTripDetail = awaitLookup(vehicleTripDetailLookup, "vehicle trip details");
 			// log.info("vehicleTripDetail :::: " + vehicleTripDetail);
 			inboxes.forEach(inbox -> {
 				if (null != inbox && null != inbox.getProcessInstance()
@@ -1167,6 +1207,50 @@ public class InboxService {
 		return response;
 	}
 
+	/**
+	 * Runs an independent look up on the look up pool, carrying over the logging
+	 * context of the request
+	 */
+	private <T> CompletableFuture<T> lookupAsync(Supplier<T> lookup) {
+		Map<String, String> contextMap = MDC.getCopyOfContextMap();
+		return CompletableFuture.supplyAsync(() -> {
+			if (contextMap != null)
+				MDC.setContextMap(contextMap);
+			try {
+				return lookup.get();
+			} finally {
+				MDC.clear();
+			}
+		}, lookupExecutor);
+	}
+
+	private <T> T awaitLookup(CompletableFuture<T> lookup, String lookupName) {
+		try {
+			return lookup.get(config.getLookupTimeout(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			lookup.cancel(true);
+			throw new CustomException(ErrorConstants.LOOKUP_TIMEOUT, "Timed out while fetching " + lookupName);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new CustomException(ErrorConstants.LOOKUP_ERROR, "Failed to fetch " + lookupName);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CustomException(ErrorConstants.LOOKUP_ERROR, "Interrupted while fetching " + lookupName);
+		}
+	}
+
+	/**
+	 * Copy of the criteria for a concurrent look up, the workflow calls modify the
+	 * criteria they are given
+	 */
+	private ProcessInstanceSearchCriteria copyProcessCriteria(ProcessInstanceSearchCriteria processCriteria) {
+		ProcessInstanceSearchCriteria copy = mapper.convertValue(processCriteria, ProcessInstanceSearchCriteria.class);
+		copy.setIsProcessCountCall(processCriteria.getIsProcessCountCall());
+		copy.setIsNearingSlaCount(processCriteria.getIsNearingSlaCount());
+		return copy;
+	}
+
 	/**
 	 * @param businessServiceSlaMap
 	 * @param data                  -- application object
@@ -1,25 +1,22 @@
 package org.egov.inbox.service.V2;
 
-import static org.egov.inbox.util.InboxConstants.AGGREGATIONS_KEY;
 import static org.egov.inbox.util.InboxConstants.APPLICATION_STATUS_KEY;
 import static org.egov.inbox.util.InboxConstants.AUDIT_DETAILS_KEY;
 import static org.egov.inbox.util.InboxConstants.BUSINESSSERVICE_KEY;
 import static org.egov.inbox.util.InboxConstants.BUSINESS_SERVICE_PATH;
 import static org.egov.inbox.util.InboxConstants.COUNT_CONSTANT;
-import static org.egov.inbox.util.InboxConstants.COUNT_PATH;
 import static org.egov.inbox.util.InboxConstants.CREATED_TIME_KEY;
 import static org.egov.inbox.util.InboxConstants.CURRENT_PROCESS_INSTANCE_CONSTANT;
 import static org.egov.inbox.util.InboxConstants.DATA_KEY;
-import static org.egov.inbox.util.InboxConstants.DOC_COUNT_KEY;
 import static org.egov.inbox.util.InboxConstants.HITS;
-import static org.egov.inbox.util.InboxConstants.KEY;
 import static org.egov.inbox.util.InboxConstants.LAST_MODIFIED_TIME_KEY;
+import static org.egov.inbox.util.InboxConstants.MULTI_SEARCH_PATH;
 import static org.egov.inbox.util.InboxConstants.SEARCH_PATH;
 import static org.egov.inbox.util.InboxConstants.SERVICESLA_KEY;
 import static org.egov.inbox.util.InboxConstants.SOURCE_KEY;
 import static org.egov.inbox.util.InboxConstants.STATE_UUID_PATH;
 import static org.egov.inbox.util.InboxConstants.STATUSID_KEY;
-import static org.egov.inbox.util.InboxConstants.STATUS_COUNT_AGGREGATIONS_BUCKETS_PATH;
+import static org.egov.inbox.util.InboxConstants.STATUS_COUNT_AGGREGATION;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,7 +25,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
+
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
 import org.egov.hash.HashService;
 import org.egov.inbox.config.InboxConfiguration;
 import org.egov.inbox.repository.ServiceRequestRepository;
@@ -41,6 +43,8 @@ import org.egov.inbox.web.model.Inbox;
 import org.egov.inbox.web.model.InboxRequest;
 import org.egov.inbox.web.model.InboxResponse;
 import org.egov.inbox.web.model.V2.Data;
+import org.egov.inbox.web.model.V2.ESMultiSearchResponse;
+import org.egov.inbox.web.model.V2.ESSearchResponse;
 import org.egov.inbox.web.model.V2.Field;
 import org.egov.inbox.web.model.V2.InboxQueryConfiguration;
 import org.egov.inbox.web.model.V2.SearchRequest;
@@ -68,6 +72,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class InboxServiceV2 {
 
+    private static final MediaType NDJSON_MEDIA_TYPE = new MediaType("application", "x-ndjson");
+
     @Autowired
     private InboxConfiguration config;
 
@@ -96,6 +102,17 @@ public class InboxServiceV2 {
     private HashService hashService;
 
 
+    private Cache<String, List<HashMap<String, Object>>> statusCountCache;
+
+    @PostConstruct
+    public void initStatusCountCache() {
+        statusCountCache = new Cache2kBuilder<String, List<HashMap<String, Object>>>() {}
+                .name("inboxStatusCount")
+                .expireAfterWrite(config.getStatusCountCacheTtl(), TimeUnit.MILLISECONDS)
+                .entryCapacity(config.getStatusCountCacheMaxSize())
+                .build();
+    }
+
     /**
      *
      * @param inboxRequest
@@ -106,16 +123,102 @@ public class InboxServiceV2 {
         validator.validateSearchCriteria(inboxRequest);
         InboxQueryConfiguration inboxQueryConfiguration = mdmsUtil.getConfigFromMDMS(inboxRequest.getInbox().getTenantId(), inboxRequest.getInbox().getProcessSearchCriteria().getModuleName());
         hashParamsWhereverRequiredBasedOnConfiguration(inboxRequest.getInbox().getModuleSearchCriteria(), inboxQueryConfiguration);
-        List<Inbox> items = getInboxItems(inboxRequest, inboxQueryConfiguration.getIndex());
+
+        List<BusinessService> businessServices = workflowService.getBusinessServices(inboxRequest);
+        enrichActionableStatusesFromRole(inboxRequest, businessServices);
+        List<String> actionableStatuses = inboxRequest.getInbox().getProcessSearchCriteria().getStatus();
+        if(CollectionUtils.isEmpty(actionableStatuses)){
+            return InboxResponse.builder().items(new ArrayList<>()).totalCount(0).statusMap(new ArrayList<>()).nearingSlaCount(0).build();
+        }
+
+        /*
+          Items, total count, status counts and nearing sla counts are independent searches on the same index,
+          they are sent as one multi search request instead of a round trip each.
+        */
+        List<Map<String, Object>> queries = new ArrayList<>();
+        queries.add(queryBuilder.getESQuery(inboxRequest, Boolean.TRUE));
+        queries.add(queryBuilder.getESQuery(inboxRequest, Boolean.FALSE));
+
+        String statusCountCacheKey = getStatusCountCacheKey(inboxRequest, inboxQueryConfiguration.getIndex());
+        List<HashMap<String, Object>> statusCountMap = config.getIsStatusCountCacheEnabled() ? statusCountCache.peek(statusCountCacheKey) : null;
+        if(statusCountMap == null)
+            queries.add(queryBuilder.getStatusCountQuery(inboxRequest));
+
+        int nearingSlaQueriesFrom = queries.size();
+        queries.addAll(getNearingSlaCountQueries(inboxRequest, businessServices));
+
+        List<ESSearchResponse> responses = multiSearch(inboxQueryConfiguration.getIndex(), queries);
+
+        List<Inbox> items = parseInboxItemsFromSearchResponse(responses.get(0), businessServices);
         enrichProcessInstanceInInboxItems(items);
-        Integer totalCount = CollectionUtils.isEmpty(inboxRequest.getInbox().getProcessSearchCriteria().getStatus()) ? 0 : getTotalApplicationCount(inboxRequest, inboxQueryConfiguration.getIndex());
-        List<HashMap<String, Object>> statusCountMap = CollectionUtils.isEmpty(inboxRequest.getInbox().getProcessSearchCriteria().getStatus()) ? new ArrayList<>() : getStatusCountMap(inboxRequest, inboxQueryConfiguration.getIndex());
-        Integer nearingSlaCount = CollectionUtils.isEmpty(inboxRequest.getInbox().getProcessSearchCriteria().getStatus()) ? 0 : getApplicationsNearingSlaCount(inboxRequest, inboxQueryConfiguration.getIndex());
+
+        Integer totalCount = getTotalCount(responses.get(1));
+
+        if(statusCountMap == null) {
+            HashMap<String, Object> statusIdCountMap = parseStatusCountMapFromAggregationResponse(responses.get(2), new HashSet<>(actionableStatuses));
+            statusCountMap = transformStatusMap(businessServices, statusIdCountMap);
+            if(config.getIsStatusCountCacheEnabled() && statusCountMap != null)
+                statusCountCache.put(statusCountCacheKey, statusCountMap);
+        }
+
+        Integer nearingSlaCount = 0;
+        for(ESSearchResponse response : responses.subList(nearingSlaQueriesFrom, responses.size()))
+            nearingSlaCount += getTotalCount(response);
+
         InboxResponse inboxResponse = InboxResponse.builder().items(items).totalCount(totalCount).statusMap(statusCountMap).nearingSlaCount(nearingSlaCount).build();
 
         return inboxResponse;
     }
 
+    /**
+     * Status counts depend only on the index and the statuses actionable by the roles of the user
+     */
+    private String getStatusCountCacheKey(InboxRequest inboxRequest, String indexName) {
+        List<String> statuses = new ArrayList<>(inboxRequest.getInbox().getProcessSearchCriteria().getStatus());
+        Collections.sort(statuses);
+        return indexName + "|" + inboxRequest.getInbox().getTenantId() + "|"
+                + inboxRequest.getInbox().getProcessSearchCriteria().getModuleName() + "|" + String.join(",", statuses);
+    }
+
+    /**
+     * Executes the given queries on the index as a single multi search, responses are returned in the order of the queries
+     */
+    private List<ESSearchResponse> multiSearch(String indexName, List<Map<String, Object>> queries) {
+        StringBuilder body = new StringBuilder();
+        try {
+            for(Map<String, Object> query : queries) {
+                body.append("{}\n");
+                body.append(mapper.writeValueAsString(query)).append("\n");
+            }
+        } catch (JsonProcessingException e) {
+            throw new CustomException("INBOX_QUERY_ERR", "Failed to serialize inbox search queries");
+        }
+        log.debug("Multi search query: " + body);
+
+        StringBuilder uri = getURI(indexName, MULTI_SEARCH_PATH);
+        HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
+        headers.setContentType(NDJSON_MEDIA_TYPE);
+        HttpEntity<String> requestEntity = new HttpEntity<>(body.toString(), headers);
+
+        ESMultiSearchResponse response = serviceRequestRepository.fetchResult(uri, requestEntity, ESMultiSearchResponse.class);
+        if(response == null || CollectionUtils.isEmpty(response.getResponses()) || response.getResponses().size() != queries.size())
+            throw new CustomException("INBOX_SEARCH_ERR", "Error occurred while executing ES multi search query");
+
+        response.getResponses().forEach(searchResponse -> {
+            if(!ObjectUtils.isEmpty(searchResponse.getError())) {
+                log.error("ES search failed with status " + searchResponse.getStatus() + ": " + searchResponse.getError());
+                throw new CustomException("INBOX_SEARCH_ERR", "Error occurred while executing ES search query");
+            }
+        });
+        return response.getResponses();
+    }
+
+    private Integer getTotalCount(ESSearchResponse response) {
+        if(response.getHits() == null || response.getHits().getTotal() == null || response.getHits().getTotal().getValue() == null)
+            throw new CustomException("INBOX_COUNT_ERR", "Error occurred while executing ES count query - 'total' missing in hits.");
+        return response.getHits().getTotal().getValue().intValue();
+    }
+
     private void hashParamsWhereverRequiredBasedOnConfiguration(Map<String, Object> moduleSearchCriteria, InboxQueryConfiguration inboxQueryConfiguration) {
 
         inboxQueryConfiguration.getAllowedSearchCriteria().forEach(searchParam -> {
@@ -153,49 +256,6 @@ public class InboxServiceV2 {
         });
     }
 
-    private List<Inbox> getInboxItems(InboxRequest inboxRequest, String indexName){
-        List<BusinessService> businessServices = workflowService.getBusinessServices(inboxRequest);
-        enrichActionableStatusesFromRole(inboxRequest, businessServices);
-        if(CollectionUtils.isEmpty(inboxRequest.getInbox().getProcessSearchCriteria().getStatus())){
-            return new ArrayList<>();
-        }
-//        Map<String, Object> finalQueryBody = queryBuilder.getESQuery(inboxRequest, Boolean.TRUE);
-//        try {
-//            String q = mapper.writeValueAsString(finalQueryBody);
-//            log.info("Query: "+q);
-//        }
-//        catch (Exception e){
-//            e.printStackTrace();
-//        }
-//        StringBuilder uri = getURI(indexName, SEARCH_PATH);
-//        HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
-//        headers.setContentType(MediaType.APPLICATION_JSON);
-//        HttpEntity<String> requestEntity = new HttpEntity<>(finalQueryBody, headers);
-//        Object result = serviceRequestRepository.fetchResult(uri, finalQueryBody);
-//        
-        Map<String, Object> finalQueryBody = queryBuilder.getESQuery(inboxRequest, Boolean.TRUE);
-        String q = null;
-        try {
-            q = mapper.writeValueAsString(finalQueryBody);  // Convert Map to JSON string
-            log.info("Query: " + q);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        StringBuilder uri = getURI(indexName, SEARCH_PATH);
-        HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        // Use the JSON string 'q' in the HttpEntity
-        HttpEntity<String> requestEntity = new HttpEntity<>(q, headers);
-    
-//        
-        Object result = serviceRequestRepository.fetchResult(uri, requestEntity);
-        List<Inbox> inboxItemsList = parseInboxItemsFromSearchResponse(result, businessServices);
-        log.info(result.toString());
-        return inboxItemsList;
-    }
-
     private void enrichActionableStatusesFromRole(InboxRequest inboxRequest, List<BusinessService> businessServices) {
         ProcessInstanceSearchCriteria processCriteria = inboxRequest.getInbox().getProcessSearchCriteria();
         String tenantId = inboxRequest.getInbox().getTenantId();
@@ -221,108 +281,6 @@ public class InboxServiceV2 {
         }
     }
 
-    public Integer getTotalApplicationCount(InboxRequest inboxRequest, String indexName){
-
-        Map<String, Object> finalQueryBody = queryBuilder.getESQuery(inboxRequest, Boolean.FALSE);
-//        StringBuilder uri = getURI(indexName, COUNT_PATH);
-//        ---------------------------------------------
-        String q = null;
-        try {
-            q = mapper.writeValueAsString(finalQueryBody);  // Convert Map to JSON string
-            log.info("Query: " + q);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        StringBuilder uri = getURI(indexName, SEARCH_PATH);
-        HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        // Use the JSON string 'q' in the HttpEntity
-        HttpEntity<String> requestEntity = new HttpEntity<>(q, headers);
-    
-        
-        Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, requestEntity);
-//        ---------------------------------------------
-//        Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, finalQueryBody);
-//        log.info("response: " + response);
-//        Integer totalCount = 0;
-//        if(response.containsKey("total")){
-//            totalCount = (Integer) response.get("total");
-//        }else{
-//            throw new CustomException("INBOX_COUNT_ERR", "Error occurred while executing ES count query");
-//        }
-//        return totalCount;
-        Integer currentCount = 0;
-//        if (response.containsKey("total")) {
-//            Object totalValue = response.get("total");
-//
-//            if (totalValue instanceof Integer) {
-//                currentCount = (Integer) totalValue;
-//            } else if (totalValue instanceof Long) {
-//                currentCount = ((Long) totalValue).intValue();  // Convert Long to Integer
-//            } else if (totalValue instanceof String) {
-//                try {
-//                    currentCount = Integer.parseInt((String) totalValue);
-//                } catch (NumberFormatException e) {
-//                    throw new CustomException("INBOX_COUNT_ERR", "Invalid format for 'total': " + totalValue);
-//                }
-//            } else {
-//                throw new CustomException("INBOX_COUNT_ERR", "'total' has an unsupported type: " + totalValue.getClass());
-//            }
-//        } else {
-//            throw new CustomException("INBOX_COUNT_ERR", "Error occurred while executing ES count query - 'total' key missing.");
-//        }
-        if (response.containsKey("hits") && response.get("hits") instanceof Map &&
-        	    ((Map<String, Object>) response.get("hits")).containsKey("total")) {
-
-        	    Map<String, Object> total = (Map<String, Object>) ((Map<String, Object>) response.get("hits")).get("total");
-
-        	    if (total.containsKey("value")) {
-        	    	currentCount = (Integer) total.get("value");
-        	        System.out.println("Total hits: " + currentCount);
-        	    } else {
-        	        throw new IllegalArgumentException("The 'value' field is missing in 'total'.");
-        	    }
-        	} else {
-        	    throw new IllegalArgumentException("The 'total' field is missing in 'hits'.");
-        	}
-
-
-      return currentCount;
-
-    }
-
-    public List<HashMap<String, Object>> getStatusCountMap(InboxRequest inboxRequest, String indexName){
-        Map<String, Object> finalQueryBody = queryBuilder.getStatusCountQuery(inboxRequest);
-//        StringBuilder uri = getURI(indexName, SEARCH_PATH);
-//        ------------------------------
-        String q = null;
-        try {
-            q = mapper.writeValueAsString(finalQueryBody);  // Convert Map to JSON string
-            log.info("Query: " + q);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        StringBuilder uri = getURI(indexName, SEARCH_PATH);
-        HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        // Use the JSON string 'q' in the HttpEntity
-        HttpEntity<String> requestEntity = new HttpEntity<>(q, headers);
-    
-        
-        Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, requestEntity);
-        
-//        --------------------------------
-//        Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, finalQueryBody);
-        Set<String> actionableStatuses = new HashSet<>(inboxRequest.getInbox().getProcessSearchCriteria().getStatus());
-        HashMap<String, Object> statusCountMap = parseStatusCountMapFromAggregationResponse(response, actionableStatuses);
-        List<HashMap<String, Object>> transformedStatusMap = transformStatusMap(inboxRequest, statusCountMap);
-        return transformedStatusMap;
-    }
-
     private Long getApplicationServiceSla(Map<String, Long> businessServiceSlaMap, Map<String, Long> stateUuidSlaMap, Object data) {
 
         Long currentDate = System.currentTimeMillis(); //current time
@@ -346,13 +304,11 @@ public class InboxServiceV2 {
         return null;
     }
 
-    private List<HashMap<String,Object>> transformStatusMap(InboxRequest request,HashMap<String, Object> statusCountMap) {
+    private List<HashMap<String,Object>> transformStatusMap(List<BusinessService> businessServices, HashMap<String, Object> statusCountMap) {
 
         if(CollectionUtils.isEmpty(statusCountMap))
             return null;
 
-        List<BusinessService> businessServices = workflowService.getBusinessServices(request);
-
         Map<String,String> statusIdToBusinessServiceMap = workflowService.getStatusIdToBusinessServiceMap(businessServices);
         Map<String, String> statusIdToApplicationStatusMap = workflowService.getApplicationStatusIdToStatusMap(businessServices);
 
@@ -371,26 +327,23 @@ public class InboxServiceV2 {
         return statusCountMapTransformed;
     }
 
-    private HashMap<String, Object> parseStatusCountMapFromAggregationResponse(Map<String, Object> response, Set<String> actionableStatuses) {
-        List<HashMap<String, Object>> statusCountResponse = new ArrayList<>();
-        if(!CollectionUtils.isEmpty((Map<String, Object>) response.get(AGGREGATIONS_KEY))){
-            List<Map<String, Object>> statusCountBuckets = JsonPath.read(response, STATUS_COUNT_AGGREGATIONS_BUCKETS_PATH);
-            HashMap<String, Object> statusCountMap = new HashMap<>();
+    private HashMap<String, Object> parseStatusCountMapFromAggregationResponse(ESSearchResponse response, Set<String> actionableStatuses) {
+        if(CollectionUtils.isEmpty(response.getAggregations()) || !response.getAggregations().containsKey(STATUS_COUNT_AGGREGATION))
+            return null;
+
+        HashMap<String, Object> statusCountMap = new HashMap<>();
+        List<ESSearchResponse.Bucket> statusCountBuckets = response.getAggregations().get(STATUS_COUNT_AGGREGATION).getBuckets();
+        if(!CollectionUtils.isEmpty(statusCountBuckets)) {
             statusCountBuckets.forEach(bucket -> {
-                if(actionableStatuses.contains(bucket.get(KEY)))
-                    statusCountMap.put((String)bucket.get(KEY), bucket.get(DOC_COUNT_KEY));
+                if(actionableStatuses.contains(bucket.getKey()))
+                    statusCountMap.put(bucket.getKey(), bucket.getDocCount().intValue());
             });
-            statusCountResponse.add(statusCountMap);
         }
-        if(CollectionUtils.isEmpty(statusCountResponse))
-            return null;
-
-        return statusCountResponse.get(0);
+        return statusCountMap;
     }
 
-    private List<Inbox> parseInboxItemsFromSearchResponse(Object result, List<BusinessService> businessServices) {
-        Map<String, Object> hits = (Map<String, Object>)((Map<String, Object>) result).get(HITS);
-        List<Map<String, Object>> nestedHits = (List<Map<String, Object>>) hits.get(HITS);
+    private List<Inbox> parseInboxItemsFromSearchResponse(ESSearchResponse result, List<BusinessService> businessServices) {
+        List<ESSearchResponse.Hit> nestedHits = result.getHits() == null ? null : result.getHits().getHits();
         if(CollectionUtils.isEmpty(nestedHits)){
             return new ArrayList<>();
         }
@@ -409,7 +362,7 @@ public class InboxServiceV2 {
         List<Inbox> inboxItemList = new ArrayList<>();
         nestedHits.forEach(hit ->{
             Inbox inbox = new Inbox();
-            Map<String, Object> businessObject = (Map<String, Object>) hit.get(SOURCE_KEY);
+            Map<String, Object> businessObject = hit.getSource();
             inbox.setBusinessObject((Map<String, Object>)businessObject.get(DATA_KEY));
             Long serviceSla = getApplicationServiceSla(businessServiceSlaMap, stateUuidVsSlaMap, inbox.getBusinessObject());            inbox.getBusinessObject().put(SERVICESLA_KEY, serviceSla);
             inboxItemList.add(inbox);
@@ -417,8 +370,10 @@ public class InboxServiceV2 {
         return inboxItemList;
     }
 
-    public Integer getApplicationsNearingSlaCount(InboxRequest inboxRequest, String indexName) {
-        List<BusinessService> businessServicesObjs = workflowService.getBusinessServices(inboxRequest);
+    /**
+     * Builds one nearing sla count query per business service of the searched statuses, the count is the sum of their hits
+     */
+    private List<Map<String, Object>> getNearingSlaCountQueries(InboxRequest inboxRequest, List<BusinessService> businessServicesObjs) {
         Map<String, Long> businessServiceSlaMap = new HashMap<>();
         Map<String, HashSet<String>> businessServiceVsStateUuids = new HashMap<>();
         businessServicesObjs.forEach(businessService -> {
@@ -456,92 +411,20 @@ public class InboxServiceV2 {
             });
         }
 
-
-
-        List<String> businessServices = new ArrayList<>(businessServiceVsUuidsBasedOnSearchCriteria.keySet());
-        Integer totalCount = 0;
-        // Fetch slot percentage only once here !!!!!!!!!!
-
-
-        for(int i = 0; i < businessServices.size(); i++){
-            String businessService = businessServices.get(i);
-            Long businessServiceSla = businessServiceSlaMap.get(businessService);
-            inboxRequest.getInbox().getProcessSearchCriteria().setStatus(businessServiceVsUuidsBasedOnSearchCriteria.get(businessService));
-            Map<String, Object> finalQueryBody = queryBuilder.getNearingSlaCountQuery(inboxRequest, businessServiceSla);
-//            StringBuilder uri = getURI(indexName, COUNT_PATH);
-//  -----------------------------------------------------------      
-            String q = null;
-            try {
-                q = mapper.writeValueAsString(finalQueryBody);  // Convert Map to JSON string
-                log.info("Query: " + q);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-
-            StringBuilder uri = getURI(indexName, SEARCH_PATH);
-            HttpHeaders headers = elasticSearchUtil.getHttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // Use the JSON string 'q' in the HttpEntity
-            HttpEntity<String> requestEntity = new HttpEntity<>(q, headers);
-        
-            
-            Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, requestEntity);
-//    ------------------------------------------------------------------        
-//            Map<String, Object> response = (Map<String, Object>) serviceRequestRepository.fetchResult(uri, finalQueryBody);
-//            Integer currentCount = 0;
-//            if(response.containsKey("total")){
-//                currentCount = (Integer) response.get("total");
-//            }else{
-//                throw new CustomException("INBOX_COUNT_ERR", "Error occurred while executing ES count query");
-//            }
-//            totalCount += currentCount;
-//        }
-            Integer currentCount = 0;
-//            if (response.containsKey("total")) {
-//                Object totalValue = response.get("total");
-//
-//                if (totalValue instanceof Integer) {
-//                    currentCount = (Integer) totalValue;
-//                } else if (totalValue instanceof Long) {
-//                    currentCount = ((Long) totalValue).intValue();  // Convert Long to Integer
-//                } else if (totalValue instanceof String) {
-//                    try {
-//                        currentCount = Integer.parseInt((String) totalValue);
-//                    } catch (NumberFormatException e) {
-//                        throw new CustomException("INBOX_COUNT_ERR", "Invalid format for 'total': " + totalValue);
-//                    }
-//                } else {
-//                    throw new CustomException("INBOX_COUNT_ERR", "'total' has an unsupported type: " + totalValue.getClass());
-//                }
-//            } else {
-//                throw new CustomException("INBOX_COUNT_ERR", "Error occurred while executing ES count query - 'total' key missing.");
-//            }
-
-            if (response.containsKey("hits") && response.get("hits") instanceof Map &&
-            	    ((Map<String, Object>) response.get("hits")).containsKey("total")) {
-
-            	    Map<String, Object> total = (Map<String, Object>) ((Map<String, Object>) response.get("hits")).get("total");
-
-            	    if (total.containsKey("value")) {
-            	    	currentCount = (Integer) total.get("value");
-            	        System.out.println("Total hits: " + currentCount);
-            	    } else {
-            	        throw new IllegalArgumentException("The 'value' field is missing in 'total'.");
-            	    }
-            	} else {
-            	    throw new IllegalArgumentException("The 'total' field is missing in 'hits'.");
-            	}
-            if (currentCount != null) {
-                totalCount += currentCount;
+        List<Map<String, Object>> nearingSlaCountQueries = new ArrayList<>();
+        ProcessInstanceSearchCriteria processCriteria = inboxRequest.getInbox().getProcessSearchCriteria();
+        try {
+            for(Map.Entry<String, List<String>> entry : businessServiceVsUuidsBasedOnSearchCriteria.entrySet()){
+                Long businessServiceSla = businessServiceSlaMap.get(entry.getKey());
+                processCriteria.setStatus(entry.getValue());
+                nearingSlaCountQueries.add(queryBuilder.getNearingSlaCountQuery(inboxRequest, businessServiceSla));
             }
-
-
+        } finally {
+            processCriteria.setStatus(uuidsInSearchCriteria);
         }
-		return totalCount;
+        return nearingSlaCountQueries;
     }
 
-
     private StringBuilder getURI(String indexName, String endpoint){
         StringBuilder uri = new StringBuilder(config.getIndexServiceHost());
         uri.append(indexName);
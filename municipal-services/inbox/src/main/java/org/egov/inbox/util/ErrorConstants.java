@@ -8,5 +8,7 @@ public class ErrorConstants {
 	public static final String INVALID_MODULE = "INVALID_MODULE";
 	public static final String INVALID_MODULE_DATA = "INVALID_MODULE_DATA";
 	public static final String INVALID_OPERATOR_DATA = "INVALID_OPERATOR_DATA";
+	public static final String LOOKUP_TIMEOUT = "INBOX_LOOKUP_TIMEOUT";
+	public static final String LOOKUP_ERROR = "INBOX_LOOKUP_ERROR";
 
 }
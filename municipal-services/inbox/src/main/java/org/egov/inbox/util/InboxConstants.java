@@ -35,6 +35,8 @@ public class InboxConstants {
 
     public static final String COUNT_PATH = "/_count";
 
+    public static final String MULTI_SEARCH_PATH = "/_msearch";
+
     public static final String SORT_ORDER_CONSTANT = "sortOrder";
 
     public static final String SORT_BY_CONSTANT = "sortBy";
@@ -63,6 +65,8 @@ public class InboxConstants {
 
     public static final String STATUS_COUNT_AGGREGATIONS_BUCKETS_PATH = "$.aggregations.statusCount.buckets.*";
 
+    public static final String STATUS_COUNT_AGGREGATION = "statusCount";
+
     public static final String KEY = "key";
 
     public static final String DOC_COUNT_KEY = "doc_count";
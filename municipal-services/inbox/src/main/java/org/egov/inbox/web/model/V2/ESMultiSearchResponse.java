@@ -0,0 +1,20 @@
+package org.egov.inbox.web.model.V2;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ESMultiSearchResponse {
+
+    @JsonProperty("responses")
+    private List<ESSearchResponse> responses;
+
+}
@@ -0,0 +1,97 @@
+package org.egov.inbox.web.model.V2;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed view of a single elasticsearch search response, only the parts read by the inbox are mapped
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ESSearchResponse {
+
+    @JsonProperty("status")
+    private Integer status;
+
+    @JsonProperty("error")
+    private Object error;
+
+    @JsonProperty("hits")
+    private Hits hits;
+
+    @JsonProperty("aggregations")
+    private Map<String, Aggregation> aggregations;
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Hits {
+
+        @JsonProperty("total")
+        private TotalHits total;
+
+        @JsonProperty("hits")
+        private List<Hit> hits;
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TotalHits {
+
+        @JsonProperty("value")
+        private Long value;
+
+        // Older clusters return the total as a plain number instead of an object
+        public TotalHits(long value) {
+            this.value = value;
+        }
+    }
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Hit {
+
+        @JsonProperty("_source")
+        private Map<String, Object> source;
+    }
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Aggregation {
+
+        @JsonProperty("buckets")
+        private List<Bucket> buckets;
+    }
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Bucket {
+
+        @JsonProperty("key")
+        private String key;
+
+        @JsonProperty("doc_count")
+        private Long docCount;
+    }
+}
@@ -188,8 +188,11 @@ public class SWCalculationConfiguration {
 	@Value("${bulk.demand.batch.value}")
 	private Integer bulkbatchSize;
 
-	@Value("${bulk.demand.offset.value}")
-	private Integer batchOffset;
+	@Value("${bulk.demand.worker.pool.size}")
+	private Integer bulkDemandWorkerPoolSize;
+
+	@Value("${bulk.demand.fetchbill.batch.size}")
+	private Integer fetchBillBatchSize;
 
 	@Value("${egov.internal.microservice.user.uuid}")
 	private String egovInternalMicroserviceUserUuid;
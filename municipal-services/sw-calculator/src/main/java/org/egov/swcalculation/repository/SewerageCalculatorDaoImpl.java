@@ -1,6 +1,7 @@
 package org.egov.swcalculation.repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.egov.swcalculation.repository.builder.SWCalculatorQueryBuilder;
@@ -8,6 +9,7 @@ import org.egov.swcalculation.repository.rowMapper.DemandSchedulerRowMapper;
 import org.egov.swcalculation.repository.rowMapper.SewerageConnectionRowMapper;
 import org.egov.swcalculation.repository.rowMapper.SewerageDemandRowMapper;
 import org.egov.swcalculation.repository.rowMapper.SewerageRowMapper;
+import org.egov.swcalculation.web.models.BulkBillCheckpoint;
 import org.egov.swcalculation.web.models.SewerageConnection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -45,28 +47,51 @@ public class SewerageCalculatorDaoImpl implements SewerageCalculatorDao {
 	}
 
 	@Override
-	public List<SewerageConnection> getConnectionsNoList(String tenantId, String connectionType, Integer batchOffset, Integer batchsize, Long fromDate, Long toDate) {
+	public List<String> getConnectionNosAfter(String tenantId, String lastConnectionNo, Integer batchsize) {
 		List<Object> preparedStatement = new ArrayList<>();
-		String query = queryBuilder.getConnectionNumberList(tenantId, connectionType, preparedStatement, batchOffset, batchsize, fromDate, toDate);
-		StringBuilder builder = new StringBuilder();
-		builder.append("sewerage ").append(connectionType).append(" connection list : ").append(query);
-		log.info(builder.toString());
+		String query = queryBuilder.getConnectionNumberKeysetQuery(tenantId, lastConnectionNo, batchsize, preparedStatement);
+		log.debug("Connection number keyset query : " + query + " Parameters: " + preparedStatement);
+		return jdbcTemplate.queryForList(query, preparedStatement.toArray(), String.class);
+	}
+
+	@Override
+	public List<SewerageConnection> getConnectionsNoList(String tenantId, String connectionType, List<String> connectionNos, Long fromDate, Long toDate) {
+		if (connectionNos.isEmpty())
+			return Collections.emptyList();
+		List<Object> preparedStatement = new ArrayList<>();
+		String query = queryBuilder.getConnectionNumberList(tenantId, connectionType, preparedStatement, connectionNos, fromDate, toDate);
+		log.debug("sewerage " + connectionType + " connection list : " + query);
 		return jdbcTemplate.query(query, preparedStatement.toArray(), sewerageRowMapper);
 	}
 
 	@Override
-	public long getConnectionCount(String tenantid, Long fromDate, Long toDate){
-		//List<Object> preparedStatement = new ArrayList<>();
-		String query = queryBuilder.getCountQuery();
-		//preparedStatement.add(tenantid);
-		/*preparedStatement.add(fromDate);
-		preparedStatement.add(toDate);
-		preparedStatement.add(tenantid);*/
+	public BulkBillCheckpoint getBulkBillCheckpoint(String tenantId, String businessService, Long fromDate, Long toDate) {
+		List<Object> preparedStatement = new ArrayList<>();
+		String query = queryBuilder.getBulkBillCheckpointSearchQuery(tenantId, businessService, fromDate, toDate, preparedStatement);
+		List<BulkBillCheckpoint> checkpoints = jdbcTemplate.query(query, preparedStatement.toArray(),
+				(rs, rowNum) -> BulkBillCheckpoint.builder()
+						.tenantId(rs.getString("tenantid"))
+						.businessService(rs.getString("businessservice"))
+						.fromDate(rs.getLong("fromdate"))
+						.toDate(rs.getLong("todate"))
+						.lastConnectionNo(rs.getString("lastconnectionno"))
+						.status(rs.getString("status"))
+						.lastModifiedTime(rs.getLong("lastmodifiedtime"))
+						.build());
+		return checkpoints.isEmpty() ? null : checkpoints.get(0);
+	}
 
-		long count = jdbcTemplate.queryForObject(query,Integer.class);
-		return count;
+	/**
+	 * Written synchronously rather than through the persister so that the
+	 * cursor is durable before the next batch is published.
+	 */
+	@Override
+	public void saveBulkBillCheckpoint(BulkBillCheckpoint checkpoint) {
+		jdbcTemplate.update(queryBuilder.getBulkBillCheckpointUpsertQuery(), checkpoint.getTenantId(),
+				checkpoint.getBusinessService(), checkpoint.getFromDate(), checkpoint.getToDate(),
+				checkpoint.getLastConnectionNo(), checkpoint.getStatus(), checkpoint.getLastModifiedTime());
 	}
-	
+
 	@Override
 	public List<SewerageConnection> getConnectionsNoListForDemand(String tenantId, String connectionType, Long fromDate, Long toDate) {
 		List<Object> preparedStatement = new ArrayList<>();
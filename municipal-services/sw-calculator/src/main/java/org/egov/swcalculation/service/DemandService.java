@@ -301,24 +301,44 @@ public class DemandService {
 	}
 	
 	
+	/**
+	 * Fetches bills for the given demands with one _fetchbill call per batch of
+	 * consumer codes of a tenant, then publishes one pay trigger per bill so
+	 * that the downstream message shape stays the same.
+	 */
+	@SuppressWarnings("unchecked")
 	public boolean fetchBill(List<Demand> demandResponse, RequestInfo requestInfo,Map<String, Object> masterMap) {
 		boolean notificationSent = false;
 		List<Demand> errorMap = new ArrayList<>();
-		int successCount=0;
-		for (Demand demand : demandResponse) {
-			try {
-				Object result = serviceRequestRepository.fetchResult(calculatorUtils.getFetchBillURL(demand.getTenantId(), demand.getConsumerCode()),
-						RequestInfoWrapper.builder().requestInfo(requestInfo).build());
-				HashMap<String, Object> billResponse = new HashMap<>();
-				billResponse.put("requestInfo", requestInfo);
-				billResponse.put("billResponse", result);
-				producer.push(configs.getPayTriggers(), billResponse);
-				notificationSent = true;
-				successCount++;
-
-			} catch (Exception ex) {
-				log.error("EG_SW Fetch Bill Error", ex);
-				errorMap.add(demand);
+		int batchSize = configs.getFetchBillBatchSize();
+		Map<String, List<Demand>> demandsByTenant = demandResponse.stream()
+				.collect(Collectors.groupingBy(Demand::getTenantId, LinkedHashMap::new, Collectors.toList()));
+		for (Map.Entry<String, List<Demand>> tenantDemands : demandsByTenant.entrySet()) {
+			List<Demand> demands = tenantDemands.getValue();
+			for (int from = 0; from < demands.size(); from += batchSize) {
+				List<Demand> batch = demands.subList(from, Math.min(from + batchSize, demands.size()));
+				String consumerCodes = batch.stream().map(Demand::getConsumerCode).distinct()
+						.collect(Collectors.joining(","));
+				try {
+					Object result = serviceRequestRepository.fetchResult(calculatorUtils.getFetchBillURL(tenantDemands.getKey(), consumerCodes),
+							RequestInfoWrapper.builder().requestInfo(requestInfo).build());
+					Map<String, Object> fetchBillResponse = mapper.convertValue(result, Map.class);
+					List<Object> bills = (List<Object>) fetchBillResponse.get("Bill");
+					if (CollectionUtils.isEmpty(bills))
+						continue;
+					for (Object bill : bills) {
+						Map<String, Object> singleBillResponse = new HashMap<>(fetchBillResponse);
+						singleBillResponse.put("Bill", Collections.singletonList(bill));
+						HashMap<String, Object> billResponse = new HashMap<>();
+						billResponse.put("requestInfo", requestInfo);
+						billResponse.put("billResponse", singleBillResponse);
+						producer.push(configs.getPayTriggers(), billResponse);
+					}
+					notificationSent = true;
+				} catch (Exception ex) {
+					log.error("EG_SW Fetch Bill Error for consumer codes " + consumerCodes, ex);
+					errorMap.addAll(batch);
+				}
 			}
 		}
 		String uuid = demandResponse.get(0).getAuditDetails().getCreatedBy();
@@ -992,13 +1012,17 @@ public class DemandService {
 		if(isCurrentDateIsMatching((String) billingMasterData.get(SWCalculationConstant.Billing_Cycle_String), startDay)) {
 
 			Integer batchsize = configs.getBulkbatchSize();
-			Integer batchOffset = configs.getBatchOffset();
 
 			if(bulkBillCriteria.getLimit() != null)
 				batchsize = Math.toIntExact(bulkBillCriteria.getLimit());
 
-			if(bulkBillCriteria.getOffset() != null)
-				batchOffset = Math.toIntExact(bulkBillCriteria.getOffset());
+			/*
+			 * Batches are paged by connection number from the persisted checkpoint,
+			 * a numeric offset has no meaning for the keyset walk and is ignored.
+			 */
+			if(bulkBillCriteria.getOffset() != null && bulkBillCriteria.getOffset() != 0)
+				log.warn("Ignoring offset " + bulkBillCriteria.getOffset() + " for tenant " + tenantId
+						+ ", bulk demand generation resumes from the last checkpointed connection");
 
 			Map<String, Object> masterMap = masterDataService.loadMasterData(requestInfo, tenantId);
 
@@ -1012,55 +1036,78 @@ public class DemandService {
 			Long fromDate = (Long) financialYearMaster.get(SWCalculationConstant.STARTING_DATE_APPLICABLES);
 			Long toDate = (Long) financialYearMaster.get(SWCalculationConstant.ENDING_DATE_APPLICABLES);
 
-			long count = sewerageCalculatorDao.getConnectionCount(tenantId, fromDate, toDate);
-			
-			log.info("Count: "+count);
-
-			if(count > 0) {
-				while (batchOffset < count) {
-					List<SewerageConnection> connections = sewerageCalculatorDao.getConnectionsNoList(tenantId,
-							SWCalculationConstant.nonMeterdConnection, batchOffset, batchsize, fromDate, toDate);
-					log.info("Size of the connection list for batch : "+ batchOffset + " is " + connections.size());
-					connections = enrichmentService.filterConnections(connections);
-					
-					if(connections.size()>0){
-						List<CalculationCriteria> calculationCriteriaList = new ArrayList<>();
-
-						for (SewerageConnection connection : connections) {
-							CalculationCriteria calculationCriteria = CalculationCriteria.builder().tenantId(tenantId)
-									.assessmentYear(estimationService.getAssessmentYear()).connectionNo(connection.getConnectionNo())
-									.sewerageConnection(connection).build();
-							calculationCriteriaList.add(calculationCriteria);
-						}
-
-						/*MigrationCount migrationCount = MigrationCount.builder().id(UUID.randomUUID().toString()).offset(Long.valueOf(batchOffset)).limit(Long.valueOf(batchsize)).recordCount(Long.valueOf(connectionNos.size()))
-								.tenantid(tenantId).createdTime(System.currentTimeMillis()).businessService("SW").build();*/
-
-						MigrationCount migrationCount = MigrationCount.builder()
-								.tenantid(tenantId)
-								.businessService("SW")
-								.limit(Long.valueOf(batchsize))
-								.id(UUID.randomUUID().toString())
-								.offset(Long.valueOf(batchOffset))
-								.createdTime(System.currentTimeMillis())
-								.recordCount(Long.valueOf(connections.size()))
-								.build();
-
-						CalculationReq calculationReq = CalculationReq.builder()
-								.calculationCriteria(calculationCriteriaList)
-								.requestInfo(requestInfo)
-								.isconnectionCalculation(true)
-								.migrationCount(migrationCount).build();
-						
-						kafkaTemplate.send(configs.getCreateDemand(), calculationReq);
-						log.info("Bulk bill Gen batch info : " + migrationCount);
-						calculationCriteriaList.clear();
+			/*
+			 * Resume after the last connection of an interrupted run for the same
+			 * billing period. A completed run starts over from the beginning, the
+			 * demand filter in the connection query keeps it idempotent.
+			 */
+			BulkBillCheckpoint checkpoint = sewerageCalculatorDao.getBulkBillCheckpoint(tenantId, "SW", fromDate, toDate);
+			String lastConnectionNo = null;
+			if (checkpoint != null && BulkBillCheckpoint.STATUS_INPROGRESS.equals(checkpoint.getStatus()))
+				lastConnectionNo = checkpoint.getLastConnectionNo();
+
+			log.info("batchsize: " + batchsize + " resuming after connection :" + lastConnectionNo);
+
+			String assessmentYear = estimationService.getAssessmentYear();
+			long scannedCount = 0;
+			List<String> connectionNos = sewerageCalculatorDao.getConnectionNosAfter(tenantId, lastConnectionNo, batchsize);
+			while (!connectionNos.isEmpty()) {
+				List<SewerageConnection> connections = sewerageCalculatorDao.getConnectionsNoList(tenantId,
+						SWCalculationConstant.nonMeterdConnection, connectionNos, fromDate, toDate);
+				log.info("Size of the connection list for batch after : "+ lastConnectionNo + " is " + connections.size());
+				connections = enrichmentService.filterConnections(connections);
+
+				if(connections.size()>0){
+					List<CalculationCriteria> calculationCriteriaList = new ArrayList<>();
+
+					for (SewerageConnection connection : connections) {
+						CalculationCriteria calculationCriteria = CalculationCriteria.builder().tenantId(tenantId)
+								.assessmentYear(assessmentYear).connectionNo(connection.getConnectionNo())
+								.sewerageConnection(connection).build();
+						calculationCriteriaList.add(calculationCriteria);
 					}
-					batchOffset = batchOffset + batchsize;
+
+					MigrationCount migrationCount = MigrationCount.builder()
+							.tenantid(tenantId)
+							.businessService("SW")
+							.limit(Long.valueOf(batchsize))
+							.id(UUID.randomUUID().toString())
+							.offset(scannedCount)
+							.createdTime(System.currentTimeMillis())
+							.recordCount(Long.valueOf(connections.size()))
+							.build();
+
+					CalculationReq calculationReq = CalculationReq.builder()
+							.calculationCriteria(calculationCriteriaList)
+							.requestInfo(requestInfo)
+							.isconnectionCalculation(true)
+							.migrationCount(migrationCount).build();
+
+					kafkaTemplate.send(configs.getCreateDemand(), calculationReq);
+					log.info("Bulk bill Gen batch info : " + migrationCount);
+					calculationCriteriaList.clear();
 				}
+				scannedCount = scannedCount + connectionNos.size();
+				lastConnectionNo = connectionNos.get(connectionNos.size() - 1);
+				saveBulkBillCheckpoint(tenantId, fromDate, toDate, lastConnectionNo, BulkBillCheckpoint.STATUS_INPROGRESS);
+				connectionNos = sewerageCalculatorDao.getConnectionNosAfter(tenantId, lastConnectionNo, batchsize);
 			}
+			saveBulkBillCheckpoint(tenantId, fromDate, toDate, lastConnectionNo, BulkBillCheckpoint.STATUS_COMPLETED);
+			log.info("Bulk demand generation completed for tenant " + tenantId + ", connections scanned : " + scannedCount);
 		}
 	}
+
+	private void saveBulkBillCheckpoint(String tenantId, Long fromDate, Long toDate, String lastConnectionNo, String status) {
+		sewerageCalculatorDao.saveBulkBillCheckpoint(BulkBillCheckpoint.builder()
+				.tenantId(tenantId)
+				.businessService("SW")
+				.fromDate(fromDate)
+				.toDate(toDate)
+				.lastConnectionNo(lastConnectionNo)
+				.status(status)
+				.lastModifiedTime(System.currentTimeMillis())
+				.build());
+	}
 	
 	/**
 	 * 
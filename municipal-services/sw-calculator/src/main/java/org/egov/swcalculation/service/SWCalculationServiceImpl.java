@@ -18,12 +18,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.minidev.json.JSONArray;
 import org.egov.common.contract.request.RequestInfo;
+import org.egov.swcalculation.config.SWCalculationConfiguration;
 import org.egov.swcalculation.constants.SWCalculationConstant;
 import org.egov.swcalculation.repository.SewerageCalculatorDao;
 import org.egov.swcalculation.util.CalculatorUtils;
@@ -33,6 +39,7 @@ import org.egov.swcalculation.web.models.*;
 import org.egov.swcalculation.repository.SewerageCalculatorDao;
 import org.egov.swcalculation.util.SWCalculationUtil;
 import org.egov.tracer.model.CustomException;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -72,6 +79,9 @@ public class SWCalculationServiceImpl implements SWCalculationService {
 	@Autowired
 	private ObjectMapper mapper;
 
+	@Autowired
+	private SWCalculationConfiguration configs;
+
 	@Autowired
 	private SewerageCessUtil sewerageCessUtil;
 
@@ -270,7 +280,42 @@ public class SWCalculationServiceImpl implements SWCalculationService {
 		if (tenantIds.isEmpty())
 			return;
 		log.info("Tenant Ids : " + tenantIds);
-		tenantIds.forEach(tenantId -> demandService.generateDemandForTenantId(tenantId, requestInfo, bulkBillCriteria));
+
+		/*
+		 * Each tenant is an independent partition with its own checkpoint, so
+		 * tenants are generated concurrently on a bounded pool. RequestInfo is
+		 * copied per tenant because generation sets the tenant on the user.
+		 */
+		int poolSize = Math.min(tenantIds.size(), configs.getBulkDemandWorkerPoolSize());
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+		Map<String, Future<?>> tenantResults = new LinkedHashMap<>();
+		try {
+			for (String tenantId : tenantIds) {
+				RequestInfo tenantRequestInfo = mapper.convertValue(requestInfo, RequestInfo.class);
+				tenantResults.put(tenantId, executor.submit(() -> {
+					if (mdcContext != null)
+						MDC.setContextMap(mdcContext);
+					try {
+						demandService.generateDemandForTenantId(tenantId, tenantRequestInfo, bulkBillCriteria);
+					} finally {
+						MDC.clear();
+					}
+				}));
+			}
+			for (Map.Entry<String, Future<?>> result : tenantResults.entrySet()) {
+				try {
+					result.getValue().get();
+				} catch (ExecutionException e) {
+					log.error("Bulk demand generation failed for tenant " + result.getKey(), e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Bulk demand generation interrupted", e);
+		} finally {
+			executor.shutdown();
+		}
 	}
 
 	public List<SewerageConnection> getConnnectionWithPendingDemand(RequestInfo requestInfo, BulkBillCriteria bulkBillCriteria)
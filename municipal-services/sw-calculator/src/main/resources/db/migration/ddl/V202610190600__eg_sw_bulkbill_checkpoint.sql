@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS eg_sw_bulkbill_checkpoint (
+  tenantid CHARACTER VARYING (256) NOT NULL,
+  businessservice CHARACTER VARYING (256) NOT NULL,
+  fromdate bigint NOT NULL,
+  todate bigint NOT NULL,
+  lastconnectionno CHARACTER VARYING (256),
+  status CHARACTER VARYING (64) NOT NULL,
+  lastmodifiedtime bigint NOT NULL,
+  CONSTRAINT pk_eg_sw_bulkbill_checkpoint PRIMARY KEY (tenantid, businessservice, fromdate, todate)
+);
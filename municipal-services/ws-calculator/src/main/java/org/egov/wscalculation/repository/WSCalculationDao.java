@@ -3,6 +3,7 @@ package org.egov.wscalculation.repository;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.egov.wscalculation.web.models.BulkBillCheckpoint;
 import org.egov.wscalculation.web.models.MeterConnectionRequest;
 import org.egov.wscalculation.web.models.MeterReading;
 import org.egov.wscalculation.web.models.MeterReadingSearchCriteria;
@@ -22,16 +23,20 @@ public interface WSCalculationDao {
 	
 	int isMeterReadingConnectionExist(List<String> ids);
 	
-	List<WaterConnection> getConnectionsNoList(String tenantId, String connectionType, Integer batchOffset, Integer batchsize, Long fromDate, Long toDate);
-	
+	List<String> getConnectionNosAfter(String tenantId, String lastConnectionNo, Integer batchsize);
+
+	List<WaterConnection> getConnectionsNoList(String tenantId, String connectionType, List<String> connectionNos, Long fromDate, Long toDate);
+
+	BulkBillCheckpoint getBulkBillCheckpoint(String tenantId, String businessService, Long fromDate, Long toDate);
+
+	void saveBulkBillCheckpoint(BulkBillCheckpoint checkpoint);
+
 	List<WaterConnection> getConnectionsNoListForDemand(String tenantId, String connectionType, Long fromDate, Long toDate);
 
 	List<String> getTenantId();
 	
 	int isBillingPeriodExists(String connectionNo, String billingPeriod);
 
-	long getConnectionCount(String tenantid, Long fromDate, Long toDate);
-	
 	List<WaterConnection> getConnection(String tenantId, String consumerCode,String connectionType,Long fromDate, Long toDate);
 
 }
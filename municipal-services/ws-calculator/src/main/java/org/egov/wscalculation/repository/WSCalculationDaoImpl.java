@@ -14,6 +14,7 @@ import org.egov.wscalculation.repository.rowmapper.MeterReadingRowMapper;
 import org.egov.wscalculation.repository.rowmapper.WaterConnectionRowMapper;
 import org.egov.wscalculation.repository.rowmapper.WaterDemandRowMapper;
 import org.egov.wscalculation.repository.rowmapper.WaterRowMapper;
+import org.egov.wscalculation.web.models.BulkBillCheckpoint;
 import org.egov.wscalculation.web.models.MeterConnectionRequest;
 import org.egov.wscalculation.web.models.MeterReading;
 import org.egov.wscalculation.web.models.MeterReadingSearchCriteria;
@@ -137,13 +138,51 @@ public class WSCalculationDaoImpl implements WSCalculationDao {
 	}
 	
 	@Override
-	public List<WaterConnection> getConnectionsNoList(String tenantId, String connectionType, Integer batchOffset, Integer batchsize, Long fromDate, Long toDate) {
+	public List<String> getConnectionNosAfter(String tenantId, String lastConnectionNo, Integer batchsize) {
 		List<Object> preparedStatement = new ArrayList<>();
-		String query = queryBuilder.getConnectionNumberList(tenantId, connectionType, preparedStatement, batchOffset, batchsize, fromDate, toDate);
-		log.info("water " + connectionType + " connection list : " + query);
+		String query = queryBuilder.getConnectionNumberKeysetQuery(tenantId, lastConnectionNo, batchsize, preparedStatement);
+		log.debug("Connection number keyset query : " + query + " Parameters: " + preparedStatement);
+		return jdbcTemplate.queryForList(query, preparedStatement.toArray(), String.class);
+	}
+
+	@Override
+	public List<WaterConnection> getConnectionsNoList(String tenantId, String connectionType, List<String> connectionNos, Long fromDate, Long toDate) {
+		if (connectionNos.isEmpty())
+			return Collections.emptyList();
+		List<Object> preparedStatement = new ArrayList<>();
+		String query = queryBuilder.getConnectionNumberList(tenantId, connectionType, preparedStatement, connectionNos, fromDate, toDate);
+		log.debug("water " + connectionType + " connection list : " + query);
 		return jdbcTemplate.query(query, preparedStatement.toArray(), waterRowMapper);
 	}
-	
+
+	@Override
+	public BulkBillCheckpoint getBulkBillCheckpoint(String tenantId, String businessService, Long fromDate, Long toDate) {
+		List<Object> preparedStatement = new ArrayList<>();
+		String query = queryBuilder.getBulkBillCheckpointSearchQuery(tenantId, businessService, fromDate, toDate, preparedStatement);
+		List<BulkBillCheckpoint> checkpoints = jdbcTemplate.query(query, preparedStatement.toArray(),
+				(rs, rowNum) -> BulkBillCheckpoint.builder()
+						.tenantId(rs.getString("tenantid"))
+						.businessService(rs.getString("businessservice"))
+						.fromDate(rs.getLong("fromdate"))
+						.toDate(rs.getLong("todate"))
+						.lastConnectionNo(rs.getString("lastconnectionno"))
+						.status(rs.getString("status"))
+						.lastModifiedTime(rs.getLong("lastmodifiedtime"))
+						.build());
+		return checkpoints.isEmpty() ? null : checkpoints.get(0);
+	}
+
+	/**
+	 * Written synchronously rather than through the persister so that the
+	 * cursor is durable before the next batch is published.
+	 */
+	@Override
+	public void saveBulkBillCheckpoint(BulkBillCheckpoint checkpoint) {
+		jdbcTemplate.update(queryBuilder.getBulkBillCheckpointUpsertQuery(), checkpoint.getTenantId(),
+				checkpoint.getBusinessService(), checkpoint.getFromDate(), checkpoint.getToDate(),
+				checkpoint.getLastConnectionNo(), checkpoint.getStatus(), checkpoint.getLastModifiedTime());
+	}
+
 	@Override
 	public List<WaterConnection> getConnectionsNoListForDemand(String tenantId, String connectionType, Long fromDate, Long toDate) {
 		List<Object> preparedStatement = new ArrayList<>();
@@ -175,16 +214,4 @@ public class WSCalculationDaoImpl implements WSCalculationDao {
 		return jdbcTemplate.queryForObject(query, preparedStatement.toArray(), Integer.class);
 	}
 	
-	@Override
-	public long getConnectionCount(String tenantid, Long fromDate, Long toDate){
-		//List<Object> preparedStatement = new ArrayList<>();
-		String query = queryBuilder.getCountQuery();
-		//preparedStatement.add(tenantid);
-		/*preparedStatement.add(fromDate);
-		preparedStatement.add(toDate);
-		preparedStatement.add(tenantid);*/
-
-		long count = jdbcTemplate.queryForObject(query, Integer.class);
-		return count;
-	}
 }
@@ -1,5 +1,6 @@
 package org.egov.wscalculation.repository.builder;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -35,7 +36,14 @@ public class WSCalculatorQueryBuilder {
 
 	private static final String distinctTenantIdsCriteria = "SELECT distinct(tenantid) FROM eg_ws_connection ws";
 
-	private  static final String countQuery = "select count(*) from eg_ws_connection";
+	private static final String connectionNoKeysetQuery = "SELECT DISTINCT connectionno FROM eg_ws_connection WHERE tenantid = ? AND connectionno IS NOT NULL AND connectionno > ? ORDER BY connectionno LIMIT ?";
+
+	private static final String bulkBillCheckpointSearchQuery = "SELECT tenantid, businessservice, fromdate, todate, lastconnectionno, status, lastmodifiedtime FROM eg_ws_bulkbill_checkpoint"
+			+ " WHERE tenantid = ? AND businessservice = ? AND fromdate = ? AND todate = ?";
+
+	private static final String bulkBillCheckpointUpsertQuery = "INSERT INTO eg_ws_bulkbill_checkpoint (tenantid, businessservice, fromdate, todate, lastconnectionno, status, lastmodifiedtime)"
+			+ " VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (tenantid, businessservice, fromdate, todate) DO UPDATE SET"
+			+ " lastconnectionno = EXCLUDED.lastconnectionno, status = EXCLUDED.status, lastmodifiedtime = EXCLUDED.lastmodifiedtime";
 
 	private static String holderSelectValues = "connectionholder.tenantid as holdertenantid, connectionholder.connectionid as holderapplicationId, userid, connectionholder.status as holderstatus, isprimaryholder, connectionholdertype, holdershippercentage, connectionholder.relationship as holderrelationship, connectionholder.createdby as holdercreatedby, connectionholder.createdtime as holdercreatedtime, connectionholder.lastmodifiedby as holderlastmodifiedby, connectionholder.lastmodifiedtime as holderlastmodifiedtime";
 
@@ -109,10 +117,6 @@ public class WSCalculatorQueryBuilder {
 		return distinctTenantIdsCriteria;
 	}
 	
-	public String getCountQuery() {
-		return countQuery;
-	}
-	
 	/**
 	 * 
 	 * @param criteria
@@ -246,36 +250,49 @@ public class WSCalculatorQueryBuilder {
 	}
 	
 	
-	public String getConnectionNumberList(String tenantId, String connectionType, List<Object> preparedStatement, Integer batchOffset, Integer batchsize, Long fromDate, Long toDate) {
-		//StringBuilder query = new StringBuilder(connectionNoListQuery);
-		//StringBuilder query = new StringBuilder(connectionNoListQuery);
+	/**
+	 * Keyset page of connection numbers for bulk demand generation. Unlike
+	 * OFFSET paging the cost of a page does not grow with its position.
+	 */
+	public String getConnectionNumberKeysetQuery(String tenantId, String lastConnectionNo, Integer batchsize, List<Object> preparedStatement) {
+		preparedStatement.add(tenantId);
+		preparedStatement.add(lastConnectionNo == null ? "" : lastConnectionNo);
+		preparedStatement.add(batchsize);
+		return connectionNoKeysetQuery;
+	}
+
+	public String getConnectionNumberList(String tenantId, String connectionType, List<Object> preparedStatement, List<String> connectionNos, Long fromDate, Long toDate) {
 		StringBuilder query = new StringBuilder(WATER_SEARCH_QUERY);
-		// Add connection type
 		addClauseIfRequired(preparedStatement, query);
 		query.append(" wc.connectiontype = ? ");
 		preparedStatement.add(connectionType);
-		// add tenantid
 		addClauseIfRequired(preparedStatement, query);
 		query.append(" conn.tenantid = ? ");
 		preparedStatement.add(tenantId);
-		addClauseIfRequired(preparedStatement, query);
-		query.append(" conn.connectionno is not null");
-		
+
 		addClauseIfRequired(preparedStatement, query);
 		query.append(" conn.connectionno NOT IN (select distinct(consumercode) from egbs_demand_v1 dmd where (dmd.taxperiodfrom >= ? and dmd.taxperiodto <= ?) and businessservice = 'WS' and tenantid=?)");
 		preparedStatement.add(fromDate);
 		preparedStatement.add(toDate);
 		preparedStatement.add(tenantId);
-		
+
+		Set<String> connectionNoSet = new HashSet<>(connectionNos);
 		addClauseIfRequired(preparedStatement, query);
-		String orderbyClause = " conn.connectionno IN (select connectionno FROM eg_ws_connection where tenantid=? and connectionno is not null ORDER BY connectionno OFFSET ? LIMIT ?)";
+		query.append(" conn.connectionno IN (").append(createQuery(connectionNoSet)).append(" )");
+		addToPreparedStatement(preparedStatement, connectionNoSet);
+		return query.toString();
+	}
+
+	public String getBulkBillCheckpointSearchQuery(String tenantId, String businessService, Long fromDate, Long toDate, List<Object> preparedStatement) {
 		preparedStatement.add(tenantId);
-		preparedStatement.add(batchOffset);
-		preparedStatement.add(batchsize);
-		query.append(orderbyClause);
+		preparedStatement.add(businessService);
+		preparedStatement.add(fromDate);
+		preparedStatement.add(toDate);
+		return bulkBillCheckpointSearchQuery;
+	}
 
-		return query.toString();
-		
+	public String getBulkBillCheckpointUpsertQuery() {
+		return bulkBillCheckpointUpsertQuery;
 	}
 
 	public String getConnectionNumberListForDemand(String tenantId, String connectionType, List<Object> preparedStatement, Long fromDate, Long toDate) {
@@ -6,6 +6,10 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -14,6 +18,7 @@ import org.egov.common.contract.request.RequestInfo;
 import org.egov.common.contract.request.User;
 import org.egov.mdms.model.MdmsCriteriaReq;
 import org.egov.tracer.model.CustomException;
+import org.egov.wscalculation.config.WSCalculationConfiguration;
 import org.egov.wscalculation.constants.WSCalculationConstant;
 import org.egov.wscalculation.util.WaterCessUtil;
 import org.egov.wscalculation.web.models.*;
@@ -21,6 +26,7 @@ import org.egov.wscalculation.repository.ServiceRequestRepository;
 import org.egov.wscalculation.repository.WSCalculationDao;
 import org.egov.wscalculation.util.CalculatorUtil;
 import org.egov.wscalculation.util.WSCalculationUtil;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -66,6 +72,9 @@ public class WSCalculationServiceImpl implements WSCalculationService {
 	@Autowired
 	private ObjectMapper mapper;
 
+	@Autowired
+	private WSCalculationConfiguration configs;
+
 	@Autowired
 	private WaterCessUtil waterCessUtil;
 
@@ -393,9 +402,42 @@ public class WSCalculationServiceImpl implements WSCalculationService {
 		if (tenantIds.isEmpty())
 			return;
 		log.info("Tenant Ids : " + tenantIds);
-		tenantIds.forEach(tenantId -> {
-			demandService.generateDemandForTenantId(tenantId, requestInfo, bulkBillCriteria);
-		});
+
+		/*
+		 * Each tenant is an independent partition with its own checkpoint, so
+		 * tenants are generated concurrently on a bounded pool. RequestInfo is
+		 * copied per tenant because generation sets the tenant on the user.
+		 */
+		int poolSize = Math.min(tenantIds.size(), configs.getBulkDemandWorkerPoolSize());
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+		Map<String, Future<?>> tenantResults = new LinkedHashMap<>();
+		try {
+			for (String tenantId : tenantIds) {
+				RequestInfo tenantRequestInfo = mapper.convertValue(requestInfo, RequestInfo.class);
+				tenantResults.put(tenantId, executor.submit(() -> {
+					if (mdcContext != null)
+						MDC.setContextMap(mdcContext);
+					try {
+						demandService.generateDemandForTenantId(tenantId, tenantRequestInfo, bulkBillCriteria);
+					} finally {
+						MDC.clear();
+					}
+				}));
+			}
+			for (Map.Entry<String, Future<?>> result : tenantResults.entrySet()) {
+				try {
+					result.getValue().get();
+				} catch (ExecutionException e) {
+					log.error("Bulk demand generation failed for tenant " + result.getKey(), e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Bulk demand generation interrupted", e);
+		} finally {
+			executor.shutdown();
+		}
 	}
 	
 	public List<WaterConnection> getConnnectionWithPendingDemand(RequestInfo requestInfo, BulkBillCriteria bulkBillCriteria)
@@ -0,0 +1,35 @@
+package org.egov.wscalculation.web.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of bulk demand generation for one tenant and billing period.
+ * lastConnectionNo is the keyset cursor a restarted run resumes from.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkBillCheckpoint {
+
+	public static final String STATUS_INPROGRESS = "INPROGRESS";
+
+	public static final String STATUS_COMPLETED = "COMPLETED";
+
+	private String tenantId;
+
+	private String businessService;
+
+	private Long fromDate;
+
+	private Long toDate;
+
+	private String lastConnectionNo;
+
+	private String status;
+
+	private Long lastModifiedTime;
+}